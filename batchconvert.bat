@@ -0,0 +1,3 @@
+@echo off
+pushd "%~dp0" 
+bin\java.exe --module-path lib -m openxliff/com.maxprograms.converters.BatchConvert %* 
\ No newline at end of file
@@ -13,11 +13,13 @@
 package com.maxprograms.converters;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.text.MessageFormat;
 import java.util.Iterator;
 import java.util.List;
@@ -26,12 +28,7 @@ import javax.xml.parsers.ParserConfigurationException;
 
 import org.xml.sax.SAXException;
 
-import com.maxprograms.xml.Catalog;
-import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
-import com.maxprograms.xml.Indenter;
-import com.maxprograms.xml.SAXBuilder;
-import com.maxprograms.xml.XMLOutputter;
 
 public class ApproveAll {
 
@@ -93,16 +90,27 @@ public class ApproveAll {
 
     public static void approveAll(String xliff, String catalog)
             throws IOException, SAXException, ParserConfigurationException, URISyntaxException {
-        SAXBuilder builder = new SAXBuilder();
-        builder.setEntityResolver(new Catalog(catalog));
-        Document doc = builder.build(xliff);
-        Element root = doc.getRootElement();
-        recurse(root);
-        Indenter.indent(root, 2);
-        XMLOutputter outputter = new XMLOutputter();
-        outputter.preserveSpace(true);
-        try (FileOutputStream out = new FileOutputStream(xliff)) {
-            outputter.output(doc, out);
+        File source = new File(xliff).getAbsoluteFile();
+        File tmp = File.createTempFile("approve", ".xlf", source.getParentFile());
+        try {
+            try (XliffUnitReader reader = new XliffUnitReader(xliff, catalog);
+                    OutputStream out = new Utf8OutputStream(tmp)) {
+                reader.setOutput(out);
+                int event = reader.next();
+                while (event != XliffUnitReader.END) {
+                    if (event == XliffUnitReader.UNIT) {
+                        Element unit = reader.getUnit();
+                        if (reader.isTranslatable()) {
+                            recurse(unit);
+                        }
+                        reader.writeUnit(unit);
+                    }
+                    event = reader.next();
+                }
+            }
+            Files.move(tmp.toPath(), source.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
         }
     }
 
@@ -0,0 +1,479 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.converters;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+public class BatchConvert {
+
+	private static Logger logger = System.getLogger(BatchConvert.class.getName());
+
+	public static final String SKIPPED = "Skipped";
+
+	private BatchConvert() {
+		// do not instantiate this class
+		// use run or main methods instead
+	}
+
+	public static void main(String[] args) {
+
+		String[] arguments = Utils.fixPath(args);
+
+		String folder = "";
+		String pattern = "";
+		String list = "";
+		String type = "";
+		String enc = "";
+		String srcLang = "";
+		String tgtLang = "";
+		String srx = "";
+		String catalog = "";
+		String ditaval = "";
+		String config = "";
+		String xmlfilter = "";
+		String report = "";
+		int threads = Runtime.getRuntime().availableProcessors();
+		boolean embed = false;
+		boolean paragraph = false;
+		boolean ignoretc = false;
+		boolean xliff20 = false;
+		boolean failFast = false;
+
+		for (int i = 0; i < arguments.length; i++) {
+			String arg = arguments[i];
+			if (arg.equals("-version")) {
+				MessageFormat mf = new MessageFormat(Messages.getString("Convert.02"));
+				logger.log(Level.INFO, mf.format(new String[] { Constants.VERSION, Constants.BUILD }));
+				return;
+			}
+			if (arg.equals("-help")) {
+				help();
+				return;
+			}
+			if (arg.equals("-folder") && (i + 1) < arguments.length) {
+				folder = arguments[i + 1];
+			}
+			if (arg.equals("-pattern") && (i + 1) < arguments.length) {
+				pattern = arguments[i + 1];
+			}
+			if (arg.equals("-list") && (i + 1) < arguments.length) {
+				list = arguments[i + 1];
+			}
+			if (arg.equals("-type") && (i + 1) < arguments.length) {
+				type = arguments[i + 1];
+			}
+			if (arg.equals("-enc") && (i + 1) < arguments.length) {
+				enc = arguments[i + 1];
+			}
+			if (arg.equals("-srcLang") && (i + 1) < arguments.length) {
+				srcLang = arguments[i + 1];
+			}
+			if (arg.equals("-tgtLang") && (i + 1) < arguments.length) {
+				tgtLang = arguments[i + 1];
+			}
+			if (arg.equals("-srx") && (i + 1) < arguments.length) {
+				srx = arguments[i + 1];
+			}
+			if (arg.equals("-catalog") && (i + 1) < arguments.length) {
+				catalog = arguments[i + 1];
+			}
+			if (arg.equals("-ditaval") && (i + 1) < arguments.length) {
+				ditaval = arguments[i + 1];
+			}
+			if (arg.equals("-config") && (i + 1) < arguments.length) {
+				config = arguments[i + 1];
+			}
+			if (arg.equals("-xmlfilter") && (i + 1) < arguments.length) {
+				xmlfilter = arguments[i + 1];
+			}
+			if (arg.equals("-report") && (i + 1) < arguments.length) {
+				report = arguments[i + 1];
+			}
+			if (arg.equals("-threads") && (i + 1) < arguments.length) {
+				try {
+					threads = Integer.parseInt(arguments[i + 1]);
+				} catch (NumberFormatException e) {
+					threads = 0;
+				}
+			}
+			if (arg.equals("-embed")) {
+				embed = true;
+			}
+			if (arg.equals("-paragraph")) {
+				paragraph = true;
+			}
+			if (arg.equals("-ignoretc")) {
+				ignoretc = true;
+			}
+			if (arg.equals("-2.0")) {
+				xliff20 = true;
+			}
+			if (arg.equals("-failFast")) {
+				failFast = true;
+			}
+		}
+		if (arguments.length < 4) {
+			help();
+			return;
+		}
+		if (folder.isEmpty() && list.isEmpty()) {
+			logger.log(Level.ERROR, Messages.getString("BatchConvert.01"));
+			return;
+		}
+		if (threads < 1) {
+			logger.log(Level.ERROR, Messages.getString("BatchConvert.02"));
+			return;
+		}
+		if (!type.isEmpty()) {
+			type = FileFormats.getFullName(type);
+			if (type == null) {
+				logger.log(Level.ERROR, Messages.getString("Convert.07"));
+				return;
+			}
+		}
+		if (srcLang.isEmpty()) {
+			logger.log(Level.ERROR, Messages.getString("Convert.11"));
+			return;
+		}
+		try {
+			if (!Utils.isValidLanguage(srcLang)) {
+				MessageFormat mf = new MessageFormat(Messages.getString("Convert.12"));
+				logger.log(Level.WARNING, mf.format(new String[] { srcLang }));
+			}
+			if (!tgtLang.isEmpty() && !Utils.isValidLanguage(tgtLang)) {
+				MessageFormat mf = new MessageFormat(Messages.getString("Convert.12"));
+				logger.log(Level.WARNING, mf.format(new String[] { tgtLang }));
+			}
+		} catch (IOException e) {
+			logger.log(Level.ERROR, Messages.getString("Convert.14"), e);
+			return;
+		}
+		String home = System.getenv("OpenXLIFF_HOME");
+		if (home == null) {
+			home = System.getProperty("user.dir");
+		}
+		if (srx.isEmpty()) {
+			srx = new File(new File(home, "srx"), "default.srx").getAbsolutePath();
+		}
+		File srxFile = new File(srx);
+		if (!srxFile.exists()) {
+			MessageFormat mf = new MessageFormat(Messages.getString("Convert.15"));
+			logger.log(Level.ERROR, mf.format(new String[] { srxFile.getAbsolutePath() }));
+			return;
+		}
+		if (xmlfilter.isEmpty()) {
+			xmlfilter = new File(home, "xmlfilter").getAbsolutePath();
+		}
+		if (catalog.isEmpty()) {
+			File catalogFolder = new File(home, "catalog");
+			if (!catalogFolder.exists()) {
+				logger.log(Level.ERROR, Messages.getString("Convert.16"));
+				return;
+			}
+			catalog = new File(catalogFolder, "catalog.xml").getAbsolutePath();
+		}
+		if (!new File(catalog).exists()) {
+			logger.log(Level.ERROR, Messages.getString("Convert.17"));
+			return;
+		}
+		boolean mustResegment = false;
+		if (xliff20 && !paragraph && config.isEmpty()) {
+			mustResegment = true;
+			paragraph = true;
+		}
+
+		List<String> files = new ArrayList<>();
+		try {
+			if (!folder.isEmpty()) {
+				files.addAll(listFiles(folder, pattern));
+			}
+			if (!list.isEmpty()) {
+				files.addAll(readList(list));
+			}
+		} catch (IOException e) {
+			logger.log(Level.ERROR, Messages.getString("BatchConvert.03"), e);
+			return;
+		}
+
+		Map<String, String> params = new HashMap<>();
+		if (!type.isEmpty()) {
+			params.put("format", type);
+		}
+		if (!enc.isEmpty()) {
+			params.put("srcEncoding", enc);
+		}
+		params.put("catalog", catalog);
+		params.put("paragraph", paragraph ? "yes" : "no");
+		params.put("ignoretc", ignoretc ? "yes" : "no");
+		params.put("srxFile", srx);
+		params.put("srcLang", srcLang);
+		params.put("xmlfilter", xmlfilter);
+		if (!tgtLang.isEmpty()) {
+			params.put("tgtLang", tgtLang);
+		}
+		if (!ditaval.isEmpty()) {
+			params.put("ditaval", ditaval);
+		}
+		if (!config.isEmpty()) {
+			params.put("config", config);
+		}
+		if (embed) {
+			params.put("embed", "yes");
+		}
+		if (mustResegment) {
+			params.put("resegment", "yes");
+		}
+		if (xliff20) {
+			params.put("xliff20", "yes");
+		}
+
+		JSONObject result = run(files, params, threads, failFast);
+
+		JSONArray statuses = result.getJSONArray("files");
+		for (int i = 0; i < statuses.length(); i++) {
+			JSONObject status = statuses.getJSONObject(i);
+			if (Constants.ERROR.equals(status.getString("status"))) {
+				MessageFormat mf = new MessageFormat(Messages.getString("BatchConvert.04"));
+				logger.log(Level.ERROR, mf.format(new String[] { status.getString("file"), status.getString("reason") }));
+			}
+		}
+		MessageFormat mf = new MessageFormat(Messages.getString("BatchConvert.05"));
+		logger.log(Level.INFO,
+				mf.format(new String[] { "" + result.getInt("total"), "" + result.getInt("converted"),
+						"" + result.getInt("failed"), "" + result.getInt("skipped"),
+						"" + result.getLong("time") }));
+		if (!report.isEmpty()) {
+			try {
+				Files.writeString(new File(report).toPath(), result.toString(2), StandardCharsets.UTF_8);
+			} catch (IOException e) {
+				logger.log(Level.ERROR, Messages.getString("BatchConvert.06"), e);
+			}
+		}
+	}
+
+	private static void help() {
+		MessageFormat mf = new MessageFormat(Messages.getString("BatchConvert.help"));
+		String help = mf.format(
+				new String[] { "\\".equals(File.pathSeparator) ? "batchconvert.bat" : "batchconvert.sh" });
+		System.out.println(help);
+	}
+
+	public static List<String> listFiles(String folder, String pattern) throws IOException {
+		Path root = new File(folder).getAbsoluteFile().toPath();
+		PathMatcher matcher = null;
+		if (!pattern.isEmpty()) {
+			matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+		}
+		List<String> result = new ArrayList<>();
+		try (Stream<Path> stream = Files.walk(root)) {
+			Iterator<Path> it = stream.iterator();
+			while (it.hasNext()) {
+				Path path = it.next();
+				if (!Files.isRegularFile(path)) {
+					continue;
+				}
+				String name = path.getFileName().toString();
+				if ((name.endsWith(".xlf") || name.endsWith(".skl"))
+						&& Files.isRegularFile(path.resolveSibling(name.substring(0, name.length() - 4)))) {
+					// XLIFF or skeleton generated from a file of the folder
+					continue;
+				}
+				if (matcher != null && !matcher.matches(root.relativize(path)) && !matcher.matches(path.getFileName())) {
+					continue;
+				}
+				result.add(path.toString());
+			}
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	public static List<String> readList(String listFile) throws IOException {
+		File list = new File(listFile).getAbsoluteFile();
+		List<String> lines = Files.readAllLines(list.toPath(), StandardCharsets.UTF_8);
+		List<String> result = new ArrayList<>();
+		Iterator<String> it = lines.iterator();
+		while (it.hasNext()) {
+			String line = it.next().strip();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			File file = new File(line);
+			if (!file.isAbsolute()) {
+				file = new File(list.getParentFile(), line);
+			}
+			result.add(file.getAbsolutePath());
+		}
+		return result;
+	}
+
+	public static JSONObject run(List<String> files, Map<String, String> params, int threads, boolean failFast) {
+		long started = System.currentTimeMillis();
+		AtomicBoolean stop = new AtomicBoolean(false);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<JSONObject>> futures = new ArrayList<>();
+		try {
+			Iterator<String> it = files.iterator();
+			while (it.hasNext()) {
+				String file = it.next();
+				Callable<JSONObject> job = () -> {
+					if (stop.get()) {
+						return status(file, SKIPPED, "");
+					}
+					long start = System.currentTimeMillis();
+					JSONObject status = convert(file, params);
+					status.put("time", System.currentTimeMillis() - start);
+					if (failFast && Constants.ERROR.equals(status.getString("status"))) {
+						stop.set(true);
+					}
+					return status;
+				};
+				futures.add(pool.submit(job));
+			}
+			JSONArray array = new JSONArray();
+			int converted = 0;
+			int failed = 0;
+			int skipped = 0;
+			for (int i = 0; i < futures.size(); i++) {
+				JSONObject status;
+				try {
+					status = futures.get(i).get();
+				} catch (ExecutionException e) {
+					status = status(files.get(i), Constants.ERROR, e.getCause().getMessage());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					status = status(files.get(i), SKIPPED, "");
+				}
+				String code = status.getString("status");
+				if (Constants.SUCCESS.equals(code)) {
+					converted++;
+				} else if (Constants.ERROR.equals(code)) {
+					failed++;
+				} else {
+					skipped++;
+				}
+				array.put(status);
+			}
+			JSONObject result = new JSONObject();
+			result.put("total", files.size());
+			result.put("converted", converted);
+			result.put("failed", failed);
+			result.put("skipped", skipped);
+			result.put("time", System.currentTimeMillis() - started);
+			result.put("files", array);
+			return result;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private static JSONObject convert(String source, Map<String, String> template) {
+		Map<String, String> params = new HashMap<>();
+		params.putAll(template);
+		params.put("source", source);
+		return convert(params);
+	}
+
+	/**
+	 * Converts the file set in the "source" parameter, detecting its format and
+	 * character set when "format" and "srcEncoding" are not set. The XLIFF and
+	 * skeleton files are created next to the source file unless "xliff" and
+	 * "skeleton" are set. Other parameters are passed to
+	 * {@link Convert#run(Map)} as they are.
+	 */
+	public static JSONObject convert(Map<String, String> template) {
+		String source = template.get("source");
+		try {
+			Map<String, String> params = new HashMap<>();
+			params.putAll(template);
+			File sourceFile = new File(source);
+			if (!sourceFile.exists()) {
+				return status(source, Constants.ERROR, Messages.getString("Convert.04"));
+			}
+			String type = params.get("format");
+			DetectedFormat detected = null;
+			if (type == null) {
+				detected = FileFormats.detect(source);
+				if (detected == null) {
+					return status(source, Constants.ERROR, Messages.getString("Convert.06"));
+				}
+				type = detected.getFormat();
+				params.put("format", type);
+			}
+			if (!params.containsKey("srcEncoding")) {
+				Charset charset = detected != null ? detected.getCharset()
+						: EncodingResolver.getEncoding(source, type);
+				if (charset == null) {
+					return status(source, Constants.ERROR, Messages.getString("Convert.09"));
+				}
+				params.put("srcEncoding", charset.name());
+			}
+			if (!FileFormats.DITA.equals(type)) {
+				params.remove("ditaval");
+			}
+			if (!FileFormats.JSON.equals(type)) {
+				params.remove("config");
+			}
+			params.put("source", sourceFile.getAbsolutePath());
+			if (!params.containsKey("xliff")) {
+				params.put("xliff", sourceFile.getAbsolutePath() + ".xlf");
+			}
+			if (!params.containsKey("skeleton")) {
+				params.put("skeleton", sourceFile.getAbsolutePath() + ".skl");
+			}
+			List<String> result = Convert.run(params);
+			JSONObject status = status(source, result.get(0),
+					Constants.SUCCESS.equals(result.get(0)) ? "" : result.get(1));
+			status.put("format", type);
+			return status;
+		} catch (RuntimeException e) {
+			logger.log(Level.ERROR, e);
+			return status(source, Constants.ERROR, e.getMessage() != null ? e.getMessage() : e.toString());
+		}
+	}
+
+	private static JSONObject status(String file, String status, String reason) {
+		JSONObject result = new JSONObject();
+		result.put("file", file);
+		result.put("status", status);
+		if (reason != null && !reason.isEmpty()) {
+			result.put("reason", reason);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.converters;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.xml.sax.SAXException;
+
+import com.maxprograms.xml.Catalog;
+
+public class CatalogCache {
+
+	// Catalog keeps the state of the document being parsed, instances can be
+	// reused by consecutive jobs but not shared between threads
+	private static ThreadLocal<Map<String, CachedCatalog>> catalogs = ThreadLocal.withInitial(HashMap::new);
+
+	private CatalogCache() {
+		// do not instantiate this class
+		// use public static methods instead
+	}
+
+	public static Catalog getCatalog(String catalogFile)
+			throws SAXException, IOException, ParserConfigurationException, URISyntaxException {
+		File file = new File(catalogFile);
+		String key = file.getCanonicalPath();
+		long modified = file.lastModified();
+		Map<String, CachedCatalog> map = catalogs.get();
+		CachedCatalog cached = map.get(key);
+		if (cached == null || cached.modified != modified) {
+			cached = new CachedCatalog(new Catalog(catalogFile), modified);
+			map.put(key, cached);
+		}
+		return cached.catalog;
+	}
+
+	public static void clear() {
+		catalogs.remove();
+	}
+
+	private static class CachedCatalog {
+
+		Catalog catalog;
+		long modified;
+
+		CachedCatalog(Catalog catalog, long modified) {
+			this.catalog = catalog;
+			this.modified = modified;
+		}
+	}
+}
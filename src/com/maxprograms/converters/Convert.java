@@ -12,7 +12,6 @@
 package com.maxprograms.converters;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
@@ -33,32 +32,7 @@ import java.util.SortedMap;
 
 import javax.xml.parsers.ParserConfigurationException;
 
-import com.maxprograms.converters.ditamap.DitaMap2Xliff;
-import com.maxprograms.converters.html.Html2Xliff;
-import com.maxprograms.converters.idml.Idml2Xliff;
-import com.maxprograms.converters.idml.Story2Xliff;
-import com.maxprograms.converters.javaproperties.Properties2Xliff;
-import com.maxprograms.converters.javascript.Jscript2xliff;
-import com.maxprograms.converters.json.Json2Xliff;
-import com.maxprograms.converters.mif.Mif2Xliff;
-import com.maxprograms.converters.office.Office2Xliff;
-import com.maxprograms.converters.php.Php2Xliff;
-import com.maxprograms.converters.plaintext.Text2Xliff;
-import com.maxprograms.converters.po.Po2Xliff;
-import com.maxprograms.converters.rc.Rc2Xliff;
-import com.maxprograms.converters.resx.Resx2Xliff;
-import com.maxprograms.converters.sdlppx.Sdlppx2Xliff;
-import com.maxprograms.converters.sdlxliff.Sdl2Xliff;
-import com.maxprograms.converters.srt.Srt2Xliff;
-import com.maxprograms.converters.ts.Ts2Xliff;
-import com.maxprograms.converters.txlf.Txlf2Xliff;
-import com.maxprograms.converters.txml.Txml2Xliff;
-import com.maxprograms.converters.wpml.Wpml2Xliff;
-import com.maxprograms.converters.xliff.ToOpenXliff;
-import com.maxprograms.converters.xml.Xml2Xliff;
-import com.maxprograms.xliff2.Resegmenter;
 import com.maxprograms.xliff2.ToXliff2;
-import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.Indenter;
@@ -92,6 +66,7 @@ public class Convert {
 		boolean ignoretc = false;
 		boolean xliff20 = false;
 		boolean mustResegment = false;
+		int threads = 1;
 
 		for (int i = 0; i < arguments.length; i++) {
 			String arg = arguments[i];
@@ -156,6 +131,13 @@ public class Convert {
 			if (arg.equals("-2.0")) {
 				xliff20 = true;
 			}
+			if (arg.equals("-threads") && (i + 1) < arguments.length) {
+				try {
+					threads = Integer.parseInt(arguments[i + 1]);
+				} catch (NumberFormatException e) {
+					threads = 0;
+				}
+			}
 		}
 		if (arguments.length < 4) {
 			help();
@@ -165,15 +147,20 @@ public class Convert {
 			logger.log(Level.ERROR, Messages.getString("Convert.03"));
 			return;
 		}
+		if (threads < 1) {
+			logger.log(Level.ERROR, Messages.getString("Convert.21"));
+			return;
+		}
 		File sourceFile = new File(source);
 		if (!sourceFile.exists()) {
 			logger.log(Level.ERROR, Messages.getString("Convert.04"));
 			return;
 		}
+		DetectedFormat detected = null;
 		if (type.isEmpty()) {
-			String detected = FileFormats.detectFormat(source);
+			detected = FileFormats.detect(source);
 			if (detected != null) {
-				type = FileFormats.getShortName(detected);
+				type = FileFormats.getShortName(detected.getFormat());
 				MessageFormat mf = new MessageFormat(Messages.getString("Convert.05"));
 				logger.log(Level.INFO, mf.format(new String[] { type }));
 			} else {
@@ -187,7 +174,7 @@ public class Convert {
 			return;
 		}
 		if (enc.isEmpty()) {
-			Charset charset = EncodingResolver.getEncoding(source, type);
+			Charset charset = detected != null ? detected.getCharset() : EncodingResolver.getEncoding(source, type);
 			if (charset != null) {
 				enc = charset.name();
 				MessageFormat mf = new MessageFormat(Messages.getString("Convert.08"));
@@ -286,6 +273,9 @@ public class Convert {
 		if (type.equals(FileFormats.getShortName(FileFormats.DITA)) && !ditaval.isEmpty()) {
 			params.put("ditaval", ditaval);
 		}
+		if (type.equals(FileFormats.getShortName(FileFormats.DITA)) && threads > 1) {
+			params.put("threads", "" + threads);
+		}
 		if (type.equals(FileFormats.getShortName(FileFormats.JSON)) && !config.isEmpty()) {
 			params.put("config", config);
 		}
@@ -316,7 +306,7 @@ public class Convert {
 		List<String> result = new ArrayList<>();
 		try {
 			SAXBuilder builder = new SAXBuilder();
-			builder.setEntityResolver(new Catalog(catalog));
+			builder.setEntityResolver(CatalogCache.getCatalog(catalog));
 			Document doc = builder.build(fileName);
 			Element root = doc.getRootElement();
 			List<Element> files = root.getChildren("file");
@@ -347,7 +337,7 @@ public class Convert {
 			XMLOutputter outputter = new XMLOutputter();
 			Indenter.indent(root, 2);
 			outputter.preserveSpace(true);
-			try (FileOutputStream out = new FileOutputStream(fileName)) {
+			try (Utf8OutputStream out = new Utf8OutputStream(fileName)) {
 				outputter.output(doc, out);
 			}
 			result.add(Constants.SUCCESS);
@@ -363,59 +353,9 @@ public class Convert {
 		List<String> result = new ArrayList<>();
 		try {
 			String format = params.get("format");
-			if (format.equals(FileFormats.INX)) {
-				params.put("InDesign", "yes");
-				result = Xml2Xliff.run(params);
-			} else if (format.equals(FileFormats.ICML)) {
-				params.put("from", "x-icml");
-				result = Story2Xliff.run(params);
-			} else if (format.equals(FileFormats.IDML)) {
-				result = Idml2Xliff.run(params);
-			} else if (format.equals(FileFormats.DITA)) {
-				result = DitaMap2Xliff.run(params);
-			} else if (format.equals(FileFormats.HTML)) {
-				result = Html2Xliff.run(params);
-			} else if (format.equals(FileFormats.JS)) {
-				result = Jscript2xliff.run(params);
-			} else if (format.equals(FileFormats.JSON)) {
-				result = Json2Xliff.run(params);
-			} else if (format.equals(FileFormats.JAVA)) {
-				result = Properties2Xliff.run(params);
-			} else if (format.equals(FileFormats.MIF)) {
-				result = Mif2Xliff.run(params);
-			} else if (format.equals(FileFormats.OO) || format.equals(FileFormats.OFF)) {
-				result = Office2Xliff.run(params);
-			} else if (format.equals(FileFormats.PHPA)) {
-				result = Php2Xliff.run(params);
-			} else if (format.equals(FileFormats.PO)) {
-				result = Po2Xliff.run(params);
-			} else if (format.equals(FileFormats.RC)) {
-				result = Rc2Xliff.run(params);
-			} else if (format.equals(FileFormats.RESX)) {
-				result = Resx2Xliff.run(params);
-			} else if (format.equals(FileFormats.SDLPPX)) {
-				result = Sdlppx2Xliff.run(params);
-			} else if (format.equals(FileFormats.SDLXLIFF)) {
-				result = Sdl2Xliff.run(params);
-			} else if (format.equals(FileFormats.SRT)) {
-				result = Srt2Xliff.run(params);
-			} else if (format.equals(FileFormats.TEXT)) {
-				result = Text2Xliff.run(params);
-			} else if (format.equals(FileFormats.TS)) {
-				result = Ts2Xliff.run(params);
-			} else if (format.equals(FileFormats.TXML)) {
-				result = Txml2Xliff.run(params);
-			} else if (format.equals(FileFormats.TXLF)) {
-				result = Txlf2Xliff.run(params);
-			} else if (format.equals(FileFormats.WPML)) {
-				result = Wpml2Xliff.run(params);
-			} else if (format.equals(FileFormats.XML)) {
-				result = Xml2Xliff.run(params);
-			} else if (format.equals(FileFormats.XMLG)) {
-				params.put("generic", "yes");
-				result = Xml2Xliff.run(params);
-			} else if (format.equals(FileFormats.XLIFF)) {
-				result = ToOpenXliff.run(params);
+			Converter converter = Converters.getConverter(format);
+			if (converter != null) {
+				result = converter.convert(params);
 			} else {
 				result.add(Constants.ERROR);
 				result.add(Messages.getString("Convert.20"));
@@ -424,10 +364,11 @@ public class Convert {
 				result = addSkeleton(params.get("xliff"), params.get("catalog"));
 			}
 			if ("yes".equals(params.get("xliff20")) && Constants.SUCCESS.equals(result.get(0))) {
-				result = ToXliff2.run(new File(params.get("xliff")), params.get("catalog"));
-				if ("yes".equals(params.get("resegment")) && Constants.SUCCESS.equals(result.get(0))) {
-					result = Resegmenter.run(params.get("xliff"), params.get("srxFile"), params.get("srcLang"),
-							new Catalog(params.get("catalog")));
+				if ("yes".equals(params.get("resegment"))) {
+					result = ToXliff2.run(new File(params.get("xliff")), params.get("catalog"), params.get("srxFile"),
+							params.get("srcLang"));
+				} else {
+					result = ToXliff2.run(new File(params.get("xliff")), params.get("catalog"));
 				}
 			}
 		} catch (Exception e) {
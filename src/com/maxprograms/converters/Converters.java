@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.converters;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.maxprograms.converters.ditamap.DitaMapConverter;
+import com.maxprograms.converters.html.HtmlConverter;
+import com.maxprograms.converters.idml.IcmlConverter;
+import com.maxprograms.converters.idml.IdmlConverter;
+import com.maxprograms.converters.javaproperties.PropertiesConverter;
+import com.maxprograms.converters.javascript.JavaScriptConverter;
+import com.maxprograms.converters.json.JsonConverter;
+import com.maxprograms.converters.mif.MifConverter;
+import com.maxprograms.converters.office.OfficeConverter;
+import com.maxprograms.converters.php.PhpConverter;
+import com.maxprograms.converters.plaintext.TextConverter;
+import com.maxprograms.converters.po.PoConverter;
+import com.maxprograms.converters.rc.RcConverter;
+import com.maxprograms.converters.resx.ResxConverter;
+import com.maxprograms.converters.sdlppx.SdlppxConverter;
+import com.maxprograms.converters.sdlxliff.SdlxliffConverter;
+import com.maxprograms.converters.srt.SrtConverter;
+import com.maxprograms.converters.ts.TsConverter;
+import com.maxprograms.converters.txlf.TxlfConverter;
+import com.maxprograms.converters.txml.TxmlConverter;
+import com.maxprograms.converters.wpml.WpmlConverter;
+import com.maxprograms.converters.xliff.XliffConverter;
+import com.maxprograms.converters.xml.XmlConverter;
+
+public class Converters {
+
+	private static final Map<String, Converter> registry = new HashMap<>();
+
+	static {
+		register(new XmlConverter(FileFormats.INX), FileFormats.INX, "x-inx");
+		register(new IcmlConverter(), FileFormats.ICML, "x-icml");
+		register(new IdmlConverter(), FileFormats.IDML, "x-idml");
+		register(new DitaMapConverter(), FileFormats.DITA, "x-ditamap");
+		register(new HtmlConverter(), FileFormats.HTML, "html");
+		register(new JavaScriptConverter(), FileFormats.JS, "javascript");
+		register(new JsonConverter(), FileFormats.JSON, "json");
+		register(new PropertiesConverter(), FileFormats.JAVA, "javapropertyresourcebundle",
+				"javalistresourcebundle");
+		register(new MifConverter(), FileFormats.MIF, "mif");
+		register(new OfficeConverter(), FileFormats.OFF, FileFormats.OO, "x-office");
+		register(new PhpConverter(), FileFormats.PHPA, "x-phparray");
+		register(new PoConverter(), FileFormats.PO, "po");
+		register(new RcConverter(), FileFormats.RC, "winres");
+		register(new ResxConverter(), FileFormats.RESX, "resx");
+		register(new SdlppxConverter(), FileFormats.SDLPPX, "x-sdlpackage");
+		register(new SdlxliffConverter(), FileFormats.SDLXLIFF, "x-sdlxliff");
+		register(new SrtConverter(), FileFormats.SRT, "x-srt");
+		register(new TextConverter(), FileFormats.TEXT, "plaintext");
+		register(new TsConverter(), FileFormats.TS, "x-ts");
+		register(new TxmlConverter(), FileFormats.TXML, "x-txml");
+		register(new TxlfConverter(), FileFormats.TXLF, "x-txlf");
+		register(new WpmlConverter(), FileFormats.WPML, "x-wpmlxliff");
+		register(new XmlConverter(FileFormats.XML), FileFormats.XML, "xml");
+		register(new XmlConverter(FileFormats.XMLG), FileFormats.XMLG);
+		register(new XliffConverter(), FileFormats.XLIFF, "x-xliff");
+	}
+
+	private Converters() {
+		// do not instantiate this class
+		// use getConverter method instead
+	}
+
+	private static void register(Converter converter, String... names) {
+		for (int i = 0; i < names.length; i++) {
+			registry.put(names[i], converter);
+		}
+	}
+
+	public static Converter getConverter(String format) {
+		Converter converter = registry.get(format);
+		if (converter == null && format.endsWith("json")) {
+			converter = registry.get(FileFormats.JSON);
+		}
+		return converter;
+	}
+}
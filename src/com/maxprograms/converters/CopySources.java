@@ -13,11 +13,13 @@
 package com.maxprograms.converters;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.text.MessageFormat;
 import java.util.Iterator;
 import java.util.List;
@@ -25,20 +27,15 @@ import java.util.Vector;
 
 import javax.xml.parsers.ParserConfigurationException;
 
-import com.maxprograms.xml.Catalog;
-import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
-import com.maxprograms.xml.Indenter;
-import com.maxprograms.xml.SAXBuilder;
+import com.maxprograms.xml.TextNode;
 import com.maxprograms.xml.XMLNode;
-import com.maxprograms.xml.XMLOutputter;
 
 import org.xml.sax.SAXException;
 
 public class CopySources {
 
     private static Logger logger = System.getLogger(CopySources.class.getName());
-    private static String version;
 
     public static void main(String[] args) {
 
@@ -96,29 +93,43 @@ public class CopySources {
 
     public static void copySources(String xliff, String catalog)
             throws SAXException, IOException, ParserConfigurationException, URISyntaxException {
-        SAXBuilder builder = new SAXBuilder();
-        builder.setEntityResolver(new Catalog(catalog));
-        Document doc = builder.build(xliff);
-        Element root = doc.getRootElement();
-        if (!"xliff".equals(root.getName())) {
-            throw new IOException(Messages.getString("CopySources.3"));
-        }
-        version = root.getAttributeValue("version");
-        recurse(root);
-        Indenter.indent(root, 2);
-        XMLOutputter outputter = new XMLOutputter();
-        outputter.preserveSpace(true);
-        try (FileOutputStream out = new FileOutputStream(xliff)) {
-            outputter.output(doc, out);
+        File source = new File(xliff).getAbsoluteFile();
+        File tmp = File.createTempFile("copy", ".xlf", source.getParentFile());
+        try {
+            try (XliffUnitReader reader = new XliffUnitReader(xliff, catalog);
+                    OutputStream out = new Utf8OutputStream(tmp)) {
+                Element root = reader.getRoot();
+                if (!"xliff".equals(root.getName())) {
+                    throw new IOException(Messages.getString("CopySources.3"));
+                }
+                String version = reader.getVersion();
+                if (version.startsWith("2.") && root.getAttributeValue("trgLang").isEmpty()) {
+                    throw new IOException(Messages.getString("CopySources.4"));
+                }
+                reader.setOutput(out);
+                int event = reader.next();
+                while (event != XliffUnitReader.END) {
+                    if (event == XliffUnitReader.START_FILE && version.startsWith("1.")
+                            && reader.getFile().getAttributeValue("target-language").isEmpty()) {
+                        throw new IOException(Messages.getString("CopySources.4"));
+                    }
+                    if (event == XliffUnitReader.UNIT) {
+                        Element unit = reader.getUnit();
+                        if (reader.isTranslatable()) {
+                            recurse(unit);
+                        }
+                        reader.writeUnit(unit);
+                    }
+                    event = reader.next();
+                }
+            }
+            Files.move(tmp.toPath(), source.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
         }
     }
 
-    private static void recurse(Element root) throws IOException {
-        if (("xliff".equals(root.getName()) && version.startsWith("2.") && root.getAttributeValue("trgLang").isEmpty())
-                || ("file".equals(root.getName()) && version.startsWith("1.")
-                        && root.getAttributeValue("target-language").isEmpty())) {
-            throw new IOException(Messages.getString("CopySources.4"));
-        }
+    private static void recurse(Element root) {
         if (("file".equals(root.getName()) || "group".equals(root.getName()) || "trans-unit".equals(root.getName())
                 || "unit".equals(root.getName()))
                 && "no".equals(root.getAttributeValue("translate"))) {
@@ -138,13 +149,19 @@ public class CopySources {
                 }
                 List<XMLNode> newContent = new Vector<>();
                 List<XMLNode> content = root.getContent();
+                XMLNode previous = null;
                 Iterator<XMLNode> it = content.iterator();
                 while (it.hasNext()) {
                     XMLNode node = it.next();
                     newContent.add(node);
                     if (node instanceof Element e && "source".equals(e.getName())) {
+                        if (previous instanceof TextNode space && space.getText().isBlank()) {
+                            // keep the indentation used for <source>
+                            newContent.add(new TextNode(space.getText()));
+                        }
                         newContent.add(target);
                     }
+                    previous = node;
                 }
                 root.setContent(newContent);
             }
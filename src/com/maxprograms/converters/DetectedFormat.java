@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.converters;
+
+import java.nio.charset.Charset;
+
+/**
+ * Result of {@link FileFormats#detect(String)}: the format of a file and its
+ * character set.
+ */
+public class DetectedFormat {
+
+	private String format;
+	private Charset charset;
+
+	DetectedFormat(String format, Charset charset) {
+		this.format = format;
+		this.charset = charset;
+	}
+
+	public String getFormat() {
+		return format;
+	}
+
+	public Charset getCharset() {
+		return charset;
+	}
+}
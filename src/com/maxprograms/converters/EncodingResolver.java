@@ -15,13 +15,11 @@
  */
 package com.maxprograms.converters;
 
-import java.io.BufferedReader;
-import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileReader;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Set;
 import java.util.StringTokenizer;
@@ -43,9 +41,38 @@ public class EncodingResolver {
 
 	private static Logger logger = System.getLogger(EncodingResolver.class.getName());
 
+	public static final int PREFIX_SIZE = 40960;
+
 	public static Charset getEncoding(String fileName, String fileType) {
 		if (fileType == null || fileName == null) {
 			return null;
+		}
+		byte[] prefix = new byte[0];
+		try {
+			prefix = readPrefix(fileName);
+		} catch (IOException e) {
+			// formats that need the file content report the error below
+		}
+		return getEncoding(prefix, fileType);
+	}
+
+	/**
+	 * Reads the first {@link #PREFIX_SIZE} bytes of a file, or the whole file if
+	 * it is smaller. Format and encoding detection only look at these bytes.
+	 */
+	public static byte[] readPrefix(String fileName) throws IOException {
+		try (FileInputStream input = new FileInputStream(fileName)) {
+			return input.readNBytes(PREFIX_SIZE);
+		}
+	}
+
+	/**
+	 * Same as {@link #getEncoding(String, String)}, using the bytes returned by
+	 * {@link #readPrefix(String)} instead of reading the file again.
+	 */
+	public static Charset getEncoding(byte[] prefix, String fileType) {
+		if (fileType == null || prefix == null) {
+			return null;
 		} else if (fileType.equals(FileFormats.OO) || fileType.equals(FileFormats.OFF)
 				|| fileType.equals(FileFormats.ICML) || fileType.equals(FileFormats.IDML)) {
 			return StandardCharsets.UTF_8;
@@ -55,34 +82,25 @@ public class EncodingResolver {
 			return StandardCharsets.ISO_8859_1;
 		} else if (fileType.equals(FileFormats.PO)) {
 			return StandardCharsets.UTF_8;
-		} else if (fileType.equals(FileFormats.XML) || fileType.equals(FileFormats.XMLG)
-				|| fileType.equals(FileFormats.TXML) || fileType.equals(FileFormats.TXLF)
-				|| fileType.equals(FileFormats.RESX) || fileType.equals(FileFormats.INX)
-				|| fileType.equals(FileFormats.TS) || fileType.equals(FileFormats.DITA)
-				|| fileType.equals(FileFormats.SDLXLIFF) || fileType.equals(FileFormats.WPML)
-				|| fileType.equals(FileFormats.XLIFF)) {
+		} else if (isXML(fileType)) {
 			try {
-				return getXMLEncoding(fileName);
+				return getXMLEncoding(prefix);
 			} catch (IOException e) {
 				logger.log(Level.ERROR, Messages.getString("EncodingResolver.1"), e);
 			}
 		} else if (fileType.equals(FileFormats.SDLPPX)) {
 			return StandardCharsets.UTF_8;
 		} else if (fileType.equals(FileFormats.RC)) {
-			try {
-				return getRCEncoding(fileName);
-			} catch (IOException e) {
-				logger.log(Level.ERROR, Messages.getString("EncodingResolver.2"), e);
-			}
+			return getRCEncoding(prefix);
 		} else if (fileType.equals(FileFormats.HTML)) {
 			try {
-				return getHTMLEncoding(fileName);
+				return getHTMLEncoding(prefix);
 			} catch (IOException e) {
 				logger.log(Level.ERROR, Messages.getString("EncodingResolver.3"), e);
 			}
 		} else if (fileType.equals(FileFormats.SRT)) {
 			try {
-				Charset bom = getBOM(fileName);
+				Charset bom = getBOM(prefix);
 				if (bom != null) {
 					return bom;
 				}
@@ -92,7 +110,7 @@ public class EncodingResolver {
 			}
 		} else if (fileType.equals(FileFormats.PHPA)) {
 			try {
-				Charset bom = getBOM(fileName);
+				Charset bom = getBOM(prefix);
 				if (bom != null) {
 					return bom;
 				}
@@ -102,7 +120,7 @@ public class EncodingResolver {
 			}
 		} else if (fileType.equals(FileFormats.JSON)) {
 			try {
-				return getJSONEncoding(fileName);
+				return getJSONEncoding(prefix);
 			} catch (IOException e) {
 				logger.log(Level.ERROR, Messages.getString("EncodingResolver.6"), e);
 			}
@@ -110,9 +128,21 @@ public class EncodingResolver {
 		return null;
 	}
 
-	private static Charset getHTMLEncoding(String fileName) throws IOException {
-		File f = new File(fileName);
-		Document doc = Jsoup.parse(f, StandardCharsets.UTF_8.name());
+	static boolean isXML(String fileType) {
+		return fileType.equals(FileFormats.XML) || fileType.equals(FileFormats.XMLG)
+				|| fileType.equals(FileFormats.TXML) || fileType.equals(FileFormats.TXLF)
+				|| fileType.equals(FileFormats.RESX) || fileType.equals(FileFormats.INX)
+				|| fileType.equals(FileFormats.TS) || fileType.equals(FileFormats.DITA)
+				|| fileType.equals(FileFormats.SDLXLIFF) || fileType.equals(FileFormats.WPML)
+				|| fileType.equals(FileFormats.XLIFF);
+	}
+
+	private static Charset getHTMLEncoding(byte[] prefix) throws IOException {
+		if (prefix.length == 0) {
+			throw new IOException(Messages.getString("EncodingResolver.7"));
+		}
+		// charset declarations are in <head>, parsing the start of the page is enough
+		Document doc = Jsoup.parse(new String(prefix, StandardCharsets.UTF_8));
 		Elements list = doc.getElementsByAttributeValue("http-equiv", "Content-Type");
 		if (list != null) {
 			for (int i = 0; i < list.size(); i++) {
@@ -156,33 +186,22 @@ public class EncodingResolver {
 		return null;
 	}
 
-	private static Charset getRCEncoding(String fileName) throws IOException {
-		try (FileInputStream input = new FileInputStream(fileName)) {
-			// read 4K bytes
-			int read = 4096;
-			if (input.available() < read) {
-				read = input.available();
-			}
-			byte[] bytes = new byte[read];
-			if (input.read(bytes) == -1) {
-				throw new IOException(Messages.getString("EncodingResolver.7"));
-			}
+	private static Charset getRCEncoding(byte[] prefix) {
+		// check the first 4K bytes
+		String content = new String(prefix, 0, Math.min(4096, prefix.length));
 
-			String content = new String(bytes);
-
-			if (content.indexOf("code_page(") != -1) {
-				String code = content.substring(content.indexOf("code_page(") + 10);
-				code = code.substring(0, code.indexOf(')'));
-				return Charset.forName(parseMicrosoftEncoding(code));
-			}
+		if (content.indexOf("code_page(") != -1) {
+			String code = content.substring(content.indexOf("code_page(") + 10);
+			code = code.substring(0, code.indexOf(')'));
+			return Charset.forName(parseMicrosoftEncoding(code));
 		}
 		return null;
 	}
 
-	private static Charset getJSONEncoding(String fileName) throws IOException {
+	private static Charset getJSONEncoding(byte[] prefix) throws IOException {
 		// check if there is a BOM (byte order mark)
 		// at the start of the document
-		Charset bom = getBOM(fileName);
+		Charset bom = getBOM(prefix);
 		if (bom != null) {
 			return bom;
 		}
@@ -190,28 +209,29 @@ public class EncodingResolver {
 		return StandardCharsets.UTF_8;
 	}
 
-	private static Charset getXMLEncoding(String fileName) throws IOException {
+	private static Charset getXMLEncoding(byte[] prefix) throws IOException {
 		// return UTF-8 as default
 		String result = StandardCharsets.UTF_8.name();
 		// check if there is a BOM (byte order mark)
 		// at the start of the document
-		Charset bom = getBOM(fileName);
+		Charset bom = getBOM(prefix);
 		if (bom != null) {
 			return bom;
 		}
 		// check declared encoding
-		try (FileReader input = new FileReader(fileName)) {
-			BufferedReader buffer = new BufferedReader(input);
-			String line = buffer.readLine();
-			if (line.startsWith("<?")) {
-				line = line.substring(2, line.indexOf("?>"));
-				line = line.replace("\'", "\"");
-				StringTokenizer tokenizer = new StringTokenizer(line);
-				while (tokenizer.hasMoreTokens()) {
-					String token = tokenizer.nextToken();
-					if (token.startsWith("encoding")) {
-						result = token.substring(token.indexOf('\"') + 1, token.lastIndexOf('\"'));
-					}
+		String line = new String(prefix);
+		int end = line.indexOf('\n');
+		if (end != -1) {
+			line = line.substring(0, end);
+		}
+		if (line.startsWith("<?") && line.indexOf("?>") != -1) {
+			line = line.substring(2, line.indexOf("?>"));
+			line = line.replace("\'", "\"");
+			StringTokenizer tokenizer = new StringTokenizer(line);
+			while (tokenizer.hasMoreTokens()) {
+				String token = tokenizer.nextToken();
+				if (token.startsWith("encoding")) {
+					result = token.substring(token.indexOf('\"') + 1, token.lastIndexOf('\"'));
 				}
 			}
 		}
@@ -226,12 +246,16 @@ public class EncodingResolver {
 	}
 
 	public static Charset getBOM(String fileName) throws IOException {
-		byte[] array = new byte[3];
 		try (FileInputStream inputStream = new FileInputStream(fileName)) {
-			if (inputStream.read(array) == -1) {
-				throw new IOException(Messages.getString("EncodingResolver.7"));
-			}
+			return getBOM(inputStream.readNBytes(3));
+		}
+	}
+
+	public static Charset getBOM(byte[] bytes) throws IOException {
+		if (bytes.length == 0) {
+			throw new IOException(Messages.getString("EncodingResolver.7"));
 		}
+		byte[] array = Arrays.copyOf(bytes, 3);
 		byte[] lt = "<".getBytes();
 		byte[] feff = { -1, -2 }; // UTF-16BE
 		byte[] fffe = { -2, -1 }; // UTF-16LE
@@ -11,27 +11,28 @@
  *******************************************************************************/
 package com.maxprograms.converters;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.Arrays;
+import java.util.Enumeration;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
 
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
-import org.xml.sax.SAXException;
-
-import com.maxprograms.xml.Document;
-import com.maxprograms.xml.SAXBuilder;
 
 public class FileFormats {
 
@@ -74,20 +75,44 @@ public class FileFormats {
 	}
 
 	public static String detectFormat(String fileName) {
+		DetectedFormat detected = detect(fileName);
+		return detected != null ? detected.getFormat() : null;
+	}
+
+	/**
+	 * Detects the format of a file and its character set reading only the first
+	 * {@link EncodingResolver#PREFIX_SIZE} bytes, except when the root of an XML
+	 * file is not found there or a ZIP directory must be read.
+	 * 
+	 * @return the detection result or <code>null</code> if the format is unknown
+	 */
+	public static DetectedFormat detect(String fileName) {
 		File file = new File(fileName);
 		if (!file.exists()) {
 			return null;
 		}
+		byte[] prefix = new byte[0];
 		try {
-			byte[] array = new byte[40960];
-			try (FileInputStream input = new FileInputStream(file)) {
-				if (input.read(array) == -1) {
-					throw new IOException(Messages.getString("FileFormats.1"));
-				}
+			prefix = EncodingResolver.readPrefix(fileName);
+		} catch (IOException e) {
+			// only the file extension can help
+		}
+		String format = getFormat(file, prefix);
+		if (format == null) {
+			return null;
+		}
+		return new DetectedFormat(format, EncodingResolver.getEncoding(prefix, format));
+	}
+
+	private static String getFormat(File file, byte[] array) {
+		String fileName = file.getAbsolutePath();
+		try {
+			if (array.length == 0) {
+				throw new IOException(Messages.getString("FileFormats.1"));
 			}
 			String string = "";
 
-			Charset bom = EncodingResolver.getBOM(fileName);
+			Charset bom = EncodingResolver.getBOM(array);
 			if (bom != null) {
 				byte[] efbbbf = { -17, -69, -65 }; // UTF-8
 				String utf8 = new String(efbbbf);
@@ -116,7 +141,7 @@ public class FileFormats {
 			if (string.indexOf("<xliff ") != -1 && string.indexOf("<![CDATA[") != -1) {
 				return WPML;
 			}
-			if (string.indexOf("<xliff ") != -1 && parseXliff(fileName)) {
+			if (string.indexOf("<xliff ") != -1 && "xliff".equals(getRoot(file, string, array.length))) {
 				return XLIFF;
 			}
 			if (string.startsWith("<?php")) {
@@ -186,9 +211,11 @@ public class FileFormats {
 				boolean hasXML = false;
 				boolean idml = false;
 				boolean sdlppx = false;
-				try (ZipInputStream in = new ZipInputStream(new FileInputStream(file))) {
-					ZipEntry entry = null;
-					while ((entry = in.getNextEntry()) != null) {
+				// only the central directory is read
+				try (ZipFile zip = new ZipFile(file)) {
+					Enumeration<? extends ZipEntry> entries = zip.entries();
+					while (entries.hasMoreElements()) {
+						ZipEntry entry = entries.nextElement();
 						if (entry.getName().equals("content.xml")) {
 							openOffice = true;
 							break;
@@ -205,6 +232,8 @@ public class FileFormats {
 							hasXML = true;
 						}
 					}
+				} catch (ZipException e) {
+					// not a ZIP file
 				}
 				if (idml) {
 					return IDML;
@@ -234,21 +263,25 @@ public class FileFormats {
 				return RC;
 			}
 			if (string.charAt(0) == '<') {
-				SAXBuilder builder = new SAXBuilder();
-				builder.setValidating(false);
-				builder.build(file);
-				return XML;
+				if (getRoot(file, string, array.length) != null) {
+					return XML;
+				}
+				return getFormat(fileName);
 			}
 			if (string.indexOf(" --> ") != -1 && string.indexOf(':') != -1) {
 				return SRT;
 			}
-			if ((string.indexOf('{') != -1 && string.indexOf(':') != -1) || string.indexOf('[') != -1) {
-				loadJSON(file, bom);
+			if (((string.indexOf('{') != -1 && string.indexOf(':') != -1) || string.indexOf('[') != -1)
+					&& isJSON(array, bom, array.length < file.length())) {
 				return JSON;
 			}
 		} catch (Exception e) {
 			// do nothing
 		}
+		return getFormat(fileName);
+	}
+
+	private static String getFormat(String fileName) {
 		if (fileName.endsWith(".properties")) {
 			return JAVA;
 		}
@@ -406,50 +439,169 @@ public class FileFormats {
 		return null;
 	}
 
-	private static boolean parseXliff(String file) {
-		try {
-			SAXBuilder builder = new SAXBuilder();
-			Document doc = builder.build(file);
-			return doc.getRootElement().getName().equals("xliff");
-		} catch (SAXException | IOException | ParserConfigurationException e) {
-			return false;
+	private static String getRoot(File file, String prefix, int length) {
+		String root = getRoot(prefix);
+		if (root == null && length < file.length()) {
+			// the prolog is longer than the prefix
+			return readRoot(file);
 		}
+		return root;
 	}
 
-	public static String[] getFormats() {
-		return formats;
+	/**
+	 * Returns the name of the first element in the text, skipping the XML
+	 * declaration, processing instructions, comments and the document type
+	 * declaration, or <code>null</code> if it is not found.
+	 */
+	private static String getRoot(String text) {
+		int i = 0;
+		int length = text.length();
+		while (i < length) {
+			char c = text.charAt(i);
+			if (Character.isWhitespace(c) || c == '\uFEFF') {
+				i++;
+				continue;
+			}
+			if (c != '<') {
+				return null;
+			}
+			if (text.startsWith("<?", i)) {
+				int end = text.indexOf("?>", i + 2);
+				if (end == -1) {
+					return null;
+				}
+				i = end + 2;
+			} else if (text.startsWith("<!--", i)) {
+				int end = text.indexOf("-->", i + 4);
+				if (end == -1) {
+					return null;
+				}
+				i = end + 3;
+			} else if (text.startsWith("<!DOCTYPE", i)) {
+				i = skipDoctype(text, i + 9);
+				if (i == -1) {
+					return null;
+				}
+			} else {
+				int start = i + 1;
+				if (start == length || !(Character.isLetter(text.charAt(start)) || text.charAt(start) == '_'
+						|| text.charAt(start) == ':')) {
+					// markup declarations or text, not a document
+					return null;
+				}
+				int end = start;
+				while (end < length) {
+					char n = text.charAt(end);
+					if (Character.isWhitespace(n) || n == '>' || n == '/') {
+						break;
+					}
+					end++;
+				}
+				if (end == length || end == start) {
+					return null;
+				}
+				return text.substring(start, end);
+			}
+		}
+		return null;
 	}
 
-	private static Object loadJSON(File file, Charset charset) throws IOException, JSONException {
-		StringBuilder sb = new StringBuilder();
-		int bomLength = charset == null ? 0 : 1;
-		if (charset == null) {
-			charset = StandardCharsets.UTF_8;
-		}
-		try (FileReader reader = new FileReader(file, charset)) {
-			try (BufferedReader buffered = new BufferedReader(reader)) {
-				String line = "";
-				boolean first = true;
-				while ((line = buffered.readLine()) != null) {
-					if (!first) {
-						sb.append('\n');
+	private static int skipDoctype(String text, int from) {
+		char quote = 0;
+		boolean subset = false;
+		for (int i = from; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			} else if (c == '"' || c == '\'') {
+				quote = c;
+			} else if (subset && text.startsWith("<!--", i)) {
+				int end = text.indexOf("-->", i + 4);
+				if (end == -1) {
+					return -1;
+				}
+				i = end + 2;
+			} else if (c == '[') {
+				subset = true;
+			} else if (c == ']') {
+				subset = false;
+			} else if (c == '>' && !subset) {
+				return i + 1;
+			}
+		}
+		return -1;
+	}
+
+	private static String readRoot(File file) {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		try (InputStream input = new BufferedInputStream(new FileInputStream(file))) {
+			XMLStreamReader reader = factory.createXMLStreamReader(input);
+			try {
+				while (reader.hasNext()) {
+					if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+						String prefix = reader.getPrefix();
+						if (prefix == null || prefix.isEmpty()) {
+							return reader.getLocalName();
+						}
+						return prefix + ':' + reader.getLocalName();
 					}
-					sb.append(line);
-					first = false;
 				}
+			} finally {
+				reader.close();
 			}
+		} catch (IOException | XMLStreamException e) {
+			// not XML
 		}
-		for (int i = bomLength; i < sb.length(); i++) {
-			if (sb.charAt(i) == '[') {
-				return new JSONArray(sb.toString().substring(bomLength));
+		return null;
+	}
+
+	public static String[] getFormats() {
+		return formats;
+	}
+
+	/**
+	 * Checks that the text starts like a JSON object or array. Files that fit in
+	 * the prefix are parsed, larger ones are left for the converter to validate.
+	 */
+	private static boolean isJSON(byte[] prefix, Charset bom, boolean truncated) {
+		String text = new String(prefix, bom != null ? bom : StandardCharsets.UTF_8);
+		if (bom != null && text.startsWith("\uFEFF")) {
+			text = text.substring(1);
+		}
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '[' || c == '{') {
+				if (!truncated) {
+					try {
+						if (c == '[') {
+							new JSONArray(text);
+						} else {
+							new JSONObject(text);
+						}
+					} catch (JSONException e) {
+						return false;
+					}
+					return true;
+				}
+				return c == '[' || startsObject(text, i + 1);
 			}
-			if (sb.charAt(i) == '{') {
-				return new JSONObject(sb.toString().substring(bomLength));
+			if (!Character.isWhitespace(c)) {
+				return false;
 			}
-			if (!Character.isSpaceChar(sb.charAt(i))) {
-				break;
+		}
+		return false;
+	}
+
+	private static boolean startsObject(String text, int from) {
+		for (int i = from; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (!Character.isWhitespace(c)) {
+				return c == '"' || c == '}';
 			}
 		}
-		throw new IOException(Messages.getString("FileFormats.2"));
+		return true;
 	}
 }
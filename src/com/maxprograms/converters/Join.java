@@ -11,14 +11,17 @@
  *******************************************************************************/
 package com.maxprograms.converters;
 
+import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -29,14 +32,15 @@ import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.xml.sax.SAXException;
 
 import com.maxprograms.xml.Attribute;
-import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
-import com.maxprograms.xml.Indenter;
-import com.maxprograms.xml.SAXBuilder;
 
 public class Join {
 
@@ -46,15 +50,14 @@ public class Join {
 
 	private static Logger logger = System.getLogger(Join.class.getName());
 
-	private static List<String> list;
-	private static String target = "";
-
 	public static void main(String[] args) {
 		String[] arguments = Utils.fixPath(args);
 		if (arguments.length < 4) {
 			help();
 			return;
 		}
+		List<String> list = new ArrayList<>();
+		String target = "";
 		for (int i = 0; i < arguments.length; i++) {
 			String arg = arguments[i];
 			if (arg.equals("-help")) {
@@ -64,7 +67,6 @@ public class Join {
 			if (arg.equals("-files") && (i + 1) < arguments.length) {
 				String files = arguments[i + 1];
 				String[] array = files.split("\\,");
-				list = new ArrayList<>();
 				for (int h = 0; h < array.length; h++) {
 					String file = array[h];
 					File f = new File(file);
@@ -95,54 +97,70 @@ public class Join {
 
 	public static void join(List<String> xliffs, String out)
 			throws IOException, SAXException, ParserConfigurationException {
-		SAXBuilder builder = new SAXBuilder();
+		XMLInputFactory factory = XliffUnitReader.createFactory(null);
 		String version = "";
 		String srcLang = "";
 		String trgLang = "";
-		try (FileOutputStream output = new FileOutputStream(out)) {
+		try (Utf8OutputStream output = new Utf8OutputStream(out)) {
 			Map<String, Attribute> spaces = new HashMap<>();
 			TreeSet<String> set = new TreeSet<>();
 			for (int i = 0; i < xliffs.size(); i++) {
-				Document doc = builder.build(xliffs.get(i));
-				Element root = doc.getRootElement();
-				String v = root.getAttributeValue("version");
-				if (version.isEmpty()) {
-					version = v;
-				} else {
-					if (!version.equals(v)) {
-						throw new IOException(Messages.getString("Join.2"));
-					}
-				}
-				if (version.startsWith("2.")) {
-					String src = root.getAttributeValue("srcLang");
-					if (srcLang.isEmpty()) {
-						srcLang = src;
-					} else {
-						if (!srcLang.equals(src)) {
-							throw new IOException(Messages.getString("Join.3"));
+				// only the start tags of the root and its <file> children are needed here
+				try (InputStream input = new BufferedInputStream(new FileInputStream(xliffs.get(i)))) {
+					XMLStreamReader reader = createReader(factory, xliffs.get(i), input);
+					try {
+						Element root = XliffUnitReader.readRoot(reader);
+						String v = root.getAttributeValue("version");
+						if (version.isEmpty()) {
+							version = v;
+						} else {
+							if (!version.equals(v)) {
+								throw new IOException(Messages.getString("Join.2"));
+							}
 						}
+						if (version.startsWith("2.")) {
+							String src = root.getAttributeValue("srcLang");
+							if (srcLang.isEmpty()) {
+								srcLang = src;
+							} else {
+								if (!srcLang.equals(src)) {
+									throw new IOException(Messages.getString("Join.3"));
+								}
+							}
+							String trg = root.getAttributeValue("trgLang");
+							if (trgLang.isEmpty()) {
+								trgLang = trg;
+							}
+							if (!trgLang.equals(trg)) {
+								throw new IOException(Messages.getString("Join.4"));
+							}
+						}
+						List<Attribute> atts = root.getAttributes();
+						Iterator<Attribute> at = atts.iterator();
+						while (at.hasNext()) {
+							Attribute a = at.next();
+							if (!a.getNamespace().isEmpty() || "xmlns".equals(a.getName())) {
+								spaces.put(a.getName(), a);
+							}
+						}
+						int depth = 1;
+						while (reader.hasNext()) {
+							int event = reader.next();
+							if (event == XMLStreamConstants.START_ELEMENT) {
+								depth++;
+								if (depth == 2 && isFile(reader)) {
+									String original = reader.getAttributeValue(null, "original");
+									set.add(original != null ? original : "");
+								}
+							} else if (event == XMLStreamConstants.END_ELEMENT) {
+								depth--;
+							}
+						}
+					} finally {
+						reader.close();
 					}
-					String trg = root.getAttributeValue("trgLang");
-					if (trgLang.isEmpty()) {
-						trgLang = trg;
-					}
-					if (!trgLang.equals(trg)) {
-						throw new IOException(Messages.getString("Join.4"));
-					}
-				}
-				List<Attribute> atts = root.getAttributes();
-				Iterator<Attribute> at = atts.iterator();
-				while (at.hasNext()) {
-					Attribute a = at.next();
-					if (!a.getNamespace().isEmpty() || "xmlns".equals(a.getName())) {
-						spaces.put(a.getName(), a);
-					}
-				}
-				List<Element> fileList = root.getChildren("file");
-				for (int j = 0; j < fileList.size(); j++) {
-					Element file = fileList.get(j);
-					String original = file.getAttributeValue("original");
-					set.add(original);
+				} catch (XMLStreamException e) {
+					throw new SAXException(e);
 				}
 			}
 			String treeRoot = findTreeRoot(set);
@@ -167,31 +185,116 @@ public class Join {
 			int count = 0;
 			while (it.hasNext()) {
 				String xliff = it.next();
-				Document doc = builder.build(xliff);
-				Element root = doc.getRootElement();
-				List<Element> files1 = root.getChildren("file");
-
-				for (int i = 0; i < files1.size(); i++) {
-					Element file = files1.get(i);
-					if (!treeRoot.isEmpty()) {
-						String original = file.getAttributeValue("original");
-						file.setAttribute("original", Utils.getRelativePath(treeRoot, original));
-					}
-					if (version.startsWith("2")) {
-						file.setAttribute("id", "" + count++);
+				try (InputStream input = new BufferedInputStream(new FileInputStream(xliff))) {
+					XMLStreamReader reader = createReader(factory, xliff, input);
+					try {
+						XliffUnitReader.readRoot(reader);
+						count = copyFiles(reader, output, treeRoot, version, count);
+					} finally {
+						reader.close();
 					}
-					Indenter.indent(file, 2, 2);
-					writeString(output, "  ");
-					file.writeBytes(output, StandardCharsets.UTF_8);
-					writeString(output, "\n");
+				} catch (XMLStreamException e) {
+					throw new SAXException(e);
 				}
 			}
 			writeString(output, "</xliff>");
 		}
 	}
 
-	private static void writeString(FileOutputStream output, String string) throws IOException {
-		output.write(string.getBytes(StandardCharsets.UTF_8));
+	private static XMLStreamReader createReader(XMLInputFactory factory, String xliff, InputStream input)
+			throws XMLStreamException {
+		return factory.createXMLStreamReader(new File(xliff).toURI().toString(), input);
+	}
+
+	private static boolean isFile(XMLStreamReader reader) {
+		String prefix = reader.getPrefix();
+		return (prefix == null || prefix.isEmpty()) && "file".equals(reader.getLocalName());
+	}
+
+	/**
+	 * Copies the &lt;file&gt; children of the root element as they are read,
+	 * rewriting only their "original" and "id" attributes.
+	 */
+	private static int copyFiles(XMLStreamReader reader, Utf8OutputStream output, String treeRoot, String version,
+			int count) throws XMLStreamException, IOException {
+		int depth = 1;
+		boolean inFile = false;
+		boolean pendingStart = false;
+		while (reader.hasNext()) {
+			int event = reader.next();
+			switch (event) {
+				case XMLStreamConstants.START_ELEMENT:
+					depth++;
+					if (depth == 2 && isFile(reader)) {
+						inFile = true;
+						Map<String, String> replace = new LinkedHashMap<>();
+						if (!treeRoot.isEmpty()) {
+							String original = reader.getAttributeValue(null, "original");
+							replace.put("original", Utils.getRelativePath(treeRoot, original != null ? original : ""));
+						}
+						if (version.startsWith("2")) {
+							replace.put("id", "" + count++);
+						}
+						writeString(output, "  " + XliffUnitReader.startTag(reader, replace));
+						pendingStart = true;
+					} else if (inFile) {
+						if (pendingStart) {
+							writeString(output, ">");
+						}
+						writeString(output, XliffUnitReader.startTag(reader, Collections.emptyMap()));
+						pendingStart = true;
+					}
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					if (inFile) {
+						if (pendingStart) {
+							writeString(output, "/>");
+							pendingStart = false;
+						} else {
+							writeString(output, "</" + XliffUnitReader.getName(reader) + ">");
+						}
+						if (depth == 2) {
+							inFile = false;
+							writeString(output, "\n");
+						}
+					}
+					depth--;
+					break;
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.SPACE:
+				case XMLStreamConstants.CDATA:
+				case XMLStreamConstants.COMMENT:
+				case XMLStreamConstants.PROCESSING_INSTRUCTION:
+					if (inFile) {
+						if (pendingStart) {
+							writeString(output, ">");
+							pendingStart = false;
+						}
+						writeString(output, getText(reader, event));
+					}
+					break;
+				default:
+					// nothing to copy
+			}
+		}
+		return count;
+	}
+
+	private static String getText(XMLStreamReader reader, int event) {
+		switch (event) {
+			case XMLStreamConstants.CDATA:
+				return "<![CDATA[" + reader.getText() + "]]>";
+			case XMLStreamConstants.COMMENT:
+				return "<!--" + reader.getText() + "-->";
+			case XMLStreamConstants.PROCESSING_INSTRUCTION:
+				return XliffUnitReader.getPI(reader);
+			default:
+				return XliffUnitReader.escape(reader.getText(), false);
+		}
+	}
+
+	private static void writeString(Utf8OutputStream output, String string) throws IOException {
+		output.write(string);
 	}
 
 	public static String findTreeRoot(SortedSet<String> set) {
@@ -12,51 +12,31 @@
 package com.maxprograms.converters;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
 import java.net.URISyntaxException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.xml.sax.SAXException;
 
-import com.maxprograms.converters.ditamap.Xliff2DitaMap;
-import com.maxprograms.converters.html.Xliff2Html;
-import com.maxprograms.converters.idml.Xliff2Idml;
-import com.maxprograms.converters.javaproperties.Xliff2Properties;
-import com.maxprograms.converters.javascript.Xliff2jscript;
-import com.maxprograms.converters.json.Xliff2json;
-import com.maxprograms.converters.mif.Xliff2Mif;
-import com.maxprograms.converters.office.Xliff2Office;
-import com.maxprograms.converters.php.Xliff2Php;
-import com.maxprograms.converters.plaintext.Xliff2Text;
-import com.maxprograms.converters.po.Xliff2Po;
-import com.maxprograms.converters.rc.Xliff2Rc;
-import com.maxprograms.converters.resx.Xliff2Resx;
-import com.maxprograms.converters.sdlppx.Xliff2Sdlrpx;
-import com.maxprograms.converters.sdlxliff.Xliff2Sdl;
-import com.maxprograms.converters.srt.Xliff2Srt;
-import com.maxprograms.converters.ts.Xliff2Ts;
-import com.maxprograms.converters.txlf.Xliff2Txlf;
-import com.maxprograms.converters.txml.Xliff2Txml;
-import com.maxprograms.converters.wpml.Xliff2Wpml;
-import com.maxprograms.converters.xliff.FromOpenXliff;
-import com.maxprograms.converters.xml.Xliff2Xml;
 import com.maxprograms.xliff2.FromXliff2;
-import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.PI;
@@ -67,11 +47,10 @@ public class Merge {
 
 	private static Logger logger = System.getLogger(Merge.class.getName());
 
-	private static List<Element> segments;
-	protected static HashSet<String> fileSet;
+	private Map<String, FilePart> fileMap;
 
-	private static Document doc;
-	private static Element root;
+	private Document doc;
+	private Element root;
 
 	public static void main(String[] args) {
 		String xliff = "";
@@ -79,6 +58,7 @@ public class Merge {
 		String catalog = "";
 		boolean unapproved = false;
 		boolean exportTMX = false;
+		int threads = 1;
 
 		String[] arguments = Utils.fixPath(args);
 		for (int i = 0; i < arguments.length; i++) {
@@ -107,6 +87,13 @@ public class Merge {
 			if (arg.equals("-export")) {
 				exportTMX = true;
 			}
+			if (arg.equals("-threads") && (i + 1) < arguments.length) {
+				try {
+					threads = Integer.parseInt(arguments[i + 1]);
+				} catch (NumberFormatException e) {
+					threads = 0;
+				}
+			}
 		}
 		if (arguments.length < 2) {
 			help();
@@ -116,6 +103,10 @@ public class Merge {
 			logger.log(Level.ERROR, Messages.getString("Merge.02"));
 			return;
 		}
+		if (threads < 1) {
+			logger.log(Level.ERROR, Messages.getString("Merge.15"));
+			return;
+		}
 		if (target.isEmpty()) {
 			try {
 				target = getTargetFile(xliff);
@@ -147,7 +138,7 @@ public class Merge {
 			return;
 		}
 
-		List<String> result = merge(xliff, target, catalog, unapproved);
+		List<String> result = merge(xliff, target, catalog, unapproved, threads);
 		if (exportTMX && Constants.SUCCESS.equals(result.get(0))) {
 			String tmx = "";
 			if (xliff.toLowerCase().endsWith(".xlf")) {
@@ -164,31 +155,42 @@ public class Merge {
 	}
 
 	public static List<String> merge(String xliff, String target, String catalog, boolean acceptUnaproved) {
+		return merge(xliff, target, catalog, acceptUnaproved, 1);
+	}
+
+	/**
+	 * Merges each &lt;file&gt; of the XLIFF document using the given number of
+	 * threads. When merging fails, the second element of the returned list is the
+	 * error of the first failed file in document order and the remaining elements
+	 * hold the errors of the other failed files.
+	 */
+	public static List<String> merge(String xliff, String target, String catalog, boolean acceptUnaproved,
+			int threads) {
+		return new Merge().mergeXliff(xliff, target, catalog, acceptUnaproved, threads);
+	}
+
+	private List<String> mergeXliff(String xliff, String target, String catalog, boolean acceptUnaproved,
+			int threads) {
 		List<String> result = new ArrayList<>();
+		List<File> temporaries = new ArrayList<>();
 		try {
-			loadXliff(xliff, catalog);
-			boolean unapproved = acceptUnaproved;
-			if (root.getAttributeValue("version").startsWith("2.")) {
-				File tmpXliff = File.createTempFile("temp", ".xlf", new File(xliff).getParentFile());
-				FromXliff2.run(xliff, tmpXliff.getAbsolutePath(), catalog);
-				loadXliff(tmpXliff.getAbsolutePath(), catalog);
-				Files.delete(Paths.get(tmpXliff.toURI()));
-			}
-			if (unapproved) {
-				approveAll(root);
+			String source = xliff;
+			try (XliffUnitReader reader = new XliffUnitReader(xliff, catalog)) {
+				if (!reader.getRoot().getName().equals("xliff")) {
+					throw new IOException(Messages.getString("Merge.09"));
+				}
+				if (reader.getVersion().startsWith("2.")) {
+					File tmpXliff = File.createTempFile("temp", ".xlf", new File(xliff).getParentFile());
+					temporaries.add(tmpXliff);
+					source = tmpXliff.getAbsolutePath();
+				}
 			}
-
-			List<Element> files = root.getChildren("file");
-			fileSet = new HashSet<>();
-			Iterator<Element> it = files.iterator();
-			while (it.hasNext()) {
-				Element file = it.next();
-				fileSet.add(file.getAttributeValue("original"));
+			if (!source.equals(xliff)) {
+				FromXliff2.run(xliff, source, catalog);
 			}
-			segments = new ArrayList<>();
-			createList(root);
+			String defaultEncoding = splitXliff(source, catalog, acceptUnaproved, temporaries);
 
-			if (fileSet.size() != 1) {
+			if (fileMap.size() != 1) {
 				File f = new File(target);
 				if (f.exists()) {
 					if (!f.isDirectory()) {
@@ -203,41 +205,36 @@ public class Merge {
 					Files.createDirectories(f.toPath());
 				}
 			}
-			Iterator<String> ft = fileSet.iterator();
+			Iterator<String> ft = fileMap.keySet().iterator();
 			List<Map<String, String>> paramsList = new ArrayList<>();
 			while (ft.hasNext()) {
 				String file = ft.next();
-				File xliffFile = File.createTempFile("temp", ".xlf");
-				String[] pair = saveXliff(file, xliffFile);
-				String encoding = pair[0];
+				FilePart part = fileMap.get(file);
+				String encoding = part.encoding;
 				if (encoding.isEmpty()) {
-					List<PI> pis = root.getPI();
-					if (pis != null) {
-						Iterator<PI> pt = pis.iterator();
-						while (pt.hasNext()) {
-							PI pi = pt.next();
-							if (pi.getTarget().equals("encoding")) {
-								encoding = pi.getData();
-							}
-						}
-					}
+					encoding = defaultEncoding;
 				}
 				Map<String, String> params = new HashMap<>();
-				params.put("xliff", xliffFile.getAbsolutePath());
-				if (fileSet.size() == 1) {
+				params.put("xliff", part.xliff.getAbsolutePath());
+				if (fileMap.size() == 1) {
 					params.put("backfile", target);
 				} else {
-					params.put("backfile", Utils.getAbsolutePath(target, file));
+					File backfile = new File(Utils.getAbsolutePath(target, file));
+					// files may be merged in parallel, do not rely on a previous file creating the folder
+					Files.createDirectories(backfile.getParentFile().toPath());
+					params.put("backfile", backfile.getAbsolutePath());
 				}
 				params.put("encoding", encoding);
 				params.put("catalog", catalog);
-				params.put("format", pair[1]);
+				params.put("format", part.dataType);
 				paramsList.add(params);
 			}
+			fileMap = null;
+			if (threads > 1 && paramsList.size() > 1) {
+				return mergeFiles(paramsList, threads);
+			}
 			for (int i = 0; i < paramsList.size(); i++) {
-				List<String> res = run(paramsList.get(i));
-				File f = new File(paramsList.get(i).get("xliff"));
-				Files.deleteIfExists(Paths.get(f.toURI()));
+				List<String> res = mergeFile(paramsList.get(i));
 				if (!Constants.SUCCESS.equals(res.get(0))) {
 					logger.log(Level.ERROR, res.get(1));
 					return res;
@@ -248,10 +245,60 @@ public class Merge {
 			logger.log(Level.ERROR, ex);
 			result.add(Constants.ERROR);
 			result.add(ex.getMessage());
+		} finally {
+			Iterator<File> it = temporaries.iterator();
+			while (it.hasNext()) {
+				try {
+					Files.deleteIfExists(it.next().toPath());
+				} catch (IOException e) {
+					logger.log(Level.WARNING, e);
+				}
+			}
 		}
 		return result;
 	}
 
+	private static List<String> mergeFiles(List<Map<String, String>> paramsList, int threads) {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<List<String>>> futures = new ArrayList<>();
+			Iterator<Map<String, String>> it = paramsList.iterator();
+			while (it.hasNext()) {
+				Map<String, String> params = it.next();
+				Callable<List<String>> job = () -> new Merge().mergeFile(params);
+				futures.add(pool.submit(job));
+			}
+			List<String> errors = new ArrayList<>();
+			for (int i = 0; i < futures.size(); i++) {
+				List<String> res;
+				try {
+					res = futures.get(i).get();
+				} catch (ExecutionException e) {
+					res = List.of(Constants.ERROR, "" + e.getCause().getMessage());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					res = List.of(Constants.ERROR, "" + e.getMessage());
+				}
+				if (!Constants.SUCCESS.equals(res.get(0))) {
+					MessageFormat mf = new MessageFormat(Messages.getString("Merge.16"));
+					String error = mf.format(new String[] { paramsList.get(i).get("backfile"), res.get(1) });
+					logger.log(Level.ERROR, error);
+					errors.add(error);
+				}
+			}
+			List<String> result = new ArrayList<>();
+			if (errors.isEmpty()) {
+				result.add(Constants.SUCCESS);
+			} else {
+				result.add(Constants.ERROR);
+				result.addAll(errors);
+			}
+			return result;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
 	private static void help() {
 		MessageFormat mf = new MessageFormat(Messages.getString("Merge.help"));
 		String help = mf.format(new String[] { "\\".equals(File.pathSeparator) ? "merge.bat" : "merge.sh" });
@@ -272,10 +319,10 @@ public class Merge {
 		}
 	}
 
-	protected static void loadXliff(String fileName, String catalog)
+	private void loadXliff(String fileName, String catalog)
 			throws SAXException, IOException, ParserConfigurationException, URISyntaxException {
 		SAXBuilder builder = new SAXBuilder();
-		builder.setEntityResolver(new Catalog(catalog));
+		builder.setEntityResolver(CatalogCache.getCatalog(catalog));
 		doc = builder.build(fileName);
 		root = doc.getRootElement();
 		if (!root.getName().equals("xliff")) {
@@ -283,54 +330,76 @@ public class Merge {
 		}
 	}
 
-	private static void createList(Element e) {
-		List<Element> children = e.getChildren();
-		Iterator<Element> it = children.iterator();
-		while (it.hasNext()) {
-			Element child = it.next();
-			if (child.getName().equals("trans-unit")) {
-				child.removeChild("alt-trans");
-				segments.add(child);
-			} else {
-				createList(child);
+	private String splitXliff(String xliff, String catalog, boolean unapproved, List<File> temporaries)
+			throws SAXException, IOException, ParserConfigurationException, URISyntaxException {
+		fileMap = new LinkedHashMap<>();
+		Utf8OutputStream out = null;
+		try (XliffUnitReader reader = new XliffUnitReader(xliff, catalog)) {
+			FilePart part = null;
+			int event = reader.next();
+			while (event != XliffUnitReader.END) {
+				if (event == XliffUnitReader.START_FILE) {
+					String original = reader.getFile().getAttributeValue("original");
+					part = fileMap.get(original);
+					if (part == null) {
+						part = new FilePart(File.createTempFile("temp", ".xlf"));
+						temporaries.add(part.xliff);
+						fileMap.put(original, part);
+						out = new Utf8OutputStream(part.xliff);
+						out.write("<xliff version=\"1.2\">\n");
+					} else {
+						out = new Utf8OutputStream(part.xliff, true);
+					}
+					reader.setOutput(out);
+				} else if (event == XliffUnitReader.UNIT) {
+					Element unit = reader.getUnit();
+					if (unapproved) {
+						approveAll(unit);
+					}
+					unit.removeChild("alt-trans");
+					reader.writeUnit(unit);
+				} else if (event == XliffUnitReader.END_FILE) {
+					part.dataType = reader.getFile().getAttributeValue("datatype");
+					String encoding = getEncoding(reader.getFile());
+					if (!encoding.isEmpty()) {
+						part.encoding = encoding;
+					}
+					reader.setOutput(null);
+					out.close();
+					out = null;
+				}
+				event = reader.next();
+			}
+			Iterator<FilePart> it = fileMap.values().iterator();
+			while (it.hasNext()) {
+				try (Utf8OutputStream end = new Utf8OutputStream(it.next().xliff, true)) {
+					end.write("</xliff>\n");
+				}
+			}
+			return getEncoding(reader.getRoot());
+		} finally {
+			if (out != null) {
+				out.close();
 			}
 		}
 	}
 
-	private static String[] saveXliff(String fileName, File xliff) throws IOException {
+	private static String getEncoding(Element e) {
 		String encoding = "";
-		String dataType = "";
-		try (FileOutputStream out = new FileOutputStream(xliff)) {
-			writeStr(out, "<xliff version=\"1.2\">\n");
-			List<Element> files = root.getChildren("file");
-			Iterator<Element> it = files.iterator();
-			while (it.hasNext()) {
-				Element file = it.next();
-				if (file.getAttributeValue("original").equals(fileName)) {
-					dataType = file.getAttributeValue("datatype");
-					List<PI> pis = file.getPI();
-					if (pis != null) {
-						Iterator<PI> pt = pis.iterator();
-						while (pt.hasNext()) {
-							PI pi = pt.next();
-							if (pi.getTarget().equals("encoding")) {
-								encoding = pi.getData();
-							}
-						}
-					}
-					file.writeBytes(out, StandardCharsets.UTF_8);
+		List<PI> pis = e.getPI();
+		if (pis != null) {
+			Iterator<PI> pt = pis.iterator();
+			while (pt.hasNext()) {
+				PI pi = pt.next();
+				if (pi.getTarget().equals("encoding")) {
+					encoding = pi.getData();
 				}
 			}
-			writeStr(out, "</xliff>\n");
 		}
-		return new String[] { encoding, dataType };
-	}
-
-	private static void writeStr(FileOutputStream out, String string) throws IOException {
-		out.write(string.getBytes(StandardCharsets.UTF_8));
+		return encoding;
 	}
 
-	private static List<String> run(Map<String, String> params) {
+	private List<String> mergeFile(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 		File temporary = null;
 		try {
@@ -341,69 +410,15 @@ public class Merge {
 			if (checkGroups(root)) {
 				temporary = File.createTempFile("group", ".xlf");
 				removeGroups(root, doc);
-				try (FileOutputStream out = new FileOutputStream(temporary.getAbsolutePath())) {
+				try (Utf8OutputStream out = new Utf8OutputStream(temporary.getAbsolutePath())) {
 					doc.writeBytes(out, doc.getEncoding());
 				}
 				params.put("xliff", temporary.getAbsolutePath());
 			}
 
-			if (dataType.equals(FileFormats.INX) || dataType.equals("x-inx")) {
-				params.put("InDesign", "yes");
-				result = Xliff2Xml.run(params);
-			} else if (dataType.equals(FileFormats.ICML) || dataType.equals("x-icml")) {
-				params.put("IDML", "true");
-				result = Xliff2Xml.run(params);
-			} else if (dataType.equals(FileFormats.IDML) || dataType.equals("x-idml")) {
-				result = Xliff2Idml.run(params);
-			} else if (dataType.equals(FileFormats.DITA) || dataType.equals("x-ditamap")) {
-				result = Xliff2DitaMap.run(params);
-			} else if (dataType.equals(FileFormats.HTML) || dataType.equals("html")) {
-				String home = System.getenv("OpenXLIFF_HOME");
-				if (home == null) {
-					home = System.getProperty("user.dir");
-				}
-				File folder = new File(home, "xmlfilter");
-				params.put("iniFile", new File(folder, "init_html.xml").getAbsolutePath());
-				result = Xliff2Html.run(params);
-			} else if (dataType.equals(FileFormats.JS) || dataType.equals("javascript")) {
-				result = Xliff2jscript.run(params);
-			} else if (dataType.equals(FileFormats.JSON) || dataType.endsWith("json")) {
-				result = Xliff2json.run(params);
-			} else if (dataType.equals(FileFormats.JAVA) || dataType.equals("javapropertyresourcebundle")
-					|| dataType.equals("javalistresourcebundle")) {
-				result = Xliff2Properties.run(params);
-			} else if (dataType.equals(FileFormats.MIF) || dataType.equals("mif")) {
-				result = Xliff2Mif.run(params);
-			} else if (dataType.equals(FileFormats.OFF) || dataType.equals("x-office")) {
-				result = Xliff2Office.run(params);
-			} else if (dataType.equals(FileFormats.PO) || dataType.equals("po")) {
-				result = Xliff2Po.run(params);
-			} else if (dataType.equals(FileFormats.PHPA) || dataType.equals("x-phparray")) {
-				result = Xliff2Php.run(params);
-			} else if (dataType.equals(FileFormats.RC) || dataType.equals("winres")) {
-				result = Xliff2Rc.run(params);
-			} else if (dataType.equals(FileFormats.RESX) || dataType.equals("resx")) {
-				result = Xliff2Resx.run(params);
-			} else if (dataType.equals(FileFormats.SDLPPX) || dataType.equals("x-sdlpackage")) {
-				result = Xliff2Sdlrpx.run(params);
-			} else if (dataType.equals(FileFormats.SDLXLIFF) || dataType.equals("x-sdlxliff")) {
-				result = Xliff2Sdl.run(params);
-			} else if (dataType.equals(FileFormats.SRT) || dataType.equals("x-srt")) {
-				result = Xliff2Srt.run(params);
-			} else if (dataType.equals(FileFormats.TEXT) || dataType.equals("plaintext")) {
-				result = Xliff2Text.run(params);
-			} else if (dataType.equals(FileFormats.TS) || dataType.equals("x-ts")) {
-				result = Xliff2Ts.run(params);
-			} else if (dataType.equals(FileFormats.TXML) || dataType.equals("x-txml")) {
-				result = Xliff2Txml.run(params);
-			} else if (dataType.equals(FileFormats.TXLF) || dataType.equals("x-txlf")) {
-				result = Xliff2Txlf.run(params);
-			} else if (dataType.equals(FileFormats.WPML) || dataType.equals("x-wpmlxliff")) {
-				result = Xliff2Wpml.run(params);
-			} else if (dataType.equals(FileFormats.XML) || dataType.equals("xml")) {
-				result = Xliff2Xml.run(params);
-			} else if (dataType.equals(FileFormats.XLIFF) || dataType.equals("x-xliff")) {
-				result = FromOpenXliff.run(params);
+			Converter converter = Converters.getConverter(dataType);
+			if (converter != null) {
+				result = converter.merge(params);
 			} else {
 				result.add(Constants.ERROR);
 				result.add(Messages.getString("Merge.10"));
@@ -420,7 +435,7 @@ public class Merge {
 		return result;
 	}
 
-	private static String getSkeleton() throws IOException {
+	private String getSkeleton() throws IOException {
 		String result = "";
 		Element file = root.getChild("file");
 		Element header = null;
@@ -534,31 +549,35 @@ public class Merge {
 	}
 
 	public static String getTargetFile(String file) throws IOException, SAXException, ParserConfigurationException {
-		SAXBuilder builder = new SAXBuilder();
-		Element r = builder.build(file).getRootElement();
-		if (!r.getName().equals("xliff")) {
-			throw new IOException(Messages.getString("Merge.12"));
+		String tgtLanguage = "";
+		TreeSet<String> originals = new TreeSet<>();
+		try (XliffUnitReader reader = new XliffUnitReader(file)) {
+			Element r = reader.getRoot();
+			if (!r.getName().equals("xliff")) {
+				throw new IOException(Messages.getString("Merge.12"));
+			}
+			String version = reader.getVersion();
+			if (!version.equals("1.2")) {
+				tgtLanguage = r.getAttributeValue("trgLang");
+			}
+			int event = reader.next();
+			while (event != XliffUnitReader.END) {
+				if (event == XliffUnitReader.START_FILE) {
+					if (originals.isEmpty() && version.equals("1.2")) {
+						tgtLanguage = reader.getFile().getAttributeValue("target-language");
+					}
+					originals.add(reader.getFile().getAttributeValue("original"));
+				}
+				event = reader.next();
+			}
 		}
-		List<Element> files = r.getChildren("file");
-		if (files.isEmpty()) {
+		if (originals.isEmpty()) {
 			throw new IOException(Messages.getString("Merge.13"));
 		}
-		String version = r.getAttributeValue("version");
-		String tgtLanguage = "";
-		if (version.equals("1.2")) {
-			tgtLanguage = files.get(0).getAttributeValue("target-language");
-		} else {
-			tgtLanguage = r.getAttributeValue("trgLang");
-		}
 		if (tgtLanguage.isEmpty()) {
 			throw new IOException(Messages.getString("Merge.14"));
 		}
 		String target = "";
-		TreeSet<String> originals = new TreeSet<>();
-		Iterator<Element> it = files.iterator();
-		while (it.hasNext()) {
-			originals.add(it.next().getAttributeValue("original"));
-		}
 		if (originals.size() == 1) {
 			if (file.endsWith(".xlf")) {
 				target = file.substring(0, file.length() - ".xlf".length());
@@ -585,4 +604,14 @@ public class Merge {
 		return target;
 	}
 
+	private static class FilePart {
+
+		File xliff;
+		String encoding = "";
+		String dataType = "";
+
+		FilePart(File xliff) {
+			this.xliff = xliff;
+		}
+	}
 }
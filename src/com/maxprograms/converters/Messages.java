@@ -31,8 +31,9 @@ public class Messages {
                         : "_" + locale.getLanguage() + ".properties";
                 try (InputStream is = Messages.class.getResourceAsStream("converters" + extension)) {
                     try (InputStreamReader reader = new InputStreamReader(is, StandardCharsets.UTF_8)) {
-                        props = new Properties();
-                        props.load(reader);
+                        Properties loaded = new Properties();
+                        loaded.load(reader);
+                        props = loaded;
                     }
                 }
             }
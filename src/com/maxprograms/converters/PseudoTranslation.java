@@ -12,7 +12,6 @@
 package com.maxprograms.converters;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
@@ -26,7 +25,6 @@ import javax.xml.parsers.ParserConfigurationException;
 
 import org.xml.sax.SAXException;
 
-import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.Indenter;
@@ -38,7 +36,6 @@ import com.maxprograms.xml.XMLOutputter;
 public class PseudoTranslation {
 
     private static Logger logger = System.getLogger(PseudoTranslation.class.getName());
-    private static String version;
 
     public static void main(String[] args) {
 
@@ -97,23 +94,22 @@ public class PseudoTranslation {
     public static void pseudoTranslate(String xliff, String catalog)
             throws SAXException, IOException, ParserConfigurationException, URISyntaxException {
         SAXBuilder builder = new SAXBuilder();
-        builder.setEntityResolver(new Catalog(catalog));
+        builder.setEntityResolver(CatalogCache.getCatalog(catalog));
         Document doc = builder.build(xliff);
         Element root = doc.getRootElement();
         if (!"xliff".equals(root.getName())) {
             throw new IOException(Messages.getString("PseudoTranslation.3"));
         }
-        version = root.getAttributeValue("version");
-        recurse(root);
+        recurse(root, root.getAttributeValue("version"));
         Indenter.indent(root, 2);
         XMLOutputter outputter = new XMLOutputter();
         outputter.preserveSpace(true);
-        try (FileOutputStream out = new FileOutputStream(xliff)) {
+        try (Utf8OutputStream out = new Utf8OutputStream(xliff)) {
             outputter.output(doc, out);
         }
     }
 
-    private static void recurse(Element root) throws IOException {
+    private static void recurse(Element root, String version) throws IOException {
         if (("xliff".equals(root.getName()) && version.startsWith("2.") && root.getAttributeValue("trgLang").isEmpty())
                 || ("file".equals(root.getName()) && version.startsWith("1.")
                         && root.getAttributeValue("target-language").isEmpty())) {
@@ -152,7 +148,7 @@ public class PseudoTranslation {
         List<Element> children = root.getChildren();
         Iterator<Element> it = children.iterator();
         while (it.hasNext()) {
-            recurse(it.next());
+            recurse(it.next(), version);
         }
     }
 
@@ -12,7 +12,6 @@
 package com.maxprograms.converters;
 
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 
@@ -80,7 +79,7 @@ public class StringConverter {
 
 	public static void decodeFile(String source, String target) throws IOException {
 		try (FileInputStream input = new FileInputStream(source)) {
-			try (FileOutputStream output = new FileOutputStream(target)) {
+			try (Utf8OutputStream output = new Utf8OutputStream(target)) {
 				byte[] array = new byte[1024 * 10];
 				int len;
 				while ((len = input.read(array)) != -1) {
@@ -93,12 +92,12 @@ public class StringConverter {
 
 	public static void encodeFile(String source, String target) throws IOException {
 		try (FileInputStream input = new FileInputStream(source)) {
-			try (FileOutputStream output = new FileOutputStream(target)) {
+			try (Utf8OutputStream output = new Utf8OutputStream(target)) {
 				byte[] array = new byte[1024 * 10];
 				int len;
 				while ((len = input.read(array)) != -1) {
 					String s = toHexString(array, 0, len);
-					output.write(s.getBytes(StandardCharsets.UTF_8));
+					output.write(s);
 				}
 			}
 		}
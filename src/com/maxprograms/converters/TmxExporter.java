@@ -12,14 +12,13 @@
 package com.maxprograms.converters;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
 import java.net.URISyntaxException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
@@ -27,16 +26,18 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.xml.parsers.ParserConfigurationException;
 
 import com.maxprograms.xliff2.FromXliff2;
 import com.maxprograms.xml.Attribute;
-import com.maxprograms.xml.Catalog;
-import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.PI;
-import com.maxprograms.xml.SAXBuilder;
 import com.maxprograms.xml.XMLNode;
 import com.maxprograms.xml.XMLUtils;
 
@@ -49,92 +50,163 @@ public class TmxExporter {
 	public static final String MATHGT = "\u200B\u203A";
 	public static final String GAMP = "\u200B\u203A";
 
-	static Map<String, String> docProperties;
-	private static String sourceLang;
-	private static String targetLang;
-	private static String today;
-	private static int match;
-	private static String original;
-	private static int filenumbr;
+	private static Logger logger = System.getLogger(TmxExporter.class.getName());
+
+	private Map<String, String> docProperties;
+	private String sourceLang;
+	private String targetLang;
+	private String today;
+	private int match;
+	private String original;
+	private int filenumbr;
+	private String firstSourceLang;
 
 	private TmxExporter() {
 		// do not instantiate this class
 	}
 
 	public static List<String> export(String xliff, String tmx, String catalog) {
+		return new TmxExporter().exportTmx(xliff, tmx, catalog);
+	}
+
+	/**
+	 * Exports several XLIFF files to one TMX document using the given number of
+	 * threads. Each file is exported to a temporary file and the results are
+	 * joined in the order of the list, so the TMX document does not depend on
+	 * the number of threads. The header takes the source language of the first
+	 * file.
+	 */
+	public static List<String> export(List<String> xliffs, String tmx, String catalog, int threads) {
 		List<String> result = new ArrayList<>();
+		List<File> fragments = new ArrayList<>();
 		try {
-			today = getTmxDate();
-			filenumbr = 0;
-
-			SAXBuilder builder = new SAXBuilder();
-			builder.setEntityResolver(new Catalog(catalog));
-			Document doc = builder.build(xliff);
-			Element root = doc.getRootElement();
-			if (root.getAttributeValue("version").startsWith("2.")) {
-				File tmpXliff = File.createTempFile("temp", ".xlf", new File(xliff).getParentFile());
-				FromXliff2.run(xliff, tmpXliff.getAbsolutePath(), catalog);
-				doc = builder.build(tmpXliff);
-				root = doc.getRootElement();
-				Files.delete(Paths.get(tmpXliff.toURI()));
-			}
-
-			try (FileOutputStream output = new FileOutputStream(tmx)) {
-				Element firstFile = root.getChild("file");
-
-				docProperties = new HashMap<>();
-				List<PI> slist = root.getPI("subject");
-				if (!slist.isEmpty()) {
-					docProperties.put("subject", slist.get(0).getData());
-				} else {
-					docProperties.put("subject", "");
+			String today = getTmxDate();
+			File parent = new File(tmx).getAbsoluteFile().getParentFile();
+			List<TmxExporter> exporters = new ArrayList<>();
+			List<Callable<List<String>>> jobs = new ArrayList<>();
+			for (int i = 0; i < xliffs.size(); i++) {
+				String xliff = xliffs.get(i);
+				File fragment = File.createTempFile("tmx", ".tmp", parent);
+				fragments.add(fragment);
+				TmxExporter exporter = new TmxExporter();
+				exporter.today = today;
+				exporters.add(exporter);
+				jobs.add(() -> exporter.exportUnits(xliff, fragment, catalog));
+			}
+			List<String> errors = exportFiles(jobs, xliffs, threads);
+			if (!errors.isEmpty()) {
+				result.add(Constants.ERROR);
+				result.addAll(errors);
+				return result;
+			}
+			String srcLang = "";
+			Iterator<TmxExporter> et = exporters.iterator();
+			while (et.hasNext()) {
+				TmxExporter exporter = et.next();
+				if (exporter.firstSourceLang != null) {
+					srcLang = exporter.firstSourceLang;
+					break;
 				}
-				List<PI> plist = root.getPI("project");
-				if (!plist.isEmpty()) {
-					docProperties.put("project", plist.get(0).getData());
-				} else {
-					docProperties.put("project", "");
+			}
+			try (Utf8OutputStream output = new Utf8OutputStream(tmx)) {
+				writeHeader(output, srcLang);
+				Iterator<File> ft = fragments.iterator();
+				while (ft.hasNext()) {
+					Files.copy(ft.next().toPath(), output);
 				}
-				List<PI> clist = root.getPI("customer");
-				if (!clist.isEmpty()) {
-					docProperties.put("customer", clist.get(0).getData());
-				} else {
-					docProperties.put("customer", "");
+				writeString(output, "</body>\n");
+				writeString(output, "</tmx>");
+			}
+			result.add(Constants.SUCCESS);
+		} catch (IOException e) {
+			logger.log(Level.ERROR, e.getMessage(), e);
+			result.add(Constants.ERROR);
+			result.add(e.getMessage());
+		} finally {
+			Iterator<File> it = fragments.iterator();
+			while (it.hasNext()) {
+				try {
+					Files.deleteIfExists(it.next().toPath());
+				} catch (IOException e) {
+					logger.log(Level.WARNING, e);
 				}
+			}
+		}
+		return result;
+	}
 
-				sourceLang = firstFile.getAttributeValue("source-language");
-
-				writeString(output, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-				writeString(output,
-						"<!DOCTYPE tmx PUBLIC \"-//LISA OSCAR:1998//DTD for Translation Memory eXchange//EN\" \"tmx14.dtd\" >\n");
-				writeString(output, "<tmx version=\"1.4\">\n");
-				writeString(output,
-						"<header \n" +
-								"      creationtool=\"" + Constants.TOOLID + "\" \n" +
-								"      creationtoolversion=\"" + Constants.VERSION + "\" \n" +
-								"      srclang=\"" + sourceLang + "\" \n" +
-								"      adminlang=\"en\"  \n      datatype=\"xml\" \n" +
-								"      o-tmf=\"XLIFF\" \n" +
-								"      segtype=\"block\"\n>\n" +
-								"</header>\n");
-				writeString(output, "<body>\n");
-
-				List<Element> files = root.getChildren("file");
-				Iterator<Element> fileiterator = files.iterator();
-				while (fileiterator.hasNext()) {
-					Element file = fileiterator.next();
-					sourceLang = file.getAttributeValue("source-language");
-					targetLang = file.getAttributeValue("target-language");
-					original = "" + file.getAttributeValue("original").hashCode();
-					recurse(output, file);
-					filenumbr++;
+	/**
+	 * Exports each XLIFF file to the TMX file at the same position in
+	 * <code>tmxs</code> using the given number of threads.
+	 */
+	public static List<String> export(List<String> xliffs, List<String> tmxs, String catalog, int threads) {
+		List<Callable<List<String>>> jobs = new ArrayList<>();
+		for (int i = 0; i < xliffs.size(); i++) {
+			String xliff = xliffs.get(i);
+			String tmx = tmxs.get(i);
+			jobs.add(() -> export(xliff, tmx, catalog));
+		}
+		List<String> errors = exportFiles(jobs, xliffs, threads);
+		List<String> result = new ArrayList<>();
+		if (errors.isEmpty()) {
+			result.add(Constants.SUCCESS);
+		} else {
+			result.add(Constants.ERROR);
+			result.addAll(errors);
+		}
+		return result;
+	}
+
+	private static List<String> exportFiles(List<Callable<List<String>>> jobs, List<String> xliffs, int threads) {
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, jobs.size())));
+		try {
+			List<Future<List<String>>> futures = new ArrayList<>();
+			Iterator<Callable<List<String>>> it = jobs.iterator();
+			while (it.hasNext()) {
+				futures.add(pool.submit(it.next()));
+			}
+			List<String> errors = new ArrayList<>();
+			for (int i = 0; i < futures.size(); i++) {
+				List<String> res;
+				try {
+					res = futures.get(i).get();
+				} catch (ExecutionException e) {
+					res = List.of(Constants.ERROR, "" + e.getCause().getMessage());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					res = List.of(Constants.ERROR, "" + e.getMessage());
+				}
+				if (!Constants.SUCCESS.equals(res.get(0))) {
+					MessageFormat mf = new MessageFormat(Messages.getString("TmxExporter.1"));
+					String error = mf.format(new String[] { xliffs.get(i), res.get(1) });
+					logger.log(Level.ERROR, error);
+					errors.add(error);
 				}
-				writeString(output, "</body>\n");
-				writeString(output, "</tmx>");
+			}
+			return errors;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private List<String> exportTmx(String xliff, String tmx, String catalog) {
+		List<String> result = new ArrayList<>();
+		try {
+			today = getTmxDate();
+			File target = new File(tmx).getAbsoluteFile();
+			File tmp = File.createTempFile("tmx", ".tmp", target.getParentFile());
+			try {
+				try (Utf8OutputStream output = new Utf8OutputStream(tmp)) {
+					writeUnits(xliff, catalog, output, true);
+					writeString(output, "</body>\n");
+					writeString(output, "</tmx>");
+				}
+				Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			} finally {
+				Files.deleteIfExists(tmp.toPath());
 			}
 			result.add(Constants.SUCCESS);
 		} catch (IOException | SAXException | ParserConfigurationException | URISyntaxException e) {
-			Logger logger = System.getLogger(TmxExporter.class.getName());
 			logger.log(Level.ERROR, e.getMessage(), e);
 			result.add(Constants.ERROR);
 			result.add(e.getMessage());
@@ -142,20 +214,109 @@ public class TmxExporter {
 		return result;
 	}
 
-	private static void recurse(FileOutputStream output, Element e) throws IOException {
-		List<Element> list = e.getChildren();
-		Iterator<Element> i = list.iterator();
-		while (i.hasNext()) {
-			Element element = i.next();
-			if (element.getName().equals("trans-unit")) {
-				writeSegment(output, element);
-			} else {
-				recurse(output, element);
+	private List<String> exportUnits(String xliff, File fragment, String catalog) {
+		List<String> result = new ArrayList<>();
+		try (Utf8OutputStream output = new Utf8OutputStream(fragment)) {
+			writeUnits(xliff, catalog, output, false);
+			result.add(Constants.SUCCESS);
+		} catch (IOException | SAXException | ParserConfigurationException | URISyntaxException e) {
+			result.add(Constants.ERROR);
+			result.add(e.getMessage());
+		}
+		return result;
+	}
+
+	/**
+	 * Reads the XLIFF file one unit at a time and writes a &lt;tu&gt; for each
+	 * approved trans-unit. XLIFF 2.0 units are converted to trans-units as
+	 * {@link FromXliff2} does. The TMX header is written when the first
+	 * &lt;file&gt; is found if <code>header</code> is true.
+	 */
+	private void writeUnits(String xliff, String catalog, Utf8OutputStream output, boolean header)
+			throws IOException, SAXException, ParserConfigurationException, URISyntaxException {
+		filenumbr = 0;
+		try (XliffUnitReader reader = new XliffUnitReader(xliff, catalog)) {
+			if (!reader.getRoot().getName().equals("xliff")) {
+				throw new IOException(Messages.getString("TmxExporter.2"));
+			}
+			boolean xliff2 = reader.getVersion().startsWith("2.");
+			int event = reader.next();
+			while (event != XliffUnitReader.END) {
+				if (event == XliffUnitReader.START_FILE) {
+					Element file = reader.getFile();
+					if (docProperties == null) {
+						// document properties come from the processing instructions before the first file
+						docProperties = getProperties(reader.getRoot());
+					}
+					if (xliff2) {
+						sourceLang = reader.getRoot().getAttributeValue("srcLang");
+						targetLang = reader.getRoot().getAttributeValue("trgLang");
+					} else {
+						sourceLang = file.getAttributeValue("source-language");
+						targetLang = file.getAttributeValue("target-language");
+					}
+					original = "" + file.getAttributeValue("original").hashCode();
+					if (firstSourceLang == null) {
+						firstSourceLang = sourceLang;
+						if (header) {
+							writeHeader(output, sourceLang);
+						}
+					}
+				} else if (event == XliffUnitReader.UNIT) {
+					Element unit = reader.getUnit();
+					writeSegment(output, xliff2 ? FromXliff2.toTransUnit(unit) : unit);
+				} else if (event == XliffUnitReader.END_FILE) {
+					filenumbr++;
+				}
+				event = reader.next();
 			}
 		}
+		if (firstSourceLang == null && header) {
+			writeHeader(output, "");
+		}
 	}
 
-	private static void writeSegment(FileOutputStream output, Element segment) throws IOException {
+	private static Map<String, String> getProperties(Element root) {
+		Map<String, String> properties = new HashMap<>();
+		List<PI> slist = root.getPI("subject");
+		if (!slist.isEmpty()) {
+			properties.put("subject", slist.get(0).getData());
+		} else {
+			properties.put("subject", "");
+		}
+		List<PI> plist = root.getPI("project");
+		if (!plist.isEmpty()) {
+			properties.put("project", plist.get(0).getData());
+		} else {
+			properties.put("project", "");
+		}
+		List<PI> clist = root.getPI("customer");
+		if (!clist.isEmpty()) {
+			properties.put("customer", clist.get(0).getData());
+		} else {
+			properties.put("customer", "");
+		}
+		return properties;
+	}
+
+	private static void writeHeader(Utf8OutputStream output, String srcLang) throws IOException {
+		writeString(output, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		writeString(output,
+				"<!DOCTYPE tmx PUBLIC \"-//LISA OSCAR:1998//DTD for Translation Memory eXchange//EN\" \"tmx14.dtd\" >\n");
+		writeString(output, "<tmx version=\"1.4\">\n");
+		writeString(output,
+				"<header \n" +
+						"      creationtool=\"" + Constants.TOOLID + "\" \n" +
+						"      creationtoolversion=\"" + Constants.VERSION + "\" \n" +
+						"      srclang=\"" + srcLang + "\" \n" +
+						"      adminlang=\"en\"  \n      datatype=\"xml\" \n" +
+						"      o-tmf=\"XLIFF\" \n" +
+						"      segtype=\"block\"\n>\n" +
+						"</header>\n");
+		writeString(output, "<body>\n");
+	}
+
+	private void writeSegment(Utf8OutputStream output, Element segment) throws IOException {
 
 		String id = original + "-" + filenumbr + "-" + segment.getAttributeValue("id").hashCode();
 
@@ -205,8 +366,8 @@ public class TmxExporter {
 				}
 				writeString(output, "<note" + lang + ">" + XMLUtils.cleanText(note.getText()) + "</note>\n");
 			}
-			String srcText = extractText(source);
-			String tgtText = extractText(target);
+			String srcText = extract(source);
+			String tgtText = extract(target);
 			if (!segment.getAttributeValue("xml:space", "default").equals("preserve")) {
 				srcText = srcText.trim();
 				tgtText = tgtText.trim();
@@ -220,6 +381,10 @@ public class TmxExporter {
 	}
 
 	public static String extractText(Element src) {
+		return new TmxExporter().extract(src);
+	}
+
+	private String extract(Element src) {
 
 		String type = src.getName();
 
@@ -236,7 +401,7 @@ public class TmxExporter {
 						break;
 					case XMLNode.ELEMENT_NODE:
 						Element e = (Element) o;
-						text.append(extractText(e));
+						text.append(extract(e));
 						break;
 					default:
 						// ignore
@@ -278,10 +443,10 @@ public class TmxExporter {
 					case XMLNode.ELEMENT_NODE:
 						Element e = (Element) o;
 						if (e.getName().equals("sub")) {
-							text.append(extractText(e));
+							text.append(extract(e));
 						}
 						if (!e.getName().equals("mrk")) {
-							text.append(extractText(e));
+							text.append(extract(e));
 						}
 						break;
 					default:
@@ -325,7 +490,7 @@ public class TmxExporter {
 						text.append(n.toString());
 					}
 					if (n.getNodeType() == XMLNode.ELEMENT_NODE) {
-						text.append(extractText((Element) n));
+						text.append(extract((Element) n));
 					}
 				}
 				String close = "</" + src.getName() + ">";
@@ -359,7 +524,7 @@ public class TmxExporter {
 						text.append(o.toString());
 						break;
 					case XMLNode.ELEMENT_NODE:
-						text.append(extractText((Element) o));
+						text.append(extract((Element) o));
 						break;
 					default:
 						// ignore
@@ -395,7 +560,7 @@ public class TmxExporter {
 						text.append(o.toString());
 						break;
 					case XMLNode.ELEMENT_NODE:
-						text.append(extractText((Element) o));
+						text.append(extract((Element) o));
 						break;
 					default:
 						// ignore
@@ -421,7 +586,7 @@ public class TmxExporter {
 					case XMLNode.ELEMENT_NODE:
 						Element e = (Element) o;
 						if (!e.getName().equals("mrk")) {
-							text.append(extractText(e));
+							text.append(extract(e));
 						}
 						break;
 					default:
@@ -463,8 +628,8 @@ public class TmxExporter {
 		return result.replace(GAMP, "&");
 	}
 
-	private static void writeString(FileOutputStream output, String input) throws IOException {
-		output.write(input.getBytes(StandardCharsets.UTF_8));
+	private static void writeString(Utf8OutputStream output, String input) throws IOException {
+		output.write(input);
 	}
 
 	public static String getTmxDate() {
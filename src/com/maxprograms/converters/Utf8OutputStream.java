@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.converters;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Buffered file output used for XLIFF, skeleton and translated files. Strings
+ * are encoded as UTF-8 directly into the buffer and the file is only written
+ * when the buffer is full, so converters can write small fragments without
+ * paying a system call for each of them. The default buffer size can be set
+ * with the system property <code>openxliff.bufferSize</code>.
+ */
+public class Utf8OutputStream extends OutputStream {
+
+	public static final int DEFAULT_BUFFER_SIZE = Integer.getInteger("openxliff.bufferSize", 65536);
+
+	private FileChannel channel;
+	private ByteBuffer buffer;
+	private CharsetEncoder encoder;
+
+	public Utf8OutputStream(String file) throws IOException {
+		this(new File(file), false, DEFAULT_BUFFER_SIZE);
+	}
+
+	public Utf8OutputStream(File file) throws IOException {
+		this(file, false, DEFAULT_BUFFER_SIZE);
+	}
+
+	public Utf8OutputStream(File file, boolean append) throws IOException {
+		this(file, append, DEFAULT_BUFFER_SIZE);
+	}
+
+	public Utf8OutputStream(File file, boolean append, int bufferSize) throws IOException {
+		if (bufferSize < 16) {
+			// leave room for at least a few encoded characters
+			throw new IllegalArgumentException("bufferSize < 16");
+		}
+		if (append) {
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.APPEND);
+		} else {
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+		}
+		buffer = ByteBuffer.allocate(bufferSize);
+		encoder = StandardCharsets.UTF_8.newEncoder();
+		encoder.onMalformedInput(CodingErrorAction.REPLACE);
+		encoder.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	public void write(String string) throws IOException {
+		CharBuffer chars = CharBuffer.wrap(string);
+		encoder.reset();
+		CoderResult result = encoder.encode(chars, buffer, true);
+		while (result.isOverflow()) {
+			drain();
+			result = encoder.encode(chars, buffer, true);
+		}
+		result = encoder.flush(buffer);
+		while (result.isOverflow()) {
+			drain();
+			result = encoder.flush(buffer);
+		}
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		if (!buffer.hasRemaining()) {
+			drain();
+		}
+		buffer.put((byte) b);
+	}
+
+	@Override
+	public void write(byte[] bytes, int offset, int length) throws IOException {
+		if (length > buffer.remaining()) {
+			drain();
+			if (length > buffer.capacity()) {
+				ByteBuffer wrapped = ByteBuffer.wrap(bytes, offset, length);
+				while (wrapped.hasRemaining()) {
+					channel.write(wrapped);
+				}
+				return;
+			}
+		}
+		buffer.put(bytes, offset, length);
+	}
+
+	private void drain() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	@Override
+	public void flush() throws IOException {
+		drain();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (channel.isOpen()) {
+			try {
+				drain();
+			} finally {
+				channel.close();
+			}
+		}
+	}
+}
@@ -13,7 +13,6 @@ package com.maxprograms.converters;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
@@ -108,7 +107,7 @@ public class Utils {
 
 	public static void decodeToFile(String dataToDecode, String filename) throws java.io.IOException {
 		Decoder decoder = Base64.getMimeDecoder();
-		try (FileOutputStream output = new FileOutputStream(filename)) {
+		try (Utf8OutputStream output = new Utf8OutputStream(filename)) {
 			output.write(decoder.decode(dataToDecode));
 		}
 	}
@@ -128,9 +127,9 @@ public class Utils {
 		return encoder.encodeToString(Arrays.copyOf(buffer, length));
 	}
 
-	public static boolean isValidLanguage(String lang) throws IOException {
+	public static synchronized boolean isValidLanguage(String lang) throws IOException {
 		if (registry == null) {
-			registry = new RegistryParser();
+			registry = RegistryParser.getInstance();
 		}
 		return !registry.getTagDescription(lang).isEmpty();
 	}
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.converters;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+import com.maxprograms.xml.Element;
+import com.maxprograms.xml.Indenter;
+import com.maxprograms.xml.PI;
+import com.maxprograms.xml.XMLNode;
+import com.maxprograms.xml.XMLUtils;
+
+/**
+ * Writes a converted XLIFF document as it is produced. The elements that
+ * enclose units are opened and closed as the source is read and each unit is
+ * written as a complete element, with the indentation that Indenter gives to
+ * the whole document.
+ */
+public class XliffStreamWriter implements AutoCloseable {
+
+	private Utf8OutputStream output;
+	private Deque<String> open;
+	private Deque<Boolean> preserve;
+	private boolean pendingStart;
+
+	public XliffStreamWriter(File file) throws IOException {
+		this(file, true);
+	}
+
+	public XliffStreamWriter(File file, boolean writeBOM) throws IOException {
+		output = new Utf8OutputStream(file);
+		if (writeBOM) {
+			output.write(XMLUtils.UTF8BOM);
+		}
+		output.write("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n");
+		open = new ArrayDeque<>();
+		preserve = new ArrayDeque<>();
+	}
+
+	/**
+	 * Writes the start tag of an element and the content it already has,
+	 * leaving the element open for the content that is converted next.
+	 */
+	public void startElement(Element element) throws IOException {
+		if (!open.isEmpty()) {
+			newLine();
+		}
+		output.write(XliffUnitReader.startTag(element));
+		pendingStart = true;
+		open.push(element.getName());
+		preserve.push(isPreserved() || "preserve".equals(element.getAttributeValue("xml:space")));
+		List<XMLNode> content = element.getContent();
+		Iterator<XMLNode> it = content.iterator();
+		while (it.hasNext()) {
+			XMLNode node = it.next();
+			if (node.getNodeType() == XMLNode.ELEMENT_NODE) {
+				writeElement((Element) node);
+			}
+			if (node.getNodeType() == XMLNode.PROCESSING_INSTRUCTION_NODE) {
+				writePI((PI) node);
+			}
+		}
+	}
+
+	public void endElement() throws IOException {
+		String name = open.pop();
+		boolean preserved = preserve.pop().booleanValue();
+		if (pendingStart) {
+			pendingStart = false;
+			output.write("/>");
+		} else {
+			if (!preserved) {
+				output.write("\n" + "  ".repeat(open.size()));
+			}
+			output.write("</" + name + ">");
+		}
+	}
+
+	public void writeElement(Element element) throws IOException {
+		newLine();
+		if (!isPreserved()) {
+			Indenter.indent(element, open.size() + 1, 2);
+		}
+		write(element);
+	}
+
+	/**
+	 * Writes attributes in the order XMLOutputter uses, which is the order of
+	 * Element.getAttributes(); Element.writeBytes() sorts them by name.
+	 */
+	private void write(Element element) throws IOException {
+		output.write(XliffUnitReader.startTag(element));
+		List<XMLNode> content = element.getContent();
+		if (content.isEmpty()) {
+			output.write("/>");
+			return;
+		}
+		output.write(">");
+		Iterator<XMLNode> it = content.iterator();
+		while (it.hasNext()) {
+			XMLNode node = it.next();
+			if (node.getNodeType() == XMLNode.ELEMENT_NODE) {
+				write((Element) node);
+			} else {
+				node.writeBytes(output, StandardCharsets.UTF_8);
+			}
+		}
+		output.write("</" + element.getName() + ">");
+	}
+
+	public void writePI(PI pi) throws IOException {
+		newLine();
+		output.write(pi.toString());
+	}
+
+	private void newLine() throws IOException {
+		if (pendingStart) {
+			pendingStart = false;
+			output.write(">");
+		}
+		if (!isPreserved()) {
+			output.write("\n" + "  ".repeat(open.size()));
+		}
+	}
+
+	/**
+	 * Checks whether the current element keeps its white space, in which case
+	 * no indentation is added to its content, as Indenter does.
+	 */
+	private boolean isPreserved() {
+		return !preserve.isEmpty() && preserve.peek().booleanValue();
+	}
+
+	@Override
+	public void close() throws IOException {
+		output.close();
+	}
+}
@@ -0,0 +1,503 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.converters;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.xml.sax.SAXException;
+
+import com.maxprograms.xml.CData;
+import com.maxprograms.xml.Catalog;
+import com.maxprograms.xml.Comment;
+import com.maxprograms.xml.Element;
+import com.maxprograms.xml.PI;
+
+/**
+ * Reads an XLIFF document one unit at a time. Units (&lt;trans-unit&gt; in
+ * XLIFF 1.x, &lt;unit&gt; in XLIFF 2.x) are returned as complete elements and
+ * everything else is copied to the output stream, if one is set, as it is
+ * read. Only the unit being processed is kept in memory.
+ */
+public class XliffUnitReader implements AutoCloseable {
+
+	public static final int END = 0;
+	public static final int UNIT = 1;
+	public static final int START_FILE = 2;
+	public static final int END_FILE = 3;
+
+	private InputStream input;
+	private XMLStreamReader reader;
+	private OutputStream output;
+	private StringBuilder prolog;
+	private Element root;
+	private Element file;
+	private Element unit;
+	private String unitName;
+	private Deque<Boolean> translatable;
+	private int depth;
+	private boolean started;
+	private boolean pendingStart;
+	private boolean pendingFile;
+
+	public XliffUnitReader(String xliff) throws SAXException, IOException {
+		this(xliff, (Catalog) null);
+	}
+
+	public XliffUnitReader(String xliff, String catalog)
+			throws SAXException, IOException, ParserConfigurationException, URISyntaxException {
+		this(xliff, catalog != null ? CatalogCache.getCatalog(catalog) : null);
+	}
+
+	private XliffUnitReader(String xliff, Catalog catalog) throws SAXException, IOException {
+		XMLInputFactory factory = createFactory(catalog);
+		File file = new File(xliff);
+		if (!file.isFile()) {
+			MessageFormat mf = new MessageFormat(Messages.getString("XliffUnitReader.2"));
+			throw new IOException(mf.format(new String[] { xliff }));
+		}
+		input = new BufferedInputStream(new FileInputStream(file));
+		translatable = new ArrayDeque<>();
+		prolog = new StringBuilder();
+		try {
+			reader = factory.createXMLStreamReader(file.toURI().toString(), input);
+			readProlog();
+		} catch (XMLStreamException e) {
+			input.close();
+			throw new SAXException(e);
+		}
+	}
+
+	/**
+	 * Creates a StAX factory that replaces entity references and resolves
+	 * external entities with the given catalog, if there is one.
+	 */
+	public static XMLInputFactory createFactory(Catalog catalog) {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, Boolean.TRUE);
+		if (catalog != null) {
+			factory.setXMLResolver((publicID, systemID, baseURI, namespace) -> {
+				String location = publicID != null ? catalog.matchPublic(publicID) : null;
+				if (location == null && systemID != null) {
+					location = catalog.matchSystem(baseURI, systemID);
+				}
+				if (location == null || !new File(location).exists()) {
+					return null;
+				}
+				try {
+					return new FileInputStream(location);
+				} catch (IOException e) {
+					throw new XMLStreamException(e);
+				}
+			});
+		}
+		return factory;
+	}
+
+	private void readProlog() throws XMLStreamException {
+		while (reader.hasNext()) {
+			int event = reader.next();
+			switch (event) {
+				case XMLStreamConstants.START_ELEMENT:
+					root = getElement();
+					unitName = getVersion().startsWith("2.") ? "unit" : "trans-unit";
+					return;
+				case XMLStreamConstants.DTD:
+					prolog.append(reader.getText()).append('\n');
+					break;
+				case XMLStreamConstants.COMMENT:
+					prolog.append("<!--").append(reader.getText()).append("-->\n");
+					break;
+				case XMLStreamConstants.PROCESSING_INSTRUCTION:
+					prolog.append(getPI()).append('\n');
+					break;
+				default:
+					// whitespace before the root element is not preserved
+			}
+		}
+		throw new XMLStreamException(Messages.getString("XliffUnitReader.1"));
+	}
+
+	public void setOutput(OutputStream output) {
+		this.output = output;
+	}
+
+	public Element getRoot() {
+		return root;
+	}
+
+	public String getVersion() {
+		return root.getAttributeValue("version");
+	}
+
+	public Element getFile() {
+		return file;
+	}
+
+	public Element getUnit() {
+		return unit;
+	}
+
+	/**
+	 * Checks the translate attribute of the &lt;file&gt; and &lt;group&gt;
+	 * elements that contain the current unit.
+	 */
+	public boolean isTranslatable() {
+		return !translatable.contains(Boolean.FALSE);
+	}
+
+	public int next() throws SAXException, IOException {
+		try {
+			if (!started) {
+				started = true;
+				write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+				write(prolog.toString());
+				writeStart(root);
+				depth = 1;
+			}
+			if (pendingFile) {
+				pendingFile = false;
+				writeStart(file);
+			}
+			while (reader.hasNext()) {
+				int event = reader.next();
+				switch (event) {
+					case XMLStreamConstants.START_ELEMENT:
+						String name = reader.getLocalName();
+						Element element = getElement();
+						if (name.equals(unitName)) {
+							closeStart();
+							unit = readUnit(element);
+							return UNIT;
+						}
+						depth++;
+						if (name.equals("file") || name.equals("group")) {
+							translatable.push(!"no".equals(element.getAttributeValue("translate")));
+						}
+						if (name.equals("file")) {
+							closeStart();
+							file = element;
+							pendingFile = true;
+							return START_FILE;
+						}
+						writeStart(element);
+						break;
+					case XMLStreamConstants.END_ELEMENT:
+						depth--;
+						if (pendingStart) {
+							pendingStart = false;
+							write("/>");
+						} else {
+							write("</" + getName() + ">");
+						}
+						if (reader.getLocalName().equals("file") || reader.getLocalName().equals("group")) {
+							translatable.pop();
+						}
+						if (reader.getLocalName().equals("file") && depth == 1) {
+							return END_FILE;
+						}
+						break;
+					case XMLStreamConstants.CHARACTERS:
+					case XMLStreamConstants.SPACE:
+						closeStart();
+						write(escape(reader.getText(), false));
+						break;
+					case XMLStreamConstants.CDATA:
+						closeStart();
+						write("<![CDATA[" + reader.getText() + "]]>");
+						break;
+					case XMLStreamConstants.COMMENT:
+						closeStart();
+						write("<!--" + reader.getText() + "-->");
+						break;
+					case XMLStreamConstants.PROCESSING_INSTRUCTION:
+						closeStart();
+						PI pi = new PI(reader.getPITarget(), reader.getPIData() != null ? reader.getPIData() : "");
+						if (depth == 1) {
+							root.addContent(pi);
+						} else if (depth == 2 && file != null) {
+							file.addContent(pi);
+						}
+						write(getPI());
+						break;
+					case XMLStreamConstants.END_DOCUMENT:
+						write("\n");
+						break;
+					default:
+						// nothing to copy
+				}
+			}
+			unit = null;
+			return END;
+		} catch (XMLStreamException e) {
+			throw new SAXException(e);
+		}
+	}
+
+	public void writeUnit(Element element) throws IOException {
+		if (output != null) {
+			element.writeBytes(output, StandardCharsets.UTF_8);
+		}
+	}
+
+	/**
+	 * Skips the prolog and returns the start tag of the root element.
+	 */
+	public static Element readRoot(XMLStreamReader reader) throws XMLStreamException {
+		while (reader.hasNext()) {
+			if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+				return getElement(reader);
+			}
+		}
+		throw new XMLStreamException(Messages.getString("XliffUnitReader.1"));
+	}
+
+	private Element readUnit(Element element) throws XMLStreamException {
+		return readElement(reader, element);
+	}
+
+	/**
+	 * Reads the content of the element whose start tag is the current event
+	 * and adds it to <code>element</code>. The reader is left at the matching
+	 * end tag.
+	 */
+	public static Element readElement(XMLStreamReader reader, Element element) throws XMLStreamException {
+		Deque<Element> stack = new ArrayDeque<>();
+		stack.push(element);
+		while (!stack.isEmpty()) {
+			int event = reader.next();
+			switch (event) {
+				case XMLStreamConstants.START_ELEMENT:
+					Element child = getElement(reader);
+					stack.peek().addContent(child);
+					stack.push(child);
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					stack.pop();
+					break;
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.SPACE:
+					stack.peek().addContent(reader.getText());
+					break;
+				case XMLStreamConstants.CDATA:
+					stack.peek().addContent(new CData(reader.getText()));
+					break;
+				case XMLStreamConstants.COMMENT:
+					stack.peek().addContent(new UnitComment(reader.getText()));
+					break;
+				case XMLStreamConstants.PROCESSING_INSTRUCTION:
+					stack.peek().addContent(
+							new PI(reader.getPITarget(), reader.getPIData() != null ? reader.getPIData() : ""));
+					break;
+				default:
+					// nothing to add
+			}
+		}
+		return element;
+	}
+
+	private Element getElement() {
+		return getElement(reader);
+	}
+
+	public static Element getElement(XMLStreamReader reader) {
+		Element element = new Element(getName(reader));
+		for (int i = 0; i < reader.getNamespaceCount(); i++) {
+			String prefix = reader.getNamespacePrefix(i);
+			String name = prefix == null || prefix.isEmpty() ? "xmlns" : "xmlns:" + prefix;
+			element.setAttribute(name, reader.getNamespaceURI(i));
+		}
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			String prefix = reader.getAttributePrefix(i);
+			String name = reader.getAttributeLocalName(i);
+			if (prefix != null && !prefix.isEmpty()) {
+				name = prefix + ':' + name;
+			}
+			element.setAttribute(name, reader.getAttributeValue(i));
+		}
+		return element;
+	}
+
+	private String getName() {
+		return getName(reader);
+	}
+
+	public static String getName(XMLStreamReader reader) {
+		String prefix = reader.getPrefix();
+		if (prefix == null || prefix.isEmpty()) {
+			return reader.getLocalName();
+		}
+		return prefix + ':' + reader.getLocalName();
+	}
+
+	private String getPI() {
+		return getPI(reader);
+	}
+
+	public static String getPI(XMLStreamReader reader) {
+		String data = reader.getPIData();
+		if (data == null || data.isEmpty()) {
+			return "<?" + reader.getPITarget() + "?>";
+		}
+		return "<?" + reader.getPITarget() + ' ' + data + "?>";
+	}
+
+	private void writeStart(Element element) throws IOException {
+		closeStart();
+		write(startTag(element));
+		pendingStart = true;
+	}
+
+	/**
+	 * Returns the start tag of an element without the closing '&gt;', so the
+	 * caller can close it as an empty element if no content follows.
+	 */
+	public static String startTag(Element element) {
+		StringBuilder builder = new StringBuilder();
+		builder.append('<');
+		builder.append(element.getName());
+		for (int i = 0; i < element.getAttributes().size(); i++) {
+			builder.append(' ');
+			builder.append(element.getAttributes().get(i).getName());
+			builder.append("=\"");
+			builder.append(escape(element.getAttributes().get(i).getValue(), true));
+			builder.append('"');
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Returns the start tag of the current element of the reader without the
+	 * closing '&gt;', keeping the order of its namespace declarations and
+	 * attributes. Attributes named in <code>replace</code> get the new value; names
+	 * not present in the element are added at the end.
+	 */
+	public static String startTag(XMLStreamReader reader, Map<String, String> replace) {
+		StringBuilder builder = new StringBuilder();
+		builder.append('<');
+		builder.append(getName(reader));
+		for (int i = 0; i < reader.getNamespaceCount(); i++) {
+			String prefix = reader.getNamespacePrefix(i);
+			builder.append(prefix == null || prefix.isEmpty() ? " xmlns" : " xmlns:" + prefix);
+			builder.append("=\"");
+			builder.append(escape(reader.getNamespaceURI(i), true));
+			builder.append('"');
+		}
+		Set<String> replaced = new HashSet<>();
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			String prefix = reader.getAttributePrefix(i);
+			String name = reader.getAttributeLocalName(i);
+			if (prefix != null && !prefix.isEmpty()) {
+				name = prefix + ':' + name;
+			}
+			String value = reader.getAttributeValue(i);
+			if (replace.containsKey(name)) {
+				value = replace.get(name);
+				replaced.add(name);
+			}
+			builder.append(' ');
+			builder.append(name);
+			builder.append("=\"");
+			builder.append(escape(value, true));
+			builder.append('"');
+		}
+		Iterator<String> it = replace.keySet().iterator();
+		while (it.hasNext()) {
+			String name = it.next();
+			if (!replaced.contains(name)) {
+				builder.append(' ');
+				builder.append(name);
+				builder.append("=\"");
+				builder.append(escape(replace.get(name), true));
+				builder.append('"');
+			}
+		}
+		return builder.toString();
+	}
+
+	private void closeStart() throws IOException {
+		if (pendingStart) {
+			pendingStart = false;
+			write(">");
+		}
+	}
+
+	private void write(String string) throws IOException {
+		if (output != null) {
+			output.write(string.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	public static String escape(String string, boolean quotes) {
+		StringBuilder builder = new StringBuilder(string.length());
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			switch (c) {
+				case '&':
+					builder.append("&amp;");
+					break;
+				case '<':
+					builder.append("&lt;");
+					break;
+				case '>':
+					builder.append("&gt;");
+					break;
+				case '"':
+					builder.append(quotes ? "&quot;" : "\"");
+					break;
+				default:
+					builder.append(c);
+			}
+		}
+		return builder.toString();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			reader.close();
+		} catch (XMLStreamException e) {
+			throw new IOException(e);
+		} finally {
+			input.close();
+		}
+	}
+
+	private static class UnitComment extends Comment {
+
+		private static final long serialVersionUID = 1L;
+
+		UnitComment(String text) {
+			super(text);
+		}
+	}
+}
@@ -0,0 +1,360 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.converters;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * Reads a ZIP container and writes a new one, usually a skeleton. Entries that
+ * are not modified are copied with their compressed bytes, without inflating
+ * and deflating them again; new entries are deflated as they are written.
+ * ZIP64 files are not supported.
+ */
+public class ZipContainer implements AutoCloseable {
+
+	private static final int LOCAL_HEADER = 0x04034b50;
+	private static final int CENTRAL_HEADER = 0x02014b50;
+	private static final int END_HEADER = 0x06054b50;
+	private static final int DATA_DESCRIPTOR = 0x08074b50;
+	private static final long MAX_VALUE = 0xFFFFFFFFL;
+	private static final int BUFFER_SIZE = 8192;
+
+	private ZipFile zip;
+	private FileChannel input;
+	private FileChannel output;
+	private List<Entry> entries;
+	private Map<String, Entry> table;
+	private List<Entry> written;
+
+	private static class Entry {
+		String name;
+		byte[] bytes;
+		int madeBy;
+		int version;
+		int flags;
+		int method;
+		int time;
+		long crc;
+		long compressed;
+		long size;
+		long attributes;
+		long offset;
+	}
+
+	public ZipContainer(String source, String target) throws IOException {
+		zip = new ZipFile(source);
+		entries = new ArrayList<>();
+		table = new HashMap<>();
+		written = new ArrayList<>();
+		try {
+			input = FileChannel.open(Paths.get(source), StandardOpenOption.READ);
+			readDirectory();
+			output = FileChannel.open(Paths.get(target), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+		} catch (IOException e) {
+			zip.close();
+			if (input != null) {
+				input.close();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the names of the entries in the order of the central directory.
+	 */
+	public List<String> getNames() {
+		List<String> result = new ArrayList<>();
+		Iterator<Entry> it = entries.iterator();
+		while (it.hasNext()) {
+			result.add(it.next().name);
+		}
+		return result;
+	}
+
+	public InputStream getInputStream(String name) throws IOException {
+		return zip.getInputStream(zip.getEntry(name));
+	}
+
+	/**
+	 * Copies an entry of the source container without changing its data.
+	 */
+	public void copyEntry(String name) throws IOException {
+		Entry entry = table.get(name);
+		ByteBuffer header = ByteBuffer.allocate(30).order(ByteOrder.LITTLE_ENDIAN);
+		read(header, entry.offset);
+		if (header.getInt(0) != LOCAL_HEADER) {
+			throw new ZipException(Messages.getString("ZipContainer.1"));
+		}
+		long start = entry.offset + 30 + (header.getShort(26) & 0xFFFF) + (header.getShort(28) & 0xFFFF);
+
+		Entry copy = new Entry();
+		copy.name = entry.name;
+		copy.bytes = entry.bytes;
+		copy.madeBy = entry.madeBy;
+		copy.version = entry.version;
+		// sizes are known, a data descriptor is not needed
+		copy.flags = entry.flags & ~0x08;
+		copy.method = entry.method;
+		copy.time = entry.time;
+		copy.crc = entry.crc;
+		copy.compressed = entry.compressed;
+		copy.size = entry.size;
+		copy.attributes = entry.attributes;
+		copy.offset = output.position();
+		checkSize(copy.offset);
+		writeLocalHeader(copy);
+		long position = start;
+		long remaining = entry.compressed;
+		while (remaining > 0) {
+			long count = input.transferTo(position, remaining, output);
+			if (count <= 0) {
+				throw new ZipException(Messages.getString("ZipContainer.1"));
+			}
+			position += count;
+			remaining -= count;
+		}
+		written.add(copy);
+	}
+
+	/**
+	 * Adds a new entry with the deflated content of a file.
+	 */
+	public void addEntry(String name, File file) throws IOException {
+		Entry entry = new Entry();
+		entry.name = name;
+		entry.bytes = name.getBytes(StandardCharsets.UTF_8);
+		entry.madeBy = 20;
+		entry.version = 20;
+		// UTF-8 name, sizes in data descriptor
+		entry.flags = 0x0808;
+		entry.method = ZipEntry.DEFLATED;
+		entry.time = dosTime(LocalDateTime.now());
+		entry.offset = output.position();
+		checkSize(entry.offset);
+		writeLocalHeader(entry);
+		CRC32 crc = new CRC32();
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		try (FileInputStream in = new FileInputStream(file)) {
+			DeflaterOutputStream out = new DeflaterOutputStream(Channels.newOutputStream(output), deflater,
+					BUFFER_SIZE);
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int len;
+			while ((len = in.read(buffer)) != -1) {
+				crc.update(buffer, 0, len);
+				out.write(buffer, 0, len);
+			}
+			out.finish();
+			entry.crc = crc.getValue();
+			entry.compressed = deflater.getBytesWritten();
+			entry.size = deflater.getBytesRead();
+		} finally {
+			deflater.end();
+		}
+		checkSize(entry.compressed);
+		checkSize(entry.size);
+		ByteBuffer descriptor = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+		descriptor.putInt(DATA_DESCRIPTOR);
+		descriptor.putInt((int) entry.crc);
+		descriptor.putInt((int) entry.compressed);
+		descriptor.putInt((int) entry.size);
+		write(descriptor);
+		written.add(entry);
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			if (output != null && output.isOpen()) {
+				writeDirectory();
+			}
+		} finally {
+			zip.close();
+			input.close();
+			if (output != null) {
+				output.close();
+			}
+		}
+	}
+
+	private void readDirectory() throws IOException {
+		long length = input.size();
+		if (length < 22) {
+			throw new ZipException(Messages.getString("ZipContainer.1"));
+		}
+		int tail = (int) Math.min(length, 22 + 0xFFFF);
+		ByteBuffer buffer = ByteBuffer.allocate(tail).order(ByteOrder.LITTLE_ENDIAN);
+		read(buffer, length - tail);
+		int end = -1;
+		for (int i = tail - 22; i >= 0; i--) {
+			if (buffer.getInt(i) == END_HEADER) {
+				end = i;
+				break;
+			}
+		}
+		if (end == -1) {
+			throw new ZipException(Messages.getString("ZipContainer.1"));
+		}
+		int count = buffer.getShort(end + 10) & 0xFFFF;
+		long directorySize = buffer.getInt(end + 12) & MAX_VALUE;
+		long directoryOffset = buffer.getInt(end + 16) & MAX_VALUE;
+		if (count == 0xFFFF || directorySize == MAX_VALUE || directoryOffset == MAX_VALUE) {
+			throw new ZipException(Messages.getString("ZipContainer.2"));
+		}
+		ByteBuffer directory = ByteBuffer.allocate((int) directorySize).order(ByteOrder.LITTLE_ENDIAN);
+		read(directory, directoryOffset);
+		int position = 0;
+		for (int i = 0; i < count; i++) {
+			if (directory.getInt(position) != CENTRAL_HEADER) {
+				throw new ZipException(Messages.getString("ZipContainer.1"));
+			}
+			Entry entry = new Entry();
+			entry.madeBy = directory.getShort(position + 4) & 0xFFFF;
+			entry.version = directory.getShort(position + 6) & 0xFFFF;
+			entry.flags = directory.getShort(position + 8) & 0xFFFF;
+			entry.method = directory.getShort(position + 10) & 0xFFFF;
+			entry.time = directory.getInt(position + 12);
+			entry.crc = directory.getInt(position + 16) & MAX_VALUE;
+			entry.compressed = directory.getInt(position + 20) & MAX_VALUE;
+			entry.size = directory.getInt(position + 24) & MAX_VALUE;
+			int nameLength = directory.getShort(position + 28) & 0xFFFF;
+			int extraLength = directory.getShort(position + 30) & 0xFFFF;
+			int commentLength = directory.getShort(position + 32) & 0xFFFF;
+			entry.attributes = directory.getInt(position + 38) & MAX_VALUE;
+			entry.offset = directory.getInt(position + 42) & MAX_VALUE;
+			if (entry.compressed == MAX_VALUE || entry.size == MAX_VALUE || entry.offset == MAX_VALUE) {
+				throw new ZipException(Messages.getString("ZipContainer.2"));
+			}
+			byte[] name = new byte[nameLength];
+			directory.get(position + 46, name);
+			entry.name = new String(name, StandardCharsets.UTF_8);
+			entry.bytes = name;
+			entries.add(entry);
+			table.put(entry.name, entry);
+			position += 46 + nameLength + extraLength + commentLength;
+		}
+	}
+
+	private void writeLocalHeader(Entry entry) throws IOException {
+		byte[] name = entry.bytes;
+		ByteBuffer header = ByteBuffer.allocate(30 + name.length).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(LOCAL_HEADER);
+		header.putShort((short) entry.version);
+		header.putShort((short) entry.flags);
+		header.putShort((short) entry.method);
+		header.putInt(entry.time);
+		header.putInt((int) entry.crc);
+		header.putInt((int) entry.compressed);
+		header.putInt((int) entry.size);
+		header.putShort((short) name.length);
+		header.putShort((short) 0);
+		header.put(name);
+		write(header);
+	}
+
+	private void writeDirectory() throws IOException {
+		long start = output.position();
+		Iterator<Entry> it = written.iterator();
+		while (it.hasNext()) {
+			Entry entry = it.next();
+			byte[] name = entry.bytes;
+			ByteBuffer header = ByteBuffer.allocate(46 + name.length).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(CENTRAL_HEADER);
+			header.putShort((short) entry.madeBy);
+			header.putShort((short) entry.version);
+			header.putShort((short) entry.flags);
+			header.putShort((short) entry.method);
+			header.putInt(entry.time);
+			header.putInt((int) entry.crc);
+			header.putInt((int) entry.compressed);
+			header.putInt((int) entry.size);
+			header.putShort((short) name.length);
+			header.putShort((short) 0);
+			header.putShort((short) 0);
+			header.putShort((short) 0);
+			header.putShort((short) 0);
+			header.putInt((int) entry.attributes);
+			header.putInt((int) entry.offset);
+			header.put(name);
+			write(header);
+		}
+		long size = output.position() - start;
+		checkSize(start);
+		checkSize(size);
+		if (written.size() >= 0xFFFF) {
+			throw new ZipException(Messages.getString("ZipContainer.2"));
+		}
+		ByteBuffer end = ByteBuffer.allocate(22).order(ByteOrder.LITTLE_ENDIAN);
+		end.putInt(END_HEADER);
+		end.putShort((short) 0);
+		end.putShort((short) 0);
+		end.putShort((short) written.size());
+		end.putShort((short) written.size());
+		end.putInt((int) size);
+		end.putInt((int) start);
+		end.putShort((short) 0);
+		write(end);
+	}
+
+	private void read(ByteBuffer buffer, long position) throws IOException {
+		long current = position;
+		while (buffer.hasRemaining()) {
+			int count = input.read(buffer, current);
+			if (count == -1) {
+				throw new ZipException(Messages.getString("ZipContainer.1"));
+			}
+			current += count;
+		}
+	}
+
+	private void write(ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			output.write(buffer);
+		}
+	}
+
+	private static void checkSize(long value) throws ZipException {
+		if (value >= MAX_VALUE) {
+			throw new ZipException(Messages.getString("ZipContainer.2"));
+		}
+	}
+
+	private static int dosTime(LocalDateTime date) {
+		int year = Math.max(date.getYear(), 1980);
+		int day = (year - 1980) << 9 | date.getMonthValue() << 5 | date.getDayOfMonth();
+		int time = date.getHour() << 11 | date.getMinute() << 5 | date.getSecond() >> 1;
+		return day << 16 | time;
+	}
+}
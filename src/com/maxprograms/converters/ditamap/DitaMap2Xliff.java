@@ -12,18 +12,20 @@
 package com.maxprograms.converters.ditamap;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
+import java.net.URISyntaxException;
 import java.net.URLDecoder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -32,23 +34,30 @@ import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.Base64.Encoder;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.json.JSONObject;
 import org.xml.sax.SAXException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
 import com.maxprograms.converters.EncodingResolver;
 import com.maxprograms.converters.FileFormats;
 import com.maxprograms.converters.ILogger;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.Utils;
+import com.maxprograms.converters.XliffStreamWriter;
 import com.maxprograms.converters.xml.Xml2Xliff;
 import com.maxprograms.xml.Attribute;
 import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
-import com.maxprograms.xml.Indenter;
 import com.maxprograms.xml.PI;
 import com.maxprograms.xml.SAXBuilder;
 import com.maxprograms.xml.SilentErrorHandler;
@@ -59,32 +68,47 @@ public class DitaMap2Xliff {
 
 	private static Logger logger = System.getLogger(DitaMap2Xliff.class.getName());
 
-	private static Element mergedRoot;
-	private static boolean hasConref;
-	private static boolean hasXref;
-	private static boolean hasConKeyRef;
-	private static Scope rootScope;
-	private static Map<String, Set<String>> excludeTable;
-	private static Map<String, Set<String>> includeTable;
-	private static boolean filterAttributes;
-	private static boolean elementsExcluded;
-	private static List<String> skipped;
-	private static ILogger dataLogger;
-	private static List<String> issues;
-	private static Map<String, List<String>> images;
-
-	private DitaMap2Xliff() {
+	private Scope rootScope;
+	private Map<String, Set<String>> excludeTable;
+	private Map<String, Set<String>> includeTable;
+	private boolean filterAttributes;
+	private List<String> skipped;
+	private ILogger dataLogger;
+	private List<String> issues;
+	private Map<String, List<String>> images;
+	private ReferenceIndex index;
+
+	private DitaMap2Xliff(ILogger dataLogger) {
 		// do not instantiate this class
 		// use run method instead
+		this.dataLogger = dataLogger;
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return run(params, null, null);
+	}
+
+	/**
+	 * Converts a DITA map reporting progress to <code>dataLogger</code>, if not
+	 * null. Problems found in the map are added to <code>issues</code>, if not
+	 * null.
+	 */
+	public static List<String> run(Map<String, String> params, ILogger dataLogger, List<String> issues) {
+		DitaMap2Xliff instance = new DitaMap2Xliff(dataLogger);
+		List<String> result = instance.convert(params);
+		if (issues != null) {
+			issues.addAll(instance.issues);
+		}
+		return result;
+	}
+
+	private List<String> convert(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
-		issues = new ArrayList<>();
+		issues = Collections.synchronizedList(new ArrayList<>());
 		try {
 			String xliffFile = params.get("xliff");
 			String skeleton = params.get("skeleton");
-			Catalog catalog = new Catalog(params.get("catalog"));
+			Catalog catalog = CatalogCache.getCatalog(params.get("catalog"));
 			String mapFile = params.get("source");
 
 			DitaParser parser = new DitaParser();
@@ -95,15 +119,15 @@ public class DitaMap2Xliff {
 					return result;
 				}
 				dataLogger.setStage(Messages.getString("DitaMap2Xliff.01"));
-				DitaParser.setDataLogger(dataLogger);
+				parser.setDataLogger(dataLogger);
 			}
-			List<String> filesMap = parser.run(params, catalog);
+			index = new ReferenceIndex();
+			List<String> filesMap = parser.run(params, catalog, index);
 			issues.addAll(parser.getIssues());
 			rootScope = parser.getScope();
 			images = parser.getImages();
 
 			List<String> xliffs = new ArrayList<>();
-			List<String> skels = new ArrayList<>();
 
 			String ditaval = params.get("ditaval");
 			if (ditaval != null) {
@@ -120,102 +144,67 @@ public class DitaMap2Xliff {
 			}
 			skipped = new ArrayList<>();
 			skipped.addAll(parser.getSkipped());
-			for (int i = 0; i < filesMap.size(); i++) {
-				String file = filesMap.get(i);
-				if (dataLogger != null) {
-					if (dataLogger.isCancelled()) {
-						result.add("1");
-						result.add(Constants.CANCELLED);
-						return result;
-					}
-					dataLogger.log(new File(file).getName());
-				}
-				String source = "";
-				try {
-					source = checkConref(file, catalog);
-				} catch (Exception skip) {
-					// skip untranslatable files
-					continue;
+			File sklParent = new File(skeleton).getParentFile();
+			if (Files.notExists(sklParent.toPath())) {
+				Files.createDirectories(sklParent.toPath());
+			}
+			int threads = params.containsKey("threads") ? Integer.parseInt(params.get("threads")) : 1;
+			ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, filesMap.size())));
+			try {
+				// topics are extracted in any order and collected in map order
+				List<Future<List<String>>> futures = new ArrayList<>();
+				for (int i = 0; i < filesMap.size(); i++) {
+					String file = filesMap.get(i);
+					Callable<List<String>> job = () -> extract(file, params);
+					futures.add(pool.submit(job));
 				}
-				if (excludeTable != null) {
+				for (int i = 0; i < futures.size(); i++) {
+					String file = filesMap.get(i);
+					if (dataLogger != null) {
+						if (dataLogger.isCancelled()) {
+							result.add("1");
+							result.add(Constants.CANCELLED);
+							return result;
+						}
+						dataLogger.log(new File(file).getName());
+					}
+					List<String> res;
 					try {
-						source = removeFiltered(source, catalog);
-					} catch (Exception sax) {
-						// skip directly referenced images
-						continue;
+						res = futures.get(i).get();
+					} catch (ExecutionException e) {
+						res = List.of(Constants.ERROR, "" + e.getCause().getMessage());
 					}
-				}
-				try {
-					source = checkConKeyRef(source, catalog);
-				} catch (Exception sax) {
-					// skip directly referenced images
-					continue;
-				}
-				try {
-					source = checkXref(source, catalog);
-				} catch (Exception sax) {
-					// skip directly referenced images
-					continue;
-				}
-
-				File sklParent = new File(skeleton).getParentFile();
-				if (Files.notExists(sklParent.toPath())) {
-					Files.createDirectories(sklParent.toPath());
-				}
-				File skl = File.createTempFile("dita", ".skl", sklParent);
-				skels.add(skl.getAbsolutePath());
-				File xlf = File.createTempFile("dita", ".xlf", new File(skeleton).getParentFile());
-				xlf.deleteOnExit();
-
-				Charset encoding = EncodingResolver.getEncoding(source, FileFormats.XML);
-				Map<String, String> params2 = new HashMap<>();
-				params2.put("source", source);
-				params2.put("xliff", xlf.getAbsolutePath());
-				params2.put("skeleton", skl.getAbsolutePath());
-				params2.put("srcLang", params.get("srcLang"));
-				String tgtLang = params.get("tgtLang");
-				if (tgtLang != null) {
-					params2.put("tgtLang", tgtLang);
-				}
-				params2.put("catalog", params.get("catalog"));
-				params2.put("srcEncoding", encoding.name());
-				params2.put("srxFile", params.get("srxFile"));
-				params2.put("paragraph", params.get("paragraph"));
-				params2.put("dita_based", "yes");
-				params2.put("xmlfilter", params.get("xmlfilter"));
-				params2.put("ignoretc", params.get("ignoretc"));
-				String tComments = params.get("translateComments");
-				if (tComments != null) {
-					params2.put("translateComments", tComments);
-				}
-				List<String> res = Xml2Xliff.run(params2);
-				if (!Constants.SUCCESS.equals(res.get(0))) {
-					if (res.size() == 3 && "EMPTY".equals(res.get(2))) {
-						// this DITA file does not contain text
-						skipped.add(filesMap.get(i));
+					if (res.isEmpty()) {
+						// skip untranslatable files and directly referenced images
 						continue;
 					}
-					MessageFormat mf = new MessageFormat(Messages.getString("DitaMap2Xliff.03"));
-					String issue = mf.format(new String[] { source });
-					logger.log(Level.ERROR, issue);
-					issues.add(issue);
-					return res;
-				}
-				xliffs.add(xlf.getAbsolutePath());
-				if (!source.equals(filesMap.get(i))) {
-					// original has conref
-					fixSource(xlf.getAbsolutePath(), filesMap.get(i), catalog);
+					if (!Constants.SUCCESS.equals(res.get(0))) {
+						if (res.size() > 1 && Constants.CANCELLED.equals(res.get(1))) {
+							return res;
+						}
+						if (res.size() == 3 && "EMPTY".equals(res.get(2))) {
+							// this DITA file does not contain text
+							skipped.add(file);
+							continue;
+						}
+						MessageFormat mf = new MessageFormat(Messages.getString("DitaMap2Xliff.03"));
+						String issue = mf.format(new String[] { file });
+						logger.log(Level.ERROR, issue);
+						issues.add(issue);
+						return res;
+					}
+					xliffs.add(res.get(1));
 				}
+			} finally {
+				pool.shutdownNow();
 			}
 
-			Document merged = new Document(null, "xliff", null, null);
-			mergedRoot = merged.getRootElement();
+			Element mergedRoot = new Element("xliff");
 			mergedRoot.setAttribute("version", "1.2");
 			mergedRoot.setAttribute("xmlns", "urn:oasis:names:tc:xliff:document:1.2");
 			mergedRoot.setAttribute("xmlns:xsi", "http://www.w3.org/2001/XMLSchema-instance");
 			mergedRoot.setAttribute("xsi:schemaLocation",
 					"urn:oasis:names:tc:xliff:document:1.2 xliff-core-1.2-transitional.xsd");
-			mergedRoot.addContent("\n");
 			mergedRoot.addContent(new PI("encoding", params.get("srcEncoding")));
 			List<String> ignored = parser.getIgnored();
 
@@ -269,26 +258,29 @@ public class DitaMap2Xliff {
 					PI pi = new PI("skipped", json.toString());
 					file.addContent(pi);
 				}
-				try (FileOutputStream output = new FileOutputStream(xliffs.get(0))) {
+				try (Utf8OutputStream output = new Utf8OutputStream(xliffs.get(0))) {
 					outputter.output(doc, output);
 				}
 			}
 
-			for (int i = 0; i < xliffs.size(); i++) {
-				mergedRoot.addContent("\n");
-				addFile(xliffs.get(i), mapFile, catalog, ignored);
-			}
-
-			// output final XLIFF
+			// output final XLIFF, one topic at a time
 
-			Indenter.indent(mergedRoot, 2);
-			outputter.preserveSpace(true);
-			File xliff = new File(xliffFile);
+			File xliff = new File(xliffFile).getAbsoluteFile();
 			if (!xliff.getParentFile().exists()) {
 				Files.createDirectories(xliff.getParentFile().toPath());
 			}
-			try (FileOutputStream output = new FileOutputStream(xliff)) {
-				outputter.output(merged, output);
+			File tmpXliff = File.createTempFile("xliff", ".tmp", xliff.getParentFile());
+			try {
+				try (XliffStreamWriter writer = new XliffStreamWriter(tmpXliff, false)) {
+					writer.startElement(mergedRoot);
+					for (int i = 0; i < xliffs.size(); i++) {
+						addFile(writer, xliffs.get(i), mapFile, catalog, ignored);
+					}
+					writer.endElement();
+				}
+				Files.move(tmpXliff.toPath(), xliff.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			} finally {
+				Files.deleteIfExists(tmpXliff.toPath());
 			}
 			result.add(Constants.SUCCESS);
 		} catch (Exception e) {
@@ -299,7 +291,66 @@ public class DitaMap2Xliff {
 		return result;
 	}
 
-	private static String checkXref(String source, Catalog catalog)
+	/**
+	 * Extracts the text of a topic. Returns an empty list when the topic is
+	 * skipped, the result of Xml2Xliff when extraction fails or "0" followed by
+	 * the path of the generated XLIFF file. Runs on a worker thread, with that
+	 * thread's catalog.
+	 */
+	private List<String> extract(String file, Map<String, String> params)
+			throws IOException, SAXException, ParserConfigurationException, URISyntaxException {
+		if (dataLogger != null && dataLogger.isCancelled()) {
+			throw new IOException(Constants.CANCELLED);
+		}
+		Catalog catalog = CatalogCache.getCatalog(params.get("catalog"));
+		Document doc = null;
+		try {
+			doc = preprocess(file, catalog);
+		} catch (Exception skip) {
+			return new ArrayList<>();
+		}
+		File sklParent = new File(params.get("skeleton")).getParentFile();
+		File skl = File.createTempFile("dita", ".skl", sklParent);
+		File xlf = File.createTempFile("dita", ".xlf", sklParent);
+		xlf.deleteOnExit();
+
+		Charset encoding = EncodingResolver.getEncoding(file, FileFormats.XML);
+		Map<String, String> params2 = new HashMap<>();
+		params2.put("source", file);
+		params2.put("xliff", xlf.getAbsolutePath());
+		params2.put("skeleton", skl.getAbsolutePath());
+		params2.put("srcLang", params.get("srcLang"));
+		String tgtLang = params.get("tgtLang");
+		if (tgtLang != null) {
+			params2.put("tgtLang", tgtLang);
+		}
+		params2.put("catalog", params.get("catalog"));
+		params2.put("srcEncoding", encoding.name());
+		params2.put("srxFile", params.get("srxFile"));
+		params2.put("paragraph", params.get("paragraph"));
+		params2.put("dita_based", "yes");
+		params2.put("xmlfilter", params.get("xmlfilter"));
+		params2.put("ignoretc", params.get("ignoretc"));
+		String tComments = params.get("translateComments");
+		if (tComments != null) {
+			params2.put("translateComments", tComments);
+		}
+		List<String> res = Xml2Xliff.run(params2, doc);
+		if (!Constants.SUCCESS.equals(res.get(0))) {
+			return res;
+		}
+		List<String> result = new ArrayList<>();
+		result.add(Constants.SUCCESS);
+		result.add(xlf.getAbsolutePath());
+		return result;
+	}
+
+	/**
+	 * Parses a topic and resolves conrefs, ditaval filtering, conkeyrefs and
+	 * xrefs on the parsed tree, which is then extracted without writing it back
+	 * to disk.
+	 */
+	private Document preprocess(String source, Catalog catalog)
 			throws SAXException, IOException, ParserConfigurationException, SkipException {
 		SAXBuilder builder = new SAXBuilder();
 		builder.setEntityResolver(catalog);
@@ -310,24 +361,19 @@ public class DitaMap2Xliff {
 		if (root.getAttributeValue("translate", "yes").equalsIgnoreCase("no")) {
 			throw new SkipException("Untranslatable!");
 		}
-		hasXref = false;
-		fixXref(root, source, doc, catalog);
-		if (hasXref) {
-			Charset encoding = EncodingResolver.getEncoding(source, FileFormats.XML);
-			File temp = File.createTempFile("temp", ".dita");
-			temp.deleteOnExit();
-			XMLOutputter outputter = new XMLOutputter();
-			outputter.setEncoding(encoding);
-			outputter.preserveSpace(true);
-			try (FileOutputStream out = new FileOutputStream(temp)) {
-				outputter.output(doc, out);
-			}
-			return temp.getAbsolutePath();
+		fixConref(root, source, doc, catalog);
+		if (excludeTable != null) {
+			recurseExcluding(root);
+		}
+		fixConKeyRef(root, source, doc, catalog);
+		if (root.getAttributeValue("translate", "yes").equalsIgnoreCase("no")) {
+			throw new SkipException("Untranslatable!");
 		}
-		return source;
+		fixXref(root, source, doc, catalog);
+		return doc;
 	}
 
-	private static void fixXref(Element root, String source, Document doc, Catalog catalog) {
+	private void fixXref(Element root, String source, Document doc, Catalog catalog) {
 		if (DitaParser.ditaClass(root, "topic/xref")) {
 			List<XMLNode> content = root.getContent();
 			if (content.isEmpty()) {
@@ -354,7 +400,6 @@ public class DitaMap2Xliff {
 						String title = getTitle(file, id, catalog);
 						if (title != null) {
 							root.setText(title);
-							hasXref = true;
 							root.setAttribute("status", "removeContent");
 							if (!root.getAttributeValue("translate", "yes").equals("no")) {
 								root.setAttribute("translate", "no");
@@ -375,7 +420,7 @@ public class DitaMap2Xliff {
 		}
 	}
 
-	private static String getTitle(String file, String id, Catalog catalog)
+	private String getTitle(String file, String id, Catalog catalog)
 			throws SAXException, IOException, ParserConfigurationException {
 		Element referenced = getReferenced(file, id, catalog);
 		if (referenced != null) {
@@ -391,68 +436,19 @@ public class DitaMap2Xliff {
 		return null;
 	}
 
-	private static String removeFiltered(String source, Catalog catalog)
-			throws IOException, SAXException, ParserConfigurationException {
-		SAXBuilder builder = new SAXBuilder();
-		builder.setEntityResolver(catalog);
-		builder.preserveCustomAttributes(true);
-		Document doc = builder.build(source);
-		Element root = doc.getRootElement();
-		elementsExcluded = false;
-		recurseExcluding(root);
-		if (elementsExcluded) {
-			Charset encoding = EncodingResolver.getEncoding(source, FileFormats.XML);
-			File temp = File.createTempFile("temp", ".dita");
-			temp.deleteOnExit();
-			XMLOutputter outputter = new XMLOutputter();
-			outputter.setEncoding(encoding);
-			outputter.preserveSpace(true);
-			try (FileOutputStream out = new FileOutputStream(temp)) {
-				outputter.output(doc, out);
-			}
-			return temp.getAbsolutePath();
-		}
-		return source;
-	}
-
-	private static void recurseExcluding(Element root) {
+	private void recurseExcluding(Element root) {
 		List<Element> children = root.getChildren();
 		for (int i = 0; i < children.size(); i++) {
 			Element child = children.get(i);
 			if (filterOut(child)) {
 				child.setAttribute("fluentaIgnore", "yes");
-				elementsExcluded = true;
 			} else {
 				recurseExcluding(child);
 			}
 		}
 	}
 
-	private static String checkConKeyRef(String source, Catalog catalog)
-			throws IOException, SAXException, ParserConfigurationException {
-		SAXBuilder builder = new SAXBuilder();
-		builder.setEntityResolver(catalog);
-		builder.preserveCustomAttributes(true);
-		Document doc = builder.build(source);
-		Element root = doc.getRootElement();
-		hasConKeyRef = false;
-		fixConKeyRef(root, source, doc, catalog);
-		if (hasConKeyRef) {
-			Charset encoding = EncodingResolver.getEncoding(source, FileFormats.XML);
-			File temp = File.createTempFile("temp", ".dita");
-			temp.deleteOnExit();
-			XMLOutputter outputter = new XMLOutputter();
-			outputter.setEncoding(encoding);
-			outputter.preserveSpace(true);
-			try (FileOutputStream out = new FileOutputStream(temp)) {
-				outputter.output(doc, out);
-			}
-			return temp.getAbsolutePath();
-		}
-		return source;
-	}
-
-	private static void fixConKeyRef(Element e, String source, Document doc, Catalog catalog)
+	private void fixConKeyRef(Element e, String source, Document doc, Catalog catalog)
 			throws IOException, SAXException, ParserConfigurationException {
 		String conkeyref = e.getAttributeValue("conkeyref");
 		String conaction = e.getAttributeValue("conaction");
@@ -473,13 +469,12 @@ public class DitaMap2Xliff {
 					issues.add(issue);
 					return;
 				}
-				Element ref = getConKeyReferenced(file, id, catalog);
+				Element ref = index.getById(file, id, catalog);
 				if (ref != null) {
-					hasConKeyRef = true;
 					if (e.getChildren().isEmpty()) {
 						e.setAttribute("status", "removeContent");
 					}
-					e.setContent(ref.getContent());
+					e.setContent(ReferenceIndex.copyOf(ref).getContent());
 					if (ref.getAttributeValue("translate", "yes").equals("no")
 							&& e.getAttributeValue("translate", "yes").equals("yes")) {
 						e.setAttribute("translate", "no");
@@ -515,19 +510,18 @@ public class DitaMap2Xliff {
 						if (e.getChildren().isEmpty()) {
 							e.setAttribute("status", "removeContent");
 						}
-						e.setContent(matched.getContent());
+						e.setContent(ReferenceIndex.copyOf(matched).getContent());
 						if (matched.getAttributeValue("translate", "yes").equals("no")
 								&& e.getAttributeValue("translate", "yes").equals("yes")) {
 							e.setAttribute("translate", "no");
 							e.setAttribute("removeTranslate", "yes");
 						}
-						hasConKeyRef = true;
 					} else {
 						if (DitaParser.ditaClass(e, "topic/image") || DitaParser.isImage(e.getName())) {
 							Element keyword = DitaParser.getMatched("keyword", k.getTopicmeta());
 							if (keyword != null) {
 								Element alt = new Element("alt");
-								alt.setContent(keyword.getContent());
+								alt.setContent(ReferenceIndex.copyOf(keyword).getContent());
 								if (keyword.getAttributeValue("translate", "yes").equals("no")
 										&& e.getAttributeValue("translate", "yes").equals("yes")) {
 									e.setAttribute("translate", "no");
@@ -535,14 +529,13 @@ public class DitaMap2Xliff {
 								}
 								e.addContent(alt);
 								e.setAttribute("status", "removeContent");
-								hasConKeyRef = true;
 							}
 						} else if (DitaParser.ditaClass(e, "topic/xref") || DitaParser.ditaClass(e, "topic/link")
 								|| DitaParser.isXref(e.getName()) || DitaParser.isLink(e.getName())) {
 							Element keyword = DitaParser.getMatched("keyword", k.getTopicmeta());
 							if (keyword != null) {
 								Element alt = new Element("linktext");
-								alt.setContent(keyword.getContent());
+								alt.setContent(ReferenceIndex.copyOf(keyword).getContent());
 								if (keyword.getAttributeValue("translate", "yes").equals("no")
 										&& e.getAttributeValue("translate", "yes").equals("yes")) {
 									e.setAttribute("translate", "no");
@@ -550,52 +543,42 @@ public class DitaMap2Xliff {
 								}
 								e.addContent(alt);
 								e.setAttribute("status", "removeContent");
-								hasConKeyRef = true;
 							}
 						} else {
 							Element keyword = DitaParser.getMatched("keyword", k.getTopicmeta());
 							if (keyword != null) {
-								e.addContent(keyword);
+								e.addContent(ReferenceIndex.copyOf(keyword));
 								if (keyword.getAttributeValue("translate", "yes").equals("no")
 										&& e.getAttributeValue("translate", "yes").equals("yes")) {
 									e.setAttribute("translate", "no");
 									e.setAttribute("removeTranslate", "yes");
 								}
 								e.setAttribute("status", "removeContent");
-								hasConKeyRef = true;
 							}
 						}
 					}
 				} else {
 					String href = k.getHref();
 					try {
-						SAXBuilder builder = new SAXBuilder();
-						builder.setEntityResolver(catalog);
-						builder.preserveCustomAttributes(true);
-						builder.setErrorHandler(new SilentErrorHandler());
-						Document d = builder.build(href);
-						Element r = d.getRootElement();
-						Element referenced = r;
+						Element referenced = index.getRoot(href, catalog);
 						if (keyref.indexOf('/') != -1) {
 							String id = keyref.substring(keyref.indexOf('/') + 1);
-							referenced = locateReferenced(r, id);
+							referenced = index.getById(href, id, catalog);
 						}
 						if (referenced != null && e.getName().equals(referenced.getName())) {
 							if (e.getChildren().isEmpty()) {
 								e.setAttribute("status", "removeContent");
 							}
-							e.setContent(referenced.getContent());
-							hasConKeyRef = true;
+							e.setContent(ReferenceIndex.copyOf(referenced).getContent());
 						} else {
 							if (e.getName().equals("abbreviated-form") && referenced != null
 									&& referenced.getName().equals("glossentry")) {
-								List<XMLNode> content = getGlossContent(referenced);
+								List<XMLNode> content = getGlossContent(ReferenceIndex.copyOf(referenced));
 								if (!content.isEmpty()) {
 									if (e.getChildren().isEmpty()) {
 										e.setAttribute("status", "removeContent");
 									}
 									e.setContent(content);
-									hasConKeyRef = true;
 								}
 							}
 						}
@@ -652,78 +635,7 @@ public class DitaMap2Xliff {
 		return null;
 	}
 
-	private static Element getConKeyReferenced(String file, String id, Catalog catalog)
-			throws SAXException, IOException, ParserConfigurationException {
-		SAXBuilder builder = new SAXBuilder();
-		builder.setEntityResolver(catalog);
-		builder.preserveCustomAttributes(true);
-		builder.setErrorHandler(new SilentErrorHandler());
-		Document doc = builder.build(file);
-		Element root = doc.getRootElement();
-		return locateReferenced(root, id);
-	}
-
-	private static Element locateReferenced(Element root, String id) {
-		String current = root.getAttributeValue("id");
-		if (current.equals(id)) {
-			return root;
-		}
-		List<Element> children = root.getChildren();
-		Iterator<Element> it = children.iterator();
-		while (it.hasNext()) {
-			Element child = it.next();
-			Element result = locateReferenced(child, id);
-			if (result != null) {
-				return result;
-			}
-		}
-		return null;
-	}
-
-	private static void fixSource(String xliff, String string, Catalog catalog)
-			throws SAXException, IOException, ParserConfigurationException {
-		SAXBuilder builder = new SAXBuilder();
-		builder.setEntityResolver(catalog);
-		builder.preserveCustomAttributes(true);
-		Document doc = builder.build(xliff);
-		Element root = doc.getRootElement();
-		root.getChild("file").setAttribute("original", string);
-		XMLOutputter outputter = new XMLOutputter();
-		outputter.preserveSpace(true);
-		try (FileOutputStream out = new FileOutputStream(xliff)) {
-			outputter.output(doc, out);
-		}
-	}
-
-	private static String checkConref(String source, Catalog catalog)
-			throws SkipException, IOException, SAXException, ParserConfigurationException {
-		SAXBuilder builder = new SAXBuilder();
-		builder.setEntityResolver(catalog);
-		builder.preserveCustomAttributes(true);
-		builder.setErrorHandler(new SilentErrorHandler());
-		Document doc = builder.build(source);
-		Element root = doc.getRootElement();
-		if (root.getAttributeValue("translate", "yes").equalsIgnoreCase("no")) {
-			throw new SkipException("Untranslatable!");
-		}
-		hasConref = false;
-		fixConref(root, source, doc, catalog);
-		if (hasConref) {
-			Charset encoding = EncodingResolver.getEncoding(source, FileFormats.XML);
-			File temp = File.createTempFile("temp", ".dita");
-			temp.deleteOnExit();
-			XMLOutputter outputter = new XMLOutputter();
-			outputter.setEncoding(encoding);
-			outputter.preserveSpace(true);
-			try (FileOutputStream out = new FileOutputStream(temp)) {
-				outputter.output(doc, out);
-			}
-			return temp.getAbsolutePath();
-		}
-		return source;
-	}
-
-	private static void fixConref(Element e, String source, Document doc, Catalog catalog)
+	private void fixConref(Element e, String source, Document doc, Catalog catalog)
 			throws IOException, SAXException, ParserConfigurationException {
 		String conref = e.getAttributeValue("conref");
 		String conaction = e.getAttributeValue("conaction");
@@ -745,11 +657,10 @@ public class DitaMap2Xliff {
 				String id = conref.substring(conref.indexOf('#') + 1);
 				Element ref = getReferenced(file, id, catalog);
 				if (ref != null) {
-					hasConref = true;
 					if (e.getChildren().isEmpty()) {
 						e.setAttribute("status", "removeContent");
 					}
-					e.setContent(ref.getContent());
+					e.setContent(ReferenceIndex.copyOf(ref).getContent());
 					if (ref.getAttributeValue("translate", "yes").equals("no")
 							&& e.getAttributeValue("translate", "yes").equals("yes")) {
 						e.setAttribute("translate", "no");
@@ -771,38 +682,15 @@ public class DitaMap2Xliff {
 		}
 	}
 
-	private static Element getReferenced(String file, String id, Catalog catalog)
+	private Element getReferenced(String file, String id, Catalog catalog)
 			throws SAXException, IOException, ParserConfigurationException {
-		SAXBuilder builder = new SAXBuilder();
-		builder.setEntityResolver(catalog);
-		builder.preserveCustomAttributes(true);
-		Document doc = builder.build(file);
-		Element root = doc.getRootElement();
-		String topicId = root.getAttributeValue("id");
-		if (id.isEmpty() || topicId.equals(id)) {
-			return root;
-		}
-		return locate(root, topicId, id);
-	}
-
-	private static Element locate(Element root, String topicId, String id) {
-		String current = root.getAttributeValue("id");
-		if (id.equals(topicId + "/" + current)) {
-			return root;
+		if (id.isEmpty()) {
+			return index.getRoot(file, catalog);
 		}
-		List<Element> children = root.getChildren();
-		Iterator<Element> it = children.iterator();
-		while (it.hasNext()) {
-			Element child = it.next();
-			Element result = locate(child, topicId, id);
-			if (result != null) {
-				return result;
-			}
-		}
-		return null;
+		return index.getReferenced(file, id, catalog);
 	}
 
-	private static void addFile(String xliff, String mapFile, Catalog catalog, List<String> ignored)
+	private void addFile(XliffStreamWriter writer, String xliff, String mapFile, Catalog catalog, List<String> ignored)
 			throws SAXException, IOException, ParserConfigurationException {
 		SAXBuilder builder = new SAXBuilder();
 		builder.setEntityResolver(catalog);
@@ -863,12 +751,12 @@ public class DitaMap2Xliff {
 			}
 		}
 		newFile.setAttribute("original", relative);
-		mergedRoot.addContent(newFile);
+		writer.writeElement(newFile);
 		File f = new File(xliff);
 		Files.delete(Paths.get(f.toURI()));
 	}
 
-	private static void parseDitaVal(String ditaval, Catalog catalog)
+	private void parseDitaVal(String ditaval, Catalog catalog)
 			throws SAXException, IOException, ParserConfigurationException {
 		SAXBuilder builder = new SAXBuilder();
 		builder.setEntityResolver(catalog);
@@ -913,7 +801,7 @@ public class DitaMap2Xliff {
 		}
 	}
 
-	private static boolean filterOut(Element e) {
+	private boolean filterOut(Element e) {
 		if (filterAttributes) {
 			List<Attribute> atts = e.getAttributes();
 			Iterator<Attribute> it = atts.iterator();
@@ -944,12 +832,4 @@ public class DitaMap2Xliff {
 		}
 		return false;
 	}
-
-	public static void setDataLogger(ILogger dataLogger) {
-		DitaMap2Xliff.dataLogger = dataLogger;
-	}
-
-	public static List<String> getIssues() {
-		return DitaMap2Xliff.issues;
-	}
 }
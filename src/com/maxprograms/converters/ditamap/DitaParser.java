@@ -19,6 +19,7 @@ import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -50,7 +51,7 @@ public class DitaParser {
 
 	private static Logger logger = System.getLogger(DitaParser.class.getName());
 
-	private static ILogger dataLogger;
+	private ILogger dataLogger;
 	private List<String> issues;
 
 	protected class StringArray implements Comparable<StringArray> {
@@ -105,18 +106,27 @@ public class DitaParser {
 	private Set<String> recursed;
 	private Set<String> pendingRecurse;
 	private TreeSet<String> topicrefSet;
-	private TreeSet<String> topicSet;
-	private static TreeSet<String> xrefSet;
-	private static TreeSet<String> linkSet;
-	private static TreeSet<String> imageSet;
+	private static final Set<String> xrefSet = new TreeSet<>(Arrays.asList("xref", "glossAlternateFor", "coderef",
+			"fragref", "synnoteref", "mathmlref", "svgref"));
+	private static final Set<String> linkSet = new TreeSet<>(Arrays.asList("link"));
+	private static final Set<String> imageSet = new TreeSet<>(Arrays.asList("image", "glossSymbol", "hazardsymbol"));
+	private static final Set<String> topicSet = new TreeSet<>(Arrays.asList("topic", "concept", "glossentry",
+			"reference", "task", "troubleshooting", "glossgroup", "learningAssessment", "learningBase",
+			"learningContent", "learningOverview", "learningSummary", "learningPlan"));
 	private List<String> ignored;
 	private Map<StringArray, Element> referenceChache;
 	private Catalog catalog;
+	private ReferenceIndex index;
 	private List<String> skipped;
 	private Map<String, List<String>> images;
 
 	public List<String> run(Map<String, String> params, Catalog catalog)
 			throws IOException, SAXException, ParserConfigurationException {
+		return run(params, catalog, new ReferenceIndex());
+	}
+
+	List<String> run(Map<String, String> params, Catalog catalog, ReferenceIndex index)
+			throws IOException, SAXException, ParserConfigurationException {
 		List<String> result = new ArrayList<>();
 		issues = new ArrayList<>();
 		filesMap = new TreeSet<>();
@@ -132,6 +142,7 @@ public class DitaParser {
 
 		String inputFile = params.get("source");
 		this.catalog = catalog;
+		this.index = index;
 		String ditaval = params.get("ditaval");
 
 		SAXBuilder builder = new SAXBuilder();
@@ -202,7 +213,7 @@ public class DitaParser {
 							}
 							dataLogger.log(new File(file).getName());
 						}
-						Element e = builder.build(file).getRootElement();
+						Element e = ReferenceIndex.copyOf(index.getRoot(file, catalog));
 						if ("svg".equals(e.getName()) && !containsText(e)) {
 							recursed.add(file);
 							continue;
@@ -328,11 +339,7 @@ public class DitaParser {
 							}
 							dataLogger.log(file.getName());
 						}
-						SAXBuilder builder = new SAXBuilder();
-						builder.setEntityResolver(catalog);
-						builder.setErrorHandler(new SilentErrorHandler());
-						Document d = builder.build(href);
-						Element referenceRoot = d.getRootElement();
+						Element referenceRoot = ReferenceIndex.copyOf(index.getRoot(href, catalog));
 						if (referenceRoot.getAttributeValue("translate", "yes").equals("yes")) {
 							if (!recursed.contains(href)) {
 								recurse(referenceRoot, href);
@@ -653,11 +660,7 @@ public class DitaParser {
 	}
 
 	private Element getRoot(String file) throws SAXException, IOException, ParserConfigurationException {
-		SAXBuilder builder = new SAXBuilder();
-		builder.setEntityResolver(catalog);
-		builder.setErrorHandler(new SilentErrorHandler());
-		Document doc = builder.build(file);
-		return doc.getRootElement();
+		return ReferenceIndex.copyOf(index.getRoot(file, catalog));
 	}
 
 	private static boolean hasText(Element svg) {
@@ -695,34 +698,14 @@ public class DitaParser {
 	}
 
 	public static boolean isImage(String name) {
-		if (imageSet == null) {
-			imageSet = new TreeSet<>();
-			imageSet.add("image");
-			imageSet.add("glossSymbol");
-			imageSet.add("hazardsymbol");
-		}
 		return imageSet.contains(name);
 	}
 
 	public static boolean isLink(String name) {
-		if (linkSet == null) {
-			linkSet = new TreeSet<>();
-			linkSet.add("link");
-		}
 		return linkSet.contains(name);
 	}
 
 	public static boolean isXref(String name) {
-		if (xrefSet == null) {
-			xrefSet = new TreeSet<>();
-			xrefSet.add("xref");
-			xrefSet.add("glossAlternateFor");
-			xrefSet.add("coderef");
-			xrefSet.add("fragref");
-			xrefSet.add("synnoteref");
-			xrefSet.add("mathmlref");
-			xrefSet.add("svgref");
-		}
 		return xrefSet.contains(name);
 	}
 
@@ -914,26 +897,9 @@ public class DitaParser {
 			}
 			dataLogger.log(new File(file).getName());
 		}
-		SAXBuilder builder = new SAXBuilder();
-		builder.setEntityResolver(catalog);
-		builder.setErrorHandler(new SilentErrorHandler());
-		Document doc = builder.build(file);
-		Element root = doc.getRootElement();
-		String topicId = root.getAttributeValue("id");
-		if (topicId.equals(id)) {
-			if (!filesMap.contains(file)) {
-				filesMap.add(file);
-			}
-			if (!searchedConref.contains(array)) {
-				searchedConref.add(array);
-				recurse(root, file);
-				searchedConref.remove(array);
-			}
-			referenceChache.put(array, root);
-			return root;
-		}
-		Element result = locate(root, topicId, id);
+		Element result = index.getReferenced(file, id, catalog);
 		if (result != null) {
+			result = ReferenceIndex.copyOf(result);
 			if (!filesMap.contains(file)) {
 				filesMap.add(file);
 			}
@@ -947,44 +913,7 @@ public class DitaParser {
 		return result;
 	}
 
-	private Element locate(Element e, String topic, String searched) {
-		String topicId = topic;
-		String id = e.getAttributeValue("id");
-		if (searched.equals(topicId + "/" + id)) {
-			return e;
-		}
-		if (ditaClass(e, "topic/topic") || isTopic(e.getName())) {
-			topicId = id;
-		}
-		List<Element> children = e.getChildren();
-		Iterator<Element> it = children.iterator();
-		while (it.hasNext()) {
-			Element child = it.next();
-			Element result = locate(child, topicId, searched);
-			if (result != null) {
-				return result;
-			}
-		}
-		return null;
-	}
-
-	private boolean isTopic(String name) {
-		if (topicSet == null) {
-			topicSet = new TreeSet<>();
-			topicSet.add("topic");
-			topicSet.add("concept");
-			topicSet.add("glossentry");
-			topicSet.add("reference");
-			topicSet.add("task");
-			topicSet.add("troubleshooting");
-			topicSet.add("glossgroup");
-			topicSet.add("learningAssessment");
-			topicSet.add("learningBase");
-			topicSet.add("learningContent");
-			topicSet.add("learningOverview");
-			topicSet.add("learningSummary");
-			topicSet.add("learningPlan");
-		}
+	static boolean isTopic(String name) {
 		return topicSet.contains(name);
 	}
 
@@ -994,45 +923,20 @@ public class DitaParser {
 		if (referenceChache.containsKey(array)) {
 			return referenceChache.get(array);
 		}
-		SAXBuilder builder = new SAXBuilder();
-		builder.setEntityResolver(catalog);
-		builder.setErrorHandler(new SilentErrorHandler());
 		if (dataLogger != null) {
 			if (dataLogger.isCancelled()) {
 				throw new IOException(Constants.CANCELLED);
 			}
 			dataLogger.log(new File(file).getName());
 		}
-		Document doc = builder.build(file);
-		if (id.isEmpty()) {
-			Element result = doc.getRootElement();
-			referenceChache.put(array, result);
-			return result;
-		}
-		Element result = locateReferenced(doc.getRootElement(), id);
+		Element result = index.getById(file, id, catalog);
 		if (result != null) {
+			result = ReferenceIndex.copyOf(result);
 			referenceChache.put(array, result);
 		}
 		return result;
 	}
 
-	private Element locateReferenced(Element root, String id) {
-		String current = root.getAttributeValue("id");
-		if (current.equals(id)) {
-			return root;
-		}
-		List<Element> children = root.getChildren();
-		Iterator<Element> it = children.iterator();
-		while (it.hasNext()) {
-			Element child = it.next();
-			Element result = locateReferenced(child, id);
-			if (result != null) {
-				return result;
-			}
-		}
-		return null;
-	}
-
 	public Scope getScope() {
 		return rootScope;
 	}
@@ -1041,8 +945,8 @@ public class DitaParser {
 		return ignored;
 	}
 
-	public static void setDataLogger(ILogger dataLogger) {
-		DitaParser.dataLogger = dataLogger;
+	public void setDataLogger(ILogger dataLogger) {
+		this.dataLogger = dataLogger;
 	}
 
 	public List<String> getIssues() {
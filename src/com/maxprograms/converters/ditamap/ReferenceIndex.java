@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.converters.ditamap;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.xml.sax.SAXException;
+
+import com.maxprograms.xml.Catalog;
+import com.maxprograms.xml.Element;
+import com.maxprograms.xml.SAXBuilder;
+import com.maxprograms.xml.SilentErrorHandler;
+
+/**
+ * Files referenced from the topics of a map, parsed once and indexed by
+ * "topicId/elementId" and by plain id. The least recently used files are
+ * dropped when the index is full.
+ * <p>
+ * The index is shared by the threads that extract topics. Each file is parsed
+ * once, by the first thread that asks for it and with that thread's catalog;
+ * other threads asking for the same file wait for the result.
+ * <p>
+ * Returned elements are shared; callers that change them must work on a copy
+ * obtained with {@link #copyOf(Element)}.
+ */
+class ReferenceIndex {
+
+	public static final int DEFAULT_SIZE = 256;
+
+	private Map<String, FutureTask<Indexed>> files;
+
+	private class Indexed {
+		Element root;
+		Map<String, Element> paths;
+		Map<String, Element> ids;
+
+		Indexed(Element root) {
+			this.root = root;
+			paths = new HashMap<>();
+			ids = new HashMap<>();
+			String topicId = root.getAttributeValue("id");
+			ids.put(topicId, root);
+			paths.put(topicId + "/" + topicId, root);
+			index(root, topicId);
+		}
+
+		private void index(Element e, String topicId) {
+			String current = topicId;
+			if (e != root && (DitaParser.ditaClass(e, "topic/topic") || DitaParser.isTopic(e.getName()))) {
+				current = e.getAttributeValue("id");
+			}
+			List<Element> children = e.getChildren();
+			Iterator<Element> it = children.iterator();
+			while (it.hasNext()) {
+				Element child = it.next();
+				String id = child.getAttributeValue("id");
+				if (!id.isEmpty()) {
+					ids.putIfAbsent(id, child);
+					paths.putIfAbsent(current + "/" + id, child);
+				}
+				index(child, current);
+			}
+		}
+	}
+
+	public ReferenceIndex() {
+		this(DEFAULT_SIZE);
+	}
+
+	public ReferenceIndex(int size) {
+		files = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, FutureTask<Indexed>> eldest) {
+				return size() > size;
+			}
+		};
+	}
+
+	public Element getRoot(String file, Catalog catalog)
+			throws SAXException, IOException, ParserConfigurationException {
+		return get(file, catalog).root;
+	}
+
+	/**
+	 * Returns the element that a conref points to: the topic when
+	 * <code>id</code> is the id of the root topic, or the element with id
+	 * "elementId" inside the topic with id "topicId" when <code>id</code> has
+	 * the form "topicId/elementId".
+	 */
+	public Element getReferenced(String file, String id, Catalog catalog)
+			throws SAXException, IOException, ParserConfigurationException {
+		Indexed indexed = get(file, catalog);
+		if (indexed.root.getAttributeValue("id").equals(id)) {
+			return indexed.root;
+		}
+		return indexed.paths.get(id);
+	}
+
+	/**
+	 * Returns the first element with the given id, or the root element when
+	 * <code>id</code> is empty.
+	 */
+	public Element getById(String file, String id, Catalog catalog)
+			throws SAXException, IOException, ParserConfigurationException {
+		Indexed indexed = get(file, catalog);
+		if (id.isEmpty()) {
+			return indexed.root;
+		}
+		return indexed.ids.get(id);
+	}
+
+	private Indexed get(String file, Catalog catalog) throws SAXException, IOException, ParserConfigurationException {
+		FutureTask<Indexed> task;
+		boolean parse = false;
+		synchronized (files) {
+			task = files.get(file);
+			if (task == null) {
+				task = new FutureTask<>(() -> parse(file, catalog));
+				files.put(file, task);
+				parse = true;
+			}
+		}
+		if (parse) {
+			task.run();
+		}
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			// failures are not kept, the next caller tries again
+			synchronized (files) {
+				files.remove(file, task);
+			}
+			Throwable cause = e.getCause();
+			if (cause instanceof SAXException) {
+				throw (SAXException) cause;
+			}
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof ParserConfigurationException) {
+				throw (ParserConfigurationException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	private Indexed parse(String file, Catalog catalog) throws SAXException, IOException, ParserConfigurationException {
+		SAXBuilder builder = new SAXBuilder();
+		builder.setEntityResolver(catalog);
+		builder.preserveCustomAttributes(true);
+		builder.setErrorHandler(new SilentErrorHandler());
+		return new Indexed(builder.build(file).getRootElement());
+	}
+
+	public static Element copyOf(Element e) {
+		Element copy = new Element();
+		copy.clone(e);
+		return copy;
+	}
+}
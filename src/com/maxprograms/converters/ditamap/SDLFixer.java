@@ -12,7 +12,6 @@
 package com.maxprograms.converters.ditamap;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URLDecoder;
@@ -25,6 +24,7 @@ import java.util.Set;
 
 import javax.xml.parsers.ParserConfigurationException;
 
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
@@ -36,9 +36,9 @@ import org.xml.sax.SAXException;
 
 public class SDLFixer {
 
-	private static String baseURL;
-	private static Map<String, String> table;
-	private static boolean changes;
+	private String baseURL;
+	private Map<String, String> table;
+	private boolean changes;
 
 	private SDLFixer() {
 		// do not instantiate this class
@@ -47,6 +47,11 @@ public class SDLFixer {
 
 	public static void fix(File folder, Catalog catalog)
 			throws IOException, SAXException, ParserConfigurationException {
+		new SDLFixer().fixFolder(folder, catalog);
+	}
+
+	private void fixFolder(File folder, Catalog catalog)
+			throws IOException, SAXException, ParserConfigurationException {
 		baseURL = folder.toURI().toURL().toString();
 		String[] files = folder.list();
 		table = new HashMap<>();
@@ -80,14 +85,14 @@ public class SDLFixer {
 			recurse(root, folder);
 			if (changes) {
 				Indenter.indent(root, 2);
-				try (FileOutputStream output = new FileOutputStream(f)) {
+				try (Utf8OutputStream output = new Utf8OutputStream(f)) {
 					outputter.output(doc, output);
 				}
 			}
 		}
 	}
 
-	private static void recurse(Element root, File folder) throws MalformedURLException {
+	private void recurse(Element root, File folder) throws MalformedURLException {
 		String href = root.getAttributeValue("href");
 		if (!href.isEmpty()) {
 			href = URLDecoder.decode(href, StandardCharsets.UTF_8);
@@ -48,9 +48,9 @@ public class ScopeBuilder {
 	private Set<String> recursed;
 
 	private Catalog catalog;
-	private static Map<String, Set<String>> excludeTable;
-	private static Map<String, Set<String>> includeTable;
-	private static boolean filterAttributes;
+	private Map<String, Set<String>> excludeTable;
+	private Map<String, Set<String>> includeTable;
+	private boolean filterAttributes;
 	private List<String> issues;
 
 	public Scope buildScope(String inputFile, String ditavalFile, Catalog catalog)
@@ -176,7 +176,7 @@ public class ScopeBuilder {
 		}
 	}
 
-	private static void parseDitaVal(String ditaval, Catalog catalog)
+	private void parseDitaVal(String ditaval, Catalog catalog)
 			throws SAXException, IOException, ParserConfigurationException {
 		SAXBuilder builder = new SAXBuilder();
 		builder.setEntityResolver(catalog);
@@ -221,7 +221,7 @@ public class ScopeBuilder {
 		}
 	}
 
-	private static boolean filterOut(Element e) {
+	private boolean filterOut(Element e) {
 		if (filterAttributes) {
 			List<Attribute> atts = e.getAttributes();
 			Iterator<Attribute> it = atts.iterator();
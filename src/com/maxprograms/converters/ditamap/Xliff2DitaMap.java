@@ -12,7 +12,6 @@
 package com.maxprograms.converters.ditamap;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
@@ -29,11 +28,12 @@ import javax.xml.parsers.ParserConfigurationException;
 
 import org.xml.sax.SAXException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
 import com.maxprograms.converters.ILogger;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.Utils;
 import com.maxprograms.converters.xml.Xliff2Xml;
-import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.Indenter;
@@ -44,13 +44,26 @@ import com.maxprograms.xml.XMLOutputter;
 
 public class Xliff2DitaMap {
 
-	private static Map<String, String[]> filesTable;
-	private static ILogger dataLogger;
+	private Map<String, String[]> filesTable;
+	private ILogger dataLogger;
+
+	private Xliff2DitaMap(ILogger dataLogger) {
+		// do not instantiate this class
+		// use run method instead
+		this.dataLogger = dataLogger;
+	}
 
 	public static List<String> run(Map<String, String> params) {
+		return run(params, null);
+	}
+
+	public static List<String> run(Map<String, String> params, ILogger dataLogger) {
+		return new Xliff2DitaMap(dataLogger).merge(params);
+	}
+
+	private List<String> merge(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 		String xliffFile = "";
-		Xliff2DitaMap instance = new Xliff2DitaMap();
 		try {
 			xliffFile = params.get("xliff");
 			File outputFile = new File(params.get("backfile"));
@@ -62,7 +75,7 @@ public class Xliff2DitaMap {
 			String catalog = params.get("catalog");
 			SAXBuilder builder = new SAXBuilder();
 			builder.preserveCustomAttributes(true);
-			builder.setEntityResolver(new Catalog(catalog));
+			builder.setEntityResolver(CatalogCache.getCatalog(catalog));
 			Document doc = builder.build(xliffFile);
 			Element root = doc.getRootElement();
 			List<Element> files = root.getChildren("file");
@@ -110,8 +123,8 @@ public class Xliff2DitaMap {
 				cleanAttributes(r);
 				r.setAttribute("xml:lang", tgtlang);
 				Indenter.indent(r, 2);
-				instance.cleanConref(r);
-				try (FileOutputStream out = new FileOutputStream(topic)) {
+				cleanConref(r);
+				try (Utf8OutputStream out = new Utf8OutputStream(topic)) {
 					outputter.output(doc, out);
 				}
 				File f = new File(values[0]);
@@ -208,7 +221,7 @@ public class Xliff2DitaMap {
 		}
 	}
 
-	private static void saveFile(Element element, String xliffFile) throws IOException {
+	private void saveFile(Element element, String xliffFile) throws IOException {
 		Document doc = new Document(null, "xliff", null, null);
 		Element root = doc.getRootElement();
 		root.setAttribute("version", "1.2");
@@ -233,15 +246,11 @@ public class Xliff2DitaMap {
 		}
 		XMLOutputter outputter = new XMLOutputter();
 		outputter.preserveSpace(true);
-		try (FileOutputStream output = new FileOutputStream(xliff.getAbsolutePath())) {
+		try (Utf8OutputStream output = new Utf8OutputStream(xliff.getAbsolutePath())) {
 			outputter.output(doc, output);
 		}
 		filesTable.put(element.getAttributeValue("original"), new String[] { xliff.getAbsolutePath(),
 				file.getChild("header").getChild("skl").getChild("external-file").getAttributeValue("href") });
 	}
 
-	public static void setDataLogger(ILogger dataLogger) {
-		Xliff2DitaMap.dataLogger = dataLogger;
-	}
-
 }
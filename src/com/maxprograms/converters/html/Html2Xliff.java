@@ -13,7 +13,6 @@ package com.maxprograms.converters.html;
 
 import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
@@ -32,10 +31,11 @@ import javax.xml.parsers.ParserConfigurationException;
 import org.xml.sax.SAXException;
 
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.Utils;
 import com.maxprograms.segmenter.Segmenter;
+import com.maxprograms.segmenter.SegmenterCache;
 import com.maxprograms.xml.Attribute;
-import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.SAXBuilder;
@@ -44,35 +44,35 @@ import com.maxprograms.xml.XMLNode;
 
 public class Html2Xliff {
 
-	private static String inputFile;
-	private static String skeletonFile;
-	private static String sourceLanguage;
-	private static String srcEncoding;
+	private String inputFile;
+	private String skeletonFile;
+	private String sourceLanguage;
+	private String srcEncoding;
 
-	private static FileOutputStream output;
-	private static FileOutputStream skeleton;
+	private Utf8OutputStream output;
+	private Utf8OutputStream skeleton;
 
-	private static int segId;
-	private static int tagId;
+	private int segId;
+	private int tagId;
 
-	private static List<String> segments;
-	private static List<String> startsSegment = Arrays.asList("address", "article", "aside", "blockquote", "br",
+	private List<String> segments;
+	private List<String> startsSegment = Arrays.asList("address", "article", "aside", "blockquote", "br",
 			"details", "dialog", "dd", "div", "dl", "dt", "fieldset", "figcaption", "figure", "footer", "form", "h1",
 			"h2", "h3", "h4", "h5", "h6", "header", "hgroup", "hr", "html", "label", "li", "main", "meta", "nav", "ol",
 			"p", "pre", "script", "section", "table", "td", "tr", "ul");
-	private static Map<String, List<String>> translatableAttributes;
-	private static Map<String, String> entities;
-	private static Map<String, String> ctypes;
+	private Map<String, List<String>> translatableAttributes;
+	private Map<String, String> entities;
+	private Map<String, String> ctypes;
 
-	private static boolean segByElement;
-	private static boolean keepFormat;
+	private boolean segByElement;
+	private boolean keepFormat;
 
-	private static Segmenter segmenter;
-	private static String first;
-	private static String last;
-	private static String targetLanguage;
+	private Segmenter segmenter;
+	private String first;
+	private String last;
+	private String targetLanguage;
 
-	private static SAXBuilder builder;
+	private SAXBuilder builder;
 
 	private Html2Xliff() {
 		// do not instantiate this class
@@ -80,6 +80,10 @@ public class Html2Xliff {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Html2Xliff().convert(params);
+	}
+
+	private List<String> convert(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 
 		inputFile = params.get("source");
@@ -103,11 +107,11 @@ public class Html2Xliff {
 			builder = new SAXBuilder();
 			if (!segByElement) {
 				String initSegmenter = params.get("srxFile");
-				segmenter = new Segmenter(initSegmenter, sourceLanguage, new Catalog(catalog));
+				segmenter = SegmenterCache.getSegmenter(initSegmenter, sourceLanguage, catalog);
 			}
 			try (FileInputStream input = new FileInputStream(inputFile)) {
-				skeleton = new FileOutputStream(skeletonFile);
-				output = new FileOutputStream(xliffFile);
+				skeleton = new Utf8OutputStream(skeletonFile);
+				output = new Utf8OutputStream(xliffFile);
 				writeHeader();
 
 				int size = input.available();
@@ -138,7 +142,7 @@ public class Html2Xliff {
 		return result;
 	}
 
-	private static void writeHeader() throws IOException {
+	private void writeHeader() throws IOException {
 		String tgtLang = "";
 		if (targetLanguage != null) {
 			tgtLang = "\" target-language=\"" + targetLanguage;
@@ -161,7 +165,7 @@ public class Html2Xliff {
 		writeString("<body>\n");
 	}
 
-	private static void processList() throws IOException, SAXException, ParserConfigurationException {
+	private void processList() throws IOException, SAXException, ParserConfigurationException {
 		for (int i = 0; i < segments.size(); i++) {
 			String text = segments.get(i);
 			if (isTranslateable(text)) {
@@ -173,7 +177,7 @@ public class Html2Xliff {
 		}
 	}
 
-	private static void extractSegment(String seg) throws IOException, SAXException, ParserConfigurationException {
+	private void extractSegment(String seg) throws IOException, SAXException, ParserConfigurationException {
 
 		// start by making a smaller list
 
@@ -268,7 +272,7 @@ public class Html2Xliff {
 		writeSkeleton(trail);
 	}
 
-	private static void writeSegment(String segment) throws IOException, SAXException, ParserConfigurationException {
+	private void writeSegment(String segment) throws IOException, SAXException, ParserConfigurationException {
 		segment = segment.replace("\u2029", "");
 		String pure = removePH(segment);
 		if (pure.trim().isEmpty()) {
@@ -299,7 +303,7 @@ public class Html2Xliff {
 		writeSkeleton("%%%" + segId++ + "%%%\n" + last);
 	}
 
-	private static String segmentCleanup(String segment)
+	private String segmentCleanup(String segment)
 			throws SAXException, IOException, ParserConfigurationException {
 		ByteArrayInputStream stream = new ByteArrayInputStream(
 				("<x>" + segment + "</x>").getBytes(StandardCharsets.UTF_8));
@@ -344,7 +348,7 @@ public class Html2Xliff {
 		return es.substring(3, es.length() - 4);
 	}
 
-	private static String phContent(String segment) throws SAXException, IOException, ParserConfigurationException {
+	private String phContent(String segment) throws SAXException, IOException, ParserConfigurationException {
 		ByteArrayInputStream stream = new ByteArrayInputStream(
 				("<x>" + segment + "</x>").getBytes(StandardCharsets.UTF_8));
 		Document d = builder.build(stream);
@@ -364,7 +368,7 @@ public class Html2Xliff {
 		return result;
 	}
 
-	private static String removePH(String segment) throws SAXException, IOException, ParserConfigurationException {
+	private String removePH(String segment) throws SAXException, IOException, ParserConfigurationException {
 		ByteArrayInputStream stream = new ByteArrayInputStream(
 				("<x>" + segment + "</x>").getBytes(StandardCharsets.UTF_8));
 		Document d = builder.build(stream);
@@ -402,7 +406,7 @@ public class Html2Xliff {
 		return rs;
 	}
 
-	private static String addTags(String src) {
+	private String addTags(String src) {
 		String result = "";
 		int start = src.indexOf('<');
 		int end = src.indexOf('>');
@@ -455,7 +459,7 @@ public class Html2Xliff {
 		return result;
 	}
 
-	private static String tag(String element) {
+	private String tag(String element) {
 		String result = "";
 		String type = getType(element);
 
@@ -478,7 +482,7 @@ public class Html2Xliff {
 		return result;
 	}
 
-	private static String cleanString(String s) {
+	private String cleanString(String s) {
 		int control = s.indexOf('&');
 		while (control != -1) {
 			int sc = s.indexOf(';', control);
@@ -542,15 +546,15 @@ public class Html2Xliff {
 		return s;
 	}
 
-	private static void writeSkeleton(String string) throws IOException {
-		skeleton.write(string.getBytes(StandardCharsets.UTF_8));
+	private void writeSkeleton(String string) throws IOException {
+		skeleton.write(string);
 	}
 
-	private static void writeString(String string) throws IOException {
-		output.write(string.getBytes(StandardCharsets.UTF_8));
+	private void writeString(String string) throws IOException {
+		output.write(string);
 	}
 
-	private static boolean isTranslateable(String string) {
+	private boolean isTranslateable(String string) {
 
 		keepFormat = false;
 
@@ -754,7 +758,7 @@ public class Html2Xliff {
 		return false;
 	}
 
-	private static void updateAttributes(String type, String fragment) {
+	private void updateAttributes(String type, String fragment) {
 		Map<String, Attribute> atts = attributesMap(type, fragment);
 		if ("meta".equalsIgnoreCase(type)) {
 			if (atts.containsKey("name")) {
@@ -833,7 +837,7 @@ public class Html2Xliff {
 		return atts;
 	}
 
-	private static String extractAttributes(String type, String element) {
+	private String extractAttributes(String type, String element) {
 		String ctype = "";
 		if (ctypes.containsKey(type)) {
 			ctype = " ctype=\"" + ctypes.get(type) + "\"";
@@ -885,7 +889,7 @@ public class Html2Xliff {
 		return result;
 	}
 
-	private static void buildTables() throws SAXException, IOException, ParserConfigurationException {
+	private void buildTables() throws SAXException, IOException, ParserConfigurationException {
 		translatableAttributes = new HashMap<>();
 		entities = new HashMap<>();
 		ctypes = new HashMap<>();
@@ -904,7 +908,7 @@ public class Html2Xliff {
 		}
 	}
 
-	private static void buildList(String file) throws IOException {
+	private void buildList(String file) throws IOException {
 		segments = new ArrayList<>();
 		int start = file.indexOf('<');
 		int end = file.indexOf('>');
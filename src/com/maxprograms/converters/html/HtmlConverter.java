@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.converters.html;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import com.maxprograms.converters.Converter;
+
+public class HtmlConverter implements Converter {
+
+	@Override
+	public List<String> convert(Map<String, String> params) {
+		return Html2Xliff.run(params);
+	}
+
+	@Override
+	public List<String> merge(Map<String, String> params) {
+		String home = System.getenv("OpenXLIFF_HOME");
+		if (home == null) {
+			home = System.getProperty("user.dir");
+		}
+		File folder = new File(home, "xmlfilter");
+		params.put("iniFile", new File(folder, "init_html.xml").getAbsolutePath());
+		return Xliff2Html.run(params);
+	}
+}
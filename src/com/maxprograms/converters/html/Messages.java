@@ -33,8 +33,9 @@ public class Messages {
                         : "_" + locale.getLanguage() + ".properties";
                 try (InputStream is = Messages.class.getResourceAsStream("html" + extension)) {
                     try (InputStreamReader reader = new InputStreamReader(is, StandardCharsets.UTF_8)) {
-                        props = new Properties();
-                        props.load(reader);
+                        Properties loaded = new Properties();
+                        loaded.load(reader);
+                        props = loaded;
                     }
                 }
             }
@@ -14,7 +14,6 @@ package com.maxprograms.converters.html;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.lang.System.Logger;
@@ -31,7 +30,9 @@ import java.util.Map;
 
 import javax.xml.parsers.ParserConfigurationException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
@@ -43,12 +44,12 @@ import org.xml.sax.SAXException;
 
 public class Xliff2Html {
 
-	private static String xliffFile;
-	private static Map<String, Element> segments;
-	private static FileOutputStream output;
-	private static String encoding;
-	private static Map<String, String> entities;
-	private static Catalog catalog;
+	private String xliffFile;
+	private Map<String, Element> segments;
+	private Utf8OutputStream output;
+	private String encoding;
+	private Map<String, String> entities;
+	private Catalog catalog;
 
 	private Xliff2Html() {
 		// do not instantiate this class
@@ -56,6 +57,10 @@ public class Xliff2Html {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Xliff2Html().merge(params);
+	}
+
+	private List<String> merge(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 
 		String sklFile = params.get("skeleton");
@@ -63,7 +68,7 @@ public class Xliff2Html {
 		encoding = params.get("encoding");
 
 		try {
-			catalog = new Catalog(params.get("catalog"));
+			catalog = CatalogCache.getCatalog(params.get("catalog"));
 			loadEntities();
 			String outputFile = params.get("backfile");
 			File f = new File(outputFile);
@@ -77,7 +82,7 @@ public class Xliff2Html {
 			if (!f.exists()) {
 				Files.createFile(Paths.get(f.toURI()));
 			}
-			output = new FileOutputStream(f);
+			output = new Utf8OutputStream(f);
 			loadSegments();
 
 			try (InputStreamReader input = new InputStreamReader(new FileInputStream(sklFile),
@@ -143,7 +148,7 @@ public class Xliff2Html {
 		return result;
 	}
 
-	private static String extractText(Element target) {
+	private String extractText(Element target) {
 		String result = "";
 		List<XMLNode> content = target.getContent();
 		Iterator<XMLNode> i = content.iterator();
@@ -160,7 +165,7 @@ public class Xliff2Html {
 		return addEntities(result);
 	}
 
-	private static void loadEntities() throws SAXException, IOException, ParserConfigurationException {
+	private void loadEntities() throws SAXException, IOException, ParserConfigurationException {
 		SAXBuilder builder = new SAXBuilder();
 		Document doc = builder.build(Xliff2Html.class.getResource("entities.xml"));
 		Element root = doc.getRootElement();
@@ -175,7 +180,7 @@ public class Xliff2Html {
 		}
 	}
 
-	private static String addEntities(String text) {
+	private String addEntities(String text) {
 		StringBuilder result = new StringBuilder();
 		boolean inTag = false;
 		int start = text.indexOf('<');
@@ -233,11 +238,11 @@ public class Xliff2Html {
 		return result.toString();
 	}
 
-	private static void writeString(String string) throws IOException {
+	private void writeString(String string) throws IOException {
 		output.write(string.getBytes(encoding));
 	}
 
-	private static void loadSegments() throws SAXException, IOException, ParserConfigurationException {
+	private void loadSegments() throws SAXException, IOException, ParserConfigurationException {
 
 		SAXBuilder builder = new SAXBuilder();
 		if (catalog != null) {
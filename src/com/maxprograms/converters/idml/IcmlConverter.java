@@ -0,0 +1,33 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.converters.idml;
+
+import java.util.List;
+import java.util.Map;
+
+import com.maxprograms.converters.Converter;
+import com.maxprograms.converters.xml.Xliff2Xml;
+
+public class IcmlConverter implements Converter {
+
+	@Override
+	public List<String> convert(Map<String, String> params) {
+		params.put("from", "x-icml");
+		return Story2Xliff.run(params);
+	}
+
+	@Override
+	public List<String> merge(Map<String, String> params) {
+		params.put("IDML", "true");
+		return Xliff2Xml.run(params);
+	}
+}
@@ -11,27 +11,27 @@
  *******************************************************************************/
 package com.maxprograms.converters.idml;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
 
 import javax.xml.parsers.ParserConfigurationException;
 
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.Utils;
+import com.maxprograms.converters.ZipContainer;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.Indenter;
@@ -46,18 +46,17 @@ public class Idml2Xliff {
 
 	private static Logger logger = System.getLogger(Idml2Xliff.class.getName());
 
-	private static Element mergedRoot;
-	private static String inputFile;
-	private static String skeleton;
-	private static ZipOutputStream out;
-	private static List<String> used = null;
+	private Element mergedRoot;
+	private String inputFile;
+	private String skeleton;
+	private List<String> used = null;
 
 	private Idml2Xliff() {
 		// do not instantiate this class
 		// use run method instead
 	}
 
-	private static void sortStories() {
+	private void sortStories() {
 		List<Element> files = mergedRoot.getChildren("file");
 		List<PI> instructions = mergedRoot.getPI();
 		Map<String, Integer> table = new HashMap<>();
@@ -91,11 +90,15 @@ public class Idml2Xliff {
 		return null;
 	}
 
-	private static List<String> getStories(String map)
+	private static List<String> getStories(ZipContainer container, String map)
 			throws SAXException, IOException, ParserConfigurationException {
 		List<String> result = new ArrayList<>();
+		byte[] bytes;
+		try (InputStream in = container.getInputStream(map)) {
+			bytes = in.readAllBytes();
+		}
 		SAXBuilder builder = new SAXBuilder();
-		Document doc = builder.build(map);
+		Document doc = builder.build(new ByteArrayInputStream(bytes));
 		Element root = doc.getRootElement();
 		List<Element> stories = root.getChildren("idPkg:Story");
 		Iterator<Element> it = stories.iterator();
@@ -105,7 +108,7 @@ public class Idml2Xliff {
 		return result;
 	}
 
-	private static void addFile(String xliff) throws SAXException, IOException, ParserConfigurationException {
+	private void addFile(String xliff) throws SAXException, IOException, ParserConfigurationException {
 		SAXBuilder builder = new SAXBuilder();
 		Document doc = builder.build(xliff);
 		Element root = doc.getRootElement();
@@ -115,7 +118,7 @@ public class Idml2Xliff {
 		mergedRoot.addContent(newFile);
 	}
 
-	private static void updateXliff(String xliff, String original)
+	private void updateXliff(String xliff, String original)
 			throws SAXException, IOException, ParserConfigurationException {
 		SAXBuilder builder = new SAXBuilder();
 		Document doc = builder.build(xliff);
@@ -144,7 +147,7 @@ public class Idml2Xliff {
 		XMLOutputter outputter = new XMLOutputter();
 		outputter.preserveSpace(true);
 		Indenter.indent(root, 2);
-		try (FileOutputStream output = new FileOutputStream(xliff)) {
+		try (Utf8OutputStream output = new Utf8OutputStream(xliff)) {
 			outputter.output(doc, output);
 		}
 	}
@@ -156,21 +159,11 @@ public class Idml2Xliff {
 		return root.getChild("file").getChild("body").getChildren("trans-unit").size();
 	}
 
-	private static void saveEntry(ZipEntry entry, String name) throws IOException {
-		ZipEntry content = new ZipEntry(entry.getName());
-		content.setMethod(ZipEntry.DEFLATED);
-		out.putNextEntry(content);
-		try (FileInputStream input = new FileInputStream(name)) {
-			byte[] array = new byte[1024];
-			int len;
-			while ((len = input.read(array)) > 0) {
-				out.write(array, 0, len);
-			}
-			out.closeEntry();
-		}
+	public static List<String> run(Map<String, String> params) {
+		return new Idml2Xliff().convert(params);
 	}
 
-	public static List<String> run(Map<String, String> params) {
+	private List<String> convert(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 
 		inputFile = params.get("source");
@@ -188,23 +181,25 @@ public class Idml2Xliff {
 					"urn:oasis:names:tc:xliff:document:1.2 xliff-core-1.2-transitional.xsd");
 			mergedRoot.addContent(new PI("encoding", encoding));
 
-			out = new ZipOutputStream(new FileOutputStream(skeleton));
-			try (ZipInputStream in = new ZipInputStream(new FileInputStream(inputFile))) {
-
-				ZipEntry entry = null;
-				while ((entry = in.getNextEntry()) != null) {
-					if (entry.getName().matches(".*Story_.*\\.xml")
-							&& (used != null && used.contains(entry.getName()))) {
-						File f = new File(entry.getName());
+			try (ZipContainer container = new ZipContainer(inputFile, skeleton)) {
+				List<String> names = container.getNames();
+				Iterator<String> it = names.iterator();
+				while (it.hasNext()) {
+					String entryName = it.next();
+					if (entryName.matches(".*designmap\\.xml")) {
+						used = getStories(container, entryName);
+					}
+				}
+				it = names.iterator();
+				while (it.hasNext()) {
+					String entryName = it.next();
+					if (entryName.matches(".*Story_.*\\.xml") && (used != null && used.contains(entryName))) {
+						File f = new File(entryName);
 						String name = f.getName();
 						File tmp = File.createTempFile(name.substring(0, name.lastIndexOf('.')), ".xml",
 								new File(skeleton).getParentFile());
-						try (FileOutputStream output = new FileOutputStream(tmp.getAbsolutePath())) {
-							byte[] buf = new byte[1024];
-							int len;
-							while ((len = in.read(buf)) > 0) {
-								output.write(buf, 0, len);
-							}
+						try (InputStream in = container.getInputStream(entryName)) {
+							Files.copy(in, tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
 						}
 						try {
 							Map<String, String> table = new HashMap<>();
@@ -226,54 +221,30 @@ public class Idml2Xliff {
 
 							if (Constants.SUCCESS.equals(res.get(0))) {
 								if (countSegments(tmp.getAbsolutePath() + ".xlf") > 0) {
-									updateXliff(tmp.getAbsolutePath() + ".xlf", entry.getName());
+									updateXliff(tmp.getAbsolutePath() + ".xlf", entryName);
 									addFile(tmp.getAbsolutePath() + ".xlf");
-									ZipEntry content = new ZipEntry(entry.getName() + ".skl");
-									content.setMethod(ZipEntry.DEFLATED);
-									out.putNextEntry(content);
-									try (FileInputStream input = new FileInputStream(tmp.getAbsolutePath() + ".skl")) {
-										byte[] array = new byte[1024];
-										int len;
-										while ((len = input.read(array)) > 0) {
-											out.write(array, 0, len);
-										}
-										out.closeEntry();
-									}
+									container.addEntry(entryName + ".skl", new File(tmp.getAbsolutePath() + ".skl"));
 								} else {
-									saveEntry(entry, tmp.getAbsolutePath());
+									container.copyEntry(entryName);
 								}
 								File skl = new File(tmp.getAbsolutePath() + ".skl");
 								Files.delete(Paths.get(skl.toURI()));
 								File xlf = new File(tmp.getAbsolutePath() + ".xlf");
 								Files.delete(Paths.get(xlf.toURI()));
 							} else {
-								saveEntry(entry, tmp.getAbsolutePath());
+								container.copyEntry(entryName);
 							}
 						} catch (Exception e) {
 							// do nothing
-							saveEntry(entry, tmp.getAbsolutePath());
+							container.copyEntry(entryName);
 						}
 						Files.delete(Paths.get(tmp.toURI()));
 					} else {
 						// not a story
-						File tmp = File.createTempFile("zip", ".tmp");
-						try (FileOutputStream output = new FileOutputStream(tmp.getAbsolutePath())) {
-							byte[] buf = new byte[1024];
-							int len;
-							while ((len = in.read(buf)) > 0) {
-								output.write(buf, 0, len);
-							}
-						}
-						if (entry.getName().matches(".*designmap\\.xml")) {
-							used = getStories(tmp.getAbsolutePath());
-						}
-						saveEntry(entry, tmp.getAbsolutePath());
-						Files.delete(Paths.get(tmp.toURI()));
+						container.copyEntry(entryName);
 					}
 				}
-
 			}
-			out.close();
 
 			sortStories();
 
@@ -281,7 +252,7 @@ public class Idml2Xliff {
 
 			XMLOutputter outputter = new XMLOutputter();
 			outputter.preserveSpace(true);
-			try (FileOutputStream output = new FileOutputStream(xliff)) {
+			try (Utf8OutputStream output = new Utf8OutputStream(xliff)) {
 				outputter.output(merged, output);
 			}
 			result.add(Constants.SUCCESS);
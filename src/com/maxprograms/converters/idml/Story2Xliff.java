@@ -11,12 +11,10 @@
  *******************************************************************************/
 package com.maxprograms.converters.idml;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
 import java.net.URISyntaxException;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -27,10 +25,11 @@ import javax.xml.parsers.ParserConfigurationException;
 import org.xml.sax.SAXException;
 
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.Utils;
 import com.maxprograms.segmenter.Segmenter;
+import com.maxprograms.segmenter.SegmenterCache;
 import com.maxprograms.xml.Attribute;
-import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.PI;
@@ -39,15 +38,15 @@ import com.maxprograms.xml.TextNode;
 import com.maxprograms.xml.XMLNode;
 
 public class Story2Xliff {
-	private static String inputFile;
-	private static String skeletonFile;
-	private static String sourceLanguage;
-	private static String targetLanguage;
-	private static String srcEncoding;
-	private static Segmenter segmenter;
-	private static FileOutputStream output;
-	private static FileOutputStream skeleton;
-	private static int id = 1;
+	private String inputFile;
+	private String skeletonFile;
+	private String sourceLanguage;
+	private String targetLanguage;
+	private String srcEncoding;
+	private Segmenter segmenter;
+	private Utf8OutputStream output;
+	private Utf8OutputStream skeleton;
+	private int id = 1;
 
 	private Story2Xliff() {
 		// do not instantiate this class
@@ -55,6 +54,10 @@ public class Story2Xliff {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Story2Xliff().convert(params);
+	}
+
+	private List<String> convert(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 		id = 1;
 		inputFile = params.get("source");
@@ -76,10 +79,10 @@ public class Story2Xliff {
 
 		try {
 			if (!paragraphSegmentation) {
-				segmenter = new Segmenter(initSegmenter, sourceLanguage, new Catalog(catalog));
+				segmenter = SegmenterCache.getSegmenter(initSegmenter, sourceLanguage, catalog);
 			}
-			skeleton = new FileOutputStream(skeletonFile);
-			output = new FileOutputStream(xliffFile);
+			skeleton = new Utf8OutputStream(skeletonFile);
+			output = new Utf8OutputStream(xliffFile);
 			writeHeader(params.get("from"));
 
 			SAXBuilder builder = new SAXBuilder();
@@ -238,11 +241,11 @@ public class Story2Xliff {
 		return true;
 	}
 
-	private static void writeSkeleton(String string) throws IOException {
-		skeleton.write(string.getBytes(StandardCharsets.UTF_8));
+	private void writeSkeleton(String string) throws IOException {
+		skeleton.write(string);
 	}
 
-	private static void processStory(Element root) throws IOException {
+	private void processStory(Element root) throws IOException {
 		List<XMLNode> content = root.getContent();
 		Iterator<XMLNode> nit = content.iterator();
 		while (nit.hasNext()) {
@@ -285,7 +288,7 @@ public class Story2Xliff {
 		}
 	}
 
-	private static void processPara(Element e) throws IOException {
+	private void processPara(Element e) throws IOException {
 		cleanAttributes(e);
 		mergeStyles(e);
 		writeSkeleton("<" + e.getName());
@@ -487,7 +490,7 @@ public class Story2Xliff {
 		return v2.toArray(new String[v2.size()]);
 	}
 
-	private static String fixTags(String string) {
+	private String fixTags(String string) {
 		StringBuilder result = new StringBuilder();
 		int id1 = 1;
 		int start = string.indexOf("<ph>");
@@ -559,7 +562,7 @@ public class Story2Xliff {
 		return false;
 	}
 
-	private static void writeHeader(String format) throws IOException {
+	private void writeHeader(String format) throws IOException {
 		String tgtLang = "";
 		if (targetLanguage != null) {
 			tgtLang = "\" target-language=\"" + targetLanguage;
@@ -580,7 +583,7 @@ public class Story2Xliff {
 		writeString("<body>\n");
 	}
 
-	private static void writeString(String string) throws IOException {
-		output.write(string.getBytes(StandardCharsets.UTF_8));
+	private void writeString(String string) throws IOException {
+		output.write(string);
 	}
 }
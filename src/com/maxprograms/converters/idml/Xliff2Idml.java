@@ -13,7 +13,6 @@ package com.maxprograms.converters.idml;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
@@ -31,6 +30,7 @@ import java.util.zip.ZipOutputStream;
 import javax.xml.parsers.ParserConfigurationException;
 
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.xml.Xliff2Xml;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
@@ -41,8 +41,8 @@ import org.xml.sax.SAXException;
 
 public class Xliff2Idml {
 
-	private static Map<String, String> filesTable;
-	private static boolean isEmbedded;
+	private Map<String, String> filesTable;
+	private boolean isEmbedded;
 
 	private Xliff2Idml() {
 		// do not instantiate this class
@@ -50,6 +50,10 @@ public class Xliff2Idml {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Xliff2Idml().merge(params);
+	}
+
+	private List<String> merge(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 		String xliffFile = params.get("xliff");
 		String outputFile = params.get("backfile");
@@ -81,13 +85,13 @@ public class Xliff2Idml {
 				if (!f.exists()) {
 					Files.createFile(Paths.get(f.toURI()));
 				}
-				try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(f))) {
+				try (ZipOutputStream out = new ZipOutputStream(new Utf8OutputStream(f))) {
 					ZipEntry entry = null;
 					while ((entry = in.getNextEntry()) != null) {
 						if (entry.getName().matches(".*Story_.*\\.xml\\.skl")) {
 							String name = entry.getName().substring(0, entry.getName().lastIndexOf(".skl"));
 							File tmp = new File(filesTable.get(name) + ".skl");
-							try (FileOutputStream output = new FileOutputStream(tmp.getAbsolutePath())) {
+							try (Utf8OutputStream output = new Utf8OutputStream(tmp.getAbsolutePath())) {
 								byte[] buf = new byte[1024];
 								int len;
 								while ((len = in.read(buf)) > 0) {
@@ -123,7 +127,7 @@ public class Xliff2Idml {
 							tmp.deleteOnExit();
 						} else {
 							File tmp = File.createTempFile("entry", ".tmp");
-							try (FileOutputStream output = new FileOutputStream(tmp.getAbsolutePath())) {
+							try (Utf8OutputStream output = new Utf8OutputStream(tmp.getAbsolutePath())) {
 								byte[] buf = new byte[1024];
 								int len;
 								while ((len = in.read(buf)) > 0) {
@@ -161,7 +165,7 @@ public class Xliff2Idml {
 		return result;
 	}
 
-	private static void saveFile(Element element, String xliffFile) throws IOException {
+	private void saveFile(Element element, String xliffFile) throws IOException {
 		Document doc = new Document(null, "xliff", null, null);
 		Element root = doc.getRootElement();
 		root.setAttribute("version", "1.2");
@@ -185,7 +189,7 @@ public class Xliff2Idml {
 		file.getChild("header").getChild("skl").getChild("external-file").setAttribute("href",
 				xliff.getAbsolutePath() + ".skl");
 		XMLOutputter outputter = new XMLOutputter();
-		try (FileOutputStream output = new FileOutputStream(xliff.getAbsolutePath())) {
+		try (Utf8OutputStream output = new Utf8OutputStream(xliff.getAbsolutePath())) {
 			outputter.output(doc, output);
 		}
 	}
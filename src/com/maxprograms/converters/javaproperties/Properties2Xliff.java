@@ -13,13 +13,11 @@ package com.maxprograms.converters.javaproperties;
 
 import java.io.BufferedReader;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
 import java.net.URISyntaxException;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -27,20 +25,21 @@ import java.util.Map;
 import javax.xml.parsers.ParserConfigurationException;
 
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.Utils;
 import com.maxprograms.segmenter.Segmenter;
-import com.maxprograms.xml.Catalog;
+import com.maxprograms.segmenter.SegmenterCache;
 
 import org.xml.sax.SAXException;
 
 public class Properties2Xliff {
 
-	private static FileOutputStream output;
-	private static FileOutputStream skeleton;
-	private static String source;
-	private static int segId;
-	private static Segmenter segmenter;
-	private static boolean segByElement;
+	private Utf8OutputStream output;
+	private Utf8OutputStream skeleton;
+	private String source;
+	private int segId;
+	private Segmenter segmenter;
+	private boolean segByElement;
 
 	private Properties2Xliff() {
 		// do not instantiate this class
@@ -48,6 +47,10 @@ public class Properties2Xliff {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Properties2Xliff().convert(params);
+	}
+
+	private List<String> convert(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 		segId = 0;
 
@@ -74,12 +77,12 @@ public class Properties2Xliff {
 		try {
 			if (!segByElement) {
 				String initSegmenter = params.get("srxFile");
-				segmenter = new Segmenter(initSegmenter, sourceLanguage, new Catalog(catalog));
+				segmenter = SegmenterCache.getSegmenter(initSegmenter, sourceLanguage, catalog);
 			}
 			FileInputStream stream = new FileInputStream(inputFile);
 			try (InputStreamReader input = new InputStreamReader(stream, srcEncoding)) {
 				BufferedReader buffer = new BufferedReader(input);
-				output = new FileOutputStream(xliffFile);
+				output = new Utf8OutputStream(xliffFile);
 				String tgtLang = "";
 				if (targetLanguage != null) {
 					tgtLang = "\" target-language=\"" + targetLanguage;
@@ -102,7 +105,7 @@ public class Properties2Xliff {
 				writeString("<?encoding " + srcEncoding + "?>\n");
 				writeString("<body>\n");
 
-				skeleton = new FileOutputStream(skeletonFile);
+				skeleton = new Utf8OutputStream(skeletonFile);
 
 				String line;
 				while ((line = buffer.readLine()) != null) {
@@ -156,15 +159,15 @@ public class Properties2Xliff {
 		return result;
 	}
 
-	private static void writeString(String string) throws IOException {
-		output.write(string.getBytes(StandardCharsets.UTF_8));
+	private void writeString(String string) throws IOException {
+		output.write(string);
 	}
 
-	private static void writeSkeleton(String string) throws IOException {
-		skeleton.write(string.getBytes(StandardCharsets.UTF_8));
+	private void writeSkeleton(String string) throws IOException {
+		skeleton.write(string);
 	}
 
-	private static void writeSegment(String key) throws IOException {
+	private void writeSegment(String key) throws IOException {
 		String[] segments;
 		if (!segByElement) {
 			segments = segmenter.segment(fixChars(source));
@@ -14,7 +14,6 @@ package com.maxprograms.converters.javaproperties;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.lang.System.Logger;
@@ -32,7 +31,9 @@ import java.util.Map;
 
 import javax.xml.parsers.ParserConfigurationException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
@@ -44,11 +45,11 @@ import org.xml.sax.SAXException;
 
 public class Xliff2Properties {
 
-	private static String xliffFile;
-	private static String encoding;
-	private static Map<String, Element> segments;
-	private static Catalog catalog;
-	private static FileOutputStream output;
+	private String xliffFile;
+	private String encoding;
+	private Map<String, Element> segments;
+	private Catalog catalog;
+	private Utf8OutputStream output;
 
 	private Xliff2Properties() {
 		// do not instantiate this class
@@ -56,6 +57,10 @@ public class Xliff2Properties {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Xliff2Properties().merge(params);
+	}
+
+	private List<String> merge(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 
 		String sklFile = params.get("skeleton");
@@ -63,7 +68,7 @@ public class Xliff2Properties {
 		encoding = params.get("encoding");
 
 		try {
-			catalog = new Catalog(params.get("catalog"));
+			catalog = CatalogCache.getCatalog(params.get("catalog"));
 			String outputFile = params.get("backfile");
 			File f = new File(outputFile);
 			File p = f.getParentFile();
@@ -76,7 +81,7 @@ public class Xliff2Properties {
 			if (!f.exists()) {
 				Files.createFile(Paths.get(f.toURI()));
 			}
-			output = new FileOutputStream(f);
+			output = new Utf8OutputStream(f);
 			loadSegments();
 
 			try (InputStreamReader input = new InputStreamReader(new FileInputStream(sklFile),
@@ -180,7 +185,7 @@ public class Xliff2Properties {
 		return "\\u" + hex;
 	}
 
-	private static void loadSegments() throws SAXException, IOException, ParserConfigurationException {
+	private void loadSegments() throws SAXException, IOException, ParserConfigurationException {
 
 		SAXBuilder builder = new SAXBuilder();
 		if (catalog != null) {
@@ -201,7 +206,7 @@ public class Xliff2Properties {
 		}
 	}
 
-	private static void writeString(String string) throws IOException {
+	private void writeString(String string) throws IOException {
 		output.write(string.getBytes(encoding));
 	}
 
@@ -13,24 +13,23 @@ package com.maxprograms.converters.javascript;
 
 import java.io.BufferedReader;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.Utils;
 
 public class Jscript2xliff {
 
-	private static FileOutputStream output;
-	private static FileOutputStream skeleton;
-	private static int segId;
+	private Utf8OutputStream output;
+	private Utf8OutputStream skeleton;
+	private int segId;
 
 	private Jscript2xliff() {
 		// do not instantiate this class
@@ -38,6 +37,10 @@ public class Jscript2xliff {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Jscript2xliff().convert(params);
+	}
+
+	private List<String> convert(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 
 		String inputFile = params.get("source");
@@ -55,7 +58,7 @@ public class Jscript2xliff {
 			try (FileInputStream stream = new FileInputStream(inputFile)) {
 				try (InputStreamReader input = new InputStreamReader(stream, encoding)) {
 					BufferedReader buffer = new BufferedReader(input);
-					output = new FileOutputStream(xliffFile);
+					output = new Utf8OutputStream(xliffFile);
 
 					writeString("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
 					writeString("<xliff version=\"1.2\" xmlns=\"urn:oasis:names:tc:xliff:document:1.2\" "
@@ -73,7 +76,7 @@ public class Jscript2xliff {
 					writeString("<?encoding " + encoding + "?>\n");
 					writeString("<body>\n");
 
-					skeleton = new FileOutputStream(skeletonFile);
+					skeleton = new Utf8OutputStream(skeletonFile);
 
 					String line;
 					String comment = "";
@@ -168,7 +171,7 @@ public class Jscript2xliff {
 		return "";
 	}
 
-	private static void extractStrings(String line) throws IOException {
+	private void extractStrings(String line) throws IOException {
 		while (line.length() > 0) {
 			line = checkForQuote(line, '\"');
 			line = checkForQuote(line, '\'');
@@ -180,7 +183,7 @@ public class Jscript2xliff {
 		} // line length > 0 ?
 	}
 
-	private static String checkForQuote(String line, char c) throws IOException {
+	private String checkForQuote(String line, char c) throws IOException {
 		boolean isString = true;
 		int index = line.indexOf(c);
 		if (index > 0 && line.charAt(index - 1) == '\\') {
@@ -210,7 +213,7 @@ public class Jscript2xliff {
 		return line;
 	}
 
-	private static void writeSegment(String segment) throws IOException {
+	private void writeSegment(String segment) throws IOException {
 		if (segment.isEmpty()) {
 			return;
 		}
@@ -237,11 +240,11 @@ public class Jscript2xliff {
 		return result;
 	}
 
-	private static void writeString(String string) throws IOException {
-		output.write(string.getBytes(StandardCharsets.UTF_8));
+	private void writeString(String string) throws IOException {
+		output.write(string);
 	}
 
-	private static void writeSkeleton(String string) throws IOException {
-		skeleton.write(string.getBytes(StandardCharsets.UTF_8));
+	private void writeSkeleton(String string) throws IOException {
+		skeleton.write(string);
 	}
 }
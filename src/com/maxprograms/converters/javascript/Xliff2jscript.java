@@ -13,7 +13,6 @@ package com.maxprograms.converters.javascript;
 
 import java.io.BufferedReader;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URISyntaxException;
@@ -27,9 +26,10 @@ import java.util.Map;
 
 import javax.xml.parsers.ParserConfigurationException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
 import com.maxprograms.converters.UnexistentSegmentException;
-import com.maxprograms.xml.Catalog;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.SAXBuilder;
@@ -38,11 +38,11 @@ import org.xml.sax.SAXException;
 
 public class Xliff2jscript {
 
-	private static String xliffFile;
-	private static Map<String, Element> segments;
-	private static FileOutputStream output;
-	private static String catalog;
-	private static String encoding;
+	private String xliffFile;
+	private Map<String, Element> segments;
+	private Utf8OutputStream output;
+	private String catalog;
+	private String encoding;
 
 	private Xliff2jscript() {
 		// do not instantiate this class
@@ -50,6 +50,10 @@ public class Xliff2jscript {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Xliff2jscript().merge(params);
+	}
+
+	private List<String> merge(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 
 		String sklFile = params.get("skeleton");
@@ -59,7 +63,7 @@ public class Xliff2jscript {
 
 		try {
 			String outputFile = params.get("backfile");
-			output = new FileOutputStream(outputFile);
+			output = new Utf8OutputStream(outputFile);
 			loadSegments();
 			try (InputStreamReader input = new InputStreamReader(new FileInputStream(sklFile),
 					StandardCharsets.UTF_8)) {
@@ -124,11 +128,11 @@ public class Xliff2jscript {
 		return result;
 	}
 
-	private static void loadSegments()
+	private void loadSegments()
 			throws SAXException, IOException, ParserConfigurationException, URISyntaxException {
 
 		SAXBuilder builder = new SAXBuilder();
-		builder.setEntityResolver(new Catalog(catalog));
+		builder.setEntityResolver(CatalogCache.getCatalog(catalog));
 
 		Document doc = builder.build(xliffFile);
 		Element root = doc.getRootElement();
@@ -144,7 +148,7 @@ public class Xliff2jscript {
 		}
 	}
 
-	private static void writeString(String string) throws IOException {
+	private void writeString(String string) throws IOException {
 		output.write(string.getBytes(encoding));
 	}
 
@@ -24,8 +24,9 @@ import com.maxprograms.xml.XMLNode;
 
 public class ElementBuilder {
 
-    private static Pattern pattern;
-    private static Pattern endPattern;
+    private static final Pattern pattern = Pattern
+            .compile("<[A-Za-z0-9]+([\\s][A-Za-z\\-\\.]+=[\"|\'][^<&>]*[\"|\'])*[\\s]*/?>");
+    private static final Pattern endPattern = Pattern.compile("</[A-Za-z0-9]+>");
 
     private ElementBuilder() {
         // private for security
@@ -72,12 +73,6 @@ public class ElementBuilder {
     }
 
     private static void fixHtmlTags(Element src) {
-        if (pattern == null) {
-            pattern = Pattern.compile("<[A-Za-z0-9]+([\\s][A-Za-z\\-\\.]+=[\"|\'][^<&>]*[\"|\'])*[\\s]*/?>");
-        }
-        if (endPattern == null) {
-            endPattern = Pattern.compile("</[A-Za-z0-9]+>");
-        }
         int count = 0;
         String e = normalise(src.getText());
 
@@ -14,14 +14,12 @@ package com.maxprograms.converters.json;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -41,10 +39,13 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import org.xml.sax.SAXException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
 import com.maxprograms.converters.EncodingResolver;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.Utils;
 import com.maxprograms.segmenter.Segmenter;
+import com.maxprograms.segmenter.SegmenterCache;
 import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.DTDParser;
 import com.maxprograms.xml.Element;
@@ -53,16 +54,15 @@ import com.maxprograms.xml.Grammar;
 
 public class Json2Xliff {
 
-    private static boolean paragraphSegmentation;
-    private static Segmenter segmenter;
-    private static Segmenter targetSegmenter;
-    private static String tgtLang;
-    private static int id;
-    private static List<Element> segments;
-    private static Set<String> ids;
-    private static int bomLength = 0;
-    private static List<String[]> entities;
-    private static boolean trimTags;
+    private boolean paragraphSegmentation;
+    private Segmenter segmenter;
+    private Segmenter targetSegmenter;
+    private String tgtLang;
+    private int id;
+    private List<Element> segments;
+    private Set<String> ids;
+    private List<String[]> entities;
+    private boolean trimTags;
 
     private Json2Xliff() {
         // do not instantiate this class
@@ -70,6 +70,10 @@ public class Json2Xliff {
     }
 
     public static List<String> run(Map<String, String> params) {
+        return new Json2Xliff().convert(params);
+    }
+
+    private List<String> convert(Map<String, String> params) {
         List<String> result = new ArrayList<>();
 
         id = 0;
@@ -94,13 +98,12 @@ public class Json2Xliff {
             tgtLang = "\" target-language=\"" + targetLanguage;
         }
         try {
-            Catalog catalog = new Catalog(catalogFile);
-            bomLength = EncodingResolver.getBOM(inputFile) == null ? 0 : 1;
+            Catalog catalog = CatalogCache.getCatalog(catalogFile);
             Object json = loadFile(inputFile, encoding);
             if (!paragraphSegmentation) {
-                segmenter = new Segmenter(initSegmenter, sourceLanguage, catalog);
+                segmenter = SegmenterCache.getSegmenter(initSegmenter, sourceLanguage, catalog);
                 if (targetLanguage != null) {
-                    targetSegmenter = new Segmenter(initSegmenter, targetLanguage, catalog);
+                    targetSegmenter = SegmenterCache.getSegmenter(initSegmenter, targetLanguage, catalog);
                 }
             }
             String configFile = params.get("config");
@@ -132,15 +135,15 @@ public class Json2Xliff {
                 return result;
             }
 
-            try (FileOutputStream out = new FileOutputStream(skeletonFile)) {
+            try (Utf8OutputStream out = new Utf8OutputStream(skeletonFile)) {
                 if (json instanceof JSONObject obj) {
-                    out.write(obj.toString(2).getBytes(StandardCharsets.UTF_8));
+                    out.write(obj.toString(2));
                 } else {
-                    out.write(((JSONArray) json).toString(2).getBytes(StandardCharsets.UTF_8));
+                    out.write(((JSONArray) json).toString(2));
                 }
             }
 
-            try (FileOutputStream out = new FileOutputStream(xliffFile)) {
+            try (Utf8OutputStream out = new Utf8OutputStream(xliffFile)) {
                 writeString(out, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
                 writeString(out, "<xliff version=\"1.2\" xmlns=\"urn:oasis:names:tc:xliff:document:1.2\" "
                         + "xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" "
@@ -237,11 +240,12 @@ public class Json2Xliff {
         return "" + (char) Integer.parseUnsignedInt(code);
     }
 
-    private static void writeString(FileOutputStream out, String string) throws IOException {
-        out.write(string.getBytes(StandardCharsets.UTF_8));
+    private static void writeString(Utf8OutputStream out, String string) throws IOException {
+        out.write(string);
     }
 
     protected static Object loadFile(String file, String charset) throws IOException {
+        int bomLength = EncodingResolver.getBOM(file) == null ? 0 : 1;
         StringBuilder builder = new StringBuilder();
         try (FileReader stream = new FileReader(new File(file), Charset.forName(charset))) {
             try (BufferedReader reader = new BufferedReader(stream)) {
@@ -268,7 +272,7 @@ public class Json2Xliff {
         throw new IOException(Messages.getString("Json2Xliff.2"));
     }
 
-    private static void parseJson(JSONObject json) {
+    private void parseJson(JSONObject json) {
         Iterator<String> it = json.keys();
         while (it.hasNext()) {
             String key = it.next();
@@ -283,7 +287,7 @@ public class Json2Xliff {
         }
     }
 
-    private static void parseJson(JSONObject json, JsonConfig config) throws IOException {
+    private void parseJson(JSONObject json, JsonConfig config) throws IOException {
         List<String> translatableKeys = config.getSourceKeys();
         List<String> ignorable = config.getIgnorableKeys();
         Set<String> parsedKeys = new HashSet<>();
@@ -429,7 +433,7 @@ public class Json2Xliff {
         }
     }
 
-    private static Element sortTags(Element source) {
+    private Element sortTags(Element source) {
         List<Element> sourceTags = source.getChildren();
         Iterator<Element> it = sourceTags.iterator();
         int count = 0;
@@ -439,7 +443,7 @@ public class Json2Xliff {
         return source;
     }
 
-    private static Element matchTags(Element source, Element target) {
+    private Element matchTags(Element source, Element target) {
         List<Element> sourceTags = source.getChildren();
         int extra = sourceTags.size();
         Set<String> usedIds = new TreeSet<>();
@@ -466,7 +470,7 @@ public class Json2Xliff {
         return target;
     }
 
-    private static String replaceEntities(String string) {
+    private String replaceEntities(String string) {
         if (string.isEmpty() || entities.isEmpty()) {
             return string;
         }
@@ -486,7 +490,7 @@ public class Json2Xliff {
         return result;
     }
 
-    private static void validateId(String id) throws IOException {
+    private void validateId(String id) throws IOException {
         String[] nameStart = new String[] { ":", "[A-Z]", "_", "[a-z]", "[\\u00C0-\\u00D6]", "[\\u00D8-\\u00F6]",
                 "[\\u00F8-\\u02FF]", "[\\u0370-\\u037D]", "[\\u037F-\\u1FFF]", "[\\u200C-\\u200D]", "[\\u2070-\\u218F]",
                 "[\\u2C00-\\u2FEF]", "[\\u3001-\\uD7FF]", "[\\uF900-\\uFDCF]", "[\\uFDF0-\\uFFFD]",
@@ -524,7 +528,7 @@ public class Json2Xliff {
         }
     }
 
-    private static List<String> harvestNotes(Object object) {
+    private List<String> harvestNotes(Object object) {
         List<String> result = new ArrayList<>();
         if (object instanceof JSONObject json) {
             Iterator<String> keys = json.keys();
@@ -543,7 +547,7 @@ public class Json2Xliff {
         return result;
     }
 
-    private static String parseText(String string) {
+    private String parseText(String string) {
         if (!paragraphSegmentation) {
             String[] segs = segmenter.segment(string);
             StringBuilder result = new StringBuilder();
@@ -555,7 +559,7 @@ public class Json2Xliff {
         return addSegment(string);
     }
 
-    private static String addSegment(String string) {
+    private String addSegment(String string) {
         Element segment = new Element("trans-unit");
         segment.setAttribute("id", "" + id);
         segment.addContent("\n    ");
@@ -569,7 +573,7 @@ public class Json2Xliff {
         return holder.getStart() + "%%%" + id++ + "%%%" + holder.getEnd();
     }
 
-    private static void parseArray(JSONArray array) {
+    private void parseArray(JSONArray array) {
         for (int i = 0; i < array.length(); i++) {
             Object obj = array.get(i);
             if (obj instanceof String string) {
@@ -582,7 +586,7 @@ public class Json2Xliff {
         }
     }
 
-    private static void parseArray(JSONArray array, JsonConfig config) throws JSONException, IOException {
+    private void parseArray(JSONArray array, JsonConfig config) throws JSONException, IOException {
         for (int i = 0; i < array.length(); i++) {
             Object obj = array.get(i);
             if (obj instanceof String string) {
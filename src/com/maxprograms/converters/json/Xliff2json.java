@@ -12,12 +12,10 @@
 
 package com.maxprograms.converters.json;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
 import java.net.URISyntaxException;
-import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -31,7 +29,9 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 import org.xml.sax.SAXException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
@@ -43,11 +43,11 @@ import com.maxprograms.xml.XMLUtils;
 
 public class Xliff2json {
 
-    private static Map<String, Element> segments;
-    private static String encoding;
-    private static boolean escaped;
-    private static boolean exportHTML;
-    private static List<String[]> entities;
+    private Map<String, Element> segments;
+    private String encoding;
+    private boolean escaped;
+    private boolean exportHTML;
+    private List<String[]> entities;
 
     private Xliff2json() {
         // do not instantiate this class
@@ -55,6 +55,10 @@ public class Xliff2json {
     }
 
     public static List<String> run(Map<String, String> params) {
+        return new Xliff2json().merge(params);
+    }
+
+    private List<String> merge(Map<String, String> params) {
         List<String> result = new ArrayList<>();
         String sklFile = params.get("skeleton");
         String xliffFile = params.get("xliff");
@@ -62,7 +66,7 @@ public class Xliff2json {
         String outputFile = params.get("backfile");
 
         try {
-            Catalog catalog = new Catalog(catalogFile);
+            Catalog catalog = CatalogCache.getCatalog(catalogFile);
             loadSegments(xliffFile, catalog);
             Object json = Json2Xliff.loadFile(sklFile, encoding);
             if (json instanceof JSONObject obj) {
@@ -71,11 +75,11 @@ public class Xliff2json {
                 parseArray((JSONArray) json);
             }
 
-            try (FileOutputStream out = new FileOutputStream(outputFile)) {
+            try (Utf8OutputStream out = new Utf8OutputStream(outputFile)) {
                 if (json instanceof JSONObject obj) {
-                    out.write(obj.toString(2).getBytes(StandardCharsets.UTF_8));
+                    out.write(obj.toString(2));
                 } else {
-                    out.write(((JSONArray) json).toString(2).getBytes(StandardCharsets.UTF_8));
+                    out.write(((JSONArray) json).toString(2));
                 }
             }
 
@@ -89,7 +93,7 @@ public class Xliff2json {
         return result;
     }
 
-    private static void loadSegments(String xliffFile, Catalog catalog)
+    private void loadSegments(String xliffFile, Catalog catalog)
             throws SAXException, IOException, ParserConfigurationException {
         SAXBuilder builder = new SAXBuilder();
         builder.setEntityResolver(catalog);
@@ -121,7 +125,7 @@ public class Xliff2json {
         }
     }
 
-    private static void parseJson(JSONObject json) throws IOException {
+    private void parseJson(JSONObject json) throws IOException {
         Iterator<String> keys = json.keys();
         while (keys.hasNext()) {
             String key = keys.next();
@@ -136,7 +140,7 @@ public class Xliff2json {
         }
     }
 
-    private static String parseText(String line) throws IOException {
+    private String parseText(String line) throws IOException {
         int index = line.indexOf("%%%");
         while (index != -1) {
             String code = line.substring(index + 3, line.indexOf("%%%", index + 1));
@@ -162,7 +166,7 @@ public class Xliff2json {
         return line;
     }
 
-    private static void parseArray(JSONArray array) throws IOException {
+    private void parseArray(JSONArray array) throws IOException {
         for (int i = 0; i < array.length(); i++) {
             Object obj = array.get(i);
             if (obj instanceof String) {
@@ -175,7 +179,7 @@ public class Xliff2json {
         }
     }
 
-    private static String extractText(Element element) {
+    private String extractText(Element element) {
         StringBuilder result = new StringBuilder();
         List<XMLNode> content = element.getContent();
         Iterator<XMLNode> i = content.iterator();
@@ -203,7 +207,7 @@ public class Xliff2json {
         return result.toString();
     }
 
-    private static String replaceEntities(String string) {
+    private String replaceEntities(String string) {
         if (string.isEmpty()) {
             return string;
         }
@@ -12,12 +12,10 @@
 package com.maxprograms.converters.mif;
 
 import java.io.BufferedReader;
-import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -28,6 +26,7 @@ import java.util.Stack;
 import javax.xml.parsers.ParserConfigurationException;
 
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.Utils;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
@@ -37,12 +36,12 @@ import org.xml.sax.SAXException;
 
 public class Mif2Xliff {
 
-	private static FileOutputStream output;
-	private static FileOutputStream skeleton;
-	private static ArrayList<String> translatable;
-	private static String segment;
-	private static int segId;
-	private static Map<String, String> charmap;
+	private Utf8OutputStream output;
+	private Utf8OutputStream skeleton;
+	private ArrayList<String> translatable;
+	private String segment;
+	private int segId;
+	private Map<String, String> charmap;
 
 	private Mif2Xliff() {
 		// do not instantiate this class
@@ -50,6 +49,10 @@ public class Mif2Xliff {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Mif2Xliff().convert(params);
+	}
+
+	private List<String> convert(Map<String, String> params) {
 
 		List<String> result = new ArrayList<>();
 
@@ -76,7 +79,7 @@ public class Mif2Xliff {
 			try (FileReader input = new FileReader(inputFile)) {
 				try (BufferedReader buffer = new BufferedReader(input)) {
 
-					output = new FileOutputStream(xliffFile);
+					output = new Utf8OutputStream(xliffFile);
 					writeString("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
 					writeString("<xliff version=\"1.2\" xmlns=\"urn:oasis:names:tc:xliff:document:1.2\" "
 							+ "xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" "
@@ -93,7 +96,7 @@ public class Mif2Xliff {
 					writeString("<?encoding " + encoding + "?>\n");
 					writeString("<body>\n");
 
-					skeleton = new FileOutputStream(skeletonFile);
+					skeleton = new Utf8OutputStream(skeletonFile);
 
 					String type = null;
 					String content = null;
@@ -246,7 +249,7 @@ public class Mif2Xliff {
 	 * If segment text ends in a <ph>element, it is removed and added to the
 	 * skeleton file instead.
 	 */
-	private static void writeSegment() throws IOException {
+	private void writeSegment() throws IOException {
 		if (segment.isEmpty()) {
 			return;
 		}
@@ -284,15 +287,15 @@ public class Mif2Xliff {
 		return ph;
 	}
 
-	private static void writeString(String string) throws IOException {
-		output.write(string.getBytes(StandardCharsets.UTF_8));
+	private void writeString(String string) throws IOException {
+		output.write(string);
 	}
 
-	private static void writeSkeleton(String string) throws IOException {
-		skeleton.write(string.getBytes(StandardCharsets.UTF_8));
+	private void writeSkeleton(String string) throws IOException {
+		skeleton.write(string);
 	}
 
-	private static String cleanString(String s) {
+	private String cleanString(String s) {
 		int control = s.indexOf("\\x");
 		while (control != -1) {
 			int spaceIndex = s.indexOf(' ', control);
@@ -310,7 +313,7 @@ public class Mif2Xliff {
 		return Utils.cleanString(s);
 	}
 
-	private static void fillTranslatable() {
+	private void fillTranslatable() {
 		translatable = new ArrayList<>();
 		translatable.add("string");
 	}
@@ -323,7 +326,7 @@ public class Mif2Xliff {
 		return string;
 	}
 
-	private static char getCharValue(int value) {
+	private char getCharValue(int value) {
 		switch (value) {
 			case 0x04:
 				return '\u0004';
@@ -360,7 +363,7 @@ public class Mif2Xliff {
 		return (char) value;
 	}
 
-	private static void loadCharMap() throws SAXException, IOException, ParserConfigurationException {
+	private void loadCharMap() throws SAXException, IOException, ParserConfigurationException {
 		SAXBuilder cbuilder = new SAXBuilder();
 		Document cdoc = cbuilder.build(Mif2Xliff.class.getResource("init_mif.xml"));
 		charmap = new HashMap<>();
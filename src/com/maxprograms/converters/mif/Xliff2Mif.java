@@ -14,7 +14,6 @@ package com.maxprograms.converters.mif;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.lang.System.Logger;
@@ -32,9 +31,10 @@ import java.util.Map;
 
 import javax.xml.parsers.ParserConfigurationException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
 import com.maxprograms.converters.UnexistentSegmentException;
-import com.maxprograms.xml.Catalog;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.SAXBuilder;
@@ -45,12 +45,12 @@ import org.xml.sax.SAXException;
 
 public class Xliff2Mif {
 
-	private static String xliffFile;
-	private static Map<String, Element> segments;
-	private static FileOutputStream output;
-	private static Map<String, String> charmap;
-	private static String catalog;
-	private static boolean useUnicode;
+	private String xliffFile;
+	private Map<String, Element> segments;
+	private Utf8OutputStream output;
+	private Map<String, String> charmap;
+	private String catalog;
+	private boolean useUnicode;
 
 	private Xliff2Mif() {
 		// do not instantiate this class
@@ -58,6 +58,10 @@ public class Xliff2Mif {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Xliff2Mif().merge(params);
+	}
+
+	private List<String> merge(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 
 		String sklFile = params.get("skeleton");
@@ -76,7 +80,7 @@ public class Xliff2Mif {
 			if (!f.exists()) {
 				Files.createFile(Paths.get(f.toURI()));
 			}
-			output = new FileOutputStream(f);
+			output = new Utf8OutputStream(f);
 			loadSegments();
 			loadCharMap();
 
@@ -133,7 +137,7 @@ public class Xliff2Mif {
 		return result;
 	}
 
-	private static void loadCharMap() throws SAXException, IOException, ParserConfigurationException {
+	private void loadCharMap() throws SAXException, IOException, ParserConfigurationException {
 		SAXBuilder cbuilder = new SAXBuilder();
 		Document cdoc = cbuilder.build(Xliff2Mif.class.getResource("init_mif.xml"));
 		charmap = new HashMap<>();
@@ -146,7 +150,7 @@ public class Xliff2Mif {
 		}
 	}
 
-	private static void process(Element e) throws IOException {
+	private void process(Element e) throws IOException {
 		String result = "";
 		List<XMLNode> content = e.getContent();
 		Iterator<XMLNode> i = content.iterator();
@@ -165,10 +169,10 @@ public class Xliff2Mif {
 		writeString(result);
 	}
 
-	private static void loadSegments()
+	private void loadSegments()
 			throws SAXException, IOException, ParserConfigurationException, URISyntaxException {
 		SAXBuilder builder = new SAXBuilder();
-		builder.setEntityResolver(new Catalog(catalog));
+		builder.setEntityResolver(CatalogCache.getCatalog(catalog));
 
 		Document doc = builder.build(xliffFile);
 		Element root = doc.getRootElement();
@@ -184,7 +188,7 @@ public class Xliff2Mif {
 		}
 	}
 
-	private static String cleanString(String string) {
+	private String cleanString(String string) {
 		int length = string.length();
 		StringBuilder buff = new StringBuilder();
 		for (int i = 0; i < length; i++) {
@@ -193,7 +197,7 @@ public class Xliff2Mif {
 		return buff.toString();
 	}
 
-	private static String getCleanChar(char c) {
+	private String getCleanChar(char c) {
 		switch (c) {
 			case '\u0009':
 				return "\\t";
@@ -216,7 +220,7 @@ public class Xliff2Mif {
 		return "" + c;
 	}
 
-	private static void writeString(String string) throws IOException {
+	private void writeString(String string) throws IOException {
 		output.write(string.getBytes());
 	}
 
@@ -12,7 +12,6 @@
 package com.maxprograms.converters.msoffice;
 
 import java.io.ByteArrayInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
@@ -34,10 +33,11 @@ import javax.xml.parsers.ParserConfigurationException;
 import org.xml.sax.SAXException;
 
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.Utils;
 import com.maxprograms.segmenter.Segmenter;
+import com.maxprograms.segmenter.SegmenterCache;
 import com.maxprograms.xml.Attribute;
-import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.SAXBuilder;
@@ -46,22 +46,22 @@ import com.maxprograms.xml.XMLNode;
 
 public class MSOffice2Xliff {
 
-	private static String inputFile;
-	private static String skeletonFile;
-	private static String sourceLanguage;
-	private static String targetLanguage;
-	private static String text = "";
-	static boolean inBody = false;
+	private String inputFile;
+	private String skeletonFile;
+	private String sourceLanguage;
+	private String targetLanguage;
+	private String text = "";
+	boolean inBody = false;
 
-	private static FileOutputStream out;
-	private static FileOutputStream skel;
-	private static int segnum;
-	private static boolean segByElement;
-	private static Segmenter segmenter;
-	private static String srcEncoding;
+	private Utf8OutputStream out;
+	private Utf8OutputStream skel;
+	private int segnum;
+	private boolean segByElement;
+	private Segmenter segmenter;
+	private String srcEncoding;
 
-	private static Pattern pattern;
-	private static Pattern endPattern;
+	private Pattern pattern;
+	private Pattern endPattern;
 
 	private MSOffice2Xliff() {
 		// do not instantiate this class
@@ -69,6 +69,10 @@ public class MSOffice2Xliff {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new MSOffice2Xliff().convert(params);
+	}
+
+	private List<String> convert(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 
 		inputFile = params.get("source");
@@ -87,13 +91,13 @@ public class MSOffice2Xliff {
 
 		try {
 			if (!segByElement) {
-				segmenter = new Segmenter(initSegmenter, sourceLanguage, new Catalog(catalog));
+				segmenter = SegmenterCache.getSegmenter(initSegmenter, sourceLanguage, catalog);
 			}
 			SAXBuilder builder = new SAXBuilder();
 			Document doc = builder.build(inputFile);
 			Element root = doc.getRootElement();
-			out = new FileOutputStream(xliffFile);
-			skel = new FileOutputStream(skeletonFile);
+			out = new Utf8OutputStream(xliffFile);
+			skel = new Utf8OutputStream(skeletonFile);
 			writeHeader();
 			recurse(root);
 			writeOut("    </body>\n  </file>\n</xliff>");
@@ -110,7 +114,7 @@ public class MSOffice2Xliff {
 		return result;
 	}
 
-	private static void writeHeader() throws IOException {
+	private void writeHeader() throws IOException {
 		String tgtLang = "";
 		if (targetLanguage != null) {
 			tgtLang = "\" target-language=\"" + targetLanguage;
@@ -132,7 +136,7 @@ public class MSOffice2Xliff {
 		writeOut("    <body>\n");
 	}
 
-	private static void writeSegment(String sourceText) throws IOException, SAXException, ParserConfigurationException {
+	private void writeSegment(String sourceText) throws IOException, SAXException, ParserConfigurationException {
 		// replace escaped quotes with extended characters
 		sourceText = replaceText(sourceText, "&quot;", "\uE0FF");
 
@@ -256,11 +260,11 @@ public class MSOffice2Xliff {
 		return string.matches("[$\u20AC\u00A3]?[\\s]?[\\-]?(\\d+[\\.,]?(\\d+)?)+[\\s]?[%\u20AC]?");
 	}
 
-	private static void writeOut(String string) throws IOException {
-		out.write(string.getBytes(StandardCharsets.UTF_8));
+	private void writeOut(String string) throws IOException {
+		out.write(string);
 	}
 
-	private static void recurse(Element e) throws IOException, SAXException, ParserConfigurationException {
+	private void recurse(Element e) throws IOException, SAXException, ParserConfigurationException {
 		writeSkel("<" + e.getName());
 		List<Attribute> atts = e.getAttributes();
 		Iterator<Attribute> at = atts.iterator();
@@ -297,7 +301,7 @@ public class MSOffice2Xliff {
 		writeSkel("</" + e.getName() + ">");
 	}
 
-	private static void recurseVisioElement(Element e) throws IOException, SAXException, ParserConfigurationException {
+	private void recurseVisioElement(Element e) throws IOException, SAXException, ParserConfigurationException {
 		if (!text.isEmpty()) {
 			if (segByElement) {
 				writeSegment(text);
@@ -351,7 +355,7 @@ public class MSOffice2Xliff {
 		writeSkel("</" + e.getName() + ">");
 	}
 
-	private static void recurseVisioChild(Element e) {
+	private void recurseVisioChild(Element e) {
 		text = text + "<ph>&lt;" + e.getName();
 		List<Attribute> atts = e.getAttributes();
 		Iterator<Attribute> ia = atts.iterator();
@@ -378,11 +382,11 @@ public class MSOffice2Xliff {
 		text = text + "<ph>&lt;/" + e.getName() + "&gt;</ph>";
 	}
 
-	private static void writeSkel(String string) throws IOException {
-		skel.write(string.getBytes(StandardCharsets.UTF_8));
+	private void writeSkel(String string) throws IOException {
+		skel.write(string);
 	}
 
-	private static void recursePara(Element e) throws IOException, SAXException, ParserConfigurationException {
+	private void recursePara(Element e) throws IOException, SAXException, ParserConfigurationException {
 		if ("w:p".equals(e.getName()) || "a:p".equals(e.getName())) {
 			if (!text.isEmpty()) {
 				if (segByElement) {
@@ -611,7 +615,7 @@ public class MSOffice2Xliff {
 				&& "w:br".equals(e.getChildren().get(0).getName());
 	}
 
-	private static void recursePhrase(Element e) throws IOException, SAXException, ParserConfigurationException {
+	private void recursePhrase(Element e) throws IOException, SAXException, ParserConfigurationException {
 		if ("w:r".equals(e.getName()) && isBreak(e)) {
 			if (!text.isEmpty()) {
 				if (segByElement) {
@@ -670,7 +674,7 @@ public class MSOffice2Xliff {
 		return value;
 	}
 
-	private static String fixHtmlTags(String original) {
+	private String fixHtmlTags(String original) {
 		if (pattern == null) {
 			pattern = Pattern.compile("&lt;[A-Za-z0-9]+([\\s][A-Za-z\\-\\.]+=[\"|\'][^<&>]*[\"|\'])*[\\s]*/?&gt;");
 		}
@@ -12,32 +12,33 @@
 package com.maxprograms.converters.office;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeSet;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
 
 import javax.xml.parsers.ParserConfigurationException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
 import com.maxprograms.converters.FileFormats;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.Utils;
+import com.maxprograms.converters.XliffStreamWriter;
+import com.maxprograms.converters.ZipContainer;
 import com.maxprograms.converters.msoffice.MSOffice2Xliff;
 import com.maxprograms.converters.xml.Xml2Xliff;
-import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.Indenter;
@@ -51,10 +52,11 @@ import org.xml.sax.SAXException;
 
 public class Office2Xliff {
 
-	private static Element mergedRoot;
-	private static String inputFile;
-	private static String skeleton;
-	private static boolean isPPTX;
+	private XliffStreamWriter writer;
+	private Map<String, String> parts;
+	private String inputFile;
+	private String skeleton;
+	private boolean isPPTX;
 
 	private Office2Xliff() {
 		// do not instantiate this class
@@ -62,141 +64,62 @@ public class Office2Xliff {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Office2Xliff().convert(params);
+	}
+
+	private List<String> convert(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 
 		inputFile = params.get("source");
 		String xliff = params.get("xliff");
 		skeleton = params.get("skeleton");
-		String catalog = params.get("catalog");
 
+		parts = new LinkedHashMap<>();
 		try {
-			Document merged = new Document(null, "xliff", null, null);
-			mergedRoot = merged.getRootElement();
+			Element mergedRoot = new Element("xliff");
 			mergedRoot.setAttribute("version", "1.2");
 			mergedRoot.setAttribute("xmlns", "urn:oasis:names:tc:xliff:document:1.2");
 			mergedRoot.setAttribute("xmlns:xsi", "http://www.w3.org/2001/XMLSchema-instance");
 			mergedRoot.setAttribute("xsi:schemaLocation",
 					"urn:oasis:names:tc:xliff:document:1.2 xliff-core-1.2-transitional.xsd");
-			mergedRoot.addContent("\n");
 
+			File target = new File(xliff).getAbsoluteFile();
+			File tmpXliff = File.createTempFile("xliff", ".tmp", target.getParentFile());
 			try {
-				try (ZipInputStream in = new ZipInputStream(new FileInputStream(inputFile))) {
-					try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(skeleton))) {
-						ZipEntry entry = null;
-						while ((entry = in.getNextEntry()) != null) {
-							if (entry.getName().matches(".*\\.[xX][mM][lL]")
-									&& !(entry.getName().matches(".*slideMaster.*")
-											|| entry.getName().matches(".*slideLayout.*")
-											|| entry.getName().matches(".*handoutMaster.*")
-											|| entry.getName().matches(".*notesMaster.*"))) {
-								File f = new File(entry.getName());
-								String name = f.getName();
-								File tmp = File.createTempFile(name.substring(0, name.lastIndexOf('.')), ".xml");
-								try (FileOutputStream output = new FileOutputStream(tmp.getAbsolutePath())) {
-									byte[] buf = new byte[1024];
-									int len;
-									while ((len = in.read(buf)) > 0) {
-										output.write(buf, 0, len);
-									}
-								}
-								if (name.equals("content.xml")) {
-									cleanTags(tmp.getAbsolutePath(), catalog);
-								}
-								try {
-									Map<String, String> params2 = new HashMap<>();
-									params2.put("source", tmp.getAbsolutePath());
-									params2.put("xliff", tmp.getAbsolutePath() + ".xlf");
-									params2.put("skeleton", tmp.getAbsolutePath() + ".skl");
-									params2.put("catalog", params.get("catalog"));
-									params2.put("srcLang", params.get("srcLang"));
-									String tgtLang = params.get("tgtLang");
-									if (tgtLang != null) {
-										params2.put("tgtLang", tgtLang);
-									}
-									params2.put("srcEncoding", params.get("srcEncoding"));
-									params2.put("paragraph", params.get("paragraph"));
-									params2.put("srxFile", params.get("srxFile"));
-									params2.put("format", params.get("format"));
-									params2.put("xmlfilter", params.get("xmlfilter"));
-									List<String> res = null;
-									if (params.get("format").equals(FileFormats.OFF)) {
-										res = MSOffice2Xliff.run(params2);
-										if (tmp.getName().indexOf("slide") != -1) {
-											isPPTX = true;
-										}
-									} else {
-										res = Xml2Xliff.run(params2);
-									}
-									if (Constants.SUCCESS.equals(res.get(0))) {
-										if (countSegments(tmp.getAbsolutePath() + ".xlf") > 0) {
-											updateXliff(tmp.getAbsolutePath() + ".xlf", entry.getName());
-											addFile(tmp.getAbsolutePath() + ".xlf");
-											ZipEntry content = new ZipEntry(entry.getName() + ".skl");
-											content.setMethod(ZipEntry.DEFLATED);
-											out.putNextEntry(content);
-											try (FileInputStream input = new FileInputStream(
-													tmp.getAbsolutePath() + ".skl")) {
-												byte[] array = new byte[1024];
-												int len;
-												while ((len = input.read(array)) > 0) {
-													out.write(array, 0, len);
-												}
-												out.closeEntry();
-											}
-										} else {
-											saveEntry(out, entry, tmp.getAbsolutePath());
-										}
-										File skl = new File(tmp.getAbsolutePath() + ".skl");
-										Files.delete(Paths.get(skl.toURI()));
-										File xlf = new File(tmp.getAbsolutePath() + ".xlf");
-										Files.delete(Paths.get(xlf.toURI()));
-									} else {
-										saveEntry(out, entry, tmp.getAbsolutePath());
-									}
-								} catch (IOException e) {
-									// do nothing
-									saveEntry(out, entry, tmp.getAbsolutePath());
-								}
-								Files.delete(Paths.get(tmp.toURI()));
-							} else {
-								// not an XML file
-								File tmp = File.createTempFile("zip", ".tmp");
-								try (FileOutputStream output = new FileOutputStream(tmp.getAbsolutePath())) {
-									byte[] buf = new byte[1024];
-									int len;
-									while ((len = in.read(buf)) > 0) {
-										output.write(buf, 0, len);
-									}
-								}
-								saveEntry(out, entry, tmp.getAbsolutePath());
-								Files.delete(Paths.get(tmp.toURI()));
-							}
+				try (XliffStreamWriter output = new XliffStreamWriter(tmpXliff, false)) {
+					writer = output;
+					writer.startElement(mergedRoot);
+					if (!extract(params)) {
+						result.add(Constants.ERROR);
+						if (params.get("format").equals(FileFormats.OFF)) {
+							result.add(Messages.getString("Office2Xliff.1"));
+						} else {
+							result.add(Messages.getString("Office2Xliff.2"));
 						}
+						return result;
 					}
-				}
-			} catch (IOException e) {
-				result.add(Constants.ERROR);
-				if (params.get("format").equals(FileFormats.OFF)) {
-					result.add(Messages.getString("Office2Xliff.1"));
-				} else {
-					result.add(Messages.getString("Office2Xliff.2"));
-				}
-				return result;
-			}
 
-			// sort the slides if it is PPTX
+					// parts of Office documents wait on disk until slides are sorted
 
-			if (params.get("format").equals(FileFormats.OFF) && isPPTX) {
-				sortSlides();
-			}
-
-			// output final XLIFF
-
-			XMLOutputter outputter = new XMLOutputter();
-			mergedRoot.addContent("\n");
-			outputter.preserveSpace(true);
-			try (FileOutputStream output = new FileOutputStream(xliff)) {
-				outputter.output(merged, output);
+					List<String> names = new ArrayList<>(parts.keySet());
+					if (params.get("format").equals(FileFormats.OFF) && isPPTX) {
+						sortSlides(names);
+					}
+					Iterator<String> it = names.iterator();
+					while (it.hasNext()) {
+						String part = parts.remove(it.next());
+						addFile(part);
+						Files.delete(Paths.get(part));
+					}
+					writer.endElement();
+				}
+				Files.move(tmpXliff.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			} finally {
+				Files.deleteIfExists(tmpXliff.toPath());
+				Iterator<String> it = parts.values().iterator();
+				while (it.hasNext()) {
+					Files.deleteIfExists(Paths.get(it.next()));
+				}
 			}
 			result.add(Constants.SUCCESS);
 		} catch (IOException | SAXException | ParserConfigurationException | URISyntaxException e) {
@@ -208,15 +131,102 @@ public class Office2Xliff {
 		return result;
 	}
 
+	/**
+	 * Extracts the XML parts of the document, writing the skeleton as they are
+	 * read. Returns false if the document cannot be read.
+	 */
+	private boolean extract(Map<String, String> params)
+			throws SAXException, IOException, ParserConfigurationException, URISyntaxException {
+		String catalog = params.get("catalog");
+		try (ZipContainer container = new ZipContainer(inputFile, skeleton)) {
+			List<String> names = container.getNames();
+			Iterator<String> it = names.iterator();
+			while (it.hasNext()) {
+				String entryName = it.next();
+				if (entryName.matches(".*\\.[xX][mM][lL]")
+						&& !(entryName.matches(".*slideMaster.*") || entryName.matches(".*slideLayout.*")
+								|| entryName.matches(".*handoutMaster.*") || entryName.matches(".*notesMaster.*"))) {
+					File f = new File(entryName);
+					String name = f.getName();
+					File tmp = File.createTempFile(name.substring(0, name.lastIndexOf('.')), ".xml");
+					try (InputStream in = container.getInputStream(entryName)) {
+						Files.copy(in, tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+					}
+					boolean cleaned = name.equals("content.xml");
+					if (cleaned) {
+						cleanTags(tmp.getAbsolutePath(), catalog);
+					}
+					try {
+						Map<String, String> params2 = new HashMap<>();
+						params2.put("source", tmp.getAbsolutePath());
+						params2.put("xliff", tmp.getAbsolutePath() + ".xlf");
+						params2.put("skeleton", tmp.getAbsolutePath() + ".skl");
+						params2.put("catalog", params.get("catalog"));
+						params2.put("srcLang", params.get("srcLang"));
+						String tgtLang = params.get("tgtLang");
+						if (tgtLang != null) {
+							params2.put("tgtLang", tgtLang);
+						}
+						params2.put("srcEncoding", params.get("srcEncoding"));
+						params2.put("paragraph", params.get("paragraph"));
+						params2.put("srxFile", params.get("srxFile"));
+						params2.put("format", params.get("format"));
+						params2.put("xmlfilter", params.get("xmlfilter"));
+						List<String> res = null;
+						if (params.get("format").equals(FileFormats.OFF)) {
+							res = MSOffice2Xliff.run(params2);
+							if (tmp.getName().indexOf("slide") != -1) {
+								isPPTX = true;
+							}
+						} else {
+							res = Xml2Xliff.run(params2);
+						}
+						if (Constants.SUCCESS.equals(res.get(0))) {
+							if (countSegments(tmp.getAbsolutePath() + ".xlf") > 0) {
+								updateXliff(tmp.getAbsolutePath() + ".xlf", entryName);
+								if (params.get("format").equals(FileFormats.OFF)) {
+									parts.put(entryName, tmp.getAbsolutePath() + ".xlf");
+								} else {
+									addFile(tmp.getAbsolutePath() + ".xlf");
+								}
+								container.addEntry(entryName + ".skl", new File(tmp.getAbsolutePath() + ".skl"));
+							} else {
+								saveEntry(container, entryName, tmp, cleaned);
+							}
+							File skl = new File(tmp.getAbsolutePath() + ".skl");
+							Files.delete(Paths.get(skl.toURI()));
+							if (!parts.containsKey(entryName)) {
+								File xlf = new File(tmp.getAbsolutePath() + ".xlf");
+								Files.delete(Paths.get(xlf.toURI()));
+							}
+						} else {
+							saveEntry(container, entryName, tmp, cleaned);
+						}
+					} catch (IOException e) {
+						// do nothing
+						saveEntry(container, entryName, tmp, cleaned);
+					}
+					Files.delete(Paths.get(tmp.toURI()));
+				} else {
+					// not an XML file
+					container.copyEntry(entryName);
+				}
+			}
+		} catch (IOException e) {
+			return false;
+		}
+		return true;
+	}
+
 	private static void cleanTags(String file, String catalog)
 			throws SAXException, IOException, ParserConfigurationException, URISyntaxException {
 		SAXBuilder builder = new SAXBuilder();
-		builder.setEntityResolver(new Catalog(catalog));
+		builder.setEntityResolver(CatalogCache.getCatalog(catalog));
 		Document doc = builder.build(file);
 		Element root = doc.getRootElement();
 		recurseCleaning(root);
 		XMLOutputter outputter = new XMLOutputter();
-		try (FileOutputStream output = new FileOutputStream(file)) {
+		try (Utf8OutputStream output = new Utf8OutputStream(file)) {
 			outputter.output(doc, output);
 		}
 	}
@@ -249,27 +259,8 @@ public class Office2Xliff {
 		}
 	}
 
-	private static void sortSlides() {
-		List<Element> files = mergedRoot.getChildren("file");
-		List<PI> instructions = mergedRoot.getPI();
-		Map<String, String> table = new HashMap<>();
-		TreeSet<String> tree = new TreeSet<>();
-		for (int i = 0; i < files.size(); i++) {
-			String key = padKey(getKey(files.get(i)));
-			tree.add(key);
-			table.put(key, "" + i);
-		}
-		List<XMLNode> v = new ArrayList<>();
-		Iterator<String> it = tree.iterator();
-		while (it.hasNext()) {
-			String key = it.next();
-			v.add(files.get(Integer.parseInt(table.get(key))));
-		}
-		mergedRoot.setContent(v);
-		Iterator<PI> pit = instructions.iterator();
-		while (pit.hasNext()) {
-			mergedRoot.addContent(pit.next());
-		}
+	private static void sortSlides(List<String> names) {
+		Collections.sort(names, (a, b) -> padKey(a).compareTo(padKey(b)));
 	}
 
 	private static String padKey(String key) {
@@ -313,17 +304,6 @@ public class Office2Xliff {
 		return path + file;
 	}
 
-	private static String getKey(Element file) {
-		List<Element> groups = file.getChild("header").getChildren("prop-group");
-		for (int i = 0; i < groups.size(); i++) {
-			Element group = groups.get(i);
-			if (group.getAttributeValue("name").equals("document")) {
-				return group.getChild("prop").getText();
-			}
-		}
-		return null;
-	}
-
 	private static int countSegments(String string) throws SAXException, IOException, ParserConfigurationException {
 		SAXBuilder builder = new SAXBuilder();
 		Document doc = builder.build(string);
@@ -331,21 +311,16 @@ public class Office2Xliff {
 		return root.getChild("file").getChild("body").getChildren("trans-unit").size();
 	}
 
-	private static void saveEntry(ZipOutputStream out, ZipEntry entry, String name) throws IOException {
-		ZipEntry content = new ZipEntry(entry.getName());
-		content.setMethod(ZipEntry.DEFLATED);
-		out.putNextEntry(content);
-		try (FileInputStream input = new FileInputStream(name)) {
-			byte[] array = new byte[1024];
-			int len;
-			while ((len = input.read(array)) > 0) {
-				out.write(array, 0, len);
-			}
-			out.closeEntry();
+	private static void saveEntry(ZipContainer container, String name, File file, boolean changed)
+			throws IOException {
+		if (changed) {
+			container.addEntry(name, file);
+		} else {
+			container.copyEntry(name);
 		}
 	}
 
-	private static void addFile(String xliff) throws SAXException, IOException, ParserConfigurationException {
+	private void addFile(String xliff) throws SAXException, IOException, ParserConfigurationException {
 		SAXBuilder builder = new SAXBuilder();
 		Document doc = builder.build(xliff);
 		Element root = doc.getRootElement();
@@ -356,11 +331,10 @@ public class Office2Xliff {
 		for (int i = 0; i < pi.size(); i++) {
 			newFile.addContent(pi.get(i));
 		}
-		Indenter.indent(newFile, 2, 2);
-		mergedRoot.addContent(newFile);
+		writer.writeElement(newFile);
 	}
 
-	private static void updateXliff(String xliff, String original)
+	private void updateXliff(String xliff, String original)
 			throws SAXException, IOException, ParserConfigurationException {
 		SAXBuilder builder = new SAXBuilder();
 		Document doc = builder.build(xliff);
@@ -382,7 +356,7 @@ public class Office2Xliff {
 
 		XMLOutputter outputter = new XMLOutputter();
 		Indenter.indent(root, 2);
-		try (FileOutputStream output = new FileOutputStream(xliff)) {
+		try (Utf8OutputStream output = new Utf8OutputStream(xliff)) {
 			outputter.output(doc, output);
 		}
 	}
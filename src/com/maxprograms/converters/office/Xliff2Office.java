@@ -13,7 +13,6 @@ package com.maxprograms.converters.office;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
@@ -32,9 +31,10 @@ import java.util.zip.ZipOutputStream;
 
 import javax.xml.parsers.ParserConfigurationException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.xml.Xliff2Xml;
-import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.SAXBuilder;
@@ -46,8 +46,8 @@ public class Xliff2Office {
 
 	private static Logger logger = System.getLogger(Xliff2Office.class.getName());
 
-	private static Map<String, String> filesTable;
-	private static boolean isEmbedded = false;
+	private Map<String, String> filesTable;
+	private boolean isEmbedded = false;
 
 	private Xliff2Office() {
 		// do not instantiate this class
@@ -55,6 +55,10 @@ public class Xliff2Office {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Xliff2Office().merge(params);
+	}
+
+	private List<String> merge(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 		String xliffFile = params.get("xliff");
 		String outputFile = params.get("backfile");
@@ -86,13 +90,13 @@ public class Xliff2Office {
 				Files.createFile(Paths.get(f.toURI()));
 			}
 			try (ZipInputStream in = new ZipInputStream(new FileInputStream(skeleton))) {
-				try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(f))) {
+				try (ZipOutputStream out = new ZipOutputStream(new Utf8OutputStream(f))) {
 					ZipEntry entry = null;
 					while ((entry = in.getNextEntry()) != null) {
 						if (entry.getName().matches(".*\\.[xX][mM][lL]\\.skl")) {
 							String name = entry.getName().substring(0, entry.getName().lastIndexOf(".skl"));
 							File tmp = new File(filesTable.get(name) + ".skl");
-							try (FileOutputStream output = new FileOutputStream(tmp.getAbsolutePath())) {
+							try (Utf8OutputStream output = new Utf8OutputStream(tmp.getAbsolutePath())) {
 								byte[] buf = new byte[1024];
 								int len;
 								while ((len = in.read(buf)) > 0) {
@@ -135,7 +139,7 @@ public class Xliff2Office {
 							Files.delete(Paths.get(xlf.toURI()));
 						} else {
 							File tmp = File.createTempFile("entry", ".tmp");
-							try (FileOutputStream output = new FileOutputStream(tmp.getAbsolutePath())) {
+							try (Utf8OutputStream output = new Utf8OutputStream(tmp.getAbsolutePath())) {
 								byte[] buf = new byte[1024];
 								int len;
 								while ((len = in.read(buf)) > 0) {
@@ -176,10 +180,10 @@ public class Xliff2Office {
 		SAXBuilder builder = new SAXBuilder();
 		builder.setValidating(false);
 		Document doc = builder.build(file);
-		builder.setEntityResolver(new Catalog(catalog));
+		builder.setEntityResolver(CatalogCache.getCatalog(catalog));
 		addPreserveSpace(doc.getRootElement());
 		XMLOutputter outputter = new XMLOutputter();
-		try (FileOutputStream output = new FileOutputStream(file)) {
+		try (Utf8OutputStream output = new Utf8OutputStream(file)) {
 			outputter.output(doc, output);
 		}
 	}
@@ -197,7 +201,7 @@ public class Xliff2Office {
 		}
 	}
 
-	private static void saveFile(Element element, String xliffFile) throws IOException {
+	private void saveFile(Element element, String xliffFile) throws IOException {
 		Document doc = new Document(null, "xliff", null, null);
 		Element root = doc.getRootElement();
 		root.setAttribute("version", "1.2");
@@ -221,7 +225,7 @@ public class Xliff2Office {
 		file.getChild("header").getChild("skl").getChild("external-file").setAttribute("href",
 				xliff.getAbsolutePath() + ".skl");
 		XMLOutputter outputter = new XMLOutputter();
-		try (FileOutputStream output = new FileOutputStream(xliff.getAbsolutePath())) {
+		try (Utf8OutputStream output = new Utf8OutputStream(xliff.getAbsolutePath())) {
 			outputter.output(doc, output);
 		}
 	}
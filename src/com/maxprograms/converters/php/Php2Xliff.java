@@ -12,13 +12,11 @@
 package com.maxprograms.converters.php;
 
 import java.io.BufferedReader;
-import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
 import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
@@ -28,20 +26,23 @@ import java.util.Vector;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.Utils;
 import com.maxprograms.segmenter.Segmenter;
+import com.maxprograms.segmenter.SegmenterCache;
 import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Element;
 
 public class Php2Xliff {
 
-	private static int segId;
-	private static Pattern pattern;
-	private static Pattern endPattern;
-	private static Segmenter segmenter;
-	private static String sourceLanguage;
-	private static boolean paragraphSegmentation;
+	private int segId;
+	private Pattern pattern;
+	private Pattern endPattern;
+	private Segmenter segmenter;
+	private String sourceLanguage;
+	private boolean paragraphSegmentation;
 
 	private Php2Xliff() {
 		// do not instantiate this class
@@ -49,6 +50,10 @@ public class Php2Xliff {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Php2Xliff().convert(params);
+	}
+
+	private List<String> convert(Map<String, String> params) {
 		List<String> result = new Vector<>();
 		if (pattern == null) {
 			pattern = Pattern.compile("<[A-Za-z0-9]+([\\s][A-Za-z\\-\\.]+=[\"|\'][^<&>]*[\"|\'])*[\\s]*/?>");
@@ -70,12 +75,12 @@ public class Php2Xliff {
 		String initSegmenter = params.get("srxFile");
 
 		try {
-			Catalog catalog = new Catalog(params.get("catalog"));
+			Catalog catalog = CatalogCache.getCatalog(params.get("catalog"));
 			if (!paragraphSegmentation) {
-				segmenter = new Segmenter(initSegmenter, sourceLanguage, catalog);
+				segmenter = SegmenterCache.getSegmenter(initSegmenter, sourceLanguage, catalog);
 			}
 
-			try (FileOutputStream output = new FileOutputStream(xliffFile)) {
+			try (Utf8OutputStream output = new Utf8OutputStream(xliffFile)) {
 				writeString(output, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
 				writeString(output, "<xliff version=\"1.2\" xmlns=\"urn:oasis:names:tc:xliff:document:1.2\" " +
 						"xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" " +
@@ -100,7 +105,7 @@ public class Php2Xliff {
 				writeString(output, "</header>\n");
 				writeString(output, "<body>\n");
 
-				try (FileOutputStream skeleton = new FileOutputStream(skeletonFile)) {
+				try (Utf8OutputStream skeleton = new Utf8OutputStream(skeletonFile)) {
 					StringBuilder sb = new StringBuilder();
 					try (FileReader reader = new FileReader(inputFile, Charset.forName(srcEncoding))) {
 						try (BufferedReader buffer = new BufferedReader(reader)) {
@@ -202,17 +207,17 @@ public class Php2Xliff {
 		return result;
 	}
 
-	private static void writeString(FileOutputStream output, String string)
+	private static void writeString(Utf8OutputStream output, String string)
 			throws IOException {
-		output.write(string.getBytes(StandardCharsets.UTF_8));
+		output.write(string);
 	}
 
-	private static void writeSkeleton(FileOutputStream skeleton, String string)
+	private static void writeSkeleton(Utf8OutputStream skeleton, String string)
 			throws IOException {
-		skeleton.write(string.getBytes(StandardCharsets.UTF_8));
+		skeleton.write(string);
 	}
 
-	private static void writeSegment(FileOutputStream output, FileOutputStream skeleton, String source)
+	private void writeSegment(Utf8OutputStream output, Utf8OutputStream skeleton, String source)
 			throws IOException {
 		source = source.replace("\\'", "'");
 		source = source.replace("\\\"", "\"");
@@ -248,7 +253,7 @@ public class Php2Xliff {
 		writeSkeleton(skeleton, delimiter);
 	}
 
-	private static String fixHtml(String text) {
+	private String fixHtml(String text) {
 		String temp = "";
 		int count = 0;
 		Map<String, Element> table = new Hashtable<>();
@@ -325,7 +330,7 @@ public class Php2Xliff {
 		return start + tag.toString() + end;
 	}
 
-	private static boolean hasHtml(String source) {
+	private boolean hasHtml(String source) {
 		Matcher matcher = pattern.matcher(source);
 		if (matcher.find()) {
 			return true;
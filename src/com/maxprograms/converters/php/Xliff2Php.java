@@ -13,7 +13,6 @@ package com.maxprograms.converters.php;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.lang.System.Logger;
@@ -32,7 +31,9 @@ import javax.xml.parsers.ParserConfigurationException;
 
 import org.xml.sax.SAXException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
@@ -42,10 +43,10 @@ import com.maxprograms.xml.XMLNode;
 
 public class Xliff2Php {
 
-	private static String xliffFile;
-	private static String encoding;
-	private static Map<String, Element> segments;
-	private static Catalog catalog;
+	private String xliffFile;
+	private String encoding;
+	private Map<String, Element> segments;
+	private Catalog catalog;
 
 	private Xliff2Php() {
 		// do not instantiate this class
@@ -53,6 +54,10 @@ public class Xliff2Php {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Xliff2Php().merge(params);
+	}
+
+	private List<String> merge(Map<String, String> params) {
 		List<String> result = new Vector<>();
 
 		String sklFile = params.get("skeleton");
@@ -63,7 +68,7 @@ public class Xliff2Php {
 		}
 
 		try {
-			catalog = new Catalog(params.get("catalog"));
+			catalog = CatalogCache.getCatalog(params.get("catalog"));
 			String outputFile = params.get("backfile");
 			File f = new File(outputFile);
 			File p = f.getParentFile();
@@ -77,7 +82,7 @@ public class Xliff2Php {
 				Files.createFile(Paths.get(f.toURI()));
 			}
 			loadSegments();
-			try (FileOutputStream output = new FileOutputStream(f)) {
+			try (Utf8OutputStream output = new Utf8OutputStream(f)) {
 				try (FileReader input = new FileReader(sklFile, StandardCharsets.UTF_8)) {
 					try (BufferedReader buffer = new BufferedReader(input)) {
 						String line = "";
@@ -149,7 +154,7 @@ public class Xliff2Php {
 		return result;
 	}
 
-	private static void loadSegments() throws SAXException, IOException, ParserConfigurationException {
+	private void loadSegments() throws SAXException, IOException, ParserConfigurationException {
 		segments = new Hashtable<>();
 		SAXBuilder builder = new SAXBuilder();
 		builder.setEntityResolver(catalog);
@@ -164,7 +169,7 @@ public class Xliff2Php {
 		}
 	}
 
-	private static void writeString(FileOutputStream output, String string) throws IOException {
+	private void writeString(Utf8OutputStream output, String string) throws IOException {
 		output.write(string.getBytes(encoding));
 	}
 
@@ -13,7 +13,6 @@ package com.maxprograms.converters.plaintext;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.lang.System.Logger;
@@ -33,7 +32,9 @@ import javax.xml.parsers.ParserConfigurationException;
 
 import org.xml.sax.SAXException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
@@ -43,10 +44,10 @@ import com.maxprograms.xml.XMLNode;
 
 public class Xliff2Text {
 
-	private static String xliffFile;
-	private static String encoding;
-	private static Map<String, Element> segments;
-	private static Catalog catalog;
+	private String xliffFile;
+	private String encoding;
+	private Map<String, Element> segments;
+	private Catalog catalog;
 
 	private Xliff2Text() {
 		// do not instantiate this class
@@ -54,6 +55,10 @@ public class Xliff2Text {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Xliff2Text().merge(params);
+	}
+
+	private List<String> merge(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 
 		String sklFile = params.get("skeleton");
@@ -61,7 +66,7 @@ public class Xliff2Text {
 		encoding = params.get("encoding");
 
 		try {
-			catalog = new Catalog(params.get("catalog"));
+			catalog = CatalogCache.getCatalog(params.get("catalog"));
 			String outputFile = params.get("backfile");
 			File f = new File(outputFile);
 			File p = f.getParentFile();
@@ -74,7 +79,7 @@ public class Xliff2Text {
 			if (!f.exists()) {
 				Files.createFile(Paths.get(f.toURI()));
 			}
-			try (FileOutputStream output = new FileOutputStream(f)) {
+			try (Utf8OutputStream output = new Utf8OutputStream(f)) {
 				loadSegments();
 				try (FileReader input = new FileReader(sklFile, StandardCharsets.UTF_8)) {
 					try (BufferedReader buffer = new BufferedReader(input)) {
@@ -143,7 +148,7 @@ public class Xliff2Text {
 		return result.toString();
 	}
 
-	private static void loadSegments() throws SAXException, IOException, ParserConfigurationException {
+	private void loadSegments() throws SAXException, IOException, ParserConfigurationException {
 		segments = new HashMap<>();
 		SAXBuilder builder = new SAXBuilder();
 		if (catalog != null) {
@@ -161,7 +166,7 @@ public class Xliff2Text {
 		}
 	}
 
-	private static void writeString(FileOutputStream output, String string) throws IOException {
+	private void writeString(Utf8OutputStream output, String string) throws IOException {
 		output.write(string.getBytes(encoding));
 	}
 
@@ -13,41 +13,40 @@ package com.maxprograms.converters.po;
 
 import java.io.BufferedReader;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.Utils;
 
 public class Po2Xliff {
 
-	private static FileOutputStream output;
-	private static FileOutputStream skeleton;
+	private Utf8OutputStream output;
+	private Utf8OutputStream skeleton;
 
-	private static String source;
-	private static String target;
-	private static String comment;
-	private static String context;
-	private static String reference;
-	private static String flags;
-	private static boolean fuzzy;
-	private static boolean cformat;
+	private String source;
+	private String target;
+	private String comment;
+	private String context;
+	private String reference;
+	private String flags;
+	private boolean fuzzy;
+	private boolean cformat;
 
-	private static int segId;
-	private static int domainId;
-	private static int contextId = 1;
-	private static int refId = 1;
-	private static String newContext;
-	private static List<String> pluralTargets;
-	private static int plurals;
-	private static String pluralSource;
+	private int segId;
+	private int domainId;
+	private int contextId = 1;
+	private int refId = 1;
+	private String newContext;
+	private List<String> pluralTargets;
+	private int plurals;
+	private String pluralSource;
 
 	private Po2Xliff() {
 		// do not instantiate this class
@@ -55,6 +54,10 @@ public class Po2Xliff {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Po2Xliff().convert(params);
+	}
+
+	private List<String> convert(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 
 		String inputFile = params.get("source");
@@ -86,7 +89,7 @@ public class Po2Xliff {
 				try (InputStreamReader input = new InputStreamReader(stream, srcEncoding)) {
 					BufferedReader buffer = new BufferedReader(input);
 
-					output = new FileOutputStream(xliffFile);
+					output = new Utf8OutputStream(xliffFile);
 
 					writeString("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
 					writeString("<xliff version=\"1.2\" xmlns=\"urn:oasis:names:tc:xliff:document:1.2\" "
@@ -105,7 +108,7 @@ public class Po2Xliff {
 					writeString("<?encoding " + srcEncoding + "?>\n");
 					writeString("<body>\n");
 
-					skeleton = new FileOutputStream(skeletonFile);
+					skeleton = new Utf8OutputStream(skeletonFile);
 
 					String line = buffer.readLine();
 					while (line != null) {
@@ -268,21 +271,21 @@ public class Po2Xliff {
 		return result;
 	}
 
-	private static void parsePlural(String line) {
+	private void parsePlural(String line) {
 		String string = line.substring(line.indexOf("nplurals") + 8).trim();
 		String number = string.substring(string.indexOf('=') + 1, string.indexOf(';'));
 		plurals = Integer.parseInt(number);
 	}
 
-	private static void writeString(String string) throws IOException {
-		output.write(string.getBytes(StandardCharsets.UTF_8));
+	private void writeString(String string) throws IOException {
+		output.write(string);
 	}
 
-	private static void writeSkeleton(String string) throws IOException {
-		skeleton.write(string.getBytes(StandardCharsets.UTF_8));
+	private void writeSkeleton(String string) throws IOException {
+		skeleton.write(string);
 	}
 
-	private static void writeSegment() throws IOException {
+	private void writeSegment() throws IOException {
 		if (!pluralSource.isEmpty()) {
 			writeString("   <group restype=\"x-gettext-plurals\" id=\"" + segId + "\">\n");
 			if (!context.isEmpty()) {
@@ -454,7 +457,7 @@ public class Po2Xliff {
 		return result;
 	}
 
-	private static void parseReference(String ref) throws IOException {
+	private void parseReference(String ref) throws IOException {
 		if (ref.trim().isEmpty()) {
 			return;
 		}
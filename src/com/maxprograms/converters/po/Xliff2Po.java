@@ -14,7 +14,6 @@ package com.maxprograms.converters.po;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.lang.System.Logger;
@@ -33,6 +32,7 @@ import javax.xml.parsers.ParserConfigurationException;
 
 import com.maxprograms.converters.Constants;
 import com.maxprograms.converters.UnexistentSegmentException;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.SAXBuilder;
@@ -41,10 +41,10 @@ import org.xml.sax.SAXException;
 
 public class Xliff2Po {
 
-	private static String xliffFile;
-	private static Map<String, Element> segments;
-	private static FileOutputStream output;
-	private static String encoding;
+	private String xliffFile;
+	private Map<String, Element> segments;
+	private Utf8OutputStream output;
+	private String encoding;
 
 	private Xliff2Po() {
 		// do not instantiate this class
@@ -52,6 +52,10 @@ public class Xliff2Po {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Xliff2Po().merge(params);
+	}
+
+	private List<String> merge(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 
 		String sklFile = params.get("skeleton");
@@ -71,7 +75,7 @@ public class Xliff2Po {
 			if (!f.exists()) {
 				Files.createFile(f.toPath());
 			}
-			output = new FileOutputStream(f);
+			output = new Utf8OutputStream(f);
 			loadSegments();
 			try (InputStreamReader input = new InputStreamReader(new FileInputStream(sklFile),
 					StandardCharsets.UTF_8)) {
@@ -124,7 +128,7 @@ public class Xliff2Po {
 		return result;
 	}
 
-	private static void writeSegment(Element segment) throws IOException {
+	private void writeSegment(Element segment) throws IOException {
 		if (segment.getName().equals("trans-unit")) {
 			// singular only
 			Element target = segment.getChild("target");
@@ -191,7 +195,7 @@ public class Xliff2Po {
 		}
 	}
 
-	private static void writeFlags(Element segment, boolean fuzzy) throws IOException {
+	private void writeFlags(Element segment, boolean fuzzy) throws IOException {
 		List<Element> groups = segment.getChildren("prop-group");
 		Iterator<Element> i = groups.iterator();
 		String flags = "";
@@ -226,7 +230,7 @@ public class Xliff2Po {
 		}
 	}
 
-	private static void writeReferences(Element segment) throws IOException {
+	private void writeReferences(Element segment) throws IOException {
 		String reference = "#:";
 		String newContext = "msgctxt \"";
 		List<Element> groups = segment.getChildren("context-group");
@@ -286,7 +290,7 @@ public class Xliff2Po {
 		}
 	}
 
-	private static void writeContext(Element segment) throws IOException {
+	private void writeContext(Element segment) throws IOException {
 		List<Element> groups = segment.getChildren("context-group");
 		Iterator<Element> i = groups.iterator();
 		while (i.hasNext()) {
@@ -313,7 +317,7 @@ public class Xliff2Po {
 		}
 	}
 
-	private static void writeComments(Element segment) throws IOException {
+	private void writeComments(Element segment) throws IOException {
 		List<Element> notes = segment.getChildren("note");
 		Iterator<Element> i = notes.iterator();
 		while (i.hasNext()) {
@@ -349,7 +353,7 @@ public class Xliff2Po {
 		return string.replace("\n", "\"\n\"");
 	}
 
-	private static void loadSegments() throws SAXException, IOException, ParserConfigurationException {
+	private void loadSegments() throws SAXException, IOException, ParserConfigurationException {
 
 		SAXBuilder builder = new SAXBuilder();
 
@@ -361,7 +365,7 @@ public class Xliff2Po {
 
 	}
 
-	private static void recurse(Element e) {
+	private void recurse(Element e) {
 		List<Element> list = e.getChildren();
 		Iterator<Element> i = list.iterator();
 		while (i.hasNext()) {
@@ -376,7 +380,7 @@ public class Xliff2Po {
 		}
 	}
 
-	private static void writeString(String string) throws IOException {
+	private void writeString(String string) throws IOException {
 		output.write(string.getBytes(encoding));
 	}
 
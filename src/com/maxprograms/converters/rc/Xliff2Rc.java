@@ -14,7 +14,6 @@ package com.maxprograms.converters.rc;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.lang.System.Logger;
@@ -32,9 +31,10 @@ import java.util.Map;
 
 import javax.xml.parsers.ParserConfigurationException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
 import com.maxprograms.converters.UnexistentSegmentException;
-import com.maxprograms.xml.Catalog;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.SAXBuilder;
@@ -43,15 +43,15 @@ import org.xml.sax.SAXException;
 
 public class Xliff2Rc {
 
-	private static String sklFile;
-	private static String xliffFile;
+	private String sklFile;
+	private String xliffFile;
 
-	private static Map<String, Element> segments;
-	private static FileOutputStream output;
-	private static String catalog;
-	private static Map<String, Object> dlgText;
-	private static String destTemp;
-	private static String encoding;
+	private Map<String, Element> segments;
+	private Utf8OutputStream output;
+	private String catalog;
+	private Map<String, Object> dlgText;
+	private String destTemp;
+	private String encoding;
 
 	private Xliff2Rc() {
 		// do not instantiate this class
@@ -59,6 +59,10 @@ public class Xliff2Rc {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Xliff2Rc().merge(params);
+	}
+
+	private List<String> merge(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 
 		dlgText = new HashMap<>();
@@ -72,7 +76,7 @@ public class Xliff2Rc {
 
 			File tempFile = File.createTempFile("tempRC", ".temp");
 			destTemp = tempFile.getAbsolutePath();
-			output = new FileOutputStream(destTemp);
+			output = new Utf8OutputStream(destTemp);
 			loadSegments();
 
 			dlgInitExists(params);
@@ -140,14 +144,14 @@ public class Xliff2Rc {
 		return result;
 	}
 
-	private static String converDlgInit(String word, String code) {
+	private String converDlgInit(String word, String code) {
 		if (dlgText.containsKey(code)) {
 			return decode(word, code);
 		}
 		return "\"" + word + "\"";
 	}
 
-	private static String decode(String word, String code) {
+	private String decode(String word, String code) {
 		dlgText.remove(code);
 		byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
 		String byteWord = "";
@@ -177,10 +181,10 @@ public class Xliff2Rc {
 		return byteWord;
 	}
 
-	private static void loadSegments()
+	private void loadSegments()
 			throws SAXException, IOException, ParserConfigurationException, URISyntaxException {
 		SAXBuilder builder = new SAXBuilder();
-		builder.setEntityResolver(new Catalog(catalog));
+		builder.setEntityResolver(CatalogCache.getCatalog(catalog));
 
 		Document doc = builder.build(xliffFile);
 		Element root = doc.getRootElement();
@@ -196,15 +200,15 @@ public class Xliff2Rc {
 		}
 	}
 
-	private static void writeStringEncoded(String string) throws IOException {
+	private void writeStringEncoded(String string) throws IOException {
 		output.write(string.getBytes(encoding));
 	}
 
-	private static void writeString(String string) throws IOException {
-		output.write(string.getBytes(StandardCharsets.UTF_8));
+	private void writeString(String string) throws IOException {
+		output.write(string);
 	}
 
-	private static void dlgInitExists(Map<String, String> params) throws IOException, UnexistentSegmentException {
+	private void dlgInitExists(Map<String, String> params) throws IOException, UnexistentSegmentException {
 		sklFile = params.get("skeleton");
 		xliffFile = params.get("xliff");
 		catalog = params.get("catalog");
@@ -233,13 +237,13 @@ public class Xliff2Rc {
 		}
 	}
 
-	private static void dlgInitLengths(Map<String, String> params) throws IOException {
+	private void dlgInitLengths(Map<String, String> params) throws IOException {
 		sklFile = params.get("skeleton");
 		xliffFile = params.get("xliff");
 		catalog = params.get("catalog");
 
 		String outputFile = params.get("backfile");
-		output = new FileOutputStream(outputFile);
+		output = new Utf8OutputStream(outputFile);
 		try (InputStreamReader input = new InputStreamReader(new FileInputStream(destTemp), StandardCharsets.UTF_8)) {
 			BufferedReader buffer = new BufferedReader(input);
 			String line;
@@ -266,6 +270,8 @@ public class Xliff2Rc {
 					writeStringEncoded(line);
 				}
 			}
+		} finally {
+			output.close();
 		}
 	}
 }
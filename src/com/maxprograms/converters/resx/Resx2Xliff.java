@@ -12,7 +12,6 @@
 package com.maxprograms.converters.resx;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
@@ -25,9 +24,10 @@ import java.util.Map;
 
 import javax.xml.parsers.ParserConfigurationException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.xml.Xml2Xliff;
-import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.SAXBuilder;
@@ -44,6 +44,10 @@ public class Resx2Xliff {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Resx2Xliff().convert(params);
+	}
+
+	private List<String> convert(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 		try {
 			String inputFile = params.get("source");
@@ -131,7 +135,7 @@ public class Resx2Xliff {
 			throws ParserConfigurationException, SAXException, IOException, URISyntaxException {
 		SAXBuilder builder = new SAXBuilder();
 		builder.setValidating(false);
-		builder.setEntityResolver(new Catalog(catalog));
+		builder.setEntityResolver(CatalogCache.getCatalog(catalog));
 		return builder.build(filename);
 	}
 
@@ -139,7 +143,7 @@ public class Resx2Xliff {
 	static void saveXml(Document xmlDoc, String xmlFile) throws IOException {
 		XMLOutputter outputter = new XMLOutputter();
 		outputter.preserveSpace(true);
-		try (FileOutputStream soutput = new FileOutputStream(xmlFile)) {
+		try (Utf8OutputStream soutput = new Utf8OutputStream(xmlFile)) {
 			outputter.output(xmlDoc, soutput);
 		}
 	}
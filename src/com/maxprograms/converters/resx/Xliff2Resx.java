@@ -11,7 +11,6 @@
  *******************************************************************************/
 package com.maxprograms.converters.resx;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
@@ -22,9 +21,10 @@ import java.util.Map;
 
 import javax.xml.parsers.ParserConfigurationException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.xml.Xliff2Xml;
-import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.SAXBuilder;
@@ -41,6 +41,10 @@ public class Xliff2Resx {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Xliff2Resx().merge(params);
+	}
+
+	private List<String> merge(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 		try {
 			result = Xliff2Xml.run(params);
@@ -87,7 +91,7 @@ public class Xliff2Resx {
 	static Document openXml(String filename, String catalog)
 			throws ParserConfigurationException, SAXException, IOException, URISyntaxException {
 		SAXBuilder builder = new SAXBuilder();
-		builder.setEntityResolver(new Catalog(catalog));
+		builder.setEntityResolver(CatalogCache.getCatalog(catalog));
 		return builder.build(filename);
 	}
 
@@ -95,7 +99,7 @@ public class Xliff2Resx {
 	static void saveXml(Document xmlDoc, String xmlFile) throws IOException {
 		XMLOutputter outputter = new XMLOutputter();
 		outputter.preserveSpace(true);
-		try (FileOutputStream soutput = new FileOutputStream(xmlFile)) {
+		try (Utf8OutputStream soutput = new Utf8OutputStream(xmlFile)) {
 			outputter.output(xmlDoc, soutput);
 		}
 	}
@@ -13,12 +13,13 @@ package com.maxprograms.converters.sdlppx;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -26,13 +27,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
 
 import javax.xml.parsers.ParserConfigurationException;
 
 import com.maxprograms.converters.Constants;
 import com.maxprograms.converters.Join;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.Utils;
+import com.maxprograms.converters.ZipContainer;
 import com.maxprograms.converters.sdlxliff.Sdl2Xliff;
 import com.maxprograms.languages.Language;
 import com.maxprograms.languages.LanguageUtils;
@@ -49,11 +51,10 @@ import org.xml.sax.SAXException;
 
 public class Sdlppx2Xliff {
 
-	static List<String> srcLangs;
-	static List<String> tgtLangs;
-	private static String inputFile;
-	private static String skeleton;
-	private static ZipOutputStream out;
+	private List<String> srcLangs;
+	private List<String> tgtLangs;
+	private String inputFile;
+	private String skeleton;
 
 	private Sdlppx2Xliff() {
 		// do not instantiate this class
@@ -61,6 +62,10 @@ public class Sdlppx2Xliff {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Sdlppx2Xliff().convert(params);
+	}
+
+	private List<String> convert(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 
 		inputFile = params.get("source");
@@ -73,7 +78,9 @@ public class Sdlppx2Xliff {
 		}
 
 		try {
-			JSONObject json = getPackageLanguages(inputFile);
+			srcLangs = new ArrayList<>();
+			tgtLangs = new ArrayList<>();
+			JSONObject json = getPackageLanguages(inputFile, srcLangs, tgtLangs);
 			if (json.has("reason")) {
 				throw new JSONException(json.getString("reason"));
 			}
@@ -105,12 +112,12 @@ public class Sdlppx2Xliff {
 				return result;
 			}
 
-			out = new ZipOutputStream(new FileOutputStream(skeleton));
 			List<String> xliffList = new ArrayList<>();
-			try (ZipInputStream in = new ZipInputStream(new FileInputStream(inputFile))) {
-				ZipEntry entry = null;
-				while ((entry = in.getNextEntry()) != null) {
-					String entryName = entry.getName();
+			try (ZipContainer container = new ZipContainer(inputFile, skeleton)) {
+				List<String> names = container.getNames();
+				Iterator<String> it = names.iterator();
+				while (it.hasNext()) {
+					String entryName = it.next();
 					String parent = "";
 					String name = entryName;
 					if (entryName.indexOf("\\") != -1) {
@@ -124,12 +131,8 @@ public class Sdlppx2Xliff {
 					if (targetLanguage.equalsIgnoreCase(parent) && name.toLowerCase().endsWith(".sdlxliff")) {
 						// it is sdlxliff from target folder
 						File tmp = File.createTempFile(name.substring(0, name.lastIndexOf('.')), ".sdlxliff");
-						try (FileOutputStream output = new FileOutputStream(tmp.getAbsolutePath())) {
-							byte[] buf = new byte[1024];
-							int len;
-							while ((len = in.read(buf)) > 0) {
-								output.write(buf, 0, len);
-							}
+						try (InputStream in = container.getInputStream(entryName)) {
+							Files.copy(in, tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
 						}
 
 						Map<String, String> table = new HashMap<>();
@@ -145,45 +148,25 @@ public class Sdlppx2Xliff {
 						table.put("tgtLang", targetLanguage);
 						List<String> res = Sdl2Xliff.run(table);
 						if (Constants.SUCCESS.equals(res.get(0))) {
-							updateXliff(tmp.getAbsolutePath() + ".xlf", entry.getName());
-							ZipEntry content = new ZipEntry(entry.getName() + ".skl");
-							content.setMethod(ZipEntry.DEFLATED);
-							out.putNextEntry(content);
-							try (FileInputStream input = new FileInputStream(tmp.getAbsolutePath() + ".skl")) {
-								byte[] array = new byte[1024];
-								int len;
-								while ((len = input.read(array)) > 0) {
-									out.write(array, 0, len);
-								}
-								out.closeEntry();
-							}
+							updateXliff(tmp.getAbsolutePath() + ".xlf", entryName);
+							container.addEntry(entryName + ".skl", new File(tmp.getAbsolutePath() + ".skl"));
 							File skl = new File(tmp.getAbsolutePath() + ".skl");
 							Files.delete(skl.toPath());
 							File xlf = new File(tmp.getAbsolutePath() + ".xlf");
 							xliffList.add(xlf.getAbsolutePath());
 						} else {
-							saveEntry(entry, tmp.getAbsolutePath());
+							container.copyEntry(entryName);
 						}
 						Files.delete(tmp.toPath());
 					} else if (sourceLanguage.equalsIgnoreCase(parent) || name.toLowerCase().endsWith(".sdlproj")
 							|| targetLanguage.equalsIgnoreCase(parent)) {
 						// preserve source files and project
 						// preserve other files from target folder too
-						File tmp = File.createTempFile("zip", ".tmp");
-						try (FileOutputStream output = new FileOutputStream(tmp.getAbsolutePath())) {
-							byte[] buf = new byte[1024];
-							int len;
-							while ((len = in.read(buf)) > 0) {
-								output.write(buf, 0, len);
-							}
-						}
-						saveEntry(entry, tmp.getAbsolutePath());
-						Files.delete(tmp.toPath());
+						container.copyEntry(entryName);
 					}
 				}
 
 			}
-			out.close();
 
 			// generate final XLIFF
 
@@ -204,7 +187,7 @@ public class Sdlppx2Xliff {
 		return result;
 	}
 
-	private static void updateXliff(String xliff, String original)
+	private void updateXliff(String xliff, String original)
 			throws SAXException, IOException, ParserConfigurationException {
 		SAXBuilder builder = new SAXBuilder();
 		Document doc = builder.build(xliff);
@@ -227,40 +210,28 @@ public class Sdlppx2Xliff {
 		XMLOutputter outputter = new XMLOutputter();
 		outputter.preserveSpace(true);
 		Indenter.indent(root, 2);
-		try (FileOutputStream output = new FileOutputStream(xliff)) {
+		try (Utf8OutputStream output = new Utf8OutputStream(xliff)) {
 			outputter.output(doc, output);
 		}
 	}
 
-	private static void saveEntry(ZipEntry entry, String name) throws IOException {
-		ZipEntry content = new ZipEntry(entry.getName());
-		content.setMethod(ZipEntry.DEFLATED);
-		out.putNextEntry(content);
-		try (FileInputStream input = new FileInputStream(name)) {
-			byte[] array = new byte[1024];
-			int len;
-			while ((len = input.read(array)) > 0) {
-				out.write(array, 0, len);
-			}
-			out.closeEntry();
-		}
+	public static JSONObject getPackageLanguages(String packageFile)
+			throws IOException, SAXException, ParserConfigurationException {
+		return getPackageLanguages(packageFile, new ArrayList<>(), new ArrayList<>());
 	}
 
-	public static JSONObject getPackageLanguages(String packageFile)
+	private static JSONObject getPackageLanguages(String packageFile, List<String> srcLangs, List<String> tgtLangs)
 			throws IOException, SAXException, ParserConfigurationException {
 		JSONObject result = new JSONObject();
 		File project = null;
-		srcLangs = new ArrayList<>();
-		tgtLangs = new ArrayList<>();
 		try (ZipInputStream zip = new ZipInputStream(new FileInputStream(packageFile))) {
 			ZipEntry entry = null;
 			while ((entry = zip.getNextEntry()) != null) {
 				if (entry.getName().endsWith(".sdlproj")) {
 					File f = new File(entry.getName());
 					String name = f.getName();
-					File tempFolder = new File(System.getProperty("java.io.tmpdir"));
-					project = new File(tempFolder, name);
-					try (FileOutputStream output = new FileOutputStream(project)) {
+					project = File.createTempFile(name, ".sdlproj");
+					try (Utf8OutputStream output = new Utf8OutputStream(project)) {
 						byte[] buf = new byte[2048];
 						int len;
 						while ((len = zip.read(buf)) > 0) {
@@ -13,7 +13,6 @@ package com.maxprograms.converters.sdlppx;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
@@ -33,9 +32,10 @@ import java.util.zip.ZipOutputStream;
 
 import javax.xml.parsers.ParserConfigurationException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.sdlxliff.Xliff2Sdl;
-import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.SAXBuilder;
@@ -45,10 +45,10 @@ import org.xml.sax.SAXException;
 
 public class Xliff2Sdlrpx {
 
-    private static ZipOutputStream out;
+    private ZipOutputStream out;
 
-    private static String srcLang;
-    private static String tgtLang;
+    private String srcLang;
+    private String tgtLang;
 
     private Xliff2Sdlrpx() {
         // do not instantiate this class
@@ -56,6 +56,10 @@ public class Xliff2Sdlrpx {
     }
 
     public static List<String> run(Map<String, String> params) {
+        return new Xliff2Sdlrpx().merge(params);
+    }
+
+    private List<String> merge(Map<String, String> params) {
         List<String> result = new ArrayList<>();
         srcLang = "";
         tgtLang = "";
@@ -68,7 +72,7 @@ public class Xliff2Sdlrpx {
 
         try {
             SAXBuilder builder = new SAXBuilder();
-            builder.setEntityResolver(new Catalog(catalog));
+            builder.setEntityResolver(CatalogCache.getCatalog(catalog));
             Document doc = builder.build(xliffFile);
             Element root = doc.getRootElement();
             List<Element> files = root.getChildren("file");
@@ -122,13 +126,13 @@ public class Xliff2Sdlrpx {
                 r.addContent(file);
 
                 File tempXliff = File.createTempFile("tmp", ".xlf");
-                try (FileOutputStream outFile = new FileOutputStream(tempXliff)) {
+                try (Utf8OutputStream outFile = new Utf8OutputStream(tempXliff)) {
                     outputter.output(d, outFile);
                 }
                 filesMap.put(sdlxliffFile, tempXliff.getAbsolutePath());
             }
 
-            out = new ZipOutputStream(new FileOutputStream(outputFile));
+            out = new ZipOutputStream(new Utf8OutputStream(outputFile));
             try (ZipInputStream in = new ZipInputStream(new FileInputStream(sklFile))) {
                 ZipEntry entry = null;
                 while ((entry = in.getNextEntry()) != null) {
@@ -136,7 +140,7 @@ public class Xliff2Sdlrpx {
                     String name = f.getName();
                     String extension = name.substring(name.lastIndexOf('.'));
                     File tmp = File.createTempFile("tmp", extension);
-                    try (FileOutputStream output = new FileOutputStream(tmp.getAbsolutePath())) {
+                    try (Utf8OutputStream output = new Utf8OutputStream(tmp.getAbsolutePath())) {
                         byte[] buf = new byte[1024];
                         int len;
                         while ((len = in.read(buf)) > 0) {
@@ -209,7 +213,7 @@ public class Xliff2Sdlrpx {
         return string;
     }
 
-    private static void updateProjectFile(File tmp) throws SAXException, IOException, ParserConfigurationException {
+    private void updateProjectFile(File tmp) throws SAXException, IOException, ParserConfigurationException {
         SAXBuilder builder = new SAXBuilder();
         Document doc = builder.build(tmp);
         Element root = doc.getRootElement();
@@ -229,12 +233,12 @@ public class Xliff2Sdlrpx {
         recurseProject(root);
         XMLOutputter outputter = new XMLOutputter();
         outputter.preserveSpace(true);
-        try (FileOutputStream output = new FileOutputStream(tmp)) {
+        try (Utf8OutputStream output = new Utf8OutputStream(tmp)) {
             outputter.output(doc, output);
         }
     }
 
-    private static void recurseProject(Element node) {
+    private void recurseProject(Element node) {
         List<Element> children = node.getChildren();
         Iterator<Element> it = children.iterator();
         while (it.hasNext()) {
@@ -266,7 +270,7 @@ public class Xliff2Sdlrpx {
 
     }
 
-    private static void saveEntry(String name, String file) throws IOException {
+    private void saveEntry(String name, String file) throws IOException {
         ZipEntry content = new ZipEntry(name);
         content.setMethod(ZipEntry.DEFLATED);
         out.putNextEntry(content);
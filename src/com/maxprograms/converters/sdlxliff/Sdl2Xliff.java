@@ -12,12 +12,10 @@
 package com.maxprograms.converters.sdlxliff;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
 import java.net.URISyntaxException;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -26,7 +24,9 @@ import java.util.Map;
 
 import javax.xml.parsers.ParserConfigurationException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.Utils;
 import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
@@ -39,7 +39,7 @@ import org.xml.sax.SAXException;
 
 public class Sdl2Xliff {
 
-	private static FileOutputStream out;
+	private Utf8OutputStream out;
 
 	private Sdl2Xliff() {
 		// do not instantiate this class
@@ -47,6 +47,10 @@ public class Sdl2Xliff {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Sdl2Xliff().convert(params);
+	}
+
+	private List<String> convert(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 
 		try {
@@ -62,7 +66,7 @@ public class Sdl2Xliff {
 				tgtLang = "\" target-language=\"" + targetLanguage;
 			}
 
-			Catalog catalog = new Catalog(catalogFile);
+			Catalog catalog = CatalogCache.getCatalog(catalogFile);
 			XliffModel model = new XliffModel(original, srxRules, catalog);
 			if (model.wasModified()) {
 				File f = File.createTempFile("temp", ".sdlxliff");
@@ -76,7 +80,7 @@ public class Sdl2Xliff {
 			builder.setEntityResolver(catalog);
 			Document doc = builder.build(original);
 
-			out = new FileOutputStream(output);
+			out = new Utf8OutputStream(output);
 			writeStr("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n");
 			writeStr("<xliff version=\"1.2\" xmlns=\"urn:oasis:names:tc:xliff:document:1.2\" "
 					+ "xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" "
@@ -106,7 +110,7 @@ public class Sdl2Xliff {
 			outputter.preserveSpace(true);
 			outputter.setSkipLinefeed(true);
 			outputter.writeBOM(true);
-			try (FileOutputStream skl = new FileOutputStream(skeletonFile)) {
+			try (Utf8OutputStream skl = new Utf8OutputStream(skeletonFile)) {
 				outputter.output(doc, skl);
 			}
 			result.add(Constants.SUCCESS);
@@ -119,7 +123,7 @@ public class Sdl2Xliff {
 		return result;
 	}
 
-	private static void recurse(Element root) throws IOException {
+	private void recurse(Element root) throws IOException {
 		if (root.getName().equals("trans-unit")) {
 			if (root.getAttributeValue("translate", "yes").equals("no")
 					&& !(root.getAttributeValue("sdl:locktype").equals("Manual")
@@ -198,7 +202,7 @@ public class Sdl2Xliff {
 		return false;
 	}
 
-	private static void recurseTarget(Element mrk) throws IOException {
+	private void recurseTarget(Element mrk) throws IOException {
 		List<XMLNode> tnodes = mrk.getContent();
 		Iterator<XMLNode> tnt = tnodes.iterator();
 		while (tnt.hasNext()) {
@@ -217,7 +221,7 @@ public class Sdl2Xliff {
 		}
 	}
 
-	private static void recurseSource(Element mrk) throws IOException {
+	private void recurseSource(Element mrk) throws IOException {
 		List<XMLNode> nodes = mrk.getContent();
 		Iterator<XMLNode> nt = nodes.iterator();
 		while (nt.hasNext()) {
@@ -273,7 +277,7 @@ public class Sdl2Xliff {
 		return false;
 	}
 
-	private static void writeStr(String string) throws IOException {
-		out.write(string.getBytes(StandardCharsets.UTF_8));
+	private void writeStr(String string) throws IOException {
+		out.write(string);
 	}
 }
@@ -12,7 +12,6 @@
 package com.maxprograms.converters.sdlxliff;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
@@ -28,8 +27,10 @@ import java.util.Set;
 
 import javax.xml.parsers.ParserConfigurationException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
 import com.maxprograms.converters.UnexistentSegmentException;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
@@ -41,12 +42,12 @@ import org.xml.sax.SAXException;
 
 public class Xliff2Sdl {
 
-	private static String sklFile;
-	private static String xliffFile;
-	private static Map<String, Element> segments;
-	private static Document doc;
-	private static Element root;
-	private static Catalog catalog;
+	private String sklFile;
+	private String xliffFile;
+	private Map<String, Element> segments;
+	private Document doc;
+	private Element root;
+	private Catalog catalog;
 
 	private Xliff2Sdl() {
 		// do not instantiate this class
@@ -54,6 +55,10 @@ public class Xliff2Sdl {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Xliff2Sdl().merge(params);
+	}
+
+	private List<String> merge(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 
 		sklFile = params.get("skeleton");
@@ -66,7 +71,7 @@ public class Xliff2Sdl {
 		}
 
 		try {
-			catalog = new Catalog(params.get("catalog"));
+			catalog = CatalogCache.getCatalog(params.get("catalog"));
 
 			loadSegments();
 			loadSkeleton();
@@ -109,7 +114,7 @@ public class Xliff2Sdl {
 			if (Files.notExists(p.toPath())) {
 				Files.createDirectories(p.toPath());
 			}
-			try (FileOutputStream out = new FileOutputStream(f)) {
+			try (Utf8OutputStream out = new Utf8OutputStream(f)) {
 				outputter.output(doc, out);
 			}
 			result.add(Constants.SUCCESS);
@@ -123,7 +128,7 @@ public class Xliff2Sdl {
 		return result;
 	}
 
-	private static void replaceTarget(String id, String mrkId, Element translated, boolean approved)
+	private void replaceTarget(String id, String mrkId, Element translated, boolean approved)
 			throws UnexistentSegmentException {
 		if (translated == null) {
 			return;
@@ -229,14 +234,14 @@ public class Xliff2Sdl {
 		return null;
 	}
 
-	private static void loadSkeleton() throws SAXException, IOException, ParserConfigurationException {
+	private void loadSkeleton() throws SAXException, IOException, ParserConfigurationException {
 		SAXBuilder builder = new SAXBuilder();
 		builder.setEntityResolver(catalog);
 		doc = builder.build(sklFile);
 		root = doc.getRootElement();
 	}
 
-	private static void loadSegments() throws SAXException, IOException, ParserConfigurationException {
+	private void loadSegments() throws SAXException, IOException, ParserConfigurationException {
 		SAXBuilder builder = new SAXBuilder();
 		builder.setEntityResolver(catalog);
 
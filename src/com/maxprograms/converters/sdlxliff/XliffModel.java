@@ -11,10 +11,8 @@
  *******************************************************************************/
 package com.maxprograms.converters.sdlxliff;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -27,8 +25,10 @@ import javax.xml.parsers.ParserConfigurationException;
 
 import org.xml.sax.SAXException;
 
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.Utils;
 import com.maxprograms.segmenter.Segmenter;
+import com.maxprograms.segmenter.SegmenterCache;
 import com.maxprograms.xml.Attribute;
 import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
@@ -53,7 +53,7 @@ public class XliffModel {
 	private Map<String, Boolean> translatable;
 	private Map<String, Boolean> approved;
 	private Segmenter segmenter;
-	private FileOutputStream out;
+	private Utf8OutputStream out;
 	private String original;
 	private String srclang;
 	private boolean hasSegSource;
@@ -73,7 +73,7 @@ public class XliffModel {
 		version = root.getAttributeValue("version");
 		srclang = root.getChild("file").getAttributeValue("source-language");
 		if (version.equals("1.2") && srx != null) {
-			segmenter = new Segmenter(srx, srclang, catalog);
+			segmenter = SegmenterCache.getSegmenter(srx, srclang, catalog);
 		}
 		ids = new ArrayList<>();
 		sources = new HashMap<>();
@@ -246,7 +246,7 @@ public class XliffModel {
 	}
 
 	public void save(String url) throws IOException {
-		try (FileOutputStream output = new FileOutputStream(url)) {
+		try (Utf8OutputStream output = new Utf8OutputStream(url)) {
 			XMLOutputter outputer = new XMLOutputter();
 			outputer.setEncoding(encoding);
 			outputer.preserveSpace(true);
@@ -279,7 +279,7 @@ public class XliffModel {
 	}
 
 	private void writeStr(String string) throws IOException {
-		out.write(string.getBytes(StandardCharsets.UTF_8));
+		out.write(string);
 	}
 
 	public void normalize(String output, String skeletonFile) throws IOException {
@@ -288,7 +288,7 @@ public class XliffModel {
 			targetLanguage = "\" target-language=\"" + targetLanguage;
 		}
 
-		out = new FileOutputStream(output);
+		out = new Utf8OutputStream(output);
 		writeStr("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n");
 		writeStr("<xliff version=\"1.2\" xmlns=\"urn:oasis:names:tc:xliff:document:1.2\" "
 				+ "xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" "
@@ -315,7 +315,7 @@ public class XliffModel {
 		outputter.preserveSpace(true);
 		outputter.setSkipLinefeed(true);
 		outputter.writeBOM(true);
-		try (FileOutputStream skl = new FileOutputStream(skeletonFile)) {
+		try (Utf8OutputStream skl = new Utf8OutputStream(skeletonFile)) {
 			outputter.output(doc, skl);
 		}
 	}
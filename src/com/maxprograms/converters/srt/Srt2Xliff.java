@@ -12,13 +12,11 @@
 package com.maxprograms.converters.srt;
 
 import java.io.BufferedReader;
-import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
 import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -27,6 +25,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.TextNode;
 import com.maxprograms.xml.XMLNode;
@@ -34,13 +33,13 @@ import com.maxprograms.xml.XMLUtils;
 
 public class Srt2Xliff {
 
-    private static int segId;
-    private static String segTime;
-    private static FileOutputStream output;
-    private static FileOutputStream skeleton;
+    private int segId;
+    private String segTime;
+    private Utf8OutputStream output;
+    private Utf8OutputStream skeleton;
 
-    private static Pattern pattern = Pattern.compile("<[A-Za-z]+([\\s][A-Za-z]+=[\"|\'][^<&>]*[\"|\'])*[/]?>");
-    private static Pattern endPattern = Pattern.compile("</[A-Za-z]+>");
+    private Pattern pattern = Pattern.compile("<[A-Za-z]+([\\s][A-Za-z]+=[\"|\'][^<&>]*[\"|\'])*[/]?>");
+    private Pattern endPattern = Pattern.compile("</[A-Za-z]+>");
 
     private Srt2Xliff() {
         // do not instantiate this class
@@ -48,6 +47,10 @@ public class Srt2Xliff {
     }
 
     public static List<String> run(Map<String, String> params) {
+        return new Srt2Xliff().convert(params);
+    }
+
+    private List<String> convert(Map<String, String> params) {
         List<String> result = new ArrayList<>();
 
         segId = 0;
@@ -63,8 +66,8 @@ public class Srt2Xliff {
         }
 
         try {
-            output = new FileOutputStream(xliffFile);
-            skeleton = new FileOutputStream(skeletonFile);
+            output = new Utf8OutputStream(xliffFile);
+            skeleton = new Utf8OutputStream(skeletonFile);
 
             writeString("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
             writeString("<xliff version=\"1.2\" xmlns=\"urn:oasis:names:tc:xliff:document:1.2\" "
@@ -129,15 +132,15 @@ public class Srt2Xliff {
         return result;
     }
 
-    private static void writeString(String string) throws IOException {
-        output.write(string.getBytes(StandardCharsets.UTF_8));
+    private void writeString(String string) throws IOException {
+        output.write(string);
     }
 
-    private static void writeSkeleton(String string) throws IOException {
-        skeleton.write(string.getBytes(StandardCharsets.UTF_8));
+    private void writeSkeleton(String string) throws IOException {
+        skeleton.write(string);
     }
 
-    private static void writeSegment(String string) throws IOException {
+    private void writeSegment(String string) throws IOException {
         writeSkeleton("%%%" + segId + "%%%\n\n");
         writeString("<trans-unit id=\"" + segId++ + "\" xml:space=\"preserve\">\n");
         writeString("<source>" + getText(string.trim()) + "</source>\n");
@@ -145,14 +148,14 @@ public class Srt2Xliff {
         writeString("</trans-unit>\n");
     }
 
-    private static String getText(String string) {
+    private String getText(String string) {
         if (checkHtml(string)) {
             return fixHtml(string);
         }
         return XMLUtils.cleanText(string);
     }
 
-    private static boolean checkHtml(String string) {
+    private boolean checkHtml(String string) {
         Matcher matcher = pattern.matcher(string);
         if (matcher.find()) {
             return true;
@@ -161,7 +164,7 @@ public class Srt2Xliff {
         return matcher.find();
     }
 
-    private static String fixHtml(String string) {
+    private String fixHtml(String string) {
         int count = 1;
         Element src = new Element("src");
         src.setText(string);
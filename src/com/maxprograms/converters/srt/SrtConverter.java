@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.converters.srt;
+
+import java.util.List;
+import java.util.Map;
+
+import com.maxprograms.converters.Converter;
+
+public class SrtConverter implements Converter {
+
+    @Override
+    public List<String> convert(Map<String, String> params) {
+        return Srt2Xliff.run(params);
+    }
+
+    @Override
+    public List<String> merge(Map<String, String> params) {
+        return Xliff2Srt.run(params);
+    }
+}
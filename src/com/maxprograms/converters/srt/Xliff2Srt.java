@@ -13,7 +13,6 @@ package com.maxprograms.converters.srt;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.lang.System.Logger;
@@ -31,7 +30,9 @@ import java.util.Map;
 
 import javax.xml.parsers.ParserConfigurationException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
@@ -43,10 +44,10 @@ import org.xml.sax.SAXException;
 
 public class Xliff2Srt {
 
-    private static String xliffFile;
-    private static Catalog catalog;
-    private static Map<String, Element> segments;
-    private static FileOutputStream output;
+    private String xliffFile;
+    private Catalog catalog;
+    private Map<String, Element> segments;
+    private Utf8OutputStream output;
 
     private Xliff2Srt() {
         // do not instantiate this class
@@ -54,13 +55,17 @@ public class Xliff2Srt {
     }
 
     public static List<String> run(Map<String, String> params) {
+        return new Xliff2Srt().merge(params);
+    }
+
+    private List<String> merge(Map<String, String> params) {
         List<String> result = new ArrayList<>();
 
         String sklFile = params.get("skeleton");
         xliffFile = params.get("xliff");
 
         try {
-            catalog = new Catalog(params.get("catalog"));
+            catalog = CatalogCache.getCatalog(params.get("catalog"));
             String outputFile = params.get("backfile");
             File f = new File(outputFile);
             File p = f.getParentFile();
@@ -73,7 +78,7 @@ public class Xliff2Srt {
             if (!f.exists()) {
                 Files.createFile(Paths.get(f.toURI()));
             }
-            output = new FileOutputStream(f);
+            output = new Utf8OutputStream(f);
             loadSegments();
             try (FileReader reader = new FileReader(sklFile, StandardCharsets.UTF_8)) {
                 try (BufferedReader buffer = new BufferedReader(reader)) {
@@ -130,11 +135,11 @@ public class Xliff2Srt {
         return result;
     }
 
-    private static void writeString(String string) throws IOException {
-        output.write(string.getBytes(StandardCharsets.UTF_8));
+    private void writeString(String string) throws IOException {
+        output.write(string);
     }
 
-    private static void loadSegments() throws SAXException, IOException, ParserConfigurationException {
+    private void loadSegments() throws SAXException, IOException, ParserConfigurationException {
         SAXBuilder builder = new SAXBuilder();
         if (catalog != null) {
             builder.setEntityResolver(catalog);
@@ -11,11 +11,9 @@
  *******************************************************************************/
 package com.maxprograms.converters.ts;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -24,6 +22,7 @@ import java.util.Map;
 import javax.xml.parsers.ParserConfigurationException;
 
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.Utils;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
@@ -35,8 +34,8 @@ import org.xml.sax.SAXException;
 
 public class Ts2Xliff {
 
-	private static int segId;
-	private static FileOutputStream output;
+	private int segId;
+	private Utf8OutputStream output;
 
 	private Ts2Xliff() {
 		// do not instantiate this class
@@ -44,6 +43,10 @@ public class Ts2Xliff {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Ts2Xliff().convert(params);
+	}
+
+	private List<String> convert(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 		segId = 0;
 		String inputFile = params.get("source");
@@ -58,7 +61,7 @@ public class Ts2Xliff {
 		}
 
 		try {
-			output = new FileOutputStream(xliffFile);
+			output = new Utf8OutputStream(xliffFile);
 			writeString("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
 			writeString("<xliff version=\"1.2\" xmlns=\"urn:oasis:names:tc:xliff:document:1.2\" "
 					+ "xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" "
@@ -80,7 +83,7 @@ public class Ts2Xliff {
 			Document doc = builder.build(inputFile);
 			recurse(doc.getRootElement());
 
-			try (FileOutputStream skl = new FileOutputStream(skeletonFile)) {
+			try (Utf8OutputStream skl = new Utf8OutputStream(skeletonFile)) {
 				XMLOutputter outputter = new XMLOutputter();
 				outputter.preserveSpace(true);
 				outputter.output(doc, skl);
@@ -102,7 +105,7 @@ public class Ts2Xliff {
 		return result;
 	}
 
-	private static void recurse(Element e) throws IOException {
+	private void recurse(Element e) throws IOException {
 		if (e.getName().equals("message")) {
 			Element source = e.getChild("source");
 			Element target = e.getChild("translation");
@@ -153,8 +156,8 @@ public class Ts2Xliff {
 		return result;
 	}
 
-	private static void writeString(String string) throws IOException {
-		output.write(string.getBytes(StandardCharsets.UTF_8));
+	private void writeString(String string) throws IOException {
+		output.write(string);
 	}
 
 }
@@ -13,7 +13,6 @@ package com.maxprograms.converters.ts;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
@@ -29,6 +28,7 @@ import java.util.Map;
 import javax.xml.parsers.ParserConfigurationException;
 
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.SAXBuilder;
@@ -39,8 +39,8 @@ import org.xml.sax.SAXException;
 
 public class Xliff2Ts {
 
-	private static Map<String, Element> segments;
-	private static String xliffFile;
+	private Map<String, Element> segments;
+	private String xliffFile;
 
 	private Xliff2Ts() {
 		// do not instantiate this class
@@ -48,6 +48,10 @@ public class Xliff2Ts {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Xliff2Ts().merge(params);
+	}
+
+	private List<String> merge(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 		try {
 			xliffFile = params.get("xliff");
@@ -70,7 +74,7 @@ public class Xliff2Ts {
 			if (!f.exists()) {
 				Files.createFile(Paths.get(f.toURI()));
 			}
-			try (FileOutputStream output = new FileOutputStream(f)) {
+			try (Utf8OutputStream output = new Utf8OutputStream(f)) {
 				XMLOutputter outputter = new XMLOutputter();
 				outputter.setEncoding(StandardCharsets.UTF_8);
 				outputter.preserveSpace(true);
@@ -88,7 +92,7 @@ public class Xliff2Ts {
 		return result;
 	}
 
-	private static void recurseSkl(Element e) throws SAXException, IOException, ParserConfigurationException {
+	private void recurseSkl(Element e) throws SAXException, IOException, ParserConfigurationException {
 		if (e.getName().equals("message")) {
 			Element translation = e.getChild("translation");
 			String id = translation.getAttributeValue("id");
@@ -139,7 +143,7 @@ public class Xliff2Ts {
 		return d.getRootElement();
 	}
 
-	private static void loadSegments() throws SAXException, IOException, ParserConfigurationException {
+	private void loadSegments() throws SAXException, IOException, ParserConfigurationException {
 		SAXBuilder builder = new SAXBuilder();
 		Document sdoc = builder.build(xliffFile);
 		Element root = sdoc.getRootElement();
@@ -147,7 +151,7 @@ public class Xliff2Ts {
 		recurseXliff(root);
 	}
 
-	private static void recurseXliff(Element e) {
+	private void recurseXliff(Element e) {
 		List<Element> list = e.getChildren();
 		Iterator<Element> i = list.iterator();
 		while (i.hasNext()) {
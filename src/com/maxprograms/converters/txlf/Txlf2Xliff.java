@@ -9,7 +9,6 @@
  *******************************************************************************/
 package com.maxprograms.converters.txlf;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
@@ -24,10 +23,11 @@ import javax.xml.parsers.ParserConfigurationException;
 
 import org.xml.sax.SAXException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.xliff.XliffUtils;
 import com.maxprograms.xml.Attribute;
-import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.Indenter;
@@ -39,7 +39,7 @@ import com.maxprograms.xml.XMLOutputter;
 
 public class Txlf2Xliff {
 
-    private static int tag;
+    private int tag;
 
     private Txlf2Xliff() {
         // do not instantiate this class
@@ -47,6 +47,10 @@ public class Txlf2Xliff {
     }
 
     public static List<String> run(Map<String, String> params) {
+        return new Txlf2Xliff().convert(params);
+    }
+
+    private List<String> convert(Map<String, String> params) {
         List<String> result = new ArrayList<>();
         String inputFile = params.get("source");
         String xliffFile = params.get("xliff");
@@ -56,7 +60,7 @@ public class Txlf2Xliff {
         String catalog = params.get("catalog");
         try {
             SAXBuilder builder = new SAXBuilder();
-            builder.setEntityResolver(new Catalog(catalog));
+            builder.setEntityResolver(CatalogCache.getCatalog(catalog));
             Document doc = builder.build(inputFile);
             Element root = doc.getRootElement();
 
@@ -106,13 +110,13 @@ public class Txlf2Xliff {
             for (int i = 0; i < units.size(); i++) {
                 body.addContent(units.get(i));
             }
-            try (FileOutputStream out = new FileOutputStream(xliffFile)) {
+            try (Utf8OutputStream out = new Utf8OutputStream(xliffFile)) {
                 Indenter.indent(newRoot, 2);
                 XMLOutputter outputter = new XMLOutputter();
                 outputter.preserveSpace(true);
                 outputter.output(newDoc, out);
             }
-            try (FileOutputStream skeleton = new FileOutputStream(skeletonFile)) {
+            try (Utf8OutputStream skeleton = new Utf8OutputStream(skeletonFile)) {
                 XMLOutputter outputter = new XMLOutputter();
                 outputter.preserveSpace(true);
                 outputter.output(doc, skeleton);
@@ -127,7 +131,7 @@ public class Txlf2Xliff {
         return result;
     }
 
-    private static void recurse(Element root, List<Element> units) {
+    private void recurse(Element root, List<Element> units) {
         if ("xliff".equals(root.getName())) {
             renameAttributes(root);
         }
@@ -199,7 +203,7 @@ public class Txlf2Xliff {
         }
     }
 
-    private static List<XMLNode> getContent(Element child) {
+    private List<XMLNode> getContent(Element child) {
         List<XMLNode> result = new Vector<>();
         if (child != null) {
             List<XMLNode> content = child.getContent();
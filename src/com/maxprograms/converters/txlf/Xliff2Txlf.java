@@ -12,7 +12,6 @@ package com.maxprograms.converters.txlf;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
@@ -32,7 +31,9 @@ import javax.xml.parsers.ParserConfigurationException;
 
 import org.xml.sax.SAXException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.xliff.FromOpenXliff;
 import com.maxprograms.xml.Attribute;
 import com.maxprograms.xml.Catalog;
@@ -48,12 +49,12 @@ import com.maxprograms.xml.XMLUtils;
 
 public class Xliff2Txlf {
 
-    private static Catalog catalog;
-    private static Document skeleton;
-    private static Map<String, Element> segments;
-    private static String tgtLang;
-    private static int auto;
-    private static String phaseName;
+    private Catalog catalog;
+    private Document skeleton;
+    private Map<String, Element> segments;
+    private String tgtLang;
+    private int auto;
+    private String phaseName;
 
     private Xliff2Txlf() {
         // do not instantiate this class
@@ -61,6 +62,10 @@ public class Xliff2Txlf {
     }
 
     public static List<String> run(Map<String, String> params) {
+        return new Xliff2Txlf().merge(params);
+    }
+
+    private List<String> merge(Map<String, String> params) {
         List<String> result = new ArrayList<>();
         tgtLang = "";
         phaseName = "";
@@ -68,7 +73,7 @@ public class Xliff2Txlf {
         String sklFile = params.get("skeleton");
         String outputFile = params.get("backfile");
         try {
-            catalog = new Catalog(params.get("catalog"));
+            catalog = CatalogCache.getCatalog(params.get("catalog"));
             loadXliff(xliffFile);
             loadSkeleton(sklFile);
             Element root = skeleton.getRootElement();
@@ -85,7 +90,7 @@ public class Xliff2Txlf {
             if (!f.exists()) {
                 Files.createFile(Paths.get(f.toURI()));
             }
-            try (FileOutputStream out = new FileOutputStream(outputFile)) {
+            try (Utf8OutputStream out = new Utf8OutputStream(outputFile)) {
                 XMLOutputter outputter = new XMLOutputter();
                 Indenter.indent(root, 2);
                 outputter.preserveSpace(true);
@@ -101,7 +106,7 @@ public class Xliff2Txlf {
         return result;
     }
 
-    private static void loadXliff(String xliffFile) throws SAXException, IOException, ParserConfigurationException {
+    private void loadXliff(String xliffFile) throws SAXException, IOException, ParserConfigurationException {
         SAXBuilder builder = new SAXBuilder();
         builder.setEntityResolver(catalog);
         Document xliff = builder.build(xliffFile);
@@ -109,7 +114,7 @@ public class Xliff2Txlf {
         recurseXliff(xliff.getRootElement());
     }
 
-    private static void recurseXliff(Element e) throws IOException {
+    private void recurseXliff(Element e) throws IOException {
         if ("file".equals(e.getName()) && tgtLang.isEmpty()) {
             tgtLang = e.getAttributeValue("target-language");
         }
@@ -124,13 +129,13 @@ public class Xliff2Txlf {
         }
     }
 
-    private static void loadSkeleton(String sklFile) throws SAXException, IOException, ParserConfigurationException {
+    private void loadSkeleton(String sklFile) throws SAXException, IOException, ParserConfigurationException {
         SAXBuilder builder = new SAXBuilder();
         builder.setEntityResolver(catalog);
         skeleton = builder.build(sklFile);
     }
 
-    private static void recurseSkeleton(Element root) throws SAXException, IOException, ParserConfigurationException {
+    private void recurseSkeleton(Element root) throws SAXException, IOException, ParserConfigurationException {
         if ("file".equals(root.getName())) {
             tgtLang = root.getAttributeValue("target-language");
         }
@@ -213,7 +218,7 @@ public class Xliff2Txlf {
         root.setContent(newContent);
     }
 
-    private static void replaceTags(Element target, int version)
+    private void replaceTags(Element target, int version)
             throws SAXException, IOException, ParserConfigurationException {
         StringBuilder sb = new StringBuilder();
         sb.append("<target>");
@@ -247,7 +252,7 @@ public class Xliff2Txlf {
         target.setContent(d.getRootElement().getContent());
     }
 
-    private static Element processMrk(Element e) {
+    private Element processMrk(Element e) {
         Element mrk = new Element("mrk");
         mrk.setAttribute("id", e.hasAttribute("mid") ? e.getAttributeValue("mid") : ("auto" + auto++));
         if (e.hasAttribute("ts")) {
@@ -11,12 +11,10 @@
  *******************************************************************************/
 package com.maxprograms.converters.txml;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
 import java.net.URISyntaxException;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -24,9 +22,10 @@ import java.util.Map;
 
 import javax.xml.parsers.ParserConfigurationException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.Utils;
-import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.SAXBuilder;
@@ -37,12 +36,12 @@ import org.xml.sax.SAXException;
 
 public class Txml2Xliff {
 
-	private static String sourceLanguage;
-	private static String targetLanguage;
-	private static FileOutputStream output;
-	private static int tagId;
-	private static int segNum;
-	private static String srcEncoding;
+	private String sourceLanguage;
+	private String targetLanguage;
+	private Utf8OutputStream output;
+	private int tagId;
+	private int segNum;
+	private String srcEncoding;
 
 	private Txml2Xliff() {
 		// do not instantiate this class
@@ -50,6 +49,10 @@ public class Txml2Xliff {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Txml2Xliff().convert(params);
+	}
+
+	private List<String> convert(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 		String inputFile = params.get("source");
 		String xliffFile = params.get("xliff");
@@ -61,17 +64,17 @@ public class Txml2Xliff {
 
 		try {
 			SAXBuilder builder = new SAXBuilder();
-			builder.setEntityResolver(new Catalog(catalog));
+			builder.setEntityResolver(CatalogCache.getCatalog(catalog));
 			Document doc = builder.build(inputFile);
 			Element root = doc.getRootElement();
 
-			output = new FileOutputStream(xliffFile);
+			output = new Utf8OutputStream(xliffFile);
 			writeHeader(inputFile, skeletonFile);
 			recurse(root);
 			writeEnd();
 			output.close();
 
-			try (FileOutputStream skl = new FileOutputStream(skeletonFile)) {
+			try (Utf8OutputStream skl = new Utf8OutputStream(skeletonFile)) {
 				XMLOutputter outputter = new XMLOutputter();
 				outputter.output(doc, skl);
 			}
@@ -90,7 +93,7 @@ public class Txml2Xliff {
 		return result;
 	}
 
-	private static void writeHeader(String source, String skeleton) throws IOException {
+	private void writeHeader(String source, String skeleton) throws IOException {
 		String tgtLang = "";
 		if (targetLanguage != null) {
 			tgtLang = "\" target-language=\"" + targetLanguage;
@@ -112,7 +115,7 @@ public class Txml2Xliff {
 		writeStr("<body>\n");
 	}
 
-	private static void recurse(Element root) throws IOException {
+	private void recurse(Element root) throws IOException {
 		List<Element> children = root.getChildren();
 		Iterator<Element> it = children.iterator();
 		while (it.hasNext()) {
@@ -125,7 +128,7 @@ public class Txml2Xliff {
 		}
 	}
 
-	private static void parseSegment(Element segment) throws IOException {
+	private void parseSegment(Element segment) throws IOException {
 		segNum++;
 		tagId = 0;
 		writeStr("<trans-unit id=\"" + segNum + "\">\n");
@@ -145,7 +148,7 @@ public class Txml2Xliff {
 		writeStr("</trans-unit>\n");
 	}
 
-	private static String parseElement(Element ele) {
+	private String parseElement(Element ele) {
 		StringBuilder result = new StringBuilder();
 		result.append("<" + ele.getName() + ">");
 		List<XMLNode> content = ele.getContent();
@@ -168,12 +171,12 @@ public class Txml2Xliff {
 		return result.toString();
 	}
 
-	private static String parseTag(Element tag) {
+	private String parseTag(Element tag) {
 		tagId++;
 		return "<ph id=\"" + tagId + "\">" + Utils.cleanString(tag.toString()) + "</ph>";
 	}
 
-	private static void parseComments(Element comments) throws IOException {
+	private void parseComments(Element comments) throws IOException {
 		List<Element> list = comments.getChildren("comment");
 		Iterator<Element> it = list.iterator();
 		while (it.hasNext()) {
@@ -184,14 +187,14 @@ public class Txml2Xliff {
 		}
 	}
 
-	private static void writeEnd() throws IOException {
+	private void writeEnd() throws IOException {
 		writeStr("</body>\n");
 		writeStr("</file>\n");
 		writeStr("</xliff>\n");
 	}
 
-	private static void writeStr(String string) throws IOException {
-		output.write(string.getBytes(StandardCharsets.UTF_8));
+	private void writeStr(String string) throws IOException {
+		output.write(string);
 	}
 
 }
@@ -13,7 +13,6 @@ package com.maxprograms.converters.txml;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
@@ -30,8 +29,9 @@ import java.util.Map;
 
 import javax.xml.parsers.ParserConfigurationException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
-import com.maxprograms.xml.Catalog;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.SAXBuilder;
@@ -43,9 +43,9 @@ import org.xml.sax.SAXException;
 
 public class Xliff2Txml {
 
-	private static String xliffFile;
-	private static String catalog;
-	private static Map<String, Element> segments;
+	private String xliffFile;
+	private String catalog;
+	private Map<String, Element> segments;
 
 	private Xliff2Txml() {
 		// do not instantiate this class
@@ -53,6 +53,10 @@ public class Xliff2Txml {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Xliff2Txml().merge(params);
+	}
+
+	private List<String> merge(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 
 		String sklFile = params.get("skeleton");
@@ -81,7 +85,7 @@ public class Xliff2Txml {
 			if (!f.exists()) {
 				Files.createFile(Paths.get(f.toURI()));
 			}
-			try (FileOutputStream output = new FileOutputStream(f)) {
+			try (Utf8OutputStream output = new Utf8OutputStream(f)) {
 				outputter.output(doc, output);
 			}
 			result.add(Constants.SUCCESS);
@@ -99,7 +103,7 @@ public class Xliff2Txml {
 		return result;
 	}
 
-	private static void replaceTargets(Element e) throws SAXException, IOException, ParserConfigurationException {
+	private void replaceTargets(Element e) throws SAXException, IOException, ParserConfigurationException {
 		if (e.getName().equals("revisions")) {
 			return;
 		}
@@ -138,11 +142,11 @@ public class Xliff2Txml {
 		return tag;
 	}
 
-	private static void loadSegments()
+	private void loadSegments()
 			throws SAXException, IOException, ParserConfigurationException, URISyntaxException {
 
 		SAXBuilder builder = new SAXBuilder();
-		builder.setEntityResolver(new Catalog(catalog));
+		builder.setEntityResolver(CatalogCache.getCatalog(catalog));
 
 		Document sdoc = builder.build(xliffFile);
 		Element root = sdoc.getRootElement();
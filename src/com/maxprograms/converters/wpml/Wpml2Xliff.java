@@ -9,7 +9,6 @@
  *******************************************************************************/
 package com.maxprograms.converters.wpml;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
@@ -23,9 +22,12 @@ import java.util.regex.Pattern;
 
 import javax.xml.parsers.ParserConfigurationException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.Utils;
 import com.maxprograms.segmenter.Segmenter;
+import com.maxprograms.segmenter.SegmenterCache;
 import com.maxprograms.xml.CData;
 import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
@@ -41,15 +43,15 @@ import org.xml.sax.SAXException;
 
 public class Wpml2Xliff {
 
-    private static String inputFile;
-    private static String skeletonFile;
-    private static String sourceLanguage;
-    private static String targetLanguage;
-    private static int segId = 0;
-    private static Segmenter segmenter;
-    private static boolean paragraphSegmentation;
-    private static Pattern pattern;
-    private static Pattern endPattern;
+    private String inputFile;
+    private String skeletonFile;
+    private String sourceLanguage;
+    private String targetLanguage;
+    private int segId = 0;
+    private Segmenter segmenter;
+    private boolean paragraphSegmentation;
+    private Pattern pattern;
+    private Pattern endPattern;
 
     private Wpml2Xliff() {
         // do not instantiate this class
@@ -57,6 +59,10 @@ public class Wpml2Xliff {
     }
 
     public static List<String> run(Map<String, String> params) {
+        return new Wpml2Xliff().convert(params);
+    }
+
+    private List<String> convert(Map<String, String> params) {
         List<String> result = new ArrayList<>();
         inputFile = params.get("source");
         String xliffFile = params.get("xliff");
@@ -79,9 +85,9 @@ public class Wpml2Xliff {
         endPattern = Pattern.compile("</[A-Za-z0-9]+>");
 
         try {
-            Catalog catalog = new Catalog(catalogFile);
+            Catalog catalog = CatalogCache.getCatalog(catalogFile);
             if (!paragraphSegmentation) {
-                segmenter = new Segmenter(srxRules, sourceLanguage, catalog);
+                segmenter = SegmenterCache.getSegmenter(srxRules, sourceLanguage, catalog);
             }
             SAXBuilder builder = new SAXBuilder();
             builder.setEntityResolver(catalog);
@@ -94,13 +100,13 @@ public class Wpml2Xliff {
 
             recurse(root, newRoot);
 
-            try (FileOutputStream out = new FileOutputStream(xliffFile)) {
+            try (Utf8OutputStream out = new Utf8OutputStream(xliffFile)) {
                 Indenter.indent(newRoot, 2);
                 XMLOutputter outputter = new XMLOutputter();
                 outputter.preserveSpace(true);
                 outputter.output(newDoc, out);
             }
-            try (FileOutputStream skl = new FileOutputStream(skeletonFile)) {
+            try (Utf8OutputStream skl = new Utf8OutputStream(skeletonFile)) {
                 XMLOutputter outputter = new XMLOutputter();
                 outputter.preserveSpace(true);
                 outputter.output(doc, skl);
@@ -115,7 +121,7 @@ public class Wpml2Xliff {
         return result;
     }
 
-    private static void recurse(Element root, Element newRoot)
+    private void recurse(Element root, Element newRoot)
             throws SAXException, IOException, ParserConfigurationException {
         newRoot.setAttributes(root.getAttributes());
         if ("file".equals(root.getName())) {
@@ -294,7 +300,7 @@ public class Wpml2Xliff {
         e.setContent(newContent);
     }
 
-    private static void fixHtmlTags(Element src) {
+    private void fixHtmlTags(Element src) {
         int count = 0;
         String e = src.getText();
 
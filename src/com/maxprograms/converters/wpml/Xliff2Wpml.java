@@ -10,7 +10,6 @@
 package com.maxprograms.converters.wpml;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
@@ -26,7 +25,9 @@ import java.util.Map;
 
 import javax.xml.parsers.ParserConfigurationException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.xml.CData;
 import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
@@ -40,9 +41,9 @@ import org.xml.sax.SAXException;
 
 public class Xliff2Wpml {
 
-    private static Catalog catalog;
-    private static Document skeleton;
-    private static Map<String, Element> segments;
+    private Catalog catalog;
+    private Document skeleton;
+    private Map<String, Element> segments;
 
     private Xliff2Wpml() {
         // do not instantiate this class
@@ -50,13 +51,17 @@ public class Xliff2Wpml {
     }
 
     public static List<String> run(Map<String, String> params) {
+        return new Xliff2Wpml().merge(params);
+    }
+
+    private List<String> merge(Map<String, String> params) {
         List<String> result = new ArrayList<>();
 
         String xliffFile = params.get("xliff");
         String sklFile = params.get("skeleton");
         String outputFile = params.get("backfile");
         try {
-            catalog = new Catalog(params.get("catalog"));
+            catalog = CatalogCache.getCatalog(params.get("catalog"));
             loadXliff(xliffFile);
             loadSkeleton(sklFile);
             recurseSkeleton(skeleton.getRootElement());
@@ -71,7 +76,7 @@ public class Xliff2Wpml {
             if (!f.exists()) {
                 Files.createFile(Paths.get(f.toURI()));
             }
-            try (FileOutputStream out = new FileOutputStream(outputFile)) {
+            try (Utf8OutputStream out = new Utf8OutputStream(outputFile)) {
                 XMLOutputter outputter = new XMLOutputter();
                 outputter.preserveSpace(true);
                 outputter.output(skeleton, out);
@@ -86,7 +91,7 @@ public class Xliff2Wpml {
         return result;
     }
 
-    private static void recurseSkeleton(Element e) throws IOException {
+    private void recurseSkeleton(Element e) throws IOException {
         if ("trans-unit".equals(e.getName())) {
             List<XMLNode> content = new ArrayList<>();
             Element target = e.getChild("target");
@@ -127,13 +132,13 @@ public class Xliff2Wpml {
         }
     }
 
-    private static void loadSkeleton(String sklFile) throws SAXException, IOException, ParserConfigurationException {
+    private void loadSkeleton(String sklFile) throws SAXException, IOException, ParserConfigurationException {
         SAXBuilder builder = new SAXBuilder();
         builder.setEntityResolver(catalog);
         skeleton = builder.build(sklFile);
     }
 
-    private static void loadXliff(String xliffFile) throws SAXException, IOException, ParserConfigurationException {
+    private void loadXliff(String xliffFile) throws SAXException, IOException, ParserConfigurationException {
         SAXBuilder builder = new SAXBuilder();
         builder.setEntityResolver(catalog);
         Document xliff = builder.build(xliffFile);
@@ -141,7 +146,7 @@ public class Xliff2Wpml {
         recurseXliff(xliff.getRootElement());
     }
 
-    private static void recurseXliff(Element e) {
+    private void recurseXliff(Element e) {
         if ("trans-unit".equals(e.getName())) {
             segments.put(e.getAttributeValue("id"), e);
         } else {
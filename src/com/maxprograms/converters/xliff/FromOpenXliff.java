@@ -11,7 +11,6 @@ package com.maxprograms.converters.xliff;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
@@ -29,7 +28,9 @@ import java.util.Vector;
 
 import javax.xml.parsers.ParserConfigurationException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.xml.Attribute;
 import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
@@ -46,12 +47,12 @@ import org.xml.sax.SAXException;
 
 public class FromOpenXliff {
 
-    private static Catalog catalog;
-    private static Document skeleton;
-    private static Map<String, Element> segments;
-    private static String tgtLang;
-    private static boolean hasTarget;
-    private static int auto;
+    private Catalog catalog;
+    private Document skeleton;
+    private Map<String, Element> segments;
+    private String tgtLang;
+    private boolean hasTarget;
+    private int auto;
 
     private FromOpenXliff() {
         // do not instantiate this class
@@ -59,13 +60,17 @@ public class FromOpenXliff {
     }
 
     public static List<String> run(Map<String, String> params) {
+        return new FromOpenXliff().merge(params);
+    }
+
+    private List<String> merge(Map<String, String> params) {
         List<String> result = new ArrayList<>();
         tgtLang = "";
         String xliffFile = params.get("xliff");
         String sklFile = params.get("skeleton");
         String outputFile = params.get("backfile");
         try {
-            catalog = new Catalog(params.get("catalog"));
+            catalog = CatalogCache.getCatalog(params.get("catalog"));
             loadXliff(xliffFile);
             loadSkeleton(sklFile);
             Element root = skeleton.getRootElement();
@@ -84,7 +89,7 @@ public class FromOpenXliff {
             if (!f.exists()) {
                 Files.createFile(Paths.get(f.toURI()));
             }
-            try (FileOutputStream out = new FileOutputStream(outputFile)) {
+            try (Utf8OutputStream out = new Utf8OutputStream(outputFile)) {
                 XMLOutputter outputter = new XMLOutputter();
                 Indenter.indent(root, 2);
                 outputter.preserveSpace(true);
@@ -100,7 +105,7 @@ public class FromOpenXliff {
         return result;
     }
 
-    private static void recurseSkeleton(Element rootElement)
+    private void recurseSkeleton(Element rootElement)
             throws SAXException, IOException, ParserConfigurationException {
         String version = rootElement.getAttributeValue("version");
         if (version.startsWith("1")) {
@@ -115,7 +120,7 @@ public class FromOpenXliff {
         }
     }
 
-    private static void recurse1x(Element root) throws SAXException, IOException, ParserConfigurationException {
+    private void recurse1x(Element root) throws SAXException, IOException, ParserConfigurationException {
         if ("file".equals(root.getName())) {
             tgtLang = root.getAttributeValue("target-language");
         }
@@ -186,7 +191,7 @@ public class FromOpenXliff {
         }
     }
 
-    private static void replaceTags(Element target, int version)
+    private void replaceTags(Element target, int version)
             throws SAXException, IOException, ParserConfigurationException {
         StringBuilder sb = new StringBuilder();
         sb.append("<target>");
@@ -220,7 +225,7 @@ public class FromOpenXliff {
         target.setContent(d.getRootElement().getContent());
     }
 
-    private static Element processMrk(Element e) {
+    private Element processMrk(Element e) {
         Element mrk = new Element("mrk");
         mrk.setAttribute("id", e.hasAttribute("mid") ? e.getAttributeValue("mid") : ("auto" + auto++));
         if (e.hasAttribute("ts")) {
@@ -280,7 +285,7 @@ public class FromOpenXliff {
         root.setContent(newContent);
     }
 
-    private static void recurse2x(Element root) throws SAXException, IOException, ParserConfigurationException {
+    private void recurse2x(Element root) throws SAXException, IOException, ParserConfigurationException {
         if ("unit".equals(root.getName()) && !root.getAttributeValue("translate").equals("no")) {
             List<Element> children = root.getChildren("segment");
             Iterator<Element> it = children.iterator();
@@ -319,7 +324,7 @@ public class FromOpenXliff {
         }
     }
 
-    private static void loadXliff(String xliffFile) throws SAXException, IOException, ParserConfigurationException {
+    private void loadXliff(String xliffFile) throws SAXException, IOException, ParserConfigurationException {
         SAXBuilder builder = new SAXBuilder();
         builder.setEntityResolver(catalog);
         Document xliff = builder.build(xliffFile);
@@ -327,7 +332,7 @@ public class FromOpenXliff {
         recurseXliff(xliff.getRootElement());
     }
 
-    private static void recurseXliff(Element e) throws IOException {
+    private void recurseXliff(Element e) throws IOException {
         if ("xliff".equals(e.getName()) && !"1.2".equals(e.getAttributeValue("version"))) {
             throw new IOException(Messages.getString("FromOpenXliff.2"));
         }
@@ -345,7 +350,7 @@ public class FromOpenXliff {
         }
     }
 
-    private static void loadSkeleton(String sklFile) throws SAXException, IOException, ParserConfigurationException {
+    private void loadSkeleton(String sklFile) throws SAXException, IOException, ParserConfigurationException {
         SAXBuilder builder = new SAXBuilder();
         builder.setEntityResolver(catalog);
         skeleton = builder.build(sklFile);
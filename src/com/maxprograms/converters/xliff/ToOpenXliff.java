@@ -10,7 +10,6 @@
 
 package com.maxprograms.converters.xliff;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
@@ -25,9 +24,10 @@ import javax.xml.parsers.ParserConfigurationException;
 
 import org.xml.sax.SAXException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.xml.Attribute;
-import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.Indenter;
@@ -39,8 +39,8 @@ import com.maxprograms.xml.XMLOutputter;
 
 public class ToOpenXliff {
 
-    private static List<String> namespaces;
-    private static int tag;
+    private List<String> namespaces;
+    private int tag;
 
     private ToOpenXliff() {
         // do not instantiate this class
@@ -48,6 +48,10 @@ public class ToOpenXliff {
     }
 
     public static List<String> run(Map<String, String> params) {
+        return new ToOpenXliff().convert(params);
+    }
+
+    private List<String> convert(Map<String, String> params) {
         List<String> result = new ArrayList<>();
         String inputFile = params.get("source");
         String xliffFile = params.get("xliff");
@@ -57,7 +61,7 @@ public class ToOpenXliff {
         String catalog = params.get("catalog");
         try {
             SAXBuilder builder = new SAXBuilder();
-            builder.setEntityResolver(new Catalog(catalog));
+            builder.setEntityResolver(CatalogCache.getCatalog(catalog));
             Document doc = builder.build(inputFile);
             Element root = doc.getRootElement();
 
@@ -113,13 +117,13 @@ public class ToOpenXliff {
                 body.addContent(units.get(i));
             }
 
-            try (FileOutputStream out = new FileOutputStream(xliffFile)) {
+            try (Utf8OutputStream out = new Utf8OutputStream(xliffFile)) {
                 Indenter.indent(newRoot, 2);
                 XMLOutputter outputter = new XMLOutputter();
                 outputter.preserveSpace(true);
                 outputter.output(newDoc, out);
             }
-            try (FileOutputStream skeleton = new FileOutputStream(skeletonFile)) {
+            try (Utf8OutputStream skeleton = new Utf8OutputStream(skeletonFile)) {
                 XMLOutputter outputter = new XMLOutputter();
                 outputter.preserveSpace(true);
                 outputter.output(doc, skeleton);
@@ -134,7 +138,7 @@ public class ToOpenXliff {
         return result;
     }
 
-    private static void recurse2x(Element root, List<Element> units) {
+    private void recurse2x(Element root, List<Element> units) {
         if ("unit".equals(root.getName()) && !root.getAttributeValue("translate").equals("no")) {
             boolean preserve = root.getAttributeValue("xml:space").equals("preserve");
             List<Element> segments = root.getChildren("segment");
@@ -205,7 +209,7 @@ public class ToOpenXliff {
         }
     }
 
-    private static List<XMLNode> getContent2x(Element child) {
+    private List<XMLNode> getContent2x(Element child) {
         List<XMLNode> result = new Vector<>();
         if (child != null) {
             List<XMLNode> content = child.getContent();
@@ -282,7 +286,7 @@ public class ToOpenXliff {
         return result;
     }
 
-    private static void recurse1x(Element root, List<Element> units) {
+    private void recurse1x(Element root, List<Element> units) {
         if ("xliff".equals(root.getName())) {
             List<Attribute> atts = root.getAttributes();
             Iterator<Attribute> it = atts.iterator();
@@ -411,7 +415,7 @@ public class ToOpenXliff {
         return null;
     }
 
-    private static List<XMLNode> getContent1x(Element child) {
+    private List<XMLNode> getContent1x(Element child) {
         List<XMLNode> result = new Vector<>();
         if (child != null) {
             List<XMLNode> content = child.getContent();
@@ -456,7 +460,7 @@ public class ToOpenXliff {
         return result;
     }
 
-    private static void renameAttributes(Element e) {
+    private void renameAttributes(Element e) {
         List<Attribute> atts = e.getAttributes();
         Iterator<Attribute> at = atts.iterator();
         Vector<String> change = new Vector<>();
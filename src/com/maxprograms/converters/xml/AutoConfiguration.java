@@ -11,7 +11,6 @@
  *******************************************************************************/
 package com.maxprograms.converters.xml;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -23,6 +22,7 @@ import javax.xml.parsers.ParserConfigurationException;
 
 import org.xml.sax.SAXException;
 
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
@@ -34,7 +34,7 @@ import com.maxprograms.xml.XMLOutputter;
 
 public class AutoConfiguration {
 
-	private static Map<String, String> segment;
+	private Map<String, String> segment;
 
 	private AutoConfiguration() {
 		// do not instantiate this class
@@ -43,6 +43,11 @@ public class AutoConfiguration {
 
 	public static void run(String input, String out, Catalog catalog)
 			throws SAXException, IOException, ParserConfigurationException {
+		new AutoConfiguration().configure(input, out, catalog);
+	}
+
+	private void configure(String input, String out, Catalog catalog)
+			throws SAXException, IOException, ParserConfigurationException {
 		SAXBuilder builder = new SAXBuilder();
 		builder.setEntityResolver(catalog);
 		Document d = builder.build(input);
@@ -64,12 +69,12 @@ public class AutoConfiguration {
 
 		XMLOutputter outputter = new XMLOutputter();
 		Indenter.indent(root, 2);
-		try (FileOutputStream output = new FileOutputStream(out)) {
+		try (Utf8OutputStream output = new Utf8OutputStream(out)) {
 			outputter.output(doc, output);
 		}
 	}
 
-	private static void recurse(Element r) {
+	private void recurse(Element r) {
 		StringBuilder text = new StringBuilder();
 		List<XMLNode> content = r.getContent();
 		Iterator<XMLNode> i = content.iterator();
@@ -0,0 +1,296 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.converters.xml;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.maxprograms.xml.Element;
+
+/**
+ * Builds elements from the segment fragments generated by Xml2Xliff: text with
+ * predefined entities or character references and elements with attributes.
+ * The result is the same tree that SAXBuilder produces for the fragment. Any
+ * other construct, or markup that is not well-formed, makes
+ * {@link #parse(String, String)} return null so the caller can use a full XML
+ * parser and report the same errors as before.
+ */
+class FragmentParser {
+
+	private String text;
+	private int pos;
+
+	private FragmentParser(String text) {
+		this.text = text;
+	}
+
+	static Element parse(String name, String fragment) {
+		FragmentParser parser = new FragmentParser(fragment);
+		Element root = new Element(name);
+		if (parser.parseContent(root) && parser.pos == fragment.length()) {
+			return root;
+		}
+		return null;
+	}
+
+	private boolean parseContent(Element parent) {
+		StringBuilder builder = new StringBuilder();
+		int length = text.length();
+		while (pos < length) {
+			char c = text.charAt(pos);
+			if (c == '<') {
+				addText(parent, builder);
+				if (pos + 1 < length && text.charAt(pos + 1) == '/') {
+					// end tag, checked by the caller
+					return true;
+				}
+				Element child = parseElement();
+				if (child == null) {
+					return false;
+				}
+				parent.addContent(child);
+			} else if (c == '&') {
+				if (!parseReference(builder)) {
+					return false;
+				}
+			} else if (c == '\r') {
+				builder.append('\n');
+				pos++;
+				if (pos < length && text.charAt(pos) == '\n') {
+					pos++;
+				}
+			} else {
+				if (c == '>' && pos > 1 && text.charAt(pos - 1) == ']' && text.charAt(pos - 2) == ']') {
+					// "]]>" is not allowed in text
+					return false;
+				}
+				if (!appendChar(builder)) {
+					return false;
+				}
+			}
+		}
+		addText(parent, builder);
+		return true;
+	}
+
+	private Element parseElement() {
+		pos++;
+		String name = parseName();
+		if (name == null || name.indexOf(':') != -1) {
+			return null;
+		}
+		Element element = new Element(name);
+		Set<String> names = new HashSet<>();
+		int length = text.length();
+		while (pos < length) {
+			boolean space = skipSpaces();
+			if (pos >= length) {
+				return null;
+			}
+			char c = text.charAt(pos);
+			if (c == '/') {
+				if (pos + 1 < length && text.charAt(pos + 1) == '>') {
+					pos += 2;
+					return element;
+				}
+				return null;
+			}
+			if (c == '>') {
+				pos++;
+				if (!parseContent(element) || !text.startsWith("</", pos)) {
+					return null;
+				}
+				pos += 2;
+				if (!name.equals(parseName())) {
+					return null;
+				}
+				skipSpaces();
+				if (pos >= length || text.charAt(pos) != '>') {
+					return null;
+				}
+				pos++;
+				return element;
+			}
+			if (!space) {
+				return null;
+			}
+			String attribute = parseName();
+			if (attribute == null || !names.add(attribute) || attribute.startsWith("xmlns")) {
+				return null;
+			}
+			if (attribute.indexOf(':') != -1 && !attribute.startsWith("xml:")) {
+				return null;
+			}
+			skipSpaces();
+			if (pos >= length || text.charAt(pos) != '=') {
+				return null;
+			}
+			pos++;
+			skipSpaces();
+			String value = parseValue();
+			if (value == null) {
+				return null;
+			}
+			element.setAttribute(attribute, value);
+		}
+		return null;
+	}
+
+	private String parseValue() {
+		int length = text.length();
+		if (pos >= length) {
+			return null;
+		}
+		char quote = text.charAt(pos);
+		if (quote != '"' && quote != '\'') {
+			return null;
+		}
+		pos++;
+		StringBuilder builder = new StringBuilder();
+		while (pos < length) {
+			char c = text.charAt(pos);
+			if (c == quote) {
+				pos++;
+				return builder.toString();
+			}
+			if (c == '<') {
+				return null;
+			}
+			if (c == '&') {
+				if (!parseReference(builder)) {
+					return null;
+				}
+				continue;
+			}
+			if (c == '\r' && pos + 1 < length && text.charAt(pos + 1) == '\n') {
+				pos++;
+			}
+			if (c == '\t' || c == '\n' || c == '\r') {
+				builder.append(' ');
+				pos++;
+			} else if (!appendChar(builder)) {
+				return null;
+			}
+		}
+		return null;
+	}
+
+	private boolean parseReference(StringBuilder builder) {
+		int end = text.indexOf(';', pos);
+		if (end == -1) {
+			return false;
+		}
+		String name = text.substring(pos + 1, end);
+		pos = end + 1;
+		switch (name) {
+			case "amp":
+				builder.append('&');
+				return true;
+			case "lt":
+				builder.append('<');
+				return true;
+			case "gt":
+				builder.append('>');
+				return true;
+			case "quot":
+				builder.append('"');
+				return true;
+			case "apos":
+				builder.append('\'');
+				return true;
+			default:
+				return parseCharReference(name, builder);
+		}
+	}
+
+	private static boolean parseCharReference(String name, StringBuilder builder) {
+		if (name.length() < 2 || name.charAt(0) != '#' || name.indexOf('+') != -1 || name.indexOf('-') != -1) {
+			return false;
+		}
+		int codePoint;
+		try {
+			if (name.charAt(1) == 'x') {
+				codePoint = Integer.parseInt(name.substring(2), 16);
+			} else {
+				codePoint = Integer.parseInt(name.substring(1));
+			}
+		} catch (NumberFormatException e) {
+			return false;
+		}
+		if (codePoint < 0 || codePoint > 0x10FFFF || (codePoint >= 0xD800 && codePoint <= 0xDFFF)
+				|| (codePoint < 0x10000 && !isValidChar((char) codePoint))) {
+			return false;
+		}
+		builder.appendCodePoint(codePoint);
+		return true;
+	}
+
+	private String parseName() {
+		int start = pos;
+		int length = text.length();
+		while (pos < length) {
+			char c = text.charAt(pos);
+			if (Character.isLetter(c) || c == '_' || c == ':'
+					|| (pos > start && (Character.isDigit(c) || c == '-' || c == '.'))) {
+				pos++;
+			} else {
+				break;
+			}
+		}
+		return pos > start ? text.substring(start, pos) : null;
+	}
+
+	private boolean skipSpaces() {
+		int start = pos;
+		while (pos < text.length()) {
+			char c = text.charAt(pos);
+			if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+				break;
+			}
+			pos++;
+		}
+		return pos > start;
+	}
+
+	private static void addText(Element parent, StringBuilder builder) {
+		if (builder.length() > 0) {
+			parent.addContent(builder.toString());
+			builder.setLength(0);
+		}
+	}
+
+	private boolean appendChar(StringBuilder builder) {
+		char c = text.charAt(pos);
+		if (Character.isHighSurrogate(c)) {
+			if (pos + 1 >= text.length() || !Character.isLowSurrogate(text.charAt(pos + 1))) {
+				return false;
+			}
+			builder.append(c);
+			builder.append(text.charAt(pos + 1));
+			pos += 2;
+			return true;
+		}
+		if (Character.isLowSurrogate(c) || !isValidChar(c)) {
+			return false;
+		}
+		builder.append(c);
+		pos++;
+		return true;
+	}
+
+	private static boolean isValidChar(char c) {
+		if (c < 0x20) {
+			return c == '\t' || c == '\n' || c == '\r';
+		}
+		return c != '\uFFFE' && c != '\uFFFF';
+	}
+}
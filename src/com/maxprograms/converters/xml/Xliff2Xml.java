@@ -14,7 +14,6 @@ package com.maxprograms.converters.xml;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.lang.System.Logger;
@@ -39,7 +38,9 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import org.xml.sax.SAXException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.Utils;
 import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
@@ -54,18 +55,18 @@ public class Xliff2Xml {
 
 	private static Logger logger = System.getLogger(Xliff2Xml.class.getName());
 
-	private static String xliffFile;
-	private static Map<String, Element> segments;
-	private static String encoding;
-	private static Catalog catalog;
-	private static Map<String, String> entities;
-	private static boolean inDesign = false;
-	private static boolean inAttribute;
-	private static boolean inCData;
-	private static boolean ditaBased = false;
-	private static boolean isIdml;
-	private static List<PI> skipped;
-	private static List<PI> images;
+	private String xliffFile;
+	private Map<String, Element> segments;
+	private String encoding;
+	private Catalog catalog;
+	private Map<String, String> entities;
+	private boolean inDesign = false;
+	private boolean inAttribute;
+	private boolean inCData;
+	private boolean ditaBased = false;
+	private boolean isIdml;
+	private List<PI> skipped;
+	private List<PI> images;
 
 	private Xliff2Xml() {
 		// do not instantiate this class
@@ -73,6 +74,10 @@ public class Xliff2Xml {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Xliff2Xml().merge(params);
+	}
+
+	private List<String> merge(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 		String sklFile = params.get("skeleton");
 		xliffFile = params.get("xliff");
@@ -90,7 +95,7 @@ public class Xliff2Xml {
 			ditaBased = true;
 		}
 		try {
-			catalog = new Catalog(params.get("catalog"));
+			catalog = CatalogCache.getCatalog(params.get("catalog"));
 			String outputFile = params.get("backfile");
 			File f = new File(outputFile);
 			File p = f.getParentFile();
@@ -100,7 +105,7 @@ public class Xliff2Xml {
 			if (Files.notExists(p.toPath())) {
 				Files.createDirectories(p.toPath());
 			}
-			try (FileOutputStream output = new FileOutputStream(f)) {
+			try (Utf8OutputStream output = new Utf8OutputStream(f)) {
 				loadSegments();
 				InputStreamReader input = new InputStreamReader(new FileInputStream(sklFile), StandardCharsets.UTF_8);
 				try (BufferedReader buffer = new BufferedReader(input)) {
@@ -195,7 +200,7 @@ public class Xliff2Xml {
 		return result;
 	}
 
-	private static void recoverImages(String outputFile) {
+	private void recoverImages(String outputFile) {
 		try {
 			Decoder decoder = Base64.getMimeDecoder();
 			for (int i = 0; i < images.size(); i++) {
@@ -225,7 +230,7 @@ public class Xliff2Xml {
 		}
 	}
 
-	private static void removeTranslate(String outputFile)
+	private void removeTranslate(String outputFile)
 			throws SAXException, IOException, ParserConfigurationException {
 		SAXBuilder builder = new SAXBuilder();
 		builder.setEntityResolver(catalog);
@@ -235,12 +240,12 @@ public class Xliff2Xml {
 		removeTranslateAtt(root);
 		XMLOutputter outputter = new XMLOutputter();
 		outputter.preserveSpace(true);
-		try (FileOutputStream out = new FileOutputStream(outputFile)) {
+		try (Utf8OutputStream out = new Utf8OutputStream(outputFile)) {
 			outputter.output(doc, out);
 		}
 	}
 
-	private static void removeTranslateAtt(Element e) {
+	private void removeTranslateAtt(Element e) {
 		if (e.getAttributeValue("removeTranslate", "no").equals("yes")) {
 			e.removeAttribute("translate");
 			e.removeAttribute("removeTranslate");
@@ -251,7 +256,7 @@ public class Xliff2Xml {
 		}
 	}
 
-	private static void removeSeparators(String outputFile)
+	private void removeSeparators(String outputFile)
 			throws SAXException, IOException, ParserConfigurationException {
 		SAXBuilder builder = new SAXBuilder();
 		builder.setEntityResolver(catalog);
@@ -260,7 +265,7 @@ public class Xliff2Xml {
 		recurse(root);
 		XMLOutputter outputter = new XMLOutputter();
 		outputter.preserveSpace(true);
-		try (FileOutputStream out = new FileOutputStream(outputFile)) {
+		try (Utf8OutputStream out = new Utf8OutputStream(outputFile)) {
 			outputter.output(doc, out);
 		}
 	}
@@ -281,7 +286,7 @@ public class Xliff2Xml {
 		}
 	}
 
-	private static String extractText(Element element) throws SAXException {
+	private String extractText(Element element) throws SAXException {
 		String result = "";
 		List<XMLNode> content = element.getContent();
 		Iterator<XMLNode> i = content.iterator();
@@ -321,7 +326,7 @@ public class Xliff2Xml {
 		return result;
 	}
 
-	private static String cleanMrk(Element element) throws SAXException {
+	private String cleanMrk(Element element) throws SAXException {
 		String ts = element.getAttributeValue("ts");
 		if (ts.isEmpty()) {
 			throw new SAXException(Messages.getString("Xliff2Xml.5"));
@@ -448,7 +453,7 @@ public class Xliff2Xml {
 		return result;
 	}
 
-	private static String addEntities(String string) {
+	private String addEntities(String string) {
 		String result = string;
 		int index = result.indexOf('&');
 		while (index != -1) {
@@ -521,11 +526,11 @@ public class Xliff2Xml {
 		return result;
 	}
 
-	private static void writeString(FileOutputStream output, String string) throws IOException {
+	private void writeString(Utf8OutputStream output, String string) throws IOException {
 		output.write(string.getBytes(encoding));
 	}
 
-	private static void loadSegments() throws SAXException, IOException, ParserConfigurationException {
+	private void loadSegments() throws SAXException, IOException, ParserConfigurationException {
 		SAXBuilder builder = new SAXBuilder();
 		if (catalog != null) {
 			builder.setEntityResolver(catalog);
@@ -15,7 +15,6 @@ import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.lang.System.Logger;
@@ -32,14 +31,18 @@ import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.xml.sax.SAXException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.converters.Utils;
 import com.maxprograms.segmenter.Segmenter;
+import com.maxprograms.segmenter.SegmenterCache;
 import com.maxprograms.xml.Attribute;
 import com.maxprograms.xml.CData;
 import com.maxprograms.xml.Catalog;
@@ -64,45 +67,45 @@ public class Xml2Xliff {
 	static final String MATHGT = "\u200B\u203A";
 	static final String GAMP = "\u200B\u203A";
 
-	private static String inputFile;
-	private static String skeletonFile;
-	private static String sourceLanguage;
-	private static String srcEncoding;
-	private static FileOutputStream output;
-	private static FileOutputStream skeleton;
-	private static int segId;
-	private static int tagId;
-	private static List<String> segments;
-	private static Map<String, String> startsSegment;
-	private static Map<String, List<String>> translatableAttributes;
-	private static Map<String, String> inline;
-	private static Map<String, String> ctypes;
-	private static Map<String, String> keepFormating;
-	private static boolean segByElement;
-	private static Segmenter segmenter;
-	private static Catalog catalog;
-	private static String rootElement;
-	private static Map<String, String> entities;
-	private static String entitiesMap;
-	private static Element root;
-	private static String text;
-	private static Stack<String> stack;
-	private static String translatable = "";
-	private static boolean inDesign = false;
-	private static Map<String, String> ignore;
-	private static boolean resx;
-	private static String startText;
-	private static String endText;
-	private static boolean ditaBased;
-	private static String targetLanguage;
-	private static boolean inCData;
-	private static boolean translateComments;
-	private static boolean containsText;
-
-	private static String currentCatalog;
-	private static Document ditaCache;
-
-	private static boolean ignoreTC = false;
+	private String inputFile;
+	private String skeletonFile;
+	private String sourceLanguage;
+	private String srcEncoding;
+	private Utf8OutputStream output;
+	private Utf8OutputStream skeleton;
+	private int segId;
+	private int tagId;
+	private List<String> segments;
+	private Map<String, String> startsSegment;
+	private Map<String, List<String>> translatableAttributes;
+	private Map<String, String> inline;
+	private Map<String, String> ctypes;
+	private Map<String, String> keepFormating;
+	private boolean segByElement;
+	private Segmenter segmenter;
+	private Catalog catalog;
+	private String rootElement;
+	private Map<String, String> entities;
+	private String entitiesMap;
+	private Element root;
+	private String text;
+	private Stack<String> stack;
+	private String translatable = "";
+	private boolean inDesign = false;
+	private Map<String, String> ignore;
+	private boolean resx;
+	private String startText;
+	private String endText;
+	private boolean ditaBased;
+	private String targetLanguage;
+	private boolean inCData;
+	private boolean translateComments;
+	private boolean containsText;
+	private Document document;
+
+	private static Map<String, CachedConfig> configCache = new ConcurrentHashMap<>();
+
+	private boolean ignoreTC = false;
 
 	private Xml2Xliff() {
 		// do not instantiate this class
@@ -110,6 +113,20 @@ public class Xml2Xliff {
 	}
 
 	public static List<String> run(Map<String, String> params) {
+		return new Xml2Xliff().convert(params);
+	}
+
+	/**
+	 * Converts a document that is already parsed. The "source" parameter must
+	 * point to the file the document was read from; only its prolog is read.
+	 */
+	public static List<String> run(Map<String, String> params, Document document) {
+		Xml2Xliff instance = new Xml2Xliff();
+		instance.document = document;
+		return instance.convert(params);
+	}
+
+	private List<String> convert(Map<String, String> params) {
 		List<String> result = new ArrayList<>();
 		segId = 1;
 		stack = new Stack<>();
@@ -149,10 +166,7 @@ public class Xml2Xliff {
 		}
 
 		try {
-			if (catalog == null || !catalogFile.equals(currentCatalog)) {
-				catalog = new Catalog(catalogFile);
-				currentCatalog = catalogFile;
-			}
+			catalog = CatalogCache.getCatalog(catalogFile);
 			boolean autoConfiguration = false;
 			String iniFile = getIniFile(xmlfilter, inputFile);
 			if (generic) {
@@ -178,7 +192,7 @@ public class Xml2Xliff {
 			}
 
 			if (!segByElement) {
-				segmenter = new Segmenter(initSegmenter, sourceLanguage, catalog);
+				segmenter = SegmenterCache.getSegmenter(initSegmenter, sourceLanguage, catalog);
 			}
 
 			String detected = getEncoding(inputFile);
@@ -187,8 +201,8 @@ public class Xml2Xliff {
 			}
 
 			try (FileInputStream input = new FileInputStream(inputFile)) {
-				skeleton = new FileOutputStream(skeletonFile);
-				output = new FileOutputStream(xliffFile);
+				skeleton = new Utf8OutputStream(skeletonFile);
+				output = new Utf8OutputStream(xliffFile);
 				writeHeader();
 
 				int size = input.available();
@@ -217,7 +231,7 @@ public class Xml2Xliff {
 					}
 				}
 
-				buildTables(iniFile);
+				buildTables(iniFile, !autoConfiguration);
 
 				if (autoConfiguration) {
 					Files.delete(new File(iniFile).toPath());
@@ -256,14 +270,14 @@ public class Xml2Xliff {
 		return result;
 	}
 
-	private static String getIniFile(String filtersFolder, String fileName)
+	private String getIniFile(String filtersFolder, String fileName)
 			throws SAXException, IOException, ParserConfigurationException {
 		File folder = new File(filtersFolder);
 		SAXBuilder builder = new SAXBuilder();
 		builder.setEntityResolver(catalog);
 		builder.setValidating(false);
 		builder.setErrorHandler(new SilentErrorHandler());
-		Document doc = builder.build(fileName);
+		Document doc = document != null ? document : builder.build(fileName);
 		entities = new HashMap<>();
 
 		Map<String, String> map = doc.getEntities();
@@ -294,10 +308,7 @@ public class Xml2Xliff {
 
 		if (ditaBased) {
 			File base = new File(folder, "config_dita.xml");
-			if (ditaCache == null) {
-				ditaCache = builder.build(base);
-			}
-			List<Element> list = ditaCache.getRootElement().getChildren();
+			List<Element> list = getConfig(base, builder).getRootElement().getChildren();
 			Iterator<Element> it = list.iterator();
 			while (it.hasNext()) {
 				if (rootElement.equals(it.next().getText().trim())) {
@@ -377,7 +388,7 @@ public class Xml2Xliff {
 		return new File(folder, "config_" + rootElement + ".xml").getAbsolutePath();
 	}
 
-	private static String cleanEntity(String string) {
+	private String cleanEntity(String string) {
 		String result = string;
 		int control = result.indexOf('&');
 		while (control != -1) {
@@ -449,7 +460,7 @@ public class Xml2Xliff {
 		return result;
 	}
 
-	private static void writeHeader() throws IOException {
+	private void writeHeader() throws IOException {
 		String tgtLang = "";
 		if (targetLanguage != null) {
 			tgtLang = "\" target-language=\"" + targetLanguage;
@@ -482,7 +493,7 @@ public class Xml2Xliff {
 		writeString("<body>\n");
 	}
 
-	private static void processList() throws IOException, SAXException, ParserConfigurationException {
+	private void processList() throws IOException, SAXException, ParserConfigurationException {
 		for (int i = 0; i < segments.size(); i++) {
 			String txt = segments.get(i);
 			if (txt.startsWith("" + '\u007F' + "" + '\u007F')) {
@@ -526,11 +537,11 @@ public class Xml2Xliff {
 		}
 	}
 
-	private static void writeSegment(String tagged) throws IOException, SAXException, ParserConfigurationException {
+	private void writeSegment(String tagged) throws IOException, SAXException, ParserConfigurationException {
 		String restype = "";
-		if (!containsText(tagged)) {
-			String untagged = removeTags(tagged);
-			writeSkeleton(untagged);
+		Element source = parseSegment(tagged);
+		if (!containsText(source)) {
+			writeSkeleton(extractText(source));
 			return;
 		}
 		if (inCData) {
@@ -539,29 +550,32 @@ public class Xml2Xliff {
 		String seg = "   <trans-unit id=\"" + segId + "\" xml:space=\"preserve\" approved=\"no\" " + restype + ">\n"
 				+ "      <source>" + tagged + "</source>\n   </trans-unit>\n";
 
-		String clean = tidy(seg);
+		String clean = tidy(seg, source);
 		String dirt = startText + "%%%" + segId++ + "%%%\n" + endText;
 		writeString(clean);
 		writeSkeleton(dirt);
 		containsText = true;
 	}
 
-	private static String removeTags(String tagged) throws IOException, SAXException, ParserConfigurationException {
-		String source = "<skeleton>" + tagged + "</skeleton>";
+	private Element parseSegment(String tagged) throws IOException, SAXException, ParserConfigurationException {
+		Element source = FragmentParser.parse("source", tagged);
+		if (source != null) {
+			return source;
+		}
+		// not a plain fragment, let the XML parser handle it or report the error
+		String holder = "<source>" + tagged + "</source>";
 		SAXBuilder b = new SAXBuilder();
-		Document d = null;
 		try {
-			d = b.build(new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8)));
+			Document d = b.build(new ByteArrayInputStream(holder.getBytes(StandardCharsets.UTF_8)));
+			return d.getRootElement();
 		} catch (SAXException sax) {
-			MessageFormat mf = new MessageFormat(Messages.getString("Xml2Xliff.6"));
-			logger.log(Level.ERROR, mf.format(new String[] { source }));
+			MessageFormat mf = new MessageFormat(Messages.getString("Xml2Xliff.9"));
+			logger.log(Level.ERROR, mf.format(new String[] { tagged }));
 			throw sax;
 		}
-		Element r = d.getRootElement();
-		return extractText(r);
 	}
 
-	private static String extractText(Element element) throws SAXException {
+	private String extractText(Element element) throws SAXException {
 		if ("ph".equals(element.getName())) {
 			return Xliff2Xml.fixEntities(element);
 		}
@@ -600,7 +614,7 @@ public class Xml2Xliff {
 		return result.toString();
 	}
 
-	private static String cleanMrk(Element element) throws SAXException {
+	private String cleanMrk(Element element) throws SAXException {
 		String ts = element.getAttributeValue("ts");
 		if (ts.isEmpty()) {
 			throw new SAXException(Messages.getString("Xml2Xliff.8"));
@@ -649,13 +663,9 @@ public class Xml2Xliff {
 		return result;
 	}
 
-	private static String tidy(String seg) throws SAXException, IOException, ParserConfigurationException {
+	private String tidy(String seg, Element s) {
 		startText = "";
 		endText = "";
-		SAXBuilder b = new SAXBuilder();
-		Document d = b.build(new ByteArrayInputStream(seg.getBytes(StandardCharsets.UTF_8)));
-		Element r = d.getRootElement();
-		Element s = r.getChild("source");
 		if (s.getChildren().isEmpty()) {
 			return seg;
 		}
@@ -792,27 +802,20 @@ public class Xml2Xliff {
 			child.setAttribute("id", "" + id);
 		}
 
-		return r.toString();
-	}
-
-	private static boolean containsText(String string) throws IOException, ParserConfigurationException, SAXException {
-		if (string.strip().isEmpty()) {
-			return false;
-		}
-		String source = "<holder>" + string.strip() + "</holder>";
-		SAXBuilder b = new SAXBuilder();
-		Document d = null;
-		try {
-			d = b.build(new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8)));
-		} catch (SAXException sax) {
-			MessageFormat mf = new MessageFormat(Messages.getString("Xml2Xliff.9"));
-			logger.log(Level.ERROR, mf.format(new String[] { string }));
-			throw sax;
+		Element r = new Element("trans-unit");
+		r.setAttribute("id", "" + segId);
+		r.setAttribute("xml:space", "preserve");
+		r.setAttribute("approved", "no");
+		if (inCData) {
+			r.setAttribute("restype", "x-cdata");
 		}
-		return containsText(d.getRootElement());
+		r.addContent("\n      ");
+		r.addContent(s);
+		r.addContent("\n   ");
+		return r.toString();
 	}
 
-	private static boolean containsText(Element e) {
+	private boolean containsText(Element e) {
 		if ("ph".equals(e.getName()) || "bpt".equals(e.getName()) || "ept".equals(e.getName())
 				|| "it".equals(e.getName())) {
 			return false;
@@ -865,7 +868,7 @@ public class Xml2Xliff {
 		return rs;
 	}
 
-	private static String addTags(String string) {
+	private String addTags(String string) {
 		String src = string;
 		StringBuilder result = new StringBuilder();
 		int start = src.indexOf('<');
@@ -916,7 +919,7 @@ public class Xml2Xliff {
 		return result.toString();
 	}
 
-	private static String tag(String element) {
+	private String tag(String element) {
 		String result = "";
 		String type = getType(element);
 		if (translatableAttributes.containsKey(type)) {
@@ -931,7 +934,7 @@ public class Xml2Xliff {
 		return result;
 	}
 
-	private static String cleanString(String string) {
+	private String cleanString(String string) {
 		String s = string;
 		int control = s.indexOf('&');
 		while (control != -1) {
@@ -1031,15 +1034,15 @@ public class Xml2Xliff {
 		return true;
 	}
 
-	private static void writeSkeleton(String string) throws IOException {
-		skeleton.write(string.getBytes(StandardCharsets.UTF_8));
+	private void writeSkeleton(String string) throws IOException {
+		skeleton.write(string);
 	}
 
-	private static void writeString(String string) throws IOException {
-		output.write(string.getBytes(StandardCharsets.UTF_8));
+	private void writeString(String string) throws IOException {
+		output.write(string);
 	}
 
-	private static String extractAttributes(String type, String element) {
+	private String extractAttributes(String type, String element) {
 		String ctype = "";
 		if (ctypes.containsKey(type)) {
 			ctype = " ctype=\"" + ctypes.get(type) + "\"";
@@ -1096,10 +1099,24 @@ public class Xml2Xliff {
 		return result + "</ph>";
 	}
 
-	private static void buildTables(String iniFile) throws SAXException, IOException, ParserConfigurationException {
+	private static Document getConfig(File file, SAXBuilder builder)
+			throws SAXException, IOException, ParserConfigurationException {
+		// filter configurations are only read after parsing, share them between jobs
+		String key = file.getCanonicalPath();
+		long modified = file.lastModified();
+		CachedConfig cached = configCache.get(key);
+		if (cached == null || cached.modified != modified) {
+			cached = new CachedConfig(builder.build(file), modified);
+			configCache.put(key, cached);
+		}
+		return cached.document;
+	}
+
+	private void buildTables(String iniFile, boolean cache)
+			throws SAXException, IOException, ParserConfigurationException {
 		SAXBuilder builder = new SAXBuilder();
 		builder.setEntityResolver(catalog);
-		Document doc = builder.build(iniFile);
+		Document doc = cache ? getConfig(new File(iniFile), builder) : builder.build(iniFile);
 		Element rt = doc.getRootElement();
 		List<Element> tags = rt.getChildren("tag");
 
@@ -1142,14 +1159,14 @@ public class Xml2Xliff {
 		}
 	}
 
-	private static void buildList() throws SAXException, IOException {
+	private void buildList() throws SAXException, IOException {
 		segments = new ArrayList<>();
 		text = "";
 		parseNode(root);
 		segments.add(text);
 	}
 
-	private static void parseNode(XMLNode n) throws SAXException, IOException {
+	private void parseNode(XMLNode n) throws SAXException, IOException {
 		switch (n.getNodeType()) {
 			case XMLNode.ATTRIBUTE_NODE:
 				throw new SAXException(Messages.getString("Xml2Xliff.10") + n);
@@ -1355,7 +1372,7 @@ public class Xml2Xliff {
 		}
 	}
 
-	private static Element parseElement(Element e) {
+	private Element parseElement(Element e) {
 		if (!isKnownElement(e.getName())) {
 			configureElement(e);
 		}
@@ -1389,7 +1406,7 @@ public class Xml2Xliff {
 		return mrk;
 	}
 
-	private static void configureElement(Element e) {
+	private void configureElement(Element e) {
 		String cls = e.getAttributeValue("class");
 		String[] parts = cls.split("\\s");
 		for (int h = 0; h < parts.length; h++) {
@@ -1424,7 +1441,7 @@ public class Xml2Xliff {
 		logger.log(Level.WARNING, mf.format(new String[] { e.getName() }));
 	}
 
-	private static boolean isKnownElement(String name) {
+	private boolean isKnownElement(String name) {
 		if (startsSegment.containsKey(name)) {
 			return true;
 		}
@@ -1450,7 +1467,7 @@ public class Xml2Xliff {
 		e.setContent(content);
 	}
 
-	private static void normalizeElement(Element e) {
+	private void normalizeElement(Element e) {
 		List<XMLNode> l = e.getContent();
 		Iterator<XMLNode> i = l.iterator();
 		List<XMLNode> normal = new ArrayList<>();
@@ -1473,7 +1490,7 @@ public class Xml2Xliff {
 		e.setContent(normal);
 	}
 
-	private static String cleanAttribute(String value) {
+	private String cleanAttribute(String value) {
 		String result = value;
 		if (stack.size() > 1 && !text.startsWith("" + '\u007F' + '\u007F')) {
 			// this is an inline element and will be placed in <ph>
@@ -1557,4 +1574,15 @@ public class Xml2Xliff {
 		}
 		return result;
 	}
+
+	private static class CachedConfig {
+
+		Document document;
+		long modified;
+
+		CachedConfig(Document document, long modified) {
+			this.document = document;
+			this.modified = modified;
+		}
+	}
 }
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.converters.xml;
+
+import java.util.List;
+import java.util.Map;
+
+import com.maxprograms.converters.Converter;
+import com.maxprograms.converters.FileFormats;
+
+public class XmlConverter implements Converter {
+
+	private String format;
+
+	public XmlConverter(String format) {
+		this.format = format;
+	}
+
+	@Override
+	public List<String> convert(Map<String, String> params) {
+		if (FileFormats.INX.equals(format)) {
+			params.put("InDesign", "yes");
+		} else if (FileFormats.XMLG.equals(format)) {
+			params.put("generic", "yes");
+		}
+		return Xml2Xliff.run(params);
+	}
+
+	@Override
+	public List<String> merge(Map<String, String> params) {
+		if (FileFormats.INX.equals(format)) {
+			params.put("InDesign", "yes");
+		}
+		return Xliff2Xml.run(params);
+	}
+}
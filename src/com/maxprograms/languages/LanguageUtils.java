@@ -38,7 +38,7 @@ public class LanguageUtils {
 		// do not instantiate
 	}
 
-	public static List<Language> getAllLanguages() throws SAXException, IOException, ParserConfigurationException {
+	public static synchronized List<Language> getAllLanguages() throws SAXException, IOException, ParserConfigurationException {
 		if (extendedLanguages == null) {
 			extendedLanguages = new Vector<>();
 			bidiCodes = new TreeSet<>();
@@ -65,7 +65,7 @@ public class LanguageUtils {
 		return extendedLanguages;
 	}
 
-	public static List<Language> getCommonLanguages() throws SAXException, IOException, ParserConfigurationException {
+	public static synchronized List<Language> getCommonLanguages() throws SAXException, IOException, ParserConfigurationException {
 		if (languages == null) {
 			languages = new Vector<>();
 			SAXBuilder builder = new SAXBuilder();
@@ -88,9 +88,9 @@ public class LanguageUtils {
 		return languages;
 	}
 
-	public static Language getLanguage(String code) throws IOException {
+	public static synchronized Language getLanguage(String code) throws IOException {
 		if (registry == null) {
-			registry = new RegistryParser(LanguageUtils.class.getResource("language-subtag-registry.txt"));
+			registry = RegistryParser.getInstance();
 		}
 		String description = registry.getTagDescription(code);
 		if (description != null) {
@@ -112,14 +112,21 @@ public class LanguageUtils {
 		return null;
 	}
 
-	public static String normalizeCode(String code) throws IOException {
+	public static synchronized String normalizeCode(String code) throws IOException {
 		if (registry == null) {
-			registry = new RegistryParser(LanguageUtils.class.getResource("language-subtag-registry.txt"));
+			registry = RegistryParser.getInstance();
 		}
 		return registry.normalizeCode(code);
 	}
 
-	public static boolean isBiDi(String code) throws SAXException, IOException, ParserConfigurationException {
+	public static synchronized String getSuppressedScript(String language) throws IOException {
+		if (registry == null) {
+			registry = RegistryParser.getInstance();
+		}
+		return registry.getSuppressedScript(language);
+	}
+
+	public static synchronized boolean isBiDi(String code) throws SAXException, IOException, ParserConfigurationException {
 		if (bidiCodes == null) {
 			getAllLanguages();
 		}
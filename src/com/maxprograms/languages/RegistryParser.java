@@ -26,6 +26,8 @@ import java.util.Set;
 
 public class RegistryParser {
 
+	private static RegistryParser instance;
+
 	private List<RegistryEntry> entries;
 	private Map<String, Language> languages;
 	private Map<String, Region> regions;
@@ -143,6 +145,26 @@ public class RegistryParser {
 		parseRegistry(url);
 	}
 
+	/**
+	 * Returns a shared parser for the bundled registry. The parser is not modified
+	 * after construction, so the same instance can be used by several threads.
+	 */
+	public static synchronized RegistryParser getInstance() throws IOException {
+		if (instance == null) {
+			instance = new RegistryParser();
+		}
+		return instance;
+	}
+
+	/**
+	 * Returns the value of the Suppress-Script field of a primary language
+	 * subtag, or an empty string when the language has none.
+	 */
+	public String getSuppressedScript(String language) {
+		Language lang = languages.get(language.toLowerCase());
+		return lang != null ? lang.getSuppresedScript() : "";
+	}
+
 	public String getTagDescription(String tag) {
 		String[] parts = tag.split("-");
 		if (parts.length == 1) {
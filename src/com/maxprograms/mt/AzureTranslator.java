@@ -19,6 +19,7 @@ import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import com.maxprograms.languages.Language;
@@ -98,12 +99,22 @@ public class AzureTranslator implements MTEngine {
 
     @Override
     public String translate(String source) throws IOException {
+        List<String> sources = new ArrayList<>();
+        sources.add(source);
+        return translate(sources).get(0);
+    }
+
+    @Override
+    public List<String> translate(List<String> sources) throws IOException {
         URL url = new URL(BASEURL + "&from=" + srcLang + "&to=" + tgtLang + "&textType=plain");
 
         JSONArray array = new JSONArray();
-        JSONObject object = new JSONObject();
-        object.put("Text", source);
-        array.put(object);
+        Iterator<String> it = sources.iterator();
+        while (it.hasNext()) {
+            JSONObject object = new JSONObject();
+            object.put("Text", it.next());
+            array.put(object);
+        }
 
         byte[] bytesOut = array.toString().getBytes(StandardCharsets.UTF_8);
 
@@ -119,15 +130,29 @@ public class AzureTranslator implements MTEngine {
             cout.write(bytesOut);
             cout.flush();
         }
-        byte[] bytes = new byte[10240];
         String result = null;
         try (InputStream in = conn.getInputStream()) {
-            int read = in.read(bytes);
-            result = new String(bytes, 0, read, StandardCharsets.UTF_8);
+            result = new String(in.readAllBytes(), StandardCharsets.UTF_8);
         }
         conn.disconnect();
         JSONArray json = new JSONArray(result);
-        return json.getJSONObject(0).getJSONArray("translations").getJSONObject(0).getString("text");
+        List<String> translations = new ArrayList<>();
+        for (int i = 0; i < json.length(); i++) {
+            translations.add(json.getJSONObject(i).getJSONArray("translations").getJSONObject(0).getString("text"));
+        }
+        return translations;
+    }
+
+    @Override
+    public int getBatchSize() {
+        // the translate method accepts up to 100 texts per request
+        return 100;
+    }
+
+    @Override
+    public int getBatchLength() {
+        // and up to 50,000 characters in total
+        return 50000;
     }
 
     @Override
@@ -22,6 +22,7 @@ import java.net.http.HttpResponse.BodyHandlers;
 import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import com.maxprograms.languages.Language;
@@ -108,24 +109,76 @@ public class DeepLTranslator implements MTEngine {
 			}
 			throw new IOException(Messages.getString("DeepLTranslator.2"));
 		}
-		switch (response.statusCode()) {
+		throw getError(response.statusCode());
+	}
+
+	@Override
+	public List<String> translate(List<String> sources) throws IOException, InterruptedException {
+		StringBuilder form = new StringBuilder();
+		form.append("auth_key=");
+		form.append(URLEncoder.encode(apiKey, StandardCharsets.UTF_8));
+		form.append("&source_lang=");
+		form.append(srcLang.toUpperCase());
+		form.append("&target_lang=");
+		form.append(tgtLang.toUpperCase());
+		Iterator<String> it = sources.iterator();
+		while (it.hasNext()) {
+			form.append("&text=");
+			form.append(URLEncoder.encode(it.next(), StandardCharsets.UTF_8));
+		}
+		HttpClient httpclient = HttpClient.newBuilder().build();
+		HttpRequest request = HttpRequest.newBuilder().uri(URI.create("https://api.deepl.com/v1/translate"))
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(form.toString())).build();
+		HttpResponse<String> response = httpclient.send(request, BodyHandlers.ofString());
+
+		if (response.statusCode() == 200) {
+			String body = response.body();
+			if (body != null) {
+				JSONObject json = new JSONObject(body);
+				JSONArray array = json.getJSONArray("translations");
+				List<String> result = new ArrayList<>();
+				for (int i = 0; i < array.length(); i++) {
+					result.add(array.getJSONObject(i).getString("text"));
+				}
+				return result;
+			}
+			throw new IOException(Messages.getString("DeepLTranslator.2"));
+		}
+		throw getError(response.statusCode());
+	}
+
+	@Override
+	public int getBatchSize() {
+		// DeepL accepts up to 50 texts per request
+		return 50;
+	}
+
+	@Override
+	public int getBatchLength() {
+		// total request size is limited to 128 KiB
+		return 30000;
+	}
+
+	private static IOException getError(int statusCode) {
+		switch (statusCode) {
 			case 400:
-				throw new IOException(Messages.getString("DeepLTranslator.3"));
+				return new IOException(Messages.getString("DeepLTranslator.3"));
 			case 403:
-				throw new IOException(Messages.getString("DeepLTranslator.4"));
+				return new IOException(Messages.getString("DeepLTranslator.4"));
 			case 404:
-				throw new IOException(Messages.getString("DeepLTranslator.5"));
+				return new IOException(Messages.getString("DeepLTranslator.5"));
 			case 413:
-				throw new IOException(Messages.getString("DeepLTranslator.6"));
+				return new IOException(Messages.getString("DeepLTranslator.6"));
 			case 429:
-				throw new IOException(Messages.getString("DeepLTranslator.7"));
+				return new IOException(Messages.getString("DeepLTranslator.7"));
 			case 456:
-				throw new IOException(Messages.getString("DeepLTranslator.8"));
+				return new IOException(Messages.getString("DeepLTranslator.8"));
 			case 503:
-				throw new IOException(Messages.getString("DeepLTranslator.9"));
+				return new IOException(Messages.getString("DeepLTranslator.9"));
 			default:
 				MessageFormat mf = new MessageFormat(Messages.getString("DeepLTranslator.10"));
-				throw new IOException(mf.format(new String[] { "" + response.statusCode() }));
+				return new IOException(mf.format(new String[] { "" + statusCode }));
 		}
 	}
 
@@ -22,6 +22,7 @@ import java.net.http.HttpResponse.BodyHandlers;
 import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -128,6 +129,58 @@ public class GoogleTranslator implements MTEngine {
         throw new IOException(mf.format(new String[] { "" + response.statusCode() }));
     }
 
+    @Override
+    public List<String> translate(List<String> sources) throws IOException, InterruptedException {
+        StringBuilder form = new StringBuilder();
+        form.append("key=");
+        form.append(URLEncoder.encode(apiKey, StandardCharsets.UTF_8));
+        form.append("&source=");
+        form.append(srcLang);
+        form.append("&target=");
+        form.append(tgtLang);
+        form.append("&model=");
+        form.append(neural ? "nmt" : "base");
+        Iterator<String> it = sources.iterator();
+        while (it.hasNext()) {
+            form.append("&q=");
+            form.append(URLEncoder.encode(it.next(), StandardCharsets.UTF_8));
+        }
+        HttpClient httpclient = HttpClient.newBuilder().build();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("https://www.googleapis.com/language/translate/v2"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form.toString())).build();
+        HttpResponse<String> response = httpclient.send(request, BodyHandlers.ofString());
+
+        if (response.statusCode() == 200) {
+            String body = response.body();
+            if (body != null) {
+                JSONObject json = new JSONObject(body);
+                JSONObject data = json.getJSONObject("data");
+                JSONArray array = data.getJSONArray("translations");
+                List<String> result = new ArrayList<>();
+                for (int i = 0; i < array.length(); i++) {
+                    result.add(removeEntities(array.getJSONObject(i).getString("translatedText")));
+                }
+                return result;
+            }
+            throw new IOException(Messages.getString("GoogleTranslator.2"));
+        }
+        MessageFormat mf = new MessageFormat(Messages.getString("GoogleTranslator.3"));
+        throw new IOException(mf.format(new String[] { "" + response.statusCode() }));
+    }
+
+    @Override
+    public int getBatchSize() {
+        // Translation API v2 accepts up to 128 texts per request
+        return 128;
+    }
+
+    @Override
+    public int getBatchLength() {
+        return 30000;
+    }
+
     private static String removeEntities(String string) {
         String result = string;
         Pattern p = Pattern.compile("\\&\\#[\\d]+\\;");
@@ -13,6 +13,8 @@
 package com.maxprograms.mt;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import javax.xml.parsers.ParserConfigurationException;
@@ -40,4 +42,40 @@ public interface MTEngine {
     public String getTargetLanguage();
 
     public String translate(String source) throws IOException, InterruptedException;
+
+    /**
+     * Translates a batch of texts and returns the translations in the same order.
+     * Engines whose API accepts several texts per request should override this
+     * method and {@link #getBatchSize()}; the default sends one request per text.
+     */
+    public default List<String> translate(List<String> sources) throws IOException, InterruptedException {
+        List<String> result = new ArrayList<>();
+        Iterator<String> it = sources.iterator();
+        while (it.hasNext()) {
+            result.add(translate(it.next()));
+        }
+        return result;
+    }
+
+    /**
+     * Maximum number of texts sent in a single call to {@link #translate(List)}.
+     */
+    public default int getBatchSize() {
+        return 1;
+    }
+
+    /**
+     * Maximum number of characters sent in a single call to
+     * {@link #translate(List)}. A text longer than this is sent alone.
+     */
+    public default int getBatchLength() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Maximum number of requests sent to the engine at the same time.
+     */
+    public default int getMaxConcurrency() {
+        return 4;
+    }
 }
\ No newline at end of file
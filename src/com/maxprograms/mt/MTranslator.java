@@ -14,9 +14,14 @@ package com.maxprograms.mt;
 
 import java.io.IOException;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Vector;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.maxprograms.converters.Constants;
 import com.maxprograms.xml.Element;
@@ -104,6 +109,131 @@ public class MTranslator {
         }
     }
 
+    /**
+     * Adds translations from all engines to a list of &lt;trans-unit&gt; elements.
+     * Sources are sent to each engine in batches of the size it accepts, all
+     * engines work at the same time and each one has at most
+     * {@link MTEngine#getMaxConcurrency()} requests in progress. Translations are
+     * added in the same order as {@link #translate(Element)} adds them, and only
+     * after every engine has translated every segment.
+     */
+    public void translate(List<Element> segments) throws IOException, InterruptedException {
+        if (engines.isEmpty()) {
+            return;
+        }
+        List<Element> units = new ArrayList<>();
+        List<String> sources = new ArrayList<>();
+        Iterator<Element> st = segments.iterator();
+        while (st.hasNext()) {
+            Element segment = st.next();
+            String source = extractSource(segment);
+            if (!source.isEmpty()) {
+                units.add(segment);
+                sources.add(source);
+            }
+        }
+        if (sources.isEmpty()) {
+            return;
+        }
+        List<MTEngine> list = new ArrayList<>(engines);
+        List<ExecutorService> executors = new ArrayList<>();
+        List<List<String>> translations = new ArrayList<>();
+        try {
+            List<List<Future<List<String>>>> results = new ArrayList<>();
+            for (int i = 0; i < list.size(); i++) {
+                MTEngine engine = list.get(i);
+                List<List<String>> batches = getBatches(engine, sources);
+                ExecutorService executor = Executors
+                        .newFixedThreadPool(Math.max(1, Math.min(engine.getMaxConcurrency(), batches.size())));
+                executors.add(executor);
+                List<Future<List<String>>> futures = new ArrayList<>();
+                for (int j = 0; j < batches.size(); j++) {
+                    List<String> batch = batches.get(j);
+                    futures.add(executor.submit(() -> engine.translate(batch)));
+                }
+                results.add(futures);
+            }
+            for (int i = 0; i < list.size(); i++) {
+                List<String> targets = new ArrayList<>();
+                Iterator<Future<List<String>>> ft = results.get(i).iterator();
+                while (ft.hasNext()) {
+                    List<String> batch = getResult(ft.next());
+                    if (batch != null) {
+                        targets.addAll(batch);
+                    }
+                }
+                if (targets.size() != sources.size()) {
+                    MessageFormat mf = new MessageFormat(Messages.getString("MTranslator.1"));
+                    throw new IOException(mf.format(new String[] { list.get(i).getName() }));
+                }
+                translations.add(targets);
+            }
+        } finally {
+            Iterator<ExecutorService> et = executors.iterator();
+            while (et.hasNext()) {
+                et.next().shutdownNow();
+            }
+        }
+        for (int i = 0; i < list.size(); i++) {
+            Iterator<String> tt = translations.get(i).iterator();
+            while (tt.hasNext()) {
+                String target = tt.next();
+                if (target == null || target.isEmpty()) {
+                    MessageFormat mf = new MessageFormat(Messages.getString("MTranslator.1"));
+                    throw new IOException(mf.format(new String[] { list.get(i).getName() }));
+                }
+            }
+        }
+        for (int j = 0; j < units.size(); j++) {
+            for (int i = 0; i < list.size(); i++) {
+                MTEngine engine = list.get(i);
+                addTranslation(units.get(j), sources.get(j), translations.get(i).get(j), engine.getSourceLanguage(),
+                        engine.getTargetLanguage(), engine.getName());
+            }
+        }
+    }
+
+    private static List<List<String>> getBatches(MTEngine engine, List<String> sources) {
+        int size = Math.max(1, engine.getBatchSize());
+        int length = engine.getBatchLength();
+        List<List<String>> batches = new ArrayList<>();
+        List<String> batch = new ArrayList<>();
+        int count = 0;
+        Iterator<String> it = sources.iterator();
+        while (it.hasNext()) {
+            String source = it.next();
+            if (!batch.isEmpty() && (batch.size() == size || count + source.length() > length)) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                count = 0;
+            }
+            batch.add(source);
+            count += source.length();
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    private static List<String> getResult(Future<List<String>> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioe) {
+                throw ioe;
+            }
+            if (cause instanceof InterruptedException ie) {
+                throw ie;
+            }
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IOException(cause);
+        }
+    }
+
     private static String extractSource(Element segment) throws IOException {
         if ("trans-unit".equals(segment.getName())) {
             return unclean(pureText(segment.getChild("source")));
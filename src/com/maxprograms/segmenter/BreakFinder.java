@@ -0,0 +1,328 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.segmenter;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+class BreakFinder {
+
+	private CompiledRules rules;
+	private char firstTag;
+	private boolean[] tagChars;
+	private EndScanner[] scanners;
+	private Matcher[] afterMatchers;
+	private int[] afterStamps;
+	private boolean[] afterResults;
+	private int stamp;
+	private boolean incremental;
+
+	public BreakFinder(CompiledRules rules, Set<String> tagKeys) {
+		this.rules = rules;
+		scanners = new EndScanner[rules.beforeCount()];
+		afterMatchers = new Matcher[rules.afterCount()];
+		afterStamps = new int[rules.afterCount()];
+		afterResults = new boolean[rules.afterCount()];
+		char min = Character.MAX_VALUE;
+		char max = Character.MIN_VALUE;
+		Iterator<String> it = tagKeys.iterator();
+		while (it.hasNext()) {
+			char c = it.next().charAt(0);
+			min = c < min ? c : min;
+			max = c > max ? c : max;
+		}
+		firstTag = min;
+		tagChars = new boolean[min <= max ? max - min + 1 : 0];
+		it = tagKeys.iterator();
+		while (it.hasNext()) {
+			tagChars[it.next().charAt(0) - min] = true;
+		}
+	}
+
+	public List<String> split(String pureText) {
+		if (hasRepeatedTags(pureText)) {
+			// same tag character more than once, keep the exact behavior of hiding only
+			// its first occurrence on each side of the break
+			return splitText(pureText);
+		}
+		int length = pureText.length();
+		int[] offsets = new int[length + 1];
+		StringBuilder builder = new StringBuilder(length);
+		boolean surrogates = false;
+		for (int i = 0; i < length; i++) {
+			offsets[i] = builder.length();
+			char c = pureText.charAt(i);
+			if (!isTag(c)) {
+				builder.append(c);
+				surrogates = surrogates || Character.isSurrogate(c);
+			}
+		}
+		offsets[length] = builder.length();
+		String hidden = builder.toString();
+		incremental = !surrogates;
+		resetScanners();
+		List<String> parts = new ArrayList<>();
+		int start = 0;
+		int hiddenStart = 0;
+		int lastChecked = 0;
+		for (int pos = 1; pos < length; pos++) {
+			int hiddenPos = offsets[pos];
+			if (hiddenPos == hiddenStart || hiddenPos == lastChecked) {
+				// empty left side or same text on both sides as the previous position
+				continue;
+			}
+			lastChecked = hiddenPos;
+			if (breaksAt(CharBuffer.wrap(hidden, hiddenStart, hiddenPos), hidden, hiddenPos)) {
+				parts.add(pureText.substring(start, pos));
+				start = pos;
+				hiddenStart = hiddenPos;
+				resetScanners();
+			}
+		}
+		parts.add(pureText.substring(start));
+		return parts;
+	}
+
+	private List<String> splitText(String pureText) {
+		incremental = false;
+		List<String> parts = new ArrayList<>();
+		String text = pureText;
+		for (int pos = 0; pos < text.length(); pos++) {
+			String left = hideTags(text.substring(0, pos));
+			if (left.isEmpty()) {
+				continue;
+			}
+			if (breaksAt(left, hideTags(text.substring(pos)), 0)) {
+				parts.add(text.substring(0, pos));
+				text = text.substring(pos);
+				pos = 0;
+			}
+		}
+		parts.add(text);
+		return parts;
+	}
+
+	private boolean breaksAt(CharSequence left, CharSequence right, int rightStart) {
+		stamp++;
+		for (int i = 0; i < rules.size(); i++) {
+			int before = rules.before(i);
+			int after = rules.after(i);
+			boolean matches;
+			if (before != -1 && after != -1) {
+				matches = startsWith(after, right, rightStart) && endsWith(before, left);
+			} else if (before != -1) {
+				matches = endsWith(before, left);
+			} else {
+				matches = startsWith(after, right, rightStart);
+			}
+			if (matches) {
+				return rules.breaks(i);
+			}
+		}
+		return false;
+	}
+
+	private boolean startsWith(int index, CharSequence text, int start) {
+		if (afterStamps[index] != stamp) {
+			Matcher matcher = afterMatchers[index];
+			if (matcher == null) {
+				matcher = rules.getAfterPattern(index).matcher(text);
+				afterMatchers[index] = matcher;
+			} else {
+				matcher.reset(text);
+			}
+			matcher.region(start, text.length());
+			afterResults[index] = matcher.lookingAt();
+			afterStamps[index] = stamp;
+		}
+		return afterResults[index];
+	}
+
+	private boolean endsWith(int index, CharSequence left) {
+		EndScanner scanner = scanners[index];
+		if (scanner == null) {
+			scanner = new EndScanner(rules.getBeforePattern(index));
+			scanners[index] = scanner;
+		}
+		return scanner.endsWith(left, incremental);
+	}
+
+	private void resetScanners() {
+		for (int i = 0; i < scanners.length; i++) {
+			if (scanners[i] != null) {
+				scanners[i].reset();
+			}
+		}
+	}
+
+	private boolean isTag(char c) {
+		int i = c - firstTag;
+		return i >= 0 && i < tagChars.length && tagChars[i];
+	}
+
+	private boolean hasRepeatedTags(String text) {
+		boolean[] seen = new boolean[tagChars.length];
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (isTag(c)) {
+				if (seen[c - firstTag]) {
+					return true;
+				}
+				seen[c - firstTag] = true;
+			}
+		}
+		return false;
+	}
+
+	private String hideTags(String string) {
+		boolean[] hidden = new boolean[tagChars.length];
+		StringBuilder result = new StringBuilder(string.length());
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			if (isTag(c) && !hidden[c - firstTag]) {
+				hidden[c - firstTag] = true;
+				continue;
+			}
+			result.append(c);
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Checks whether the text at the left of a candidate break ends with a
+	 * &lt;beforebreak&gt; pattern, using the same criteria as splitting the text
+	 * with the pattern and looking at the last piece. Match attempts that did not
+	 * reach the end of the text are kept between calls, so checking successive
+	 * positions of a paragraph scans it only once.
+	 */
+	private static class EndScanner {
+
+		private Matcher matcher;
+		private boolean resumable;
+		private int next;
+		private int index;
+		private int partStart;
+		private int partEnd;
+
+		public EndScanner(Pattern pattern) {
+			matcher = pattern.matcher("");
+			resumable = pattern.pattern().indexOf("\\G") == -1;
+			reset();
+		}
+
+		public void reset() {
+			next = 0;
+			index = 0;
+			partStart = -1;
+			partEnd = -1;
+		}
+
+		public boolean endsWith(CharSequence text, boolean incremental) {
+			int length = text.length();
+			int splitIndex = 0;
+			int start = -1;
+			int end = -1;
+			matcher.reset(text);
+			if (incremental && resumable) {
+				splitIndex = index;
+				start = partStart;
+				end = partEnd;
+				matcher.useTransparentBounds(true);
+				matcher.useAnchoringBounds(false);
+				boolean stable = true;
+				int i = next;
+				while (i <= length) {
+					matcher.region(i, length);
+					boolean found = matcher.lookingAt();
+					stable = stable && !matcher.hitEnd();
+					if (found) {
+						int matchEnd = matcher.end();
+						if (splitIndex != 0 || i != 0 || matchEnd != 0) {
+							if (i > splitIndex) {
+								start = splitIndex;
+								end = i;
+							}
+							splitIndex = matchEnd;
+						}
+						i = matchEnd == i ? matchEnd + 1 : matchEnd;
+					} else {
+						i++;
+					}
+					if (stable) {
+						next = i;
+						index = splitIndex;
+						partStart = start;
+						partEnd = end;
+					}
+				}
+				matcher.useTransparentBounds(false);
+				matcher.useAnchoringBounds(true);
+			} else {
+				while (matcher.find()) {
+					if (splitIndex != 0 || matcher.start() != 0 || matcher.end() != 0) {
+						if (matcher.start() > splitIndex) {
+							start = splitIndex;
+							end = matcher.start();
+						}
+						splitIndex = matcher.end();
+					}
+				}
+			}
+			if (splitIndex == 0) {
+				// nothing to split, the whole text is the only piece
+				return lookingAt(0, length);
+			}
+			if (length > splitIndex) {
+				start = splitIndex;
+				end = length;
+			}
+			if (start == -1) {
+				// all pieces are empty
+				matcher.region(0, length);
+				return matcher.matches();
+			}
+			int partLength = end - start;
+			if (end == length || regionMatches(text, length - partLength, start, partLength)) {
+				return lookingAt(length - partLength, length);
+			}
+			return lookingAt(lastIndexOf(text, start, partLength) + partLength, length);
+		}
+
+		private boolean lookingAt(int from, int to) {
+			matcher.region(from, to);
+			return matcher.lookingAt();
+		}
+
+		private static boolean regionMatches(CharSequence text, int offset, int start, int length) {
+			for (int i = 0; i < length; i++) {
+				if (text.charAt(offset + i) != text.charAt(start + i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static int lastIndexOf(CharSequence text, int start, int length) {
+			for (int i = text.length() - length; i > start; i--) {
+				if (regionMatches(text, i, start, length)) {
+					return i;
+				}
+			}
+			return start;
+		}
+	}
+}
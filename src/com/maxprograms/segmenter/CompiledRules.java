@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.segmenter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.maxprograms.xml.Element;
+
+class CompiledRules {
+
+	private boolean[] breaks;
+	private int[] before;
+	private int[] after;
+	private Pattern[] beforePatterns;
+	private Pattern[] afterPatterns;
+
+	public CompiledRules(List<Element> rules) {
+		int size = rules.size();
+		breaks = new boolean[size];
+		before = new int[size];
+		after = new int[size];
+		List<Pattern> beforeList = new ArrayList<>();
+		List<Pattern> afterList = new ArrayList<>();
+		Map<String, Integer> beforeIndex = new HashMap<>();
+		Map<String, Integer> afterIndex = new HashMap<>();
+		for (int i = 0; i < size; i++) {
+			Element rule = rules.get(i);
+			breaks[i] = rule.getAttributeValue("break", "yes").equals("yes");
+			Element beforebreak = rule.getChild("beforebreak");
+			Element afterbreak = rule.getChild("afterbreak");
+			String beforexp = "";
+			if (beforebreak != null) {
+				beforexp = beforebreak.getText();
+			}
+			String afterxp = "";
+			if (afterbreak != null) {
+				afterxp = afterbreak.getText();
+			}
+			before[i] = -1;
+			after[i] = -1;
+			if (!beforexp.isEmpty()) {
+				before[i] = index(beforexp, beforeIndex, beforeList);
+			}
+			if (!afterxp.isEmpty() || beforexp.isEmpty()) {
+				// a rule without <beforebreak> is always checked against the right side,
+				// even when <afterbreak> is also empty
+				after[i] = index(afterxp, afterIndex, afterList);
+			}
+		}
+		beforePatterns = beforeList.toArray(new Pattern[beforeList.size()]);
+		afterPatterns = afterList.toArray(new Pattern[afterList.size()]);
+	}
+
+	private static int index(String regex, Map<String, Integer> indexes, List<Pattern> patterns) {
+		Integer index = indexes.get(regex);
+		if (index == null) {
+			index = patterns.size();
+			patterns.add(Pattern.compile(regex));
+			indexes.put(regex, index);
+		}
+		return index;
+	}
+
+	public int size() {
+		return breaks.length;
+	}
+
+	public boolean breaks(int rule) {
+		return breaks[rule];
+	}
+
+	public int before(int rule) {
+		return before[rule];
+	}
+
+	public int after(int rule) {
+		return after[rule];
+	}
+
+	public Pattern getBeforePattern(int index) {
+		return beforePatterns[index];
+	}
+
+	public Pattern getAfterPattern(int index) {
+		return afterPatterns[index];
+	}
+
+	public int beforeCount() {
+		return beforePatterns.length;
+	}
+
+	public int afterCount() {
+		return afterPatterns.length;
+	}
+}
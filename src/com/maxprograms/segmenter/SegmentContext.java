@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.segmenter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.maxprograms.xml.Element;
+import com.maxprograms.xml.TextNode;
+import com.maxprograms.xml.XMLNode;
+import com.maxprograms.xml.XMLUtils;
+
+class SegmentContext {
+
+	private Map<String, String> tags;
+	private Map<Character, Element> elements;
+	private int tagId;
+
+	public SegmentContext() {
+		tags = new HashMap<>();
+		elements = new HashMap<>();
+		tagId = 0;
+	}
+
+	public Set<String> getTagKeys() {
+		return tags.keySet();
+	}
+
+	public String prepareString(String raw) {
+		String string = raw;
+		int k = 0;
+
+		int start = string.indexOf(Segmenter.STARTIGNORE);
+		int end = string.indexOf(Segmenter.ENDIGNORE);
+
+		while (start != -1 && end != -1) {
+			if (start > end) {
+				break;
+			}
+			String tag = string.substring(start + Segmenter.STARTIGNORE.length(), end);
+			string = string.substring(0, start) + (char) ('\uE000' + k) + string.substring(end + Segmenter.ENDIGNORE.length());
+			tags.put("" + (char) ('\uE000' + k), tag);
+			k++;
+			start = string.indexOf(Segmenter.STARTIGNORE);
+			end = string.indexOf(Segmenter.ENDIGNORE);
+		}
+
+		start = string.indexOf("<mrk ");
+		end = string.indexOf("</mrk>");
+		// check nested <mrk>
+		int e = string.indexOf("<mrk ", string.indexOf('>', start));
+		while (e != -1 && e < end) {
+			end = string.indexOf("</mrk>", end + 1);
+			e = string.indexOf("<mrk ", string.indexOf('>', e + 1));
+		}
+
+		while (start != -1 && end != -1) {
+			if (start > end) {
+				break;
+			}
+			String tag = string.substring(start, end + 6);
+			string = string.substring(0, start) + (char) ('\uE000' + k) + string.substring(end + 6);
+			tags.put("" + (char) ('\uE000' + k), tag);
+			k++;
+			start = string.indexOf("<mrk ");
+			end = string.indexOf("</mrk>");
+		}
+
+		start = string.indexOf("<ph");
+		end = string.indexOf("</ph>");
+
+		while (start != -1 && end != -1) {
+			if (start > end) {
+				break;
+			}
+			String tag = string.substring(start, end + 5);
+			string = string.substring(0, start) + (char) ('\uE000' + k) + string.substring(end + 5);
+			tags.put("" + (char) ('\uE000' + k), tag);
+			k++;
+			start = string.indexOf("<ph");
+			end = string.indexOf("</ph>");
+		}
+
+		StringBuffer buffer = new StringBuffer();
+		StringBuffer element = new StringBuffer();
+		int length = string.length();
+		boolean inElement = false;
+		for (int i = 0; i < length; i++) {
+			char c = string.charAt(i);
+			if (c == '<' && string.indexOf('>', i) != -1) {
+				inElement = true;
+				int a = string.indexOf('<', i + 1);
+				int b = string.indexOf('>', i + 1);
+				if (a != -1 && a < b) {
+					inElement = false;
+				}
+				if (i < length - 1 && !Character.isLetter(string.charAt(i + 1)) && string.charAt(i + 1) != '/') {
+					inElement = false;
+				}
+			}
+			if (inElement) {
+				element.append(c);
+			} else {
+				buffer.append(c);
+			}
+			if (c == '>' && inElement) {
+				inElement = false;
+				tags.put("" + (char) ('\uE000' + k), element.toString());
+				buffer.append((char) ('\uE000' + k));
+				element = new StringBuffer();
+				k++;
+			}
+		}
+		return buffer.toString();
+	}
+
+	public String cleanup(String string) {
+		String result = string;
+		Set<String> keys = tags.keySet();
+		Iterator<String> it = keys.iterator();
+		while (it.hasNext()) {
+			String key = it.next();
+			int index = result.indexOf(key);
+			if (index != -1) {
+				result = result.substring(0, index) + tags.get(key) + result.substring(index + 1);
+			}
+		}
+		return result;
+	}
+
+	public String pureText(Element e) {
+		StringBuilder result = new StringBuilder();
+		List<XMLNode> nodes = e.getContent();
+		Iterator<XMLNode> it = nodes.iterator();
+		while (it.hasNext()) {
+			XMLNode n = it.next();
+			if (n.getNodeType() == XMLNode.TEXT_NODE) {
+				result.append(((TextNode) n).getText());
+			}
+			if (n.getNodeType() == XMLNode.ELEMENT_NODE) {
+				Element tag = (Element) n;
+				tags.put("" + (char) ('\uE000' + tagId), tag.toString());
+				elements.put((char) ('\uE000' + tagId), tag);
+				result.append((char) ('\uE000' + tagId));
+				tagId++;
+			}
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Builds the content of a segment from a piece of the text returned by
+	 * {@link #pureText(Element)}, replacing tag markers with copies of the
+	 * original elements. The result is the same content obtained by parsing the
+	 * string returned by {@link #cleanup(String)}.
+	 */
+	public List<XMLNode> getContent(String string) {
+		List<XMLNode> result = new ArrayList<>();
+		Set<Character> used = new HashSet<>();
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			Element tag = elements.get(c);
+			if (tag != null && used.add(c)) {
+				addText(result, text);
+				Element copy = new Element();
+				copy.clone(tag);
+				result.add(copy);
+			} else if (c == '\r') {
+				if (i + 1 >= string.length() || string.charAt(i + 1) != '\n') {
+					text.append('\n');
+				}
+			} else {
+				text.append(c);
+			}
+		}
+		addText(result, text);
+		return result;
+	}
+
+	private static void addText(List<XMLNode> content, StringBuilder text) {
+		if (text.length() > 0) {
+			String valid = XMLUtils.validChars(text.toString());
+			if (!valid.isEmpty()) {
+				content.add(new TextNode(valid));
+			}
+			text.setLength(0);
+		}
+	}
+}
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.segmenter;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.xml.sax.SAXException;
+
+import com.maxprograms.xml.Catalog;
+
+public class SegmenterCache {
+
+	private static Map<String, CachedSegmenter> segmenters = new ConcurrentHashMap<>();
+
+	private SegmenterCache() {
+		// do not instantiate this class
+		// use public static methods instead
+	}
+
+	public static Segmenter getSegmenter(String srxFile, String srcLanguage, Catalog catalog)
+			throws SAXException, IOException, ParserConfigurationException {
+		File srx = new File(srxFile);
+		String key = srx.getCanonicalPath() + '\n' + srcLanguage;
+		long modified = srx.lastModified();
+		CachedSegmenter cached = segmenters.get(key);
+		if (cached == null || cached.modified != modified) {
+			cached = new CachedSegmenter(new Segmenter(srxFile, srcLanguage, catalog), modified);
+			segmenters.put(key, cached);
+		}
+		return cached.segmenter;
+	}
+
+	public static Segmenter getSegmenter(String srxFile, String srcLanguage, String catalog)
+			throws SAXException, IOException, ParserConfigurationException, URISyntaxException {
+		File srx = new File(srxFile);
+		CachedSegmenter cached = segmenters.get(srx.getCanonicalPath() + '\n' + srcLanguage);
+		if (cached != null && cached.modified == srx.lastModified()) {
+			return cached.segmenter;
+		}
+		return getSegmenter(srxFile, srcLanguage, new Catalog(catalog));
+	}
+
+	public static void clear() {
+		segmenters.clear();
+	}
+
+	private static class CachedSegmenter {
+
+		Segmenter segmenter;
+		long modified;
+
+		CachedSegmenter(Segmenter segmenter, long modified) {
+			this.segmenter = segmenter;
+			this.modified = modified;
+		}
+	}
+}
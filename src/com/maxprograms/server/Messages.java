@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 1.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors: Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Properties;
+
+public class Messages {
+
+    private static Properties props;
+
+    private Messages() {
+    }
+
+    public static String getString(String key) {
+        try {
+            if (props == null) {
+                Locale locale = Locale.getDefault();
+                String extension = "en".equals(locale.getLanguage()) ? ".properties"
+                        : "_" + locale.getLanguage() + ".properties";
+                try (InputStream is = Messages.class.getResourceAsStream("server" + extension)) {
+                    try (InputStreamReader reader = new InputStreamReader(is, StandardCharsets.UTF_8)) {
+                        Properties loaded = new Properties();
+                        loaded.load(reader);
+                        props = loaded;
+                    }
+                }
+            }
+            return props.getProperty(key, '!' + key + '!');
+        } catch (IOException e) {
+            return '!' + key + '!';
+        }
+    }
+}
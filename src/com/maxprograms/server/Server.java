@@ -0,0 +1,465 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.xml.sax.SAXException;
+
+import com.maxprograms.converters.BatchConvert;
+import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.FileFormats;
+import com.maxprograms.converters.Merge;
+import com.maxprograms.converters.Utils;
+import com.maxprograms.languages.RegistryParser;
+import com.maxprograms.stats.RepetitionAnalysis;
+import com.maxprograms.validation.XliffChecker;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Runs conversion, merge, validation and analysis jobs sent as JSON to a
+ * loopback HTTP port. The JVM, the language registry and the catalog, SRX and
+ * filter caches stay loaded between jobs, and jobs run concurrently on a fixed
+ * pool of worker threads.
+ * <p>
+ * Every request must carry the token generated at start in an
+ * <code>Authorization: Bearer</code> header and a loopback <code>Host</code>
+ * header; requests sent by browsers (with an <code>Origin</code> header) are
+ * rejected and jobs must be posted as <code>application/json</code>.
+ */
+public class Server {
+
+	private static Logger logger = System.getLogger(Server.class.getName());
+
+	private HttpServer server;
+	private ExecutorService pool;
+	private String catalog;
+	private String srx;
+	private String xmlfilter;
+	private int threads;
+	private String token;
+	private long started;
+	private AtomicInteger completed;
+	private AtomicInteger failed;
+
+	public static void main(String[] args) {
+
+		String[] arguments = Utils.fixPath(args);
+
+		int port = 8060;
+		int threads = Runtime.getRuntime().availableProcessors();
+		String catalog = "";
+		String srx = "";
+		String xmlfilter = "";
+
+		for (int i = 0; i < arguments.length; i++) {
+			String arg = arguments[i];
+			if (arg.equals("-version")) {
+				MessageFormat mf = new MessageFormat(Messages.getString("Server.02"));
+				logger.log(Level.INFO, mf.format(new String[] { Constants.VERSION, Constants.BUILD }));
+				return;
+			}
+			if (arg.equals("-help")) {
+				help();
+				return;
+			}
+			if (arg.equals("-port") && (i + 1) < arguments.length) {
+				try {
+					port = Integer.parseInt(arguments[i + 1]);
+				} catch (NumberFormatException e) {
+					port = -1;
+				}
+			}
+			if (arg.equals("-threads") && (i + 1) < arguments.length) {
+				try {
+					threads = Integer.parseInt(arguments[i + 1]);
+				} catch (NumberFormatException e) {
+					threads = 0;
+				}
+			}
+			if (arg.equals("-catalog") && (i + 1) < arguments.length) {
+				catalog = arguments[i + 1];
+			}
+			if (arg.equals("-srx") && (i + 1) < arguments.length) {
+				srx = arguments[i + 1];
+			}
+			if (arg.equals("-xmlfilter") && (i + 1) < arguments.length) {
+				xmlfilter = arguments[i + 1];
+			}
+		}
+		if (port < 0 || port > 65535) {
+			logger.log(Level.ERROR, Messages.getString("Server.03"));
+			return;
+		}
+		if (threads < 1) {
+			logger.log(Level.ERROR, Messages.getString("Server.04"));
+			return;
+		}
+		String home = System.getenv("OpenXLIFF_HOME");
+		if (home == null) {
+			home = System.getProperty("user.dir");
+		}
+		if (catalog.isEmpty()) {
+			File catalogFolder = new File(home, "catalog");
+			if (!catalogFolder.exists()) {
+				logger.log(Level.ERROR, Messages.getString("Server.05"));
+				return;
+			}
+			catalog = new File(catalogFolder, "catalog.xml").getAbsolutePath();
+		}
+		if (!new File(catalog).exists()) {
+			logger.log(Level.ERROR, Messages.getString("Server.06"));
+			return;
+		}
+		if (srx.isEmpty()) {
+			srx = new File(new File(home, "srx"), "default.srx").getAbsolutePath();
+		}
+		if (!new File(srx).exists()) {
+			MessageFormat mf = new MessageFormat(Messages.getString("Server.07"));
+			logger.log(Level.ERROR, mf.format(new String[] { srx }));
+			return;
+		}
+		if (xmlfilter.isEmpty()) {
+			xmlfilter = new File(home, "xmlfilter").getAbsolutePath();
+		}
+		try {
+			Server instance = new Server(port, threads, catalog, srx, xmlfilter);
+			instance.start();
+			MessageFormat mf = new MessageFormat(Messages.getString("Server.08"));
+			logger.log(Level.INFO, mf.format(new String[] { "" + instance.getPort() }));
+			mf = new MessageFormat(Messages.getString("Server.16"));
+			logger.log(Level.INFO, mf.format(new String[] { instance.getToken() }));
+		} catch (IOException e) {
+			logger.log(Level.ERROR, Messages.getString("Server.09"), e);
+		}
+	}
+
+	private static void help() {
+		MessageFormat mf = new MessageFormat(Messages.getString("Server.help"));
+		String help = mf.format(new String[] { "\\".equals(File.pathSeparator) ? "server.bat" : "server.sh" });
+		System.out.println(help);
+	}
+
+	/**
+	 * Creates a server bound to the loopback address. Use port 0 to let the
+	 * system choose a free port and {@link #getPort()} to find it. Clients must
+	 * send the value of {@link #getToken()} with every request.
+	 */
+	public Server(int port, int threads, String catalog, String srx, String xmlfilter) throws IOException {
+		byte[] random = new byte[32];
+		new SecureRandom().nextBytes(random);
+		this.token = HexFormat.of().formatHex(random);
+		this.threads = threads;
+		this.catalog = catalog;
+		this.srx = srx;
+		this.xmlfilter = xmlfilter;
+		completed = new AtomicInteger();
+		failed = new AtomicInteger();
+		pool = Executors.newFixedThreadPool(threads);
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		server.setExecutor(pool);
+		server.createContext("/", this::handle);
+	}
+
+	public void start() throws IOException {
+		// the language registry is shared by all jobs
+		RegistryParser.getInstance();
+		started = System.currentTimeMillis();
+		server.start();
+	}
+
+	public void stop() {
+		server.stop(0);
+		pool.shutdownNow();
+		logger.log(Level.INFO, Messages.getString("Server.10"));
+	}
+
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	public String getToken() {
+		return token;
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		long start = System.currentTimeMillis();
+		String job = exchange.getRequestURI().getPath().substring(1);
+		int code = 200;
+		JSONObject result;
+		try {
+			if (exchange.getRequestHeaders().containsKey("Origin")) {
+				// sent by a browser on behalf of a web page
+				code = 403;
+				result = error(exchange.getRequestHeaders().getFirst("Origin"), "Server.20");
+			} else if (!isLocal(exchange)) {
+				code = 403;
+				result = error(exchange.getRequestHeaders().getFirst("Host"), "Server.17");
+			} else if (!isAuthorized(exchange)) {
+				code = 401;
+				result = error(job, "Server.18");
+			} else if ("GET".equals(exchange.getRequestMethod())) {
+				if (job.equals("status")) {
+					result = status();
+				} else {
+					code = 404;
+					result = error(job, "Server.11");
+				}
+			} else if ("POST".equals(exchange.getRequestMethod()) && !isJson(exchange)) {
+				code = 415;
+				result = error(exchange.getRequestHeaders().getFirst("Content-Type"), "Server.19");
+			} else if ("POST".equals(exchange.getRequestMethod())) {
+				JSONObject params = readRequest(exchange);
+				switch (job) {
+					case "convert":
+						result = convert(params);
+						break;
+					case "merge":
+						result = merge(params);
+						break;
+					case "validate":
+						result = validate(params);
+						break;
+					case "analyse":
+						result = analyse(params);
+						break;
+					case "stop":
+						result = new JSONObject();
+						result.put("status", Constants.SUCCESS);
+						break;
+					default:
+						code = 404;
+						result = error(job, "Server.11");
+				}
+			} else {
+				code = 405;
+				result = error(exchange.getRequestMethod(), "Server.12");
+			}
+		} catch (JSONException e) {
+			code = 400;
+			result = error(e.getMessage(), "Server.13");
+		} catch (IOException | SAXException | ParserConfigurationException | URISyntaxException | RuntimeException e) {
+			logger.log(Level.ERROR, e.getMessage(), e);
+			result = new JSONObject();
+			result.put("status", Constants.ERROR);
+			result.put("reason", e.getMessage() != null ? e.getMessage() : e.toString());
+		}
+		if (code == 200) {
+			if (Constants.SUCCESS.equals(result.getString("status"))) {
+				completed.incrementAndGet();
+			} else {
+				failed.incrementAndGet();
+			}
+		}
+		result.put("time", System.currentTimeMillis() - start);
+		byte[] bytes = result.toString().getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		exchange.sendResponseHeaders(code, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+		if (code == 200 && job.equals("stop")) {
+			// the exchange must be complete before the server waits for it
+			new Thread(this::stop).start();
+		}
+	}
+
+	/**
+	 * Rejects requests addressed to a host name other than the loopback address,
+	 * so a web page cannot reach the server through DNS rebinding.
+	 */
+	private static boolean isLocal(HttpExchange exchange) {
+		String host = exchange.getRequestHeaders().getFirst("Host");
+		if (host == null) {
+			return false;
+		}
+		int colon = host.lastIndexOf(':');
+		if (colon != -1 && colon > host.lastIndexOf(']')) {
+			host = host.substring(0, colon);
+		}
+		return host.equalsIgnoreCase("localhost") || host.equals("127.0.0.1") || host.equals("[::1]");
+	}
+
+	private boolean isAuthorized(HttpExchange exchange) {
+		String header = exchange.getRequestHeaders().getFirst("Authorization");
+		if (header == null || !header.startsWith("Bearer ")) {
+			return false;
+		}
+		byte[] received = header.substring(7).trim().getBytes(StandardCharsets.UTF_8);
+		return MessageDigest.isEqual(received, token.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static boolean isJson(HttpExchange exchange) {
+		String type = exchange.getRequestHeaders().getFirst("Content-Type");
+		if (type == null) {
+			return false;
+		}
+		int semicolon = type.indexOf(';');
+		if (semicolon != -1) {
+			type = type.substring(0, semicolon);
+		}
+		return type.trim().equalsIgnoreCase("application/json");
+	}
+
+	private static JSONObject readRequest(HttpExchange exchange) throws IOException {
+		try (InputStream in = exchange.getRequestBody()) {
+			String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+			return body.isBlank() ? new JSONObject() : new JSONObject(body);
+		}
+	}
+
+	private JSONObject status() {
+		JSONObject result = new JSONObject();
+		result.put("status", Constants.SUCCESS);
+		result.put("version", Constants.VERSION);
+		result.put("build", Constants.BUILD);
+		result.put("threads", threads);
+		result.put("completed", completed.get());
+		result.put("failed", failed.get());
+		result.put("uptime", System.currentTimeMillis() - started);
+		return result;
+	}
+
+	private JSONObject convert(JSONObject request) {
+		Map<String, String> params = toParams(request);
+		if (!params.containsKey("source")) {
+			return error("source", "Server.14");
+		}
+		if (!params.containsKey("srcLang")) {
+			return error("srcLang", "Server.14");
+		}
+		if (params.containsKey("format")) {
+			String type = FileFormats.getFullName(params.get("format"));
+			if (type == null) {
+				return error(params.get("format"), "Server.15");
+			}
+			params.put("format", type);
+		}
+		params.putIfAbsent("catalog", catalog);
+		params.putIfAbsent("srxFile", srx);
+		params.putIfAbsent("xmlfilter", xmlfilter);
+		params.putIfAbsent("paragraph", "no");
+		params.putIfAbsent("ignoretc", "no");
+		if ("yes".equals(params.get("xliff20")) && "no".equals(params.get("paragraph"))
+				&& !params.containsKey("config")) {
+			params.put("resegment", "yes");
+			params.put("paragraph", "yes");
+		}
+		return BatchConvert.convert(params);
+	}
+
+	private JSONObject merge(JSONObject request) {
+		Map<String, String> params = toParams(request);
+		if (!params.containsKey("xliff")) {
+			return error("xliff", "Server.14");
+		}
+		if (!params.containsKey("target")) {
+			return error("target", "Server.14");
+		}
+		int mergeThreads = request.optInt("threads", 1);
+		List<String> result = Merge.merge(params.get("xliff"), params.get("target"),
+				params.getOrDefault("catalog", catalog), "yes".equals(params.get("unapproved")), mergeThreads);
+		return status(result);
+	}
+
+	private JSONObject validate(JSONObject request) throws IOException {
+		Map<String, String> params = toParams(request);
+		if (!params.containsKey("file")) {
+			return error("file", "Server.14");
+		}
+		XliffChecker checker = new XliffChecker();
+		boolean valid = checker.validate(params.get("file"), params.getOrDefault("catalog", catalog));
+		JSONObject result = new JSONObject();
+		result.put("status", Constants.SUCCESS);
+		result.put("valid", valid);
+		result.put("version", checker.getVersion());
+		if (!valid) {
+			result.put("reason", checker.getReason());
+		}
+		return result;
+	}
+
+	private JSONObject analyse(JSONObject request)
+			throws IOException, SAXException, ParserConfigurationException, URISyntaxException {
+		Map<String, String> params = toParams(request);
+		if (!params.containsKey("file")) {
+			return error("file", "Server.14");
+		}
+		String file = params.get("file");
+		new RepetitionAnalysis().analyse(file, params.getOrDefault("catalog", catalog));
+		JSONObject result = new JSONObject();
+		result.put("status", Constants.SUCCESS);
+		result.put("log", file + ".log.html");
+		return result;
+	}
+
+	/**
+	 * Converts the members of a request to the string parameters used by the
+	 * command line tools. Boolean values become "yes" or "no".
+	 */
+	private static Map<String, String> toParams(JSONObject request) {
+		Map<String, String> params = new HashMap<>();
+		Iterator<String> keys = request.keys();
+		while (keys.hasNext()) {
+			String key = keys.next();
+			Object value = request.get(key);
+			if (value instanceof Boolean) {
+				params.put(key, ((Boolean) value).booleanValue() ? "yes" : "no");
+			} else if (value != JSONObject.NULL) {
+				params.put(key, value.toString());
+			}
+		}
+		return params;
+	}
+
+	private static JSONObject status(List<String> list) {
+		JSONObject result = new JSONObject();
+		result.put("status", list.get(0));
+		if (!Constants.SUCCESS.equals(list.get(0))) {
+			result.put("reason", list.get(1));
+		}
+		return result;
+	}
+
+	private static JSONObject error(String value, String key) {
+		MessageFormat mf = new MessageFormat(Messages.getString(key));
+		JSONObject result = new JSONObject();
+		result.put("status", Constants.ERROR);
+		result.put("reason", mf.format(new String[] { value }));
+		return result;
+	}
+}
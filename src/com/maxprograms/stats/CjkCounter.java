@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.stats;
+
+/**
+ * Word counter for Chinese and Japanese. Each ideograph or kana is a word and
+ * the text around them is counted as space delimited text. Punctuation from
+ * the General Punctuation block on, like quotes, ideographic spaces and full
+ * width symbols, separates words.
+ */
+class CjkCounter extends SpaceDelimitedCounter {
+
+	@Override
+	protected boolean isWord(int c) {
+		if (c < 0x2E80) {
+			return false;
+		}
+		if (Character.isIdeographic(c) || c == 0x30FC) {
+			// U+30FC, the prolonged sound mark, is used in katakana words
+			return true;
+		}
+		Character.UnicodeScript script = Character.UnicodeScript.of(c);
+		return script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA
+				|| script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.BOPOMOFO;
+	}
+
+	@Override
+	protected boolean isDelimiter(int c) {
+		return super.isDelimiter(c) || (c >= 0x2000 && !Character.isLetterOrDigit(c));
+	}
+}
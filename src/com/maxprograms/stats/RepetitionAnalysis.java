@@ -25,18 +25,16 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.StringTokenizer;
 
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.xml.sax.SAXException;
 
 import com.maxprograms.converters.Utils;
+import com.maxprograms.converters.XliffUnitReader;
 import com.maxprograms.xliff2.FromXliff2;
-import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
-import com.maxprograms.xml.SAXBuilder;
 import com.maxprograms.xml.XMLNode;
 
 public class RepetitionAnalysis {
@@ -102,82 +100,82 @@ public class RepetitionAnalysis {
 		System.out.println(help);
 	}
 
-	private void createList(Element root) {
-		List<Element> elements = root.getChildren();
-		Iterator<Element> it = elements.iterator();
-		while (it.hasNext()) {
-			Element el = it.next();
-			if (el.getName().equals("file")) {
-				String originalFile = el.getAttributeValue("original");
-				srcLang = el.getAttributeValue("source-language");
-				if (!segments.containsKey(originalFile)) {
-					sources = new ArrayList<>();
-					segments.put(originalFile, sources);
-					files.add(originalFile);
-				} else {
-					sources = segments.get(originalFile);
-				}
-			}
-			if (el.getName().equals("trans-unit")) {
-				Element src = el.getChild("source");
-				if (src.getContent().isEmpty()) {
-					continue;
-				}
-				String approved = el.getAttributeValue("approved", "no");
-				src = removeTags(src);
-				Element target = el.getChild("target");
-				String translated = "no";
-				if (target != null && !target.getText().isEmpty()) {
-					translated = "yes";
-				}
-				String type = "";
-				int[] count = getCount(el);
-				if (approved.equalsIgnoreCase("yes") && target != null
-						&& target.getAttributeValue("state-qualifier").equals("leveraged-inherited")) {
-					type = "ice";
-				} else {
-					type = getMatch(el);
-				}
-				if (el.getAttributeValue("translate", "yes").equals("yes")) {
-					src.setAttribute("words", "" + count[0]);
-					src.setAttribute("untranslatable", "" + count[1]);
-				} else {
-					src.setAttribute("words", "0");
-					src.setAttribute("untranslatable", "" + (count[0] + count[1]));
-				}
-				src.setAttribute("type", type);
-				src.setAttribute("approved", approved);
-				src.setAttribute("translated", translated);
-				sources.add(src);
-			} else {
-				createList(el);
-			}
+	private void startFile(String originalFile, String lang) {
+		srcLang = lang;
+		if (!segments.containsKey(originalFile)) {
+			sources = new ArrayList<>();
+			segments.put(originalFile, sources);
+			files.add(originalFile);
+		} else {
+			sources = segments.get(originalFile);
+		}
+	}
+
+	private void addSegment(Element el) {
+		Element src = el.getChild("source");
+		if (src.getContent().isEmpty()) {
+			return;
+		}
+		String approved = el.getAttributeValue("approved", "no");
+		src = removeTags(src);
+		Element target = el.getChild("target");
+		String translated = "no";
+		if (target != null && !target.getText().isEmpty()) {
+			translated = "yes";
+		}
+		String type = "";
+		int[] count = getCount(el);
+		if (approved.equalsIgnoreCase("yes") && target != null
+				&& target.getAttributeValue("state-qualifier").equals("leveraged-inherited")) {
+			type = "ice";
+		} else {
+			type = getMatch(el);
 		}
+		if (el.getAttributeValue("translate", "yes").equals("yes")) {
+			src.setAttribute("words", "" + count[0]);
+			src.setAttribute("untranslatable", "" + count[1]);
+		} else {
+			src.setAttribute("words", "0");
+			src.setAttribute("untranslatable", "" + (count[0] + count[1]));
+		}
+		src.setAttribute("type", type);
+		src.setAttribute("approved", approved);
+		src.setAttribute("translated", translated);
+		sources.add(src);
 	}
 
 	public void analyse(String fileName, String catalog)
 			throws SAXException, IOException, ParserConfigurationException, URISyntaxException {
 
-		SAXBuilder builder = new SAXBuilder();
-		builder.setEntityResolver(new Catalog(catalog));
 		Iterator<Element> it = null;
 		String shortName = new File(fileName).getName();
-		Document doc = builder.build(fileName);
-		Element root = doc.getRootElement();
-
 		SvgStats svgStats = new SvgStats();
-		if (root.getAttributeValue("version").startsWith("2.")) {
-			File temp = File.createTempFile("temp", ".xlf");
-			temp.deleteOnExit();
-			FromXliff2.run(fileName, temp.getAbsolutePath(), catalog);
-			doc = builder.build(temp);
-			root = doc.getRootElement();
-		}
-		svgStats.analyse(fileName, catalog);
 		segments = new HashMap<>();
 		files = new ArrayList<>();
 
-		createList(root);
+		// a single pass over the units feeds both the counts and the charts;
+		// XLIFF 2.0 units are converted one at a time instead of the whole file
+		try (XliffUnitReader reader = new XliffUnitReader(fileName, catalog)) {
+			Element root = reader.getRoot();
+			if (!"xliff".equals(root.getLocalName())) {
+				throw new IOException(Messages.getString("SvgStats.1"));
+			}
+			boolean xliff2 = reader.getVersion().startsWith("2.");
+			int event = reader.next();
+			while (event != XliffUnitReader.END) {
+				if (event == XliffUnitReader.START_FILE) {
+					Element file = reader.getFile();
+					startFile(file.getAttributeValue("original"), xliff2 ? root.getAttributeValue("srcLang")
+							: file.getAttributeValue("source-language"));
+				} else if (event == XliffUnitReader.UNIT) {
+					Element unit = reader.getUnit();
+					svgStats.addUnit(unit);
+					addSegment(xliff2 ? FromXliff2.toTransUnit(unit) : unit);
+				}
+				event = reader.next();
+			}
+		}
+		svgStats.finish();
 
 		Collections.sort(files, (o1, o2) -> o1.compareToIgnoreCase(o2));
 
@@ -189,34 +187,9 @@ public class RepetitionAnalysis {
 		//
 		// all segments are in, now check repeated
 		//
+		Map<String, Integer> firstSeen = new HashMap<>();
 		for (int i = 0; i < files.size(); i++) {
-			List<Element> currFile = segments.get(files.get(i));
-			for (int j = 0; j < currFile.size(); j++) {
-				Element src = currFile.get(j);
-				// check segments without matches from TM only
-				if (src.getAttributeValue("type").equals("new")) {
-					String currText = src.toString();
-					// check in current file
-					// start with next segment
-					for (int k = j + 1; k < currFile.size(); k++) {
-						Element other = currFile.get(k);
-						if (currText.equals(other.toString())) {
-							other.setAttribute("type", "rep-int");
-						}
-					}
-					// check in other files
-					// start with following one
-					for (int k = i + 1; k < files.size(); k++) {
-						List<Element> otherFile = segments.get(files.get(k));
-						for (int m = 0; m < otherFile.size(); m++) {
-							Element other = otherFile.get(m);
-							if (currText.equals(other.toString())) {
-								other.setAttribute("type", "rep-ext");
-							}
-						}
-					}
-				}
-			}
+			markRepeated(segments.get(files.get(i)), i, firstSeen);
 		}
 
 		//
@@ -635,6 +608,24 @@ public class RepetitionAnalysis {
 		}
 	}
 
+	static void markRepeated(List<Element> sources, int file, Map<String, Integer> firstSeen) {
+		// the first segment without matches from TM is the original, any later
+		// identical one is repeated in the same file or in a following file
+		Iterator<Element> it = sources.iterator();
+		while (it.hasNext()) {
+			Element src = it.next();
+			if (src.getAttributeValue("type").equals("new")) {
+				String text = src.toString();
+				Integer first = firstSeen.get(text);
+				if (first == null) {
+					firstSeen.put(text, file);
+				} else {
+					src.setAttribute("type", first.intValue() == file ? "rep-int" : "rep-ext");
+				}
+			}
+		}
+	}
+
 	private static String getMatch(Element e) {
 		List<Element> altTrans = e.getChildren("alt-trans");
 		int max = 0;
@@ -683,7 +674,7 @@ public class RepetitionAnalysis {
 					if (text.length() > 0) {
 						text.append(' ');
 					}
-					text.append(normalise(node.toString(), true));
+					normalise(node.toString(), true, text);
 				} else {
 					text.append(node.toString());
 				}
@@ -716,78 +707,19 @@ public class RepetitionAnalysis {
 		out.write(text.getBytes(StandardCharsets.UTF_8));
 	}
 
-	public static int wordCount(String str, String lang) {
-		if (lang.toLowerCase().startsWith("zh")) {
-			return chineseCount(str);
-		}
-		return europeanCount(str);
-	}
-
-	private static int chineseCount(String str) {
-		// basic idea is that we need to remove unicode that higher than 255
-		// and then we count by europeanCount
-		// after that remove 0-255 unicode value and just count character
-		StringBuffer european = new StringBuffer();
-		int chineseCount = 0;
-		char[] chars = str.toCharArray();
-		for (int i = 0; i < chars.length; i++) {
-			char chr = chars[i];
-			if (chr <= 255 || chr == '\u00A0' || chr == '\u3001' || chr == '\u3002' || chr == '\uff1a'
-					|| chr == '\uff01' || chr == '\uff1f' || chr == '\u4ecb') {
-				european.append(chr);
-			} else {
-				chineseCount++;
-			}
-		}
-		int euroCount = europeanCount(european.toString());
-		return euroCount + chineseCount;
-	}
-
-	private static int europeanCount(String source) {
-		int wordnum = 0;
-		StringTokenizer tok = new StringTokenizer(source, " \t\r\n()?\u00A0\u3001\u3002\uff1a\uff01\uff1f\u4ecb");
-		String charsInNumber = ".,-/<>";
-		while (tok.hasMoreTokens()) {
-			String str = tok.nextToken();
-			if (!containsSeparator(str, charsInNumber)) {
-				wordnum++;
-			} else {
-				if (!isFormatNumber(str)) {
-					// concatenated words
-					StringTokenizer tok2 = new StringTokenizer(str, charsInNumber);
-					while (tok2.hasMoreTokens()) {
-						tok2.nextToken();
-						wordnum++;
-					}
-				} else {
-					// single number
-					wordnum++;
-				}
-			}
-		}
-		return wordnum;
+	public static int wordCount(CharSequence str, String lang) {
+		return WordCounters.getCounter(lang).count(str);
 	}
 
-	private static boolean containsSeparator(String str, String seps) {
-		for (int i = 0; i < seps.length(); i++) {
-			if (str.indexOf(seps.charAt(i)) != -1) {
+	public static boolean isFormatNumber(CharSequence str) {
+		for (int i = 0; i < str.length(); i++) {
+			if (Character.isDigit(str.charAt(i))) {
 				return true;
 			}
 		}
 		return false;
 	}
 
-	public static boolean isFormatNumber(String str) {
-		char[] chars = str.toCharArray();
-		boolean hasDigit = false;
-		for (int i = 0; i < chars.length; i++) {
-			if (Character.isDigit(chars[i])) {
-				hasDigit = true;
-			}
-		}
-		return hasDigit;
-	}
-
 	private static Element removeTags(Element src) {
 		src.removeChild("ph");
 		src.removeChild("bpt");
@@ -837,21 +769,7 @@ public class RepetitionAnalysis {
 		// all segments are in, now check repeated
 		//
 
-		for (int j = 0; j < srcs.size(); j++) {
-			Element src = srcs.get(j);
-			// check segments without matches from TM only
-			if (src.getAttributeValue("type").equals("new")) {
-				String currText = src.toString();
-				// check in current file
-				// start with next segment
-				for (int k = j + 1; k < srcs.size(); k++) {
-					Element other = srcs.get(k);
-					if (currText.equals(other.toString())) {
-						other.setAttribute("type", "rep-int");
-					}
-				}
-			}
-		}
+		markRepeated(srcs, 0, new HashMap<>());
 
 		//
 		// Words based analysis
@@ -1021,31 +939,38 @@ public class RepetitionAnalysis {
 	}
 
 	public static String normalise(String string, boolean trim) {
-		boolean repeat = false;
-		StringBuilder result = new StringBuilder();
+		StringBuilder result = new StringBuilder(string.length());
+		normalise(string, trim, result);
+		return result.toString();
+	}
+
+	private static void normalise(CharSequence string, boolean trim, StringBuilder result) {
+		// runs of spaces and new lines become a single space
+		int start = result.length();
+		boolean space = false;
 		int length = string.length();
 		for (int i = 0; i < length; i++) {
 			char ch = string.charAt(i);
-			if (!Character.isSpaceChar(ch)) {
-				if (ch != '\n') {
-					result.append(ch);
-				} else {
-					result.append(' ');
-					repeat = true;
+			if (ch == '\n' || Character.isSpaceChar(ch)) {
+				if (!space) {
+					space = true;
+					if (!trim || result.length() > start) {
+						result.append(' ');
+					}
 				}
 			} else {
-				result.append(' ');
-				while (i < length - 1 && Character.isSpaceChar(string.charAt(i + 1))) {
-					i++;
+				space = false;
+				if (!trim || result.length() > start || ch > ' ') {
+					result.append(ch);
 				}
 			}
 		}
-		if (repeat) {
-			return normalise(result.toString(), trim);
-		}
 		if (trim) {
-			return result.toString().trim();
+			int end = result.length();
+			while (end > start && result.charAt(end - 1) <= ' ') {
+				end--;
+			}
+			result.setLength(end);
 		}
-		return result.toString();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.stats;
+
+/**
+ * Word counter for scripts that separate words with spaces. Tokens are
+ * delimited by spaces and a few punctuation marks; a token that contains
+ * ".,-/&lt;&gt;" is a single number if it has digits, otherwise each part
+ * between those characters is a word. Subclasses can count some characters as
+ * words on their own or hand runs of text to a different algorithm.
+ */
+class SpaceDelimitedCounter implements WordCounter {
+
+	@Override
+	public int count(CharSequence text) {
+		int words = 0;
+		boolean inToken = false;
+		boolean inPart = false;
+		boolean hasSeparator = false;
+		boolean hasDigit = false;
+		int parts = 0;
+		int length = text.length();
+		int i = 0;
+		while (i < length) {
+			int c = Character.codePointAt(text, i);
+			if (isWord(c)) {
+				// counted on its own; the text around it is counted as if it was not there
+				words++;
+				i += Character.charCount(c);
+				continue;
+			}
+			boolean delimiter = isDelimiter(c);
+			int end = delimiter ? i : runEnd(text, i);
+			if (delimiter || end > i) {
+				if (inToken) {
+					words += hasSeparator && !hasDigit ? parts : 1;
+					inToken = false;
+				}
+				if (end > i) {
+					words += countRun(text, i, end);
+					i = end;
+				} else {
+					i += Character.charCount(c);
+				}
+				continue;
+			}
+			if (!inToken) {
+				inToken = true;
+				inPart = false;
+				hasSeparator = false;
+				hasDigit = false;
+				parts = 0;
+			}
+			if (c == '.' || c == ',' || c == '-' || c == '/' || c == '<' || c == '>') {
+				hasSeparator = true;
+				inPart = false;
+			} else {
+				if (!inPart) {
+					inPart = true;
+					parts++;
+				}
+				if (Character.isDigit(c)) {
+					hasDigit = true;
+				}
+			}
+			i += Character.charCount(c);
+		}
+		if (inToken) {
+			words += hasSeparator && !hasDigit ? parts : 1;
+		}
+		return words;
+	}
+
+	protected boolean isWord(int c) {
+		return false;
+	}
+
+	protected boolean isDelimiter(int c) {
+		switch (c) {
+			case ' ':
+			case '\t':
+			case '\r':
+			case '\n':
+			case '(':
+			case ')':
+			case '?':
+			case '\u00A0':
+			case '\u3001':
+			case '\u3002':
+			case '\uff1a':
+			case '\uff01':
+			case '\uff1f':
+			case '\u4ecb':
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * Returns the end of a run of text that starts at <code>start</code> and is
+	 * counted by {@link #countRun(CharSequence, int, int)}, or
+	 * <code>start</code> if the text is tokenized as usual.
+	 */
+	protected int runEnd(CharSequence text, int start) {
+		return start;
+	}
+
+	protected int countRun(CharSequence text, int start, int end) {
+		return 0;
+	}
+}
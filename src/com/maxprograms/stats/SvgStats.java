@@ -21,11 +21,9 @@ import java.util.Map;
 
 import javax.xml.parsers.ParserConfigurationException;
 
-import com.maxprograms.xml.Catalog;
-import com.maxprograms.xml.Document;
+import com.maxprograms.converters.XliffUnitReader;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.Indenter;
-import com.maxprograms.xml.SAXBuilder;
 
 import org.xml.sax.SAXException;
 
@@ -40,21 +38,41 @@ public class SvgStats {
 	private int offset;
 	private String stroke;
 
+	public SvgStats() {
+		segmentsList = new ArrayList<>();
+	}
+
 	public void analyse(String file, String catalog)
 			throws SAXException, IOException, ParserConfigurationException, URISyntaxException {
-		SAXBuilder builder = new SAXBuilder();
-		builder.setEntityResolver(new Catalog(catalog));
-		Document document = builder.build(file);
-		Element root = document.getRootElement();
-		if (!"xliff".equals(root.getLocalName())) {
-			throw new IOException(Messages.getString("SvgStats.1"));
+		try (XliffUnitReader reader = new XliffUnitReader(file, catalog)) {
+			if (!"xliff".equals(reader.getRoot().getLocalName())) {
+				throw new IOException(Messages.getString("SvgStats.1"));
+			}
+			int event = reader.next();
+			while (event != XliffUnitReader.END) {
+				if (event == XliffUnitReader.UNIT) {
+					addUnit(reader.getUnit());
+				}
+				event = reader.next();
+			}
 		}
-		segmentsList = new ArrayList<>();
-		if (root.getAttributeValue("version").startsWith("1.")) {
-			parseXliff(root);
+		finish();
+	}
+
+	/**
+	 * Adds the status of the segments in a &lt;trans-unit&gt; (XLIFF 1.x) or a
+	 * &lt;unit&gt; (XLIFF 2.x) to the charts. Call {@link #finish()} after the last
+	 * unit and before generating the charts.
+	 */
+	public void addUnit(Element unit) {
+		if ("trans-unit".equals(unit.getName())) {
+			parseXliff(unit);
 		} else {
-			parseXliff2(root);
+			parseXliff2(unit);
 		}
+	}
+
+	public void finish() throws IOException {
 		if (segmentsList.isEmpty()) {
 			throw new IOException(Messages.getString("SvgStats.2"));
 		}
@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.stats;
+
+import java.text.BreakIterator;
+import java.util.Locale;
+
+/**
+ * Word counter for Thai, which is written without spaces between words. Runs
+ * of Thai text are split with the dictionary based word iterator of the JDK;
+ * any other text is counted as space delimited text.
+ */
+class ThaiCounter extends SpaceDelimitedCounter {
+
+	private ThreadLocal<BreakIterator> iterators = ThreadLocal
+			.withInitial(() -> BreakIterator.getWordInstance(new Locale("th")));
+
+	@Override
+	protected int runEnd(CharSequence text, int start) {
+		int i = start;
+		while (i < text.length()) {
+			char c = text.charAt(i);
+			if (c < 0x0E00 || c > 0x0E7F || Character.UnicodeScript.of(c) != Character.UnicodeScript.THAI) {
+				break;
+			}
+			i++;
+		}
+		return i;
+	}
+
+	@Override
+	protected int countRun(CharSequence text, int start, int end) {
+		String run = text.subSequence(start, end).toString();
+		BreakIterator words = iterators.get();
+		words.setText(run);
+		int count = 0;
+		int from = words.first();
+		for (int to = words.next(); to != BreakIterator.DONE; from = to, to = words.next()) {
+			if (Character.isLetterOrDigit(run.codePointAt(from))) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,22 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.stats;
+
+/**
+ * Counts the words of a text written in a given language or script.
+ * Implementations registered in {@link WordCounters} are shared between
+ * threads and must be thread safe.
+ */
+public interface WordCounter {
+
+	public int count(CharSequence text);
+}
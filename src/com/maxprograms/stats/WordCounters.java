@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.stats;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.maxprograms.languages.LanguageUtils;
+
+/**
+ * Registry of word counters. The counter for a BCP 47 language tag is, in
+ * order: the one registered for the whole tag, the one registered for the
+ * script subtag of the tag, the one registered for its primary language
+ * subtag, the one registered for the Suppress-Script of that language in the
+ * IANA registry, or a counter for space delimited text. A tag with a script
+ * subtag that has no counter, like "ja-Latn", uses the space delimited
+ * counter. Counters are resolved once per tag.
+ */
+public class WordCounters {
+
+	public static final WordCounter SPACE_DELIMITED = new SpaceDelimitedCounter();
+	public static final WordCounter CJK = new CjkCounter();
+	public static final WordCounter THAI = new ThaiCounter();
+
+	private static Map<String, WordCounter> languages = new ConcurrentHashMap<>();
+	private static Map<String, WordCounter> scripts = new ConcurrentHashMap<>();
+	private static Map<String, WordCounter> resolved = new ConcurrentHashMap<>();
+
+	static {
+		languages.put("zh", CJK);
+		languages.put("ja", CJK);
+		scripts.put("Hani", CJK);
+		scripts.put("Hans", CJK);
+		scripts.put("Hant", CJK);
+		scripts.put("Jpan", CJK);
+		scripts.put("Hira", CJK);
+		scripts.put("Kana", CJK);
+		scripts.put("Thai", THAI);
+	}
+
+	private WordCounters() {
+		// do not instantiate this class
+	}
+
+	public static WordCounter getCounter(String language) {
+		WordCounter counter = resolved.get(language);
+		if (counter == null) {
+			counter = resolve(language);
+			resolved.put(language, counter);
+		}
+		return counter;
+	}
+
+	/**
+	 * Registers a counter for a language tag or a primary language subtag.
+	 */
+	public static void registerLanguage(String language, WordCounter counter) {
+		languages.put(language.replace('_', '-').toLowerCase(Locale.ROOT), counter);
+		resolved.clear();
+	}
+
+	/**
+	 * Registers a counter for an ISO 15924 script code, like "Thai" or "Hans".
+	 */
+	public static void registerScript(String script, WordCounter counter) {
+		scripts.put(normalizeScript(script), counter);
+		resolved.clear();
+	}
+
+	private static WordCounter resolve(String tag) {
+		String[] parts = tag.replace('_', '-').toLowerCase(Locale.ROOT).split("-");
+		WordCounter counter = languages.get(String.join("-", parts));
+		if (counter != null) {
+			return counter;
+		}
+		for (int i = 1; i < parts.length && parts[i].length() > 1; i++) {
+			if (parts[i].length() == 4 && Character.isLetter(parts[i].charAt(0))) {
+				counter = scripts.get(normalizeScript(parts[i]));
+				return counter != null ? counter : SPACE_DELIMITED;
+			}
+		}
+		counter = languages.get(parts[0]);
+		if (counter != null) {
+			return counter;
+		}
+		try {
+			String script = LanguageUtils.getSuppressedScript(parts[0]);
+			if (!script.isEmpty()) {
+				counter = scripts.get(normalizeScript(script));
+				if (counter != null) {
+					return counter;
+				}
+			}
+		} catch (IOException e) {
+			// the registry is not available, use the default counter
+		}
+		return SPACE_DELIMITED;
+	}
+
+	private static String normalizeScript(String script) {
+		return script.substring(0, 1).toUpperCase(Locale.ROOT) + script.substring(1).toLowerCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,230 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+
+package com.maxprograms.validation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import javax.xml.validation.Schema;
+import javax.xml.validation.ValidatorHandler;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.ext.Locator2;
+import org.xml.sax.helpers.AttributesImpl;
+
+import com.maxprograms.xml.CData;
+import com.maxprograms.xml.Catalog;
+import com.maxprograms.xml.Comment;
+import com.maxprograms.xml.Document;
+import com.maxprograms.xml.Element;
+import com.maxprograms.xml.IContentHandler;
+import com.maxprograms.xml.PI;
+
+/**
+ * Content handler for SAXBuilder that validates the events it receives against
+ * a compiled schema while it builds the document, so a file is checked and
+ * loaded in a single parse. Validation errors are thrown as SAXParseException.
+ */
+class SchemaContentHandler implements IContentHandler {
+
+	private static final String XML_NAMESPACE = "http://www.w3.org/XML/1998/namespace";
+
+	private ValidatorHandler validator;
+	private Locator locator;
+	private Document document;
+	private Deque<Element> stack;
+	private List<String[]> namespaces;
+	private StringBuilder text;
+	private StringBuilder cdata;
+
+	SchemaContentHandler(Schema schema) {
+		validator = schema.newValidatorHandler();
+		stack = new ArrayDeque<>();
+		namespaces = new ArrayList<>();
+		text = new StringBuilder();
+	}
+
+	@Override
+	public void setCatalog(Catalog catalog) {
+		// entities are resolved by the parser
+	}
+
+	@Override
+	public Document getDocument() {
+		return document;
+	}
+
+	@Override
+	public void setDocumentLocator(Locator locator) {
+		this.locator = locator;
+		validator.setDocumentLocator(locator);
+	}
+
+	@Override
+	public void startDocument() throws SAXException {
+		validator.startDocument();
+	}
+
+	@Override
+	public void endDocument() throws SAXException {
+		validator.endDocument();
+	}
+
+	@Override
+	public void startPrefixMapping(String prefix, String uri) throws SAXException {
+		namespaces.add(new String[] { prefix, uri });
+		validator.startPrefixMapping(prefix, uri);
+	}
+
+	@Override
+	public void endPrefixMapping(String prefix) throws SAXException {
+		validator.endPrefixMapping(prefix);
+	}
+
+	@Override
+	public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+		addText();
+		Element element = new Element(qName);
+		for (int i = 0; i < namespaces.size(); i++) {
+			String[] namespace = namespaces.get(i);
+			element.setAttribute(namespace[0].isEmpty() ? "xmlns" : "xmlns:" + namespace[0], namespace[1]);
+		}
+		namespaces.clear();
+		AttributesImpl attributes = null;
+		for (int i = 0; i < atts.getLength(); i++) {
+			String name = atts.getQName(i);
+			if (name.equals("xmlns") || name.startsWith("xmlns:")) {
+				// namespace declarations are reported as prefix mappings to the validator
+				if (attributes == null) {
+					attributes = new AttributesImpl(atts);
+				}
+				attributes.removeAttribute(attributes.getIndex(name));
+			} else if (XML_NAMESPACE.equals(atts.getURI(i)) && !name.startsWith("xml:")) {
+				name = "xml:" + name;
+			}
+			element.setAttribute(name, atts.getValue(i));
+		}
+		if (document == null) {
+			document = new Document(null, qName, null, null);
+			if (locator instanceof Locator2 && ((Locator2) locator).getEncoding() != null) {
+				document.setEncoding(((Locator2) locator).getEncoding());
+			}
+			document.setRootElement(element);
+		} else {
+			stack.peek().addContent(element);
+		}
+		stack.push(element);
+		validator.startElement(uri, localName, qName, attributes != null ? attributes : atts);
+	}
+
+	@Override
+	public void endElement(String uri, String localName, String qName) throws SAXException {
+		addText();
+		stack.pop();
+		validator.endElement(uri, localName, qName);
+	}
+
+	@Override
+	public void characters(char[] ch, int start, int length) throws SAXException {
+		if (cdata != null) {
+			cdata.append(ch, start, length);
+		} else if (!stack.isEmpty()) {
+			text.append(ch, start, length);
+		}
+		validator.characters(ch, start, length);
+	}
+
+	@Override
+	public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+		if (!stack.isEmpty()) {
+			text.append(ch, start, length);
+		}
+		validator.ignorableWhitespace(ch, start, length);
+	}
+
+	@Override
+	public void processingInstruction(String target, String data) throws SAXException {
+		if (!stack.isEmpty()) {
+			addText();
+			stack.peek().addContent(new PI(target, data != null ? data : ""));
+		}
+		validator.processingInstruction(target, data);
+	}
+
+	@Override
+	public void skippedEntity(String name) throws SAXException {
+		validator.skippedEntity(name);
+	}
+
+	@Override
+	public void comment(char[] ch, int start, int length) throws SAXException {
+		if (!stack.isEmpty()) {
+			addText();
+			stack.peek().addContent(new DocumentComment(new String(ch, start, length)));
+		}
+	}
+
+	@Override
+	public void startCDATA() throws SAXException {
+		addText();
+		cdata = new StringBuilder();
+	}
+
+	@Override
+	public void endCDATA() throws SAXException {
+		if (!stack.isEmpty()) {
+			stack.peek().addContent(new CData(cdata.toString()));
+		}
+		cdata = null;
+	}
+
+	@Override
+	public void startDTD(String name, String publicId, String systemId) throws SAXException {
+		// the DTD is not part of the document tree
+	}
+
+	@Override
+	public void endDTD() throws SAXException {
+		// the DTD is not part of the document tree
+	}
+
+	@Override
+	public void startEntity(String name) throws SAXException {
+		// entity boundaries are not kept
+	}
+
+	@Override
+	public void endEntity(String name) throws SAXException {
+		// entity boundaries are not kept
+	}
+
+	private void addText() {
+		if (text.length() > 0) {
+			stack.peek().addContent(text.toString());
+			text.setLength(0);
+		}
+	}
+
+	private static class DocumentComment extends Comment {
+
+		private static final long serialVersionUID = 1L;
+
+		DocumentComment(String text) {
+			super(text);
+		}
+	}
+}
@@ -24,6 +24,7 @@ import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.XMLConstants;
 import javax.xml.parsers.ParserConfigurationException;
@@ -32,6 +33,7 @@ import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.languages.RegistryParser;
 import com.maxprograms.xml.Attribute;
 import com.maxprograms.xml.Catalog;
@@ -56,6 +58,10 @@ public class Xliff20 {
 	private static final String W3_ORG_XML_NAMESPACE = "http://www.w3.org/XML/1998/namespace";
 
 	private static Logger logger = System.getLogger(Xliff20.class.getName());
+
+	// compiled schemas are thread-safe, keyed by catalog
+	private static Map<String, CachedSchema> schemas = new ConcurrentHashMap<>();
+
 	private String reason = "";
 	private Catalog resolver;
 
@@ -91,21 +97,19 @@ public class Xliff20 {
 	private List<String> fmtSubTypes = Arrays.asList("xlf:b", "xlf:i", "xlf:u", "xlf:lb", "xlf:pb");
 
 	public Xliff20() throws IOException {
-		registry = new RegistryParser();
+		registry = RegistryParser.getInstance();
 	}
 
 	public boolean validate(String file, String catalog) {
 		try {
-			StreamSource source = new StreamSource(new File(file));
-			resolver = new Catalog(catalog);
-			SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-			Source[] schemas = new Source[] { getSource(W3_ORG_XML_NAMESPACE), getSource(XLIFF_DOCUMENT_2_0),
-					getSource(XLIFF_METADATA_2_0), getSource(XLIFF_CHANGETRACKING_2_0), getSource(XLIFF_FS_2_0),
-					getSource(XLIFF_GLOSSARY_2_0), getSource(XLIFF_MATCHES_2_0), getSource(XLIFF_RESOURCEDATA_2_0),
-					getSource(XLIFF_SIZERESTRICTION_2_0), getSource(XLIFF_VALIDATION_2_0) };
-			Schema schema = schemaFactory.newSchema(schemas);
-			schema.newValidator().validate(source);
-			return validateContent(file);
+			resolver = CatalogCache.getCatalog(catalog);
+			SAXBuilder builder = new SAXBuilder();
+			builder.setValidating(true);
+			builder.setEntityResolver(resolver);
+			builder.setContentHandler(new SchemaContentHandler(getSchema(catalog, resolver)));
+			Document document = builder.build(file);
+			declaredNamespaces = new Hashtable<>();
+			return recurse(document.getRootElement());
 		} catch (SAXException | IOException | ParserConfigurationException | URISyntaxException e) {
 			logger.log(Level.ERROR, e);
 			reason = e.getMessage();
@@ -113,13 +117,23 @@ public class Xliff20 {
 		return false;
 	}
 
-	private boolean validateContent(String file) throws SAXException, IOException, ParserConfigurationException {
-		SAXBuilder builder = new SAXBuilder();
-		builder.setValidating(true);
-		builder.setEntityResolver(resolver);
-		Document document = builder.build(file);
-		declaredNamespaces = new Hashtable<>();
-		return recurse(document.getRootElement());
+	private static Schema getSchema(String catalog, Catalog resolver) throws SAXException, IOException {
+		File file = new File(catalog);
+		String key = file.getCanonicalPath();
+		long modified = file.lastModified();
+		CachedSchema cached = schemas.get(key);
+		if (cached == null || cached.modified != modified) {
+			SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+			Source[] sources = new Source[] { getSource(resolver, W3_ORG_XML_NAMESPACE),
+					getSource(resolver, XLIFF_DOCUMENT_2_0), getSource(resolver, XLIFF_METADATA_2_0),
+					getSource(resolver, XLIFF_CHANGETRACKING_2_0), getSource(resolver, XLIFF_FS_2_0),
+					getSource(resolver, XLIFF_GLOSSARY_2_0), getSource(resolver, XLIFF_MATCHES_2_0),
+					getSource(resolver, XLIFF_RESOURCEDATA_2_0), getSource(resolver, XLIFF_SIZERESTRICTION_2_0),
+					getSource(resolver, XLIFF_VALIDATION_2_0) };
+			cached = new CachedSchema(schemaFactory.newSchema(sources), modified);
+			schemas.put(key, cached);
+		}
+		return cached.schema;
 	}
 
 	private boolean recurse(Element e) {
@@ -1138,7 +1152,7 @@ public class Xliff20 {
 		return true;
 	}
 
-	private Source getSource(String string) {
+	private static Source getSource(Catalog resolver, String string) {
 		String location = resolver.matchURI(string);
 		if (location == null) {
 			location = resolver.matchPublic(string);
@@ -1160,4 +1174,15 @@ public class Xliff20 {
 		}
 		return !registry.getTagDescription(lang).isEmpty();
 	}
+
+	private static class CachedSchema {
+
+		Schema schema;
+		long modified;
+
+		CachedSchema(Schema schema, long modified) {
+			this.schema = schema;
+			this.modified = modified;
+		}
+	}
 }
@@ -13,7 +13,9 @@
 package com.maxprograms.validation;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
 import java.net.URISyntaxException;
@@ -27,11 +29,15 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Utils;
 import com.maxprograms.languages.RegistryParser;
 import com.maxprograms.xml.Attribute;
-import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.SAXBuilder;
@@ -139,7 +145,7 @@ public class XliffChecker {
 	public XliffChecker() throws IOException {
 		version = "";
 		reason = "";
-		registry = new RegistryParser();
+		registry = RegistryParser.getInstance();
 		xliffNamespaces = new HashSet<>();
 		xliffNamespaces.add("urn:oasis:names:tc:xliff:document:1.1");
 		xliffNamespaces.add("urn:oasis:names:tc:xliff:document:1.2");
@@ -147,11 +153,19 @@ public class XliffChecker {
 
 	public boolean validate(String file, String catalog) {
 		try {
+			if ("2.0".equals(getRootVersion(file))) {
+				// XLIFF 2.0 is checked in a single parse, no need to load the file here
+				version = "2.0";
+				return validateXliff20(file, catalog);
+			}
+			// the file is checked while it is parsed, without loading it
+			XliffStreamHandler handler = new XliffStreamHandler(this);
 			SAXBuilder builder = new SAXBuilder();
 			builder.setValidating(true);
-			builder.setEntityResolver(new Catalog(catalog));
-			Document document = builder.build(file);
-			Element root = document.getRootElement();
+			builder.setEntityResolver(CatalogCache.getCatalog(catalog));
+			builder.setContentHandler(handler);
+			builder.build(file);
+			Element root = handler.getRoot();
 			if (!"xliff".equals(root.getLocalName())) {
 				reason = Messages.getString("XliffChecker.7");
 				return false;
@@ -163,37 +177,36 @@ public class XliffChecker {
 			version = root.getAttributeValue("version");
 			if ("1.0".equals(version)) {
 				// validate with DTD and recurse
-				Xliff10 validator = new Xliff10();
-				boolean valid = validator.validate(document, catalog);
-				if (!valid) {
-					reason = validator.getReason();
-					return false;
+				if (!handler.hasDoctype()) {
+					Xliff10 validator = new Xliff10();
+					boolean valid = validator.validate(loadDocument(file, catalog), catalog);
+					if (!valid) {
+						reason = validator.getReason();
+						return false;
+					}
 				}
 			} else if ("1.1".equals(version)) {
 				// validate with schema and recurse
-				Xliff11 validator = new Xliff11();
-				boolean valid = validator.validate(document, catalog);
-				if (!valid) {
-					reason = validator.getReason();
-					return false;
+				if (root.getAttributeValue("xmlns").isEmpty()) {
+					Xliff11 validator = new Xliff11();
+					boolean valid = validator.validate(loadDocument(file, catalog), catalog);
+					if (!valid) {
+						reason = validator.getReason();
+						return false;
+					}
 				}
 			} else if ("1.2".equals(version)) {
 				// validate against translational only
-				Xliff12 validator = new Xliff12();
-				boolean valid = validator.validate(document, catalog);
-				if (!valid) {
-					reason = validator.getReason();
-					return false;
+				if (root.getAttributeValue("xmlns").isEmpty()) {
+					Xliff12 validator = new Xliff12();
+					boolean valid = validator.validate(loadDocument(file, catalog), catalog);
+					if (!valid) {
+						reason = validator.getReason();
+						return false;
+					}
 				}
 			} else if ("2.0".equals(version)) {
-				// validate with schemas only, for now
-				Xliff20 validator = new Xliff20();
-				boolean valid = validator.validate(file, catalog);
-				if (!valid) {
-					reason = validator.getReason();
-					return false;
-				}
-				return true;
+				return validateXliff20(file, catalog);
 			} else if ("2.1".equals(version) || "2.2".equals(version)) {
 				MessageFormat mf = new MessageFormat(Messages.getString("XliffChecker.9"));
 				reason = mf.format(new String[] { version });
@@ -203,13 +216,8 @@ public class XliffChecker {
 				return false;
 			}
 
-			// There is a bug in XLIFF 1.1 schema, duplicated in XLIFF 1.2 Transitional
-			// schema,
-			// they allow any attribute in XLIFF elements.
-			// Load a table of attributes for validating details that the parser ignored.
-
-			createAttributesTable();
-			return recurse(root);
+			// the reason of the first failed check was stored during the parse
+			return !handler.isFailed();
 
 		} catch (IOException | SAXException | ParserConfigurationException | URISyntaxException e) {
 			reason = e.getMessage();
@@ -221,6 +229,65 @@ public class XliffChecker {
 		return reason;
 	}
 
+	boolean startRoot(Element root) {
+		if (!"xliff".equals(root.getLocalName())) {
+			return false;
+		}
+		String rootVersion = root.getAttributeValue("version");
+		if (!"1.0".equals(rootVersion) && !"1.1".equals(rootVersion) && !"1.2".equals(rootVersion)) {
+			return false;
+		}
+		version = rootVersion;
+
+		// There is a bug in XLIFF 1.1 schema, duplicated in XLIFF 1.2 Transitional
+		// schema,
+		// they allow any attribute in XLIFF elements.
+		// Load a table of attributes for validating details that the parser ignored.
+
+		createAttributesTable();
+		return true;
+	}
+
+	private static Document loadDocument(String file, String catalog)
+			throws SAXException, IOException, ParserConfigurationException, URISyntaxException {
+		// files without DTD or namespace declaration are rewritten before validation
+		SAXBuilder builder = new SAXBuilder();
+		builder.setValidating(true);
+		builder.setEntityResolver(CatalogCache.getCatalog(catalog));
+		return builder.build(file);
+	}
+
+	private boolean validateXliff20(String file, String catalog) throws IOException {
+		// validate with schemas only, for now
+		Xliff20 validator = new Xliff20();
+		boolean valid = validator.validate(file, catalog);
+		if (!valid) {
+			reason = validator.getReason();
+			return false;
+		}
+		return true;
+	}
+
+	private static String getRootVersion(String file) {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		try (InputStream input = new FileInputStream(file)) {
+			XMLStreamReader reader = factory.createXMLStreamReader(input);
+			try {
+				while (reader.hasNext()) {
+					if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+						return "xliff".equals(reader.getLocalName()) ? reader.getAttributeValue(null, "version") : null;
+					}
+				}
+			} finally {
+				reader.close();
+			}
+		} catch (IOException | XMLStreamException e) {
+			// the validating parser reports the error
+		}
+		return null;
+	}
+
 	private void createAttributesTable() {
 		attributesTable = new ConcurrentHashMap<>();
 
@@ -575,16 +642,37 @@ public class XliffChecker {
 	}
 
 	public boolean recurse(Element e) {
+		if (isIgnored(e)) {
+			return true;
+		}
+		if (!checkStart(e)) {
+			return false;
+		}
+		List<Element> children = e.getChildren();
+		for (int i = 0; i < children.size(); i++) {
+			boolean result = recurse(children.get(i));
+			if (!result) {
+				return false;
+			}
+		}
+		return checkEnd(e);
+	}
+
+	boolean isIgnored(Element e) {
 		if (!e.getNamespace().isEmpty()) {
 			// ignore non-XLIFF elements
 			return true;
 		}
 		String namespace = e.getAttributeValue("xmlns");
-		if (!namespace.isEmpty() && !xliffNamespaces.contains(namespace)) {
-			// ignore element from another namespace
-			return true;
-		}
+		// ignore element from another namespace
+		return !namespace.isEmpty() && !xliffNamespaces.contains(namespace);
+	}
 
+	/**
+	 * Checks an element before its children. Only the name and attributes of the
+	 * element are used, so it can be called while the file is being parsed.
+	 */
+	boolean checkStart(Element e) {
 		if (!"1.0".equals(version)) {
 			// validate the attributes (the parser can't do it due to bugs in the schemas
 			List<Attribute> atts = e.getAttributes();
@@ -925,16 +1013,13 @@ public class XliffChecker {
 			}
 			eptTable.put(id, "");
 		}
+		return true;
+	}
 
-		// Recurse all children
-		List<Element> children = e.getChildren();
-		for (int i = 0; i < children.size(); i++) {
-			boolean result = recurse(children.get(i));
-			if (!result) {
-				return false;
-			}
-		}
-
+	/**
+	 * Checks an element after its children.
+	 */
+	boolean checkEnd(Element e) {
 		// check if inline tags are paired at <source>, <seg-source> and <target>
 		if (e.getLocalName().equals("source") || e.getLocalName().equals("seg-source")
 				|| e.getLocalName().equals("target")) {
@@ -986,6 +1071,15 @@ public class XliffChecker {
 					return false;
 				}
 			}
+			// the tables are recreated for the next <file>
+			ids.clear();
+			groupIds.clear();
+			xids.clear();
+		}
+
+		if (e.getLocalName().equals("trans-unit")) {
+			// "mid" values are only checked within the <trans-unit>
+			midTable.clear();
 		}
 
 		if (e.getLocalName().equals("alt-trans")) {
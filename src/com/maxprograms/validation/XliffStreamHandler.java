@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+
+package com.maxprograms.validation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+
+import com.maxprograms.xml.Catalog;
+import com.maxprograms.xml.Document;
+import com.maxprograms.xml.Element;
+import com.maxprograms.xml.IContentHandler;
+
+/**
+ * Content handler for SAXBuilder that runs the XLIFF 1.x checks of
+ * XliffChecker while the file is parsed. No document is built: only the
+ * elements that enclose the current one are kept, without their content.
+ * After the first failed check the rest of the file is still parsed, so
+ * parser errors are reported before semantic errors as when the whole
+ * document was loaded first.
+ */
+class XliffStreamHandler implements IContentHandler {
+
+	private static final String XML_NAMESPACE = "http://www.w3.org/XML/1998/namespace";
+
+	private XliffChecker checker;
+	private Element root;
+	private Deque<Element> stack;
+	private List<String[]> namespaces;
+	private boolean checking;
+	private boolean failed;
+	private int ignored;
+	private boolean hasDoctype;
+
+	XliffStreamHandler(XliffChecker checker) {
+		this.checker = checker;
+		stack = new ArrayDeque<>();
+		namespaces = new ArrayList<>();
+	}
+
+	Element getRoot() {
+		return root;
+	}
+
+	boolean isFailed() {
+		return failed;
+	}
+
+	boolean hasDoctype() {
+		return hasDoctype;
+	}
+
+	@Override
+	public void setCatalog(Catalog catalog) {
+		// entities are resolved by the parser
+	}
+
+	@Override
+	public Document getDocument() {
+		return null;
+	}
+
+	@Override
+	public void startPrefixMapping(String prefix, String uri) throws SAXException {
+		namespaces.add(new String[] { prefix, uri });
+	}
+
+	@Override
+	public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+		Element element = new Element(qName);
+		for (int i = 0; i < namespaces.size(); i++) {
+			String[] namespace = namespaces.get(i);
+			element.setAttribute(namespace[0].isEmpty() ? "xmlns" : "xmlns:" + namespace[0], namespace[1]);
+		}
+		namespaces.clear();
+		for (int i = 0; i < atts.getLength(); i++) {
+			String name = atts.getQName(i);
+			if (XML_NAMESPACE.equals(atts.getURI(i)) && !name.startsWith("xml:")) {
+				name = "xml:" + name;
+			}
+			element.setAttribute(name, atts.getValue(i));
+		}
+		if (root == null) {
+			root = element;
+			checking = checker.startRoot(element);
+		}
+		stack.push(element);
+		if (!checking || failed) {
+			return;
+		}
+		if (ignored > 0 || checker.isIgnored(element)) {
+			ignored++;
+		} else if (!checker.checkStart(element)) {
+			failed = true;
+		}
+	}
+
+	@Override
+	public void endElement(String uri, String localName, String qName) throws SAXException {
+		Element element = stack.pop();
+		if (!checking || failed) {
+			return;
+		}
+		if (ignored > 0) {
+			ignored--;
+		} else if (!checker.checkEnd(element)) {
+			failed = true;
+		}
+	}
+
+	@Override
+	public void startDTD(String name, String publicId, String systemId) throws SAXException {
+		hasDoctype = publicId != null || systemId != null;
+	}
+
+	@Override
+	public void setDocumentLocator(Locator locator) {
+		// not used
+	}
+
+	@Override
+	public void startDocument() throws SAXException {
+		// not used
+	}
+
+	@Override
+	public void endDocument() throws SAXException {
+		// not used
+	}
+
+	@Override
+	public void endPrefixMapping(String prefix) throws SAXException {
+		// not used
+	}
+
+	@Override
+	public void characters(char[] ch, int start, int length) throws SAXException {
+		// text is not checked
+	}
+
+	@Override
+	public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+		// text is not checked
+	}
+
+	@Override
+	public void processingInstruction(String target, String data) throws SAXException {
+		// not checked
+	}
+
+	@Override
+	public void skippedEntity(String name) throws SAXException {
+		// not checked
+	}
+
+	@Override
+	public void comment(char[] ch, int start, int length) throws SAXException {
+		// not checked
+	}
+
+	@Override
+	public void startCDATA() throws SAXException {
+		// text is not checked
+	}
+
+	@Override
+	public void endCDATA() throws SAXException {
+		// text is not checked
+	}
+
+	@Override
+	public void endDTD() throws SAXException {
+		// not used
+	}
+
+	@Override
+	public void startEntity(String name) throws SAXException {
+		// not used
+	}
+
+	@Override
+	public void endEntity(String name) throws SAXException {
+		// not used
+	}
+}
@@ -11,14 +11,20 @@
  *******************************************************************************/
 package com.maxprograms.xliff2;
 
+import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -26,25 +32,27 @@ import java.util.Map;
 import java.util.Vector;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.xml.sax.SAXException;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.XliffStreamWriter;
+import com.maxprograms.converters.XliffUnitReader;
 import com.maxprograms.xml.Attribute;
-import com.maxprograms.xml.Catalog;
-import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
 import com.maxprograms.xml.Indenter;
 import com.maxprograms.xml.PI;
-import com.maxprograms.xml.SAXBuilder;
 import com.maxprograms.xml.XMLNode;
-import com.maxprograms.xml.XMLOutputter;
-import com.maxprograms.xml.XMLUtils;
 
 public class FromXliff2 {
 
-	private static String srcLang;
-	private static String trgLang;
+	private String srcLang;
+	private String trgLang;
+	private List<PI> filePIs;
 
 	private FromXliff2() {
 		// do not instantiate this class
@@ -56,29 +64,41 @@ public class FromXliff2 {
 	}
 
 	public static List<String> run(String sourceFile, String outputFile, String catalog) {
+		return new FromXliff2().convert(sourceFile, outputFile, catalog);
+	}
+
+	private List<String> convert(String sourceFile, String outputFile, String catalog) {
 		List<String> result = new ArrayList<>();
 		try {
-			SAXBuilder builder = new SAXBuilder();
-			builder.setEntityResolver(new Catalog(catalog));
-			Document doc = builder.build(sourceFile);
-			Element root = doc.getRootElement();
-			if (!root.getAttributeValue("version").startsWith("2.")) {
-				result.add(Constants.ERROR);
-				result.add(Messages.getString("FromXliff2.1"));
-				return result;
-			}
-			Document xliff12 = new Document(null, "xliff", null, null);
-			Element root12 = xliff12.getRootElement();
-			recurse(root, root12);
-			Indenter.indent(root12, 2);
-			XMLOutputter outputter = new XMLOutputter();
-			outputter.preserveSpace(true);
-			try (FileOutputStream out = new FileOutputStream(new File(outputFile))) {
-				out.write(XMLUtils.UTF8BOM);
-				outputter.output(xliff12, out);
+			File output = new File(outputFile).getAbsoluteFile();
+			File tmp = File.createTempFile("xliff12", ".xlf", output.getParentFile());
+			try {
+				try (InputStream input = new BufferedInputStream(new FileInputStream(sourceFile))) {
+					XMLStreamReader reader = XliffUnitReader.createFactory(CatalogCache.getCatalog(catalog))
+							.createXMLStreamReader(new File(sourceFile).toURI().toString(), input);
+					try {
+						Element root = XliffUnitReader.readRoot(reader);
+						if (!root.getAttributeValue("version").startsWith("2.")) {
+							result.add(Constants.ERROR);
+							result.add(Messages.getString("FromXliff2.1"));
+							return result;
+						}
+						srcLang = root.getAttributeValue("srcLang");
+						trgLang = root.getAttributeValue("trgLang");
+						try (XliffStreamWriter writer = new XliffStreamWriter(tmp)) {
+							convert(reader, writer);
+						}
+					} finally {
+						reader.close();
+					}
+				}
+				Files.move(tmp.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			} finally {
+				Files.deleteIfExists(tmp.toPath());
 			}
 			result.add(Constants.SUCCESS);
-		} catch (SAXException | IOException | ParserConfigurationException | URISyntaxException ex) {
+		} catch (SAXException | IOException | ParserConfigurationException | URISyntaxException
+				| XMLStreamException ex) {
 			Logger logger = System.getLogger(FromXliff2.class.getName());
 			logger.log(Level.ERROR, Messages.getString("FromXliff2.2"), ex);
 			result.add(Constants.ERROR);
@@ -87,334 +107,394 @@ public class FromXliff2 {
 		return result;
 	}
 
-	private static void recurse(Element source, Element target) {
-		if (source.getName().equals("xliff")) {
-			target.setAttribute("version", "1.2");
-			target.setAttribute("xmlns:xsi", "http://www.w3.org/2001/XMLSchema-instance");
-			target.setAttribute("xsi:schemaLocation",
-					"urn:oasis:names:tc:xliff:document:1.2 xliff-core-1.2-transitional.xsd");
-			target.setAttribute("xmlns", "urn:oasis:names:tc:xliff:document:1.2");
-			srcLang = source.getAttributeValue("srcLang");
-			trgLang = source.getAttributeValue("trgLang");
-
-			List<PI> piList = source.getPI();
-			for (int i = 0; i < piList.size(); i++) {
-				PI pi = piList.get(i);
-				if ("encoding".equals(pi.getTarget())) {
-					String encoding = pi.getData();
-					if (!encoding.equalsIgnoreCase(StandardCharsets.UTF_8.name())) {
-						target.addContent(new PI("encoding", encoding));
-					}
-					continue;
-				}
-				target.addContent(pi);
-			}
-		}
-
-		if (source.getName().equals("file")) {
-			Element file = new Element("file");
-			file.setAttribute("original", source.getAttributeValue("original"));
-			file.setAttribute("source-language", srcLang);
-			if (!trgLang.isEmpty()) {
-				file.setAttribute("target-language", trgLang);
-			}
-			List<Attribute> atts = source.getAttributes();
-			Iterator<Attribute> at = atts.iterator();
-			while (at.hasNext()) {
-				Attribute a = at.next();
-				if (a.getName().startsWith("xmlns:")) {
-					file.setAttribute(a);
-				}
-			}
-			Element header = new Element("header");
-			file.addContent(header);
-			Element body = new Element("body");
-			file.addContent(body);
-			Element skeleton = source.getChild("skeleton");
-			if (skeleton != null) {
-				Element skl = new Element("skl");
-				String href = skeleton.getAttributeValue("href");
-				if (!href.isEmpty()) {
-					Element external = new Element("external-file");
-					external.setAttribute("href", href);
-					skl.addContent(external);
-				} else {
-					Element internal = new Element("internal-file");
-					internal.setContent(skeleton.getContent());
-					skl.addContent(internal);
-				}
-				header.addContent(skl);
-			}
-			Element metadata = source.getChild("mda:metadata");
-			if (metadata != null) {
-				List<Element> metadataList = metadata.getChildren("mda:metaGroup");
-				for (int i = 0; i < metadataList.size(); i++) {
-					Element metaGroup = metadataList.get(i);
-					String category = metaGroup.getAttributeValue("category");
-					if (category.equals("tool")) {
-						Element tool = new Element("tool");
-						header.addContent(tool);
-						List<Element> metaList = metaGroup.getChildren("mda:meta");
-						Iterator<Element> it = metaList.iterator();
-						while (it.hasNext()) {
-							Element meta = it.next();
-							tool.setAttribute(meta.getAttributeValue("type"), meta.getText());
-						}
-						file.setAttribute("tool-id", tool.getAttributeValue("tool-id"));
-					} else if (category.equals("PI")) {
-						List<Element> metaList = metaGroup.getChildren("mda:meta");
-						Iterator<Element> it = metaList.iterator();
-						while (it.hasNext()) {
-							Element meta = it.next();
-							PI pi = new PI(meta.getAttributeValue("type"), meta.getText());
-							file.addContent(pi);
-						}
-					} else if (category.equals("project-data")) {
-						List<Element> metaList = metaGroup.getChildren("mda:meta");
-						Iterator<Element> it = metaList.iterator();
-						while (it.hasNext()) {
-							Element meta = it.next();
-							String type = meta.getAttributeValue("type");
-							if (type.equals("product-name")) {
-								file.setAttribute("product-name", meta.getText());
-							}
-							if (type.equals("project-id")) {
-								file.setAttribute("product-version", meta.getText());
-							}
-							if (type.equals("build-number")) {
-								file.setAttribute("build-num", meta.getText());
-							}
+	/**
+	 * Converts the content of the root element as it is read. Units are read
+	 * one at a time and written as soon as they are converted; a &lt;file&gt;
+	 * or &lt;group&gt; is held until its first unit or group, because the
+	 * metadata that precedes it becomes attributes and header elements.
+	 */
+	private void convert(XMLStreamReader reader, XliffStreamWriter writer) throws XMLStreamException, IOException {
+		Element root12 = new Element("xliff");
+		root12.setAttribute("version", "1.2");
+		root12.setAttribute("xmlns:xsi", "http://www.w3.org/2001/XMLSchema-instance");
+		root12.setAttribute("xsi:schemaLocation",
+				"urn:oasis:names:tc:xliff:document:1.2 xliff-core-1.2-transitional.xsd");
+		root12.setAttribute("xmlns", "urn:oasis:names:tc:xliff:document:1.2");
+		writer.startElement(root12);
+		Element pending = null;
+		// for each open element, whether it was written to the output
+		Deque<Boolean> open = new ArrayDeque<>();
+		open.push(Boolean.TRUE);
+		while (reader.hasNext()) {
+			int event = reader.next();
+			switch (event) {
+				case XMLStreamConstants.START_ELEMENT:
+					String name = XliffUnitReader.getName(reader);
+					Element element = XliffUnitReader.getElement(reader);
+					if (pending != null) {
+						if (!name.equals("unit") && !name.equals("group")) {
+							pending.addContent(XliffUnitReader.readElement(reader, element));
+							break;
 						}
-					} else if (category.equals("format")) {
-						Element meta = metaGroup.getChild("mda:meta");
-						file.setAttribute("datatype", meta.getText());
+						startElement(writer, pending);
+						pending = null;
+					}
+					if (name.equals("unit")) {
+						XliffUnitReader.readElement(reader, element);
+						writer.writeElement(toTransUnit(element));
+					} else if (open.size() == 1 ? name.equals("file") : name.equals("group")) {
+						pending = element;
+						open.push(Boolean.TRUE);
 					} else {
-						Element group = new Element("prop-group");
-						group.setAttribute("name", category);
-						header.addContent(group);
-						List<Element> metaList = metaGroup.getChildren("mda:meta");
-						Iterator<Element> it = metaList.iterator();
+						open.push(Boolean.FALSE);
+					}
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					if (pending != null) {
+						startElement(writer, pending);
+						pending = null;
+					}
+					if (open.size() == 2 && open.peek().booleanValue()) {
+						// close <body> and add the processing instructions of the file
+						writer.endElement();
+						Iterator<PI> it = filePIs.iterator();
 						while (it.hasNext()) {
-							Element meta = it.next();
-							Element prop = new Element("prop");
-							prop.setAttribute("prop-type", meta.getAttributeValue("type"));
-							prop.setContent(meta.getContent());
-							group.addContent(prop);
+							writer.writePI(it.next());
 						}
 					}
-				}
+					if (open.pop().booleanValue()) {
+						writer.endElement();
+					}
+					break;
+				case XMLStreamConstants.PROCESSING_INSTRUCTION:
+					if (open.size() == 1) {
+						PI pi = new PI(reader.getPITarget(), reader.getPIData() != null ? reader.getPIData() : "");
+						if ("encoding".equals(pi.getTarget())
+								&& pi.getData().equalsIgnoreCase(StandardCharsets.UTF_8.name())) {
+							break;
+						}
+						writer.writePI(pi);
+					}
+					break;
+				default:
+					// text between units is replaced by indentation
 			}
+		}
+	}
 
-			target.addContent(file);
-			target = body;
+	private void startElement(XliffStreamWriter writer, Element source) throws IOException {
+		if (source.getName().equals("file")) {
+			writer.startElement(toFile(source));
+			writer.startElement(new Element("body"));
+		} else {
+			writer.startElement(toGroup(source));
 		}
+	}
 
-		if (source.getName().equals("group")) {
-			Element group = new Element("group");
-			group.setAttribute("id", source.getAttributeValue("id"));
-			Element metadata = source.getChild("mda:metadata");
-			if (metadata != null) {
-				Element metaGroup = metadata.getChild("mda:metaGroup");
-				if (metaGroup != null) {
+	/**
+	 * Converts a &lt;file&gt; element that contains only the elements that
+	 * precede its first unit or group. The &lt;body&gt; is not added and the
+	 * processing instructions stored in its metadata are kept in
+	 * <code>filePIs</code>, to be written after the body.
+	 */
+	private Element toFile(Element source) {
+		filePIs = new ArrayList<>();
+		Element file = new Element("file");
+		file.setAttribute("original", source.getAttributeValue("original"));
+		file.setAttribute("source-language", srcLang);
+		if (!trgLang.isEmpty()) {
+			file.setAttribute("target-language", trgLang);
+		}
+		List<Attribute> atts = source.getAttributes();
+		Iterator<Attribute> at = atts.iterator();
+		while (at.hasNext()) {
+			Attribute a = at.next();
+			if (a.getName().startsWith("xmlns:")) {
+				file.setAttribute(a);
+			}
+		}
+		Element header = new Element("header");
+		file.addContent(header);
+		Element skeleton = source.getChild("skeleton");
+		if (skeleton != null) {
+			Element skl = new Element("skl");
+			String href = skeleton.getAttributeValue("href");
+			if (!href.isEmpty()) {
+				Element external = new Element("external-file");
+				external.setAttribute("href", href);
+				skl.addContent(external);
+			} else {
+				Element internal = new Element("internal-file");
+				internal.setContent(skeleton.getContent());
+				skl.addContent(internal);
+			}
+			header.addContent(skl);
+		}
+		Element metadata = source.getChild("mda:metadata");
+		if (metadata != null) {
+			List<Element> metadataList = metadata.getChildren("mda:metaGroup");
+			for (int i = 0; i < metadataList.size(); i++) {
+				Element metaGroup = metadataList.get(i);
+				String category = metaGroup.getAttributeValue("category");
+				if (category.equals("tool")) {
+					Element tool = new Element("tool");
+					header.addContent(tool);
+					List<Element> metaList = metaGroup.getChildren("mda:meta");
+					Iterator<Element> it = metaList.iterator();
+					while (it.hasNext()) {
+						Element meta = it.next();
+						tool.setAttribute(meta.getAttributeValue("type"), meta.getText());
+					}
+					file.setAttribute("tool-id", tool.getAttributeValue("tool-id"));
+				} else if (category.equals("PI")) {
 					List<Element> metaList = metaGroup.getChildren("mda:meta");
 					Iterator<Element> it = metaList.iterator();
 					while (it.hasNext()) {
 						Element meta = it.next();
-						if (meta.getAttributeValue("type").equals("ts")) {
-							group.setAttribute("ts", meta.getText());
+						PI pi = new PI(meta.getAttributeValue("type"), meta.getText());
+						filePIs.add(pi);
+					}
+				} else if (category.equals("project-data")) {
+					List<Element> metaList = metaGroup.getChildren("mda:meta");
+					Iterator<Element> it = metaList.iterator();
+					while (it.hasNext()) {
+						Element meta = it.next();
+						String type = meta.getAttributeValue("type");
+						if (type.equals("product-name")) {
+							file.setAttribute("product-name", meta.getText());
+						}
+						if (type.equals("project-id")) {
+							file.setAttribute("product-version", meta.getText());
 						}
-						if (meta.getAttributeValue("type").equals("space") && meta.getText().equals("keep")) {
-							group.setAttribute("xml:space", "preserve");
+						if (type.equals("build-number")) {
+							file.setAttribute("build-num", meta.getText());
 						}
 					}
+				} else if (category.equals("format")) {
+					Element meta = metaGroup.getChild("mda:meta");
+					file.setAttribute("datatype", meta.getText());
+				} else {
+					Element group = new Element("prop-group");
+					group.setAttribute("name", category);
+					header.addContent(group);
+					List<Element> metaList = metaGroup.getChildren("mda:meta");
+					Iterator<Element> it = metaList.iterator();
+					while (it.hasNext()) {
+						Element meta = it.next();
+						Element prop = new Element("prop");
+						prop.setAttribute("prop-type", meta.getAttributeValue("type"));
+						prop.setContent(meta.getContent());
+						group.addContent(prop);
+					}
 				}
 			}
-			target.addContent(group);
-			target = group;
 		}
 
-		if (source.getName().equals("unit")) {
-			Element transUnit = new Element("trans-unit");
-			transUnit.setAttribute("id", source.getAttributeValue("id"));
-			if ("no".equals(source.getAttributeValue("translate"))) {
-				transUnit.setAttribute("translate", "no");
-			}
-			List<Attribute> atts = source.getAttributes();
-			Iterator<Attribute> at = atts.iterator();
-			while (at.hasNext()) {
-				Attribute a = at.next();
-				if (a.getName().indexOf(':') != -1 && !a.getName().startsWith("xml:")) {
-					transUnit.setAttribute(a);
-				}
-			}
-			target.addContent(transUnit);
-
-			Map<String, String> tags = new HashMap<>();
-			Element originalData = source.getChild("originalData");
-			if (originalData != null) {
-				List<Element> dataList = originalData.getChildren("data");
-				Iterator<Element> it = dataList.iterator();
-				while (it.hasNext()) {
-					Element data = it.next();
-					tags.put(data.getAttributeValue("id"), data.getText());
-				}
-			}
+		return file;
+	}
 
-			Map<String, List<String[]>> attributes = new HashMap<>();
-			Element metadata = source.getChild("mda:metadata");
-			if (metadata != null) {
-				List<Element> groups = metadata.getChildren("mda:metaGroup");
-				Iterator<Element> it = groups.iterator();
+	private static Element toGroup(Element source) {
+		Element group = new Element("group");
+		group.setAttribute("id", source.getAttributeValue("id"));
+		Element metadata = source.getChild("mda:metadata");
+		if (metadata != null) {
+			Element metaGroup = metadata.getChild("mda:metaGroup");
+			if (metaGroup != null) {
+				List<Element> metaList = metaGroup.getChildren("mda:meta");
+				Iterator<Element> it = metaList.iterator();
 				while (it.hasNext()) {
-					Element group = it.next();
-					if ("attributes".equals(group.getAttributeValue("category"))) {
-						String id = group.getAttributeValue("id");
-						List<String[]> list = new ArrayList<>();
-						List<Element> metas = group.getChildren("mda:meta");
-						for (int i = 0; i < metas.size(); i++) {
-							Element meta = metas.get(i);
-							list.add(new String[] { meta.getAttributeValue("type"), meta.getText() });
-						}
-						attributes.put(id, list);
+					Element meta = it.next();
+					if (meta.getAttributeValue("type").equals("ts")) {
+						group.setAttribute("ts", meta.getText());
 					}
-					if ("transUnitAttributes".equals(group.getAttributeValue("category"))) {
-						List<Element> metas = group.getChildren("mda:meta");
-						for (int i = 0; i < metas.size(); i++) {
-							Element meta = metas.get(i);
-							transUnit.setAttribute(meta.getAttributeValue("type"), meta.getText());
-						}
+					if (meta.getAttributeValue("type").equals("space") && meta.getText().equals("keep")) {
+						group.setAttribute("xml:space", "preserve");
 					}
 				}
 			}
+		}
+		return group;
+	}
 
-			Element joinedSource = new Element("source");
-			Element joinedTarget = new Element("target");
-			boolean approved = false;
-			boolean preserve = false;
-			boolean hasTarget = false;
+	/**
+	 * Converts an XLIFF 2.0 &lt;unit&gt; to the XLIFF 1.2 &lt;trans-unit&gt; that
+	 * {@link #run(String, String, String)} writes for it.
+	 */
+	public static Element toTransUnit(Element source) {
+		Element transUnit = new Element("trans-unit");
+		transUnit.setAttribute("id", source.getAttributeValue("id"));
+		if ("no".equals(source.getAttributeValue("translate"))) {
+			transUnit.setAttribute("translate", "no");
+		}
+		List<Attribute> atts = source.getAttributes();
+		Iterator<Attribute> at = atts.iterator();
+		while (at.hasNext()) {
+			Attribute a = at.next();
+			if (a.getName().indexOf(':') != -1 && !a.getName().startsWith("xml:")) {
+				transUnit.setAttribute(a);
+			}
+		}
 
-			List<Element> children = source.getChildren();
-			Iterator<Element> et = children.iterator();
-			while (et.hasNext()) {
-				Element child = et.next();
-				if (child.getName().equals("segment") || child.getName().equals("ignorable")) {
-					Element src = child.getChild("source");
-					if (src.getAttributeValue("xml:space", "default").equals("preserve")) {
-						preserve = true;
-					}
-					joinedSource.addContent(src.getContent());
-					Element tgt = child.getChild("target");
-					if (tgt != null) {
-						hasTarget = true;
-						joinedTarget.addContent(tgt.getContent());
-					}
-					if (tgt == null && child.getName().equals("ignorable")) {
-						joinedTarget.addContent(src.getContent());
+		Map<String, String> tags = new HashMap<>();
+		Element originalData = source.getChild("originalData");
+		if (originalData != null) {
+			List<Element> dataList = originalData.getChildren("data");
+			Iterator<Element> it = dataList.iterator();
+			while (it.hasNext()) {
+				Element data = it.next();
+				tags.put(data.getAttributeValue("id"), data.getText());
+			}
+		}
+
+		Map<String, List<String[]>> attributes = new HashMap<>();
+		Element metadata = source.getChild("mda:metadata");
+		if (metadata != null) {
+			List<Element> groups = metadata.getChildren("mda:metaGroup");
+			Iterator<Element> it = groups.iterator();
+			while (it.hasNext()) {
+				Element group = it.next();
+				if ("attributes".equals(group.getAttributeValue("category"))) {
+					String id = group.getAttributeValue("id");
+					List<String[]> list = new ArrayList<>();
+					List<Element> metas = group.getChildren("mda:meta");
+					for (int i = 0; i < metas.size(); i++) {
+						Element meta = metas.get(i);
+						list.add(new String[] { meta.getAttributeValue("type"), meta.getText() });
 					}
-					if (child.getName().equals("segment") && "final".equals(child.getAttributeValue("state"))) {
-						approved = true;
+					attributes.put(id, list);
+				}
+				if ("transUnitAttributes".equals(group.getAttributeValue("category"))) {
+					List<Element> metas = group.getChildren("mda:meta");
+					for (int i = 0; i < metas.size(); i++) {
+						Element meta = metas.get(i);
+						transUnit.setAttribute(meta.getAttributeValue("type"), meta.getText());
 					}
 				}
 			}
-			if (approved) {
-				transUnit.setAttribute("approved", "yes");
-			}
-			if (preserve) {
-				transUnit.setAttribute("xml:space", "preserve");
+		}
+
+		Element joinedSource = new Element("source");
+		Element joinedTarget = new Element("target");
+		boolean approved = false;
+		boolean preserve = false;
+		boolean hasTarget = false;
+
+		List<Element> children = source.getChildren();
+		Iterator<Element> et = children.iterator();
+		while (et.hasNext()) {
+			Element child = et.next();
+			if (child.getName().equals("segment") || child.getName().equals("ignorable")) {
+				Element src = child.getChild("source");
+				if (src.getAttributeValue("xml:space", "default").equals("preserve")) {
+					preserve = true;
+				}
+				joinedSource.addContent(src.getContent());
+				Element tgt = child.getChild("target");
+				if (tgt != null) {
+					hasTarget = true;
+					joinedTarget.addContent(tgt.getContent());
+				}
+				if (tgt == null && child.getName().equals("ignorable")) {
+					joinedTarget.addContent(src.getContent());
+				}
+				if (child.getName().equals("segment") && "final".equals(child.getAttributeValue("state"))) {
+					approved = true;
+				}
 			}
+		}
+		if (approved) {
+			transUnit.setAttribute("approved", "yes");
+		}
+		if (preserve) {
+			transUnit.setAttribute("xml:space", "preserve");
+		}
 
-			joinedSource = removeComments(joinedSource);
-			joinedTarget = removeComments(joinedTarget);
+		joinedSource = removeComments(joinedSource);
+		joinedTarget = removeComments(joinedTarget);
 
-			Element src = new Element("source");
-			src.setContent(harvestContent(joinedSource, tags, attributes));
+		Element src = new Element("source");
+		src.setContent(harvestContent(joinedSource, tags, attributes));
+		if (preserve) {
+			transUnit.addContent("\n        ");
+		}
+		transUnit.addContent(src);
+
+		Element tgt = new Element("target");
+		if (!joinedTarget.getContent().isEmpty()) {
+			tgt.setContent(harvestContent(joinedTarget, tags, attributes));
+		}
+		if (hasTarget) {
 			if (preserve) {
 				transUnit.addContent("\n        ");
 			}
-			transUnit.addContent(src);
+			transUnit.addContent(tgt);
+		}
 
-			Element tgt = new Element("target");
-			if (!joinedTarget.getContent().isEmpty()) {
-				tgt.setContent(harvestContent(joinedTarget, tags, attributes));
-			}
-			if (hasTarget) {
+		Element notes = source.getChild("notes");
+		if (notes != null) {
+			List<Element> notesList = notes.getChildren("note");
+			for (int i = 0; i < notesList.size(); i++) {
+				Element note = notesList.get(i);
+				Element n = new Element("note");
+				String appliesTo = note.getAttributeValue("appliesTo");
+				if (!appliesTo.isEmpty()) {
+					n.setAttribute("annotates", appliesTo);
+				}
+				n.addContent(note.getText());
 				if (preserve) {
 					transUnit.addContent("\n        ");
 				}
-				transUnit.addContent(tgt);
+				transUnit.addContent(n);
 			}
+		}
 
-			Element notes = source.getChild("notes");
-			if (notes != null) {
-				List<Element> notesList = notes.getChildren("note");
-				for (int i = 0; i < notesList.size(); i++) {
-					Element note = notesList.get(i);
-					Element n = new Element("note");
-					String appliesTo = note.getAttributeValue("appliesTo");
-					if (!appliesTo.isEmpty()) {
-						n.setAttribute("annotates", appliesTo);
+		Element matches = source.getChild("mtc:matches");
+		if (matches != null) {
+			List<Element> matchesList = matches.getChildren("mtc:match");
+			for (int i = 0; i < matchesList.size(); i++) {
+				Element match = matchesList.get(i);
+				Element altTrans = new Element("alt-trans");
+				String quality = match.getAttributeValue("matchQuality");
+				if (!quality.isEmpty()) {
+					try {
+						float f = Float.parseFloat(quality);
+						int round = Math.round(f);
+						altTrans.setAttribute("match-quality", "" + round);
+					} catch (NumberFormatException ne) {
+						// do nothing
 					}
-					n.addContent(note.getText());
-					if (preserve) {
-						transUnit.addContent("\n        ");
-					}
-					transUnit.addContent(n);
 				}
-			}
-
-			Element matches = source.getChild("mtc:matches");
-			if (matches != null) {
-				List<Element> matchesList = matches.getChildren("mtc:match");
-				for (int i = 0; i < matchesList.size(); i++) {
-					Element match = matchesList.get(i);
-					Element altTrans = new Element("alt-trans");
-					String quality = match.getAttributeValue("matchQuality");
-					if (!quality.isEmpty()) {
-						try {
-							float f = Float.parseFloat(quality);
-							int round = Math.round(f);
-							altTrans.setAttribute("match-quality", "" + round);
-						} catch (NumberFormatException ne) {
-							// do nothing
-						}
-					}
-					altTrans.setAttribute("origin", match.getAttributeValue("origin", "unknown"));
-					Element matchData = match.getChild("originalData");
-					if (matchData != null) {
-						List<Element> dataList = matchData.getChildren("data");
-						Iterator<Element> it = dataList.iterator();
-						while (it.hasNext()) {
-							Element data = it.next();
-							if (!tags.containsKey(data.getAttributeValue("id"))) {
-								tags.put(data.getAttributeValue("id"), data.getText());
-							}
+				altTrans.setAttribute("origin", match.getAttributeValue("origin", "unknown"));
+				Element matchData = match.getChild("originalData");
+				if (matchData != null) {
+					List<Element> dataList = matchData.getChildren("data");
+					Iterator<Element> it = dataList.iterator();
+					while (it.hasNext()) {
+						Element data = it.next();
+						if (!tags.containsKey(data.getAttributeValue("id"))) {
+							tags.put(data.getAttributeValue("id"), data.getText());
 						}
 					}
-					Element matchSrc = match.getChild("source");
-					Element s = new Element("source");
-					s.setContent(harvestContent(matchSrc, tags, attributes));
-					altTrans.addContent(s);
-					Element matchTgt = match.getChild("target");
-					Element t = new Element("target");
-					t.setContent(harvestContent(matchTgt, tags, attributes));
-					altTrans.addContent(t);
-					if (preserve) {
-						transUnit.addContent("\n        ");
-					}
-					transUnit.addContent(altTrans);
 				}
+				Element matchSrc = match.getChild("source");
+				Element s = new Element("source");
+				s.setContent(harvestContent(matchSrc, tags, attributes));
+				altTrans.addContent(s);
+				Element matchTgt = match.getChild("target");
+				Element t = new Element("target");
+				t.setContent(harvestContent(matchTgt, tags, attributes));
+				altTrans.addContent(t);
+				if (preserve) {
+					transUnit.addContent("\n        ");
+				}
+				transUnit.addContent(altTrans);
 			}
-			if (preserve) {
-				transUnit.addContent("\n      ");
-			}
-			Indenter.indent(transUnit, 2);
 		}
-
-		List<Element> children = source.getChildren();
-		Iterator<Element> it = children.iterator();
-		while (it.hasNext()) {
-			recurse(it.next(), target);
+		if (preserve) {
+			transUnit.addContent("\n      ");
 		}
+		Indenter.indent(transUnit, 2);
+		return transUnit;
 	}
 
 	public static Element removeComments(Element element) {
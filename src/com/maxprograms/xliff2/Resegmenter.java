@@ -12,7 +12,6 @@
 package com.maxprograms.xliff2;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
@@ -26,7 +25,9 @@ import javax.xml.parsers.ParserConfigurationException;
 import org.xml.sax.SAXException;
 
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.Utf8OutputStream;
 import com.maxprograms.segmenter.Segmenter;
+import com.maxprograms.segmenter.SegmenterCache;
 import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
@@ -38,9 +39,9 @@ import com.maxprograms.xml.XMLOutputter;
 
 public class Resegmenter {
 
-    private static Segmenter segmenter;
-    private static boolean canResegment;
-    private static boolean translate;
+    private Segmenter segmenter;
+    private boolean canResegment;
+    private boolean translate;
 
     private Resegmenter() {
         // do not instantiate this class
@@ -48,15 +49,19 @@ public class Resegmenter {
     }
 
     public static List<String> run(String xliff, String srx, String srcLang, Catalog catalog) {
+        return new Resegmenter().resegment(xliff, srx, srcLang, catalog);
+    }
+
+    private List<String> resegment(String xliff, String srx, String srcLang, Catalog catalog) {
         List<String> result = new ArrayList<>();
         try {
-            segmenter = new Segmenter(srx, srcLang, catalog);
+            segmenter = SegmenterCache.getSegmenter(srx, srcLang, catalog);
             SAXBuilder builder = new SAXBuilder();
             builder.setEntityResolver(catalog);
             Document doc = builder.build(xliff);
             Element root = doc.getRootElement();
             recurse(root);
-            try (FileOutputStream out = new FileOutputStream(new File(xliff))) {
+            try (Utf8OutputStream out = new Utf8OutputStream(new File(xliff))) {
                 XMLOutputter outputter = new XMLOutputter();
                 outputter.preserveSpace(true);
                 Indenter.indent(root, 2);
@@ -86,7 +91,7 @@ public class Resegmenter {
                 && e.getContent().get(e.getContent().size() - 1).getNodeType() == XMLNode.ELEMENT_NODE;
     }
 
-    private static void recurse(Element root) throws SAXException, IOException, ParserConfigurationException {
+    private void recurse(Element root) throws SAXException, IOException, ParserConfigurationException {
         if ("file".equals(root.getName())) {
             canResegment = "yes".equals(root.getAttributeValue("canResegment", "yes"));
             translate = "yes".equals(root.getAttributeValue("translate", "yes"));
@@ -95,85 +100,8 @@ public class Resegmenter {
             translate = "yes".equals(root.getAttributeValue("translate", translate ? "yes" : "no"));
         }
         if ("unit".equals(root.getName())) {
-            boolean hasMatches = !root.getChildren("mtc:matches").isEmpty();
-            if (translate && canResegment && !hasMatches && root.getChildren("segment").size() == 1) {
-                Element segment = root.getChild("segment");
-                String originalId = segment.getAttributeValue("id");
-                String unitId = root.getAttributeValue("id");
-                Element source = segment.getChild("source");
-                Element target = segment.getChild("target");
-                boolean isSourceCopy = target != null && source.getContent().equals(target.getContent());
-                boolean isEmpty = target != null && target.getContent().isEmpty();
-                if (target == null || isSourceCopy || isEmpty) {
-                    Element segSource = segmenter.segment(source);
-                    int newSegments = segSource.getChildren("mrk").size();
-                    int id = 0;
-                    root.removeChild(segment);
-                    List<XMLNode> content = segSource.getContent();
-                    Iterator<XMLNode> it = content.iterator();
-                    while (it.hasNext()) {
-                        XMLNode n = it.next();
-                        if (n.getNodeType() == XMLNode.ELEMENT_NODE) {
-                            Element e = (Element) n;
-                            if ("mrk".equals(e.getName()) && "seg".equals(e.getAttributeValue("mtype"))) {
-                                boolean surrounded = surroundedWithTags(e);
-                                if (surrounded || startsWithTag(e)) {
-                                    // starts with tag
-                                    Element firstTag = e.getChildren().get(0);
-                                    if (!hasText(firstTag)) {
-                                        Element ignorable = new Element("ignorable");
-                                        Element ignorableSource = new Element("source");
-                                        ignorableSource.setAttribute("xml:space", "preserve");
-                                        ignorable.addContent(ignorableSource);
-                                        ignorableSource.addContent(firstTag);
-                                        e.removeChild(firstTag);
-                                        root.addContent(ignorable);
-                                    }
-                                }
-                                Element lastIgnorable = null;
-                                if (surrounded || endsWithTag(e)) {
-                                    // ends with tag
-                                    List<Element> tags = e.getChildren();
-                                    Element lastTag = tags.get(tags.size() - 1);
-                                    if (!hasText(lastTag)) {
-                                        lastIgnorable = new Element("ignorable");
-                                        Element ignorableSource = new Element("source");
-                                        ignorableSource.setAttribute("xml:space", "preserve");
-                                        lastIgnorable.addContent(ignorableSource);
-                                        ignorableSource.addContent(lastTag);
-                                        e.removeChild(lastTag);
-                                    }
-                                }
-                                Element newSeg = new Element("segment");
-                                if (!hasText(e)) {
-                                    newSeg = new Element("ignorable");
-                                }
-                                newSeg.setAttribute("id", newSegments == 1 ? originalId : unitId + '-' + id++);
-                                root.addContent(newSeg);
-                                Element newSource = new Element("source");
-                                newSource.setAttribute("xml:space", source.getAttributeValue("xml:space", "default"));
-                                if ("ignorable".equals(newSeg.getName())) {
-                                    newSource.setAttribute("xml:space", "preserve");
-                                }
-                                newSeg.addContent(newSource);
-                                newSource.addContent(e.getContent());
-                                if (isSourceCopy) {
-                                    Element newTarget = new Element("target");
-                                    newTarget.setAttribute("xml:space",
-                                            source.getAttributeValue("xml:space", "default"));
-                                    newSeg.addContent(newTarget);
-                                    newTarget.addContent(e.getContent());
-                                }
-                                if (lastIgnorable != null) {
-                                    root.addContent(lastIgnorable);
-                                }
-                            } else {
-                                MessageFormat mf = new MessageFormat(Messages.getString("Resegmenter.2"));
-                                throw new SAXException(mf.format(new String[] { e.toString() }));
-                            }
-                        }
-                    }
-                }
+            if (translate && canResegment) {
+                resegment(root, segmenter);
             }
         } else {
             List<Element> children = root.getChildren();
@@ -184,6 +112,94 @@ public class Resegmenter {
         }
     }
 
+    /**
+     * Splits the only segment of a unit with the given segmenter, unless the unit
+     * has matches or a target that is not empty or a copy of the source.
+     */
+    static void resegment(Element unit, Segmenter segmenter)
+            throws SAXException, IOException, ParserConfigurationException {
+        boolean hasMatches = !unit.getChildren("mtc:matches").isEmpty();
+        if (!hasMatches && unit.getChildren("segment").size() == 1) {
+            Element segment = unit.getChild("segment");
+            String originalId = segment.getAttributeValue("id");
+            String unitId = unit.getAttributeValue("id");
+            Element source = segment.getChild("source");
+            Element target = segment.getChild("target");
+            boolean isSourceCopy = target != null && source.getContent().equals(target.getContent());
+            boolean isEmpty = target != null && target.getContent().isEmpty();
+            if (target == null || isSourceCopy || isEmpty) {
+                Element segSource = segmenter.segment(source);
+                int newSegments = segSource.getChildren("mrk").size();
+                int id = 0;
+                unit.removeChild(segment);
+                List<XMLNode> content = segSource.getContent();
+                Iterator<XMLNode> it = content.iterator();
+                while (it.hasNext()) {
+                    XMLNode n = it.next();
+                    if (n.getNodeType() == XMLNode.ELEMENT_NODE) {
+                        Element e = (Element) n;
+                        if ("mrk".equals(e.getName()) && "seg".equals(e.getAttributeValue("mtype"))) {
+                            boolean surrounded = surroundedWithTags(e);
+                            if (surrounded || startsWithTag(e)) {
+                                // starts with tag
+                                Element firstTag = e.getChildren().get(0);
+                                if (!hasText(firstTag)) {
+                                    Element ignorable = new Element("ignorable");
+                                    Element ignorableSource = new Element("source");
+                                    ignorableSource.setAttribute("xml:space", "preserve");
+                                    ignorable.addContent(ignorableSource);
+                                    ignorableSource.addContent(firstTag);
+                                    e.removeChild(firstTag);
+                                    unit.addContent(ignorable);
+                                }
+                            }
+                            Element lastIgnorable = null;
+                            if (surrounded || endsWithTag(e)) {
+                                // ends with tag
+                                List<Element> tags = e.getChildren();
+                                Element lastTag = tags.get(tags.size() - 1);
+                                if (!hasText(lastTag)) {
+                                    lastIgnorable = new Element("ignorable");
+                                    Element ignorableSource = new Element("source");
+                                    ignorableSource.setAttribute("xml:space", "preserve");
+                                    lastIgnorable.addContent(ignorableSource);
+                                    ignorableSource.addContent(lastTag);
+                                    e.removeChild(lastTag);
+                                }
+                            }
+                            Element newSeg = new Element("segment");
+                            if (!hasText(e)) {
+                                newSeg = new Element("ignorable");
+                            }
+                            newSeg.setAttribute("id", newSegments == 1 ? originalId : unitId + '-' + id++);
+                            unit.addContent(newSeg);
+                            Element newSource = new Element("source");
+                            newSource.setAttribute("xml:space", source.getAttributeValue("xml:space", "default"));
+                            if ("ignorable".equals(newSeg.getName())) {
+                                newSource.setAttribute("xml:space", "preserve");
+                            }
+                            newSeg.addContent(newSource);
+                            newSource.addContent(e.getContent());
+                            if (isSourceCopy) {
+                                Element newTarget = new Element("target");
+                                newTarget.setAttribute("xml:space",
+                                        source.getAttributeValue("xml:space", "default"));
+                                newSeg.addContent(newTarget);
+                                newTarget.addContent(e.getContent());
+                            }
+                            if (lastIgnorable != null) {
+                                unit.addContent(lastIgnorable);
+                            }
+                        } else {
+                            MessageFormat mf = new MessageFormat(Messages.getString("Resegmenter.2"));
+                            throw new SAXException(mf.format(new String[] { e.toString() }));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     private static boolean hasText(Element e) {
         List<XMLNode> content = e.getContent();
         Iterator<XMLNode> it = content.iterator();
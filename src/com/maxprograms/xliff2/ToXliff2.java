@@ -11,42 +11,52 @@
  *******************************************************************************/
 package com.maxprograms.xliff2;
 
+import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.text.MessageFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
+import com.maxprograms.converters.CatalogCache;
 import com.maxprograms.converters.Constants;
+import com.maxprograms.converters.XliffStreamWriter;
+import com.maxprograms.converters.XliffUnitReader;
+import com.maxprograms.segmenter.Segmenter;
+import com.maxprograms.segmenter.SegmenterCache;
 import com.maxprograms.xml.Attribute;
 import com.maxprograms.xml.Catalog;
-import com.maxprograms.xml.Document;
 import com.maxprograms.xml.Element;
-import com.maxprograms.xml.Indenter;
 import com.maxprograms.xml.PI;
-import com.maxprograms.xml.SAXBuilder;
 import com.maxprograms.xml.XMLNode;
-import com.maxprograms.xml.XMLOutputter;
-import com.maxprograms.xml.XMLUtils;
 
 import org.xml.sax.SAXException;
 
 public class ToXliff2 {
 
-	private static Element root2;
-	private static int fileId;
-	private static int mrkCount;
+	private int fileId;
+	private int mrkCount;
+	private Segmenter segmenter;
 
-	private static List<String> preserveAttributes = Arrays.asList("reformat", "datatype", "ts", "phase-name",
+	private static final List<String> preserveAttributes = Arrays.asList("reformat", "datatype", "ts", "phase-name",
 			"restype", "resname", "extradata", "help-id", "menu", "menu-option", "menu-name", "coord", "font",
 			"css-style", "style", "exstyle", "extype", "maxbytes", "minbytes", "size-unit", "maxheight", "minheight",
 			"maxwidth", "minwidth", "charclass");
@@ -65,30 +75,55 @@ public class ToXliff2 {
 	}
 
 	public static List<String> run(String sourceFile, String outputFile, String catalog) {
+		return new ToXliff2().convert(sourceFile, outputFile, catalog, null, null);
+	}
+
+	/**
+	 * Converts an XLIFF 1.2 file to XLIFF 2.0 in place, splitting the source of
+	 * each unit with the rules of <code>srx</code> as {@link Resegmenter} does.
+	 */
+	public static List<String> run(File xliffFile, String catalog, String srx, String srcLang) {
+		return new ToXliff2().convert(xliffFile.getAbsolutePath(), xliffFile.getAbsolutePath(), catalog, srx,
+				srcLang);
+	}
+
+	private List<String> convert(String sourceFile, String outputFile, String catalog, String srx, String srcLang) {
 		List<String> result = new ArrayList<>();
 		fileId = 1;
 		try {
-			SAXBuilder builder = new SAXBuilder();
-			builder.setEntityResolver(new Catalog(catalog));
-			Document doc = builder.build(sourceFile);
-			Element root = doc.getRootElement();
-			if (!root.getAttributeValue("version", "1.2").equals("1.2")) {
-				result.add(Constants.ERROR);
-				result.add(Messages.getString("ToXliff2.1"));
-				return result;
-			}
-			Document xliff2 = new Document(null, "xliff", null, null);
-			root2 = xliff2.getRootElement();
-			recurse(root, root2);
-			Indenter.indent(root2, 2);
-			XMLOutputter outputter = new XMLOutputter();
-			outputter.preserveSpace(true);
-			try (FileOutputStream out = new FileOutputStream(new File(outputFile))) {
-				out.write(XMLUtils.UTF8BOM);
-				outputter.output(xliff2, out);
+			Catalog cat = CatalogCache.getCatalog(catalog);
+			if (srx != null) {
+				segmenter = SegmenterCache.getSegmenter(srx, srcLang, cat);
+			}
+			File output = new File(outputFile).getAbsoluteFile();
+			File tmp = File.createTempFile("xliff2", ".xlf", output.getParentFile());
+			try {
+				XMLInputFactory factory = XliffUnitReader.createFactory(cat);
+				List<List<PI>> filePIs = readFilePIs(factory, sourceFile);
+				try (InputStream input = new BufferedInputStream(new FileInputStream(sourceFile))) {
+					XMLStreamReader reader = factory.createXMLStreamReader(new File(sourceFile).toURI().toString(),
+							input);
+					try {
+						Element root = XliffUnitReader.readRoot(reader);
+						if (!root.getAttributeValue("version", "1.2").equals("1.2")) {
+							result.add(Constants.ERROR);
+							result.add(Messages.getString("ToXliff2.1"));
+							return result;
+						}
+						try (XliffStreamWriter writer = new XliffStreamWriter(tmp, segmenter == null)) {
+							convert(reader, writer, filePIs.iterator());
+						}
+					} finally {
+						reader.close();
+					}
+				}
+				Files.move(tmp.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			} finally {
+				Files.deleteIfExists(tmp.toPath());
 			}
 			result.add(Constants.SUCCESS);
-		} catch (SAXException | IOException | ParserConfigurationException | URISyntaxException ex) {
+		} catch (SAXException | IOException | ParserConfigurationException | URISyntaxException
+				| XMLStreamException ex) {
 			Logger logger = System.getLogger(ToXliff2.class.getName());
 			logger.log(Level.ERROR, Messages.getString("ToXliff2.2"));
 			result.add(Constants.ERROR);
@@ -97,384 +132,484 @@ public class ToXliff2 {
 		return result;
 	}
 
-	private static void recurse(Element source, Element target) throws SAXException, IOException {
-		if (source.getName().equals("xliff")) {
-			target.setAttribute("version", "2.0");
-			target.setAttribute("xmlns", "urn:oasis:names:tc:xliff:document:2.0");
-			target.setAttribute("xmlns:mda", "urn:oasis:names:tc:xliff:metadata:2.0");
-			target.setAttribute("xmlns:mtc", "urn:oasis:names:tc:xliff:matches:2.0");
-
-			List<PI> piList = source.getPI();
-			for (int i = 0; i < piList.size(); i++) {
-				PI pi = piList.get(i);
-				if ("encoding".equals(pi.getTarget())) {
-					String encoding = pi.getData();
-					if (!encoding.equalsIgnoreCase(StandardCharsets.UTF_8.name())) {
-						target.addContent(new PI("encoding", encoding));
+	/**
+	 * Collects the processing instructions of each &lt;file&gt;. They become
+	 * metadata written before the units, but files converted back from XLIFF
+	 * 2.0 have them after &lt;body&gt;, so they are read in a first pass.
+	 */
+	private static List<List<PI>> readFilePIs(XMLInputFactory factory, String sourceFile)
+			throws IOException, XMLStreamException {
+		List<List<PI>> result = new ArrayList<>();
+		try (InputStream input = new BufferedInputStream(new FileInputStream(sourceFile))) {
+			XMLStreamReader reader = factory.createXMLStreamReader(new File(sourceFile).toURI().toString(), input);
+			try {
+				int depth = 0;
+				boolean inFile = false;
+				while (reader.hasNext()) {
+					int event = reader.next();
+					if (event == XMLStreamConstants.START_ELEMENT) {
+						depth++;
+						if (depth == 2) {
+							inFile = XliffUnitReader.getName(reader).equals("file");
+							if (inFile) {
+								result.add(new ArrayList<>());
+							}
+						}
+					} else if (event == XMLStreamConstants.END_ELEMENT) {
+						depth--;
+					} else if (event == XMLStreamConstants.PROCESSING_INSTRUCTION && depth == 2 && inFile) {
+						result.get(result.size() - 1).add(
+								new PI(reader.getPITarget(), reader.getPIData() != null ? reader.getPIData() : ""));
 					}
-					continue;
-				}
-				target.addContent(pi);
-			}
-		}
-
-		if (source.getName().equals("file")) {
-			String fileSrcLang = source.getAttributeValue("source-language");
-			root2.setAttribute("srcLang", fileSrcLang);
-			String fileTgtLang = source.getAttributeValue("target-language");
-			if (!fileTgtLang.isEmpty()) {
-				root2.setAttribute("trgLang", fileTgtLang);
-			}
-			Element file = new Element("file");
-			file.setAttribute("id", "" + fileId++);
-			file.setAttribute("original", source.getAttributeValue("original"));
-			List<Attribute> atts = source.getAttributes();
-			Iterator<Attribute> at = atts.iterator();
-			while (at.hasNext()) {
-				Attribute a = at.next();
-				if (a.getName().startsWith("xmlns:")) {
-					file.setAttribute(a);
 				}
+			} finally {
+				reader.close();
 			}
+		}
+		return result;
+	}
 
-			Element fileMetadata = new Element("mda:metadata");
-			Element typeGroup = new Element("mda:metaGroup");
-			typeGroup.setAttribute("category", "format");
-			Element typeMeta = new Element("mda:meta");
-			typeMeta.setAttribute("type", "datatype");
-			typeMeta.addContent(source.getAttributeValue("datatype"));
-			typeGroup.addContent(typeMeta);
-			fileMetadata.addContent(typeGroup);
-			if (!source.getAttributeValue("product-name").isEmpty()
-					|| !source.getAttributeValue("product-version").isEmpty()
-					|| !source.getAttributeValue("build-num").isEmpty()) {
-				Element productGroup = new Element("mda:metaGroup");
-				productGroup.setAttribute("category", "project-data");
-				Element productName = new Element("mda:meta");
-				productName.setAttribute("type", "product-name");
-				productName.setText(source.getAttributeValue("product-name"));
-				productGroup.addContent(productName);
-				Element productVersion = new Element("mda:meta");
-				productVersion.setAttribute("type", "project-id");
-				productVersion.setText(source.getAttributeValue("product-version"));
-				productGroup.addContent(productVersion);
-				Element buildNumber = new Element("mda:meta");
-				buildNumber.setAttribute("type", "build-number");
-				buildNumber.setText(source.getAttributeValue("build-num"));
-				productGroup.addContent(buildNumber);
-				fileMetadata.addContent(productGroup);
-			}
-			Element header = source.getChild("header");
-			if (header != null) {
-				Element skl = header.getChild("skl");
-				if (skl != null) {
-					Element skeleton = new Element("skeleton");
-					Element external = skl.getChild("external-file");
-					if (external != null) {
-						skeleton.setAttribute("href", external.getAttributeValue("href"));
-					} else {
-						Element internal = skl.getChild("internal-file");
-						skeleton.setContent(internal.getContent());
-					}
-					file.addContent(skeleton);
-				}
-
-				List<Element> propGroups = header.getChildren("prop-group");
-				for (int i = 0; i < propGroups.size(); i++) {
-					Element sgroup = propGroups.get(i);
-					Element tgroup = new Element("mda:metaGroup");
-					tgroup.setAttribute("category", sgroup.getAttributeValue("name"));
-					List<Element> props = sgroup.getChildren("prop");
-					Iterator<Element> it = props.iterator();
-					while (it.hasNext()) {
-						Element prop = it.next();
-						Element meta = new Element("mda:meta");
-						meta.setAttribute("type", prop.getAttributeValue("prop-type"));
-						meta.addContent(prop.getText());
-						tgroup.addContent(meta);
-					}
-					if (!tgroup.getChildren().isEmpty()) {
-						fileMetadata.addContent(tgroup);
-					}
-				}
-
-				Element tool = header.getChild("tool");
-				if (tool != null) {
-					Element toolGroup = new Element("mda:metaGroup");
-					toolGroup.setAttribute("category", "tool");
-					String toolId = tool.getAttributeValue("tool-id");
-					if (!toolId.isEmpty()) {
-						Element meta = new Element("mda:meta");
-						meta.setAttribute("type", "tool-id");
-						meta.addContent(toolId);
-						toolGroup.addContent(meta);
-						if (toolId.equals("Fluenta")) {
-							Element fluentaGroup = new Element("mda:metaGroup");
-							fluentaGroup.setAttribute("category", "project-data");
-							Element name = new Element("mda:meta");
-							name.setAttribute("type", "project-name");
-							name.addContent(source.getAttributeValue("product-name"));
-							fluentaGroup.addContent(name);
-							Element project = new Element("mda:meta");
-							project.setAttribute("type", "project-id");
-							project.addContent(source.getAttributeValue("product-version"));
-							fluentaGroup.addContent(project);
-							Element build = new Element("mda:meta");
-							build.setAttribute("type", "build-number");
-							build.addContent(source.getAttributeValue("build-num"));
-							fluentaGroup.addContent(build);
-							fileMetadata.addContent(fluentaGroup);
+	/**
+	 * Converts the content of the root element as it is read. Trans-units are
+	 * read one at a time and written as soon as they are converted; the
+	 * &lt;file&gt; element is held until its &lt;body&gt; starts, because its
+	 * header and processing instructions become the metadata that precedes the
+	 * units.
+	 */
+	private void convert(XMLStreamReader reader, XliffStreamWriter writer, Iterator<List<PI>> filePIs)
+			throws XMLStreamException, SAXException, IOException, ParserConfigurationException {
+		Element root2 = new Element("xliff");
+		root2.setAttribute("version", "2.0");
+		root2.setAttribute("xmlns", "urn:oasis:names:tc:xliff:document:2.0");
+		root2.setAttribute("xmlns:mda", "urn:oasis:names:tc:xliff:metadata:2.0");
+		root2.setAttribute("xmlns:mtc", "urn:oasis:names:tc:xliff:matches:2.0");
+		boolean started = false;
+		Element file = null;
+		// for each open element, whether it was written to the output
+		Deque<Boolean> open = new ArrayDeque<>();
+		open.push(Boolean.TRUE);
+		while (reader.hasNext()) {
+			int event = reader.next();
+			switch (event) {
+				case XMLStreamConstants.START_ELEMENT:
+					String name = XliffUnitReader.getName(reader);
+					Element element = XliffUnitReader.getElement(reader);
+					if (name.equals("trans-unit")) {
+						XliffUnitReader.readElement(reader, element);
+						Element unit = toUnit(element);
+						if (segmenter != null) {
+							Resegmenter.resegment(unit, segmenter);
 						}
+						writer.writeElement(unit);
+					} else if (open.size() == 1 && name.equals("file")) {
+						if (!started) {
+							// the root takes the languages of the first file
+							root2.setAttribute("srcLang", element.getAttributeValue("source-language"));
+							String fileTgtLang = element.getAttributeValue("target-language");
+							if (!fileTgtLang.isEmpty()) {
+								root2.setAttribute("trgLang", fileTgtLang);
+							}
+							writer.startElement(root2);
+							started = true;
+						}
+						file = element;
+						Iterator<PI> pis = filePIs.next().iterator();
+						while (pis.hasNext()) {
+							file.addContent(pis.next());
+						}
+						open.push(Boolean.TRUE);
+					} else if (file != null && name.equals("header")) {
+						file.addContent(XliffUnitReader.readElement(reader, element));
+					} else if (file != null && name.equals("body")) {
+						writer.startElement(toFile(file));
+						file = null;
+						open.push(Boolean.FALSE);
+					} else if (name.equals("group")) {
+						writer.startElement(toGroup(element));
+						open.push(Boolean.TRUE);
+					} else {
+						open.push(Boolean.FALSE);
 					}
-					String toolName = tool.getAttributeValue("tool-name");
-					if (!toolName.isEmpty()) {
-						Element meta = new Element("mda:meta");
-						meta.setAttribute("type", "tool-name");
-						meta.addContent(toolName);
-						toolGroup.addContent(meta);
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					if (file != null && open.size() == 2) {
+						// file without body
+						writer.startElement(toFile(file));
+						file = null;
 					}
-					String toolCompany = tool.getAttributeValue("tool-company");
-					if (!toolCompany.isEmpty()) {
-						Element meta = new Element("mda:meta");
-						meta.setAttribute("type", "tool-company");
-						meta.addContent(toolCompany);
-						toolGroup.addContent(meta);
+					if (open.size() == 1 && !started) {
+						writer.startElement(root2);
+						started = true;
 					}
-					String toolVersion = tool.getAttributeValue("tool-version");
-					if (!toolVersion.isEmpty()) {
-						Element meta = new Element("mda:meta");
-						meta.setAttribute("type", "tool-version");
-						meta.addContent(toolVersion);
-						toolGroup.addContent(meta);
+					if (open.pop().booleanValue()) {
+						writer.endElement();
 					}
-					if (!toolGroup.getChildren().isEmpty()) {
-						fileMetadata.addContent(toolGroup);
+					break;
+				case XMLStreamConstants.PROCESSING_INSTRUCTION:
+					PI pi = new PI(reader.getPITarget(), reader.getPIData() != null ? reader.getPIData() : "");
+					if (open.size() == 1) {
+						if ("encoding".equals(pi.getTarget())
+								&& pi.getData().equalsIgnoreCase(StandardCharsets.UTF_8.name())) {
+							break;
+						}
+						if (started) {
+							writer.writePI(pi);
+						} else {
+							root2.addContent(pi);
+						}
 					}
+					// processing instructions of <file> were collected by readFilePIs()
+					break;
+				default:
+					// text between units is replaced by indentation
+			}
+		}
+	}
+
+	/**
+	 * Converts a &lt;file&gt; element that contains only its &lt;header&gt; and
+	 * processing instructions.
+	 */
+	private Element toFile(Element source) {
+		Element file = new Element("file");
+		file.setAttribute("id", "" + fileId++);
+		file.setAttribute("original", source.getAttributeValue("original"));
+		List<Attribute> atts = source.getAttributes();
+		Iterator<Attribute> at = atts.iterator();
+		while (at.hasNext()) {
+			Attribute a = at.next();
+			if (a.getName().startsWith("xmlns:")) {
+				file.setAttribute(a);
+			}
+		}
+
+		Element fileMetadata = new Element("mda:metadata");
+		Element typeGroup = new Element("mda:metaGroup");
+		typeGroup.setAttribute("category", "format");
+		Element typeMeta = new Element("mda:meta");
+		typeMeta.setAttribute("type", "datatype");
+		typeMeta.addContent(source.getAttributeValue("datatype"));
+		typeGroup.addContent(typeMeta);
+		fileMetadata.addContent(typeGroup);
+		if (!source.getAttributeValue("product-name").isEmpty()
+				|| !source.getAttributeValue("product-version").isEmpty()
+				|| !source.getAttributeValue("build-num").isEmpty()) {
+			Element productGroup = new Element("mda:metaGroup");
+			productGroup.setAttribute("category", "project-data");
+			Element productName = new Element("mda:meta");
+			productName.setAttribute("type", "product-name");
+			productName.setText(source.getAttributeValue("product-name"));
+			productGroup.addContent(productName);
+			Element productVersion = new Element("mda:meta");
+			productVersion.setAttribute("type", "project-id");
+			productVersion.setText(source.getAttributeValue("product-version"));
+			productGroup.addContent(productVersion);
+			Element buildNumber = new Element("mda:meta");
+			buildNumber.setAttribute("type", "build-number");
+			buildNumber.setText(source.getAttributeValue("build-num"));
+			productGroup.addContent(buildNumber);
+			fileMetadata.addContent(productGroup);
+		}
+		Element header = source.getChild("header");
+		if (header != null) {
+			Element skl = header.getChild("skl");
+			if (skl != null) {
+				Element skeleton = new Element("skeleton");
+				Element external = skl.getChild("external-file");
+				if (external != null) {
+					skeleton.setAttribute("href", external.getAttributeValue("href"));
+				} else {
+					Element internal = skl.getChild("internal-file");
+					skeleton.setContent(internal.getContent());
+				}
+				file.addContent(skeleton);
+			}
+
+			List<Element> propGroups = header.getChildren("prop-group");
+			for (int i = 0; i < propGroups.size(); i++) {
+				Element sgroup = propGroups.get(i);
+				Element tgroup = new Element("mda:metaGroup");
+				tgroup.setAttribute("category", sgroup.getAttributeValue("name"));
+				List<Element> props = sgroup.getChildren("prop");
+				Iterator<Element> it = props.iterator();
+				while (it.hasNext()) {
+					Element prop = it.next();
+					Element meta = new Element("mda:meta");
+					meta.setAttribute("type", prop.getAttributeValue("prop-type"));
+					meta.addContent(prop.getText());
+					tgroup.addContent(meta);
+				}
+				if (!tgroup.getChildren().isEmpty()) {
+					fileMetadata.addContent(tgroup);
 				}
 			}
 
-			List<PI> pis = source.getPI();
-			if (!pis.isEmpty()) {
-				Element piGroup = new Element("mda:metaGroup");
-				piGroup.setAttribute("category", "PI");
-				Iterator<PI> pit = pis.iterator();
-				while (pit.hasNext()) {
-					PI pi = pit.next();
+			Element tool = header.getChild("tool");
+			if (tool != null) {
+				Element toolGroup = new Element("mda:metaGroup");
+				toolGroup.setAttribute("category", "tool");
+				String toolId = tool.getAttributeValue("tool-id");
+				if (!toolId.isEmpty()) {
+					Element meta = new Element("mda:meta");
+					meta.setAttribute("type", "tool-id");
+					meta.addContent(toolId);
+					toolGroup.addContent(meta);
+					if (toolId.equals("Fluenta")) {
+						Element fluentaGroup = new Element("mda:metaGroup");
+						fluentaGroup.setAttribute("category", "project-data");
+						Element name = new Element("mda:meta");
+						name.setAttribute("type", "project-name");
+						name.addContent(source.getAttributeValue("product-name"));
+						fluentaGroup.addContent(name);
+						Element project = new Element("mda:meta");
+						project.setAttribute("type", "project-id");
+						project.addContent(source.getAttributeValue("product-version"));
+						fluentaGroup.addContent(project);
+						Element build = new Element("mda:meta");
+						build.setAttribute("type", "build-number");
+						build.addContent(source.getAttributeValue("build-num"));
+						fluentaGroup.addContent(build);
+						fileMetadata.addContent(fluentaGroup);
+					}
+				}
+				String toolName = tool.getAttributeValue("tool-name");
+				if (!toolName.isEmpty()) {
 					Element meta = new Element("mda:meta");
-					meta.setAttribute("type", pi.getTarget());
-					meta.addContent(pi.getData());
-					piGroup.addContent(meta);
+					meta.setAttribute("type", "tool-name");
+					meta.addContent(toolName);
+					toolGroup.addContent(meta);
 				}
-				if (!piGroup.getChildren().isEmpty()) {
-					fileMetadata.addContent(piGroup);
+				String toolCompany = tool.getAttributeValue("tool-company");
+				if (!toolCompany.isEmpty()) {
+					Element meta = new Element("mda:meta");
+					meta.setAttribute("type", "tool-company");
+					meta.addContent(toolCompany);
+					toolGroup.addContent(meta);
+				}
+				String toolVersion = tool.getAttributeValue("tool-version");
+				if (!toolVersion.isEmpty()) {
+					Element meta = new Element("mda:meta");
+					meta.setAttribute("type", "tool-version");
+					meta.addContent(toolVersion);
+					toolGroup.addContent(meta);
+				}
+				if (!toolGroup.getChildren().isEmpty()) {
+					fileMetadata.addContent(toolGroup);
 				}
 			}
+		}
 
-			if (!fileMetadata.getChildren().isEmpty()) {
-				file.addContent(fileMetadata);
+		List<PI> pis = source.getPI();
+		if (!pis.isEmpty()) {
+			Element piGroup = new Element("mda:metaGroup");
+			piGroup.setAttribute("category", "PI");
+			Iterator<PI> pit = pis.iterator();
+			while (pit.hasNext()) {
+				PI pi = pit.next();
+				Element meta = new Element("mda:meta");
+				meta.setAttribute("type", pi.getTarget());
+				meta.addContent(pi.getData());
+				piGroup.addContent(meta);
+			}
+			if (!piGroup.getChildren().isEmpty()) {
+				fileMetadata.addContent(piGroup);
 			}
+		}
 
-			target.addContent(file);
-			target = file;
+		if (!fileMetadata.getChildren().isEmpty()) {
+			file.addContent(fileMetadata);
 		}
+		return file;
+	}
 
-		if (source.getName().equals("group")) {
-			Element group = new Element("group");
-			group.setAttribute("id", source.getAttributeValue("id"));
-			String ts = source.getAttributeValue("ts");
-			if (!ts.isEmpty()) {
-				Element metadata = new Element("mda:metadata");
-				Element metaGroup = new Element("mda:metaGroup");
-				metadata.addContent(metaGroup);
+	private static Element toGroup(Element source) {
+		Element group = new Element("group");
+		group.setAttribute("id", source.getAttributeValue("id"));
+		String ts = source.getAttributeValue("ts");
+		if (!ts.isEmpty()) {
+			Element metadata = new Element("mda:metadata");
+			Element metaGroup = new Element("mda:metaGroup");
+			metadata.addContent(metaGroup);
+			Element meta = new Element("mda:meta");
+			meta.setAttribute("type", "ts");
+			meta.addContent(ts);
+			metaGroup.addContent(meta);
+			group.addContent(metadata);
+			if (source.getAttributeValue("xml:space").equals("preserve")) {
+				Element space = new Element("mda:meta");
+				space.setAttribute("type", "space");
+				space.addContent("keep");
+				metaGroup.addContent(space);
+			}
+		}
+		return group;
+	}
+
+	private Element toUnit(Element source) throws SAXException, IOException {
+		Element unit = new Element("unit");
+		unit.setAttribute("id", source.getAttributeValue("id"));
+		if (source.getAttributeValue("translate", "yes").equals("no")) {
+			unit.setAttribute("translate", "no");
+		}
+		List<Attribute> atts = source.getAttributes();
+		Iterator<Attribute> at = atts.iterator();
+		List<Attribute> otherAttributes = new ArrayList<>();
+		while (at.hasNext()) {
+			Attribute a = at.next();
+			if (a.getName().indexOf(':') != -1 && !a.getName().startsWith("xml:")) {
+				unit.setAttribute(a);
+			} else if (preserveAttributes.contains(a.getName())) {
+				otherAttributes.add(a);
+			}
+		}
+		if (!otherAttributes.isEmpty()) {
+			Element metadata = new Element("mda:metadata");
+			unit.addContent(metadata);
+			Element metaGroup = new Element("mda:metaGroup");
+			metaGroup.setAttribute("category", "transUnitAttributes");
+			metadata.addContent(metaGroup);
+			Iterator<Attribute> ats = otherAttributes.iterator();
+			while (ats.hasNext()) {
+				Attribute a = ats.next();
 				Element meta = new Element("mda:meta");
-				meta.setAttribute("type", "ts");
-				meta.addContent(ts);
+				meta.setAttribute("type", a.getName());
+				meta.setText(a.getValue());
 				metaGroup.addContent(meta);
-				group.addContent(metadata);
-				if (source.getAttributeValue("xml:space").equals("preserve")) {
-					Element space = new Element("mda:meta");
-					space.setAttribute("type", "space");
-					space.addContent("keep");
-					metaGroup.addContent(space);
-				}
-			}
-			target.addContent(group);
-			target = group;
-		}
-
-		if (source.getName().equals("trans-unit")) {
-			Element unit = new Element("unit");
-			unit.setAttribute("id", source.getAttributeValue("id"));
-			if (source.getAttributeValue("translate", "yes").equals("no")) {
-				unit.setAttribute("translate", "no");
-			}
-			List<Attribute> atts = source.getAttributes();
-			Iterator<Attribute> at = atts.iterator();
-			List<Attribute> otherAttributes = new ArrayList<>();
-			while (at.hasNext()) {
-				Attribute a = at.next();
-				if (a.getName().indexOf(':') != -1 && !a.getName().startsWith("xml:")) {
-					unit.setAttribute(a);
-				} else if (preserveAttributes.contains(a.getName())) {
-					otherAttributes.add(a);
-				}
 			}
-			if (!otherAttributes.isEmpty()) {
-				Element metadata = new Element("mda:metadata");
-				unit.addContent(metadata);
-				Element metaGroup = new Element("mda:metaGroup");
-				metaGroup.setAttribute("category", "transUnitAttributes");
-				metadata.addContent(metaGroup);
-				Iterator<Attribute> ats = otherAttributes.iterator();
-				while (ats.hasNext()) {
-					Attribute a = ats.next();
-					Element meta = new Element("mda:meta");
-					meta.setAttribute("type", a.getName());
-					meta.setText(a.getValue());
-					metaGroup.addContent(meta);
+		}
+
+		List<Element> sourceNotes = new ArrayList<>();
+		List<Element> targetNotes = new ArrayList<>();
+		List<Element> notesList = source.getChildren("note");
+		if (!notesList.isEmpty()) {
+			Element notes = new Element("notes");
+			unit.addContent(notes);
+			for (int i = 0; i < notesList.size(); i++) {
+				Element note = notesList.get(i);
+				Element n = new Element("note");
+				n.setAttribute("id", "n" + (i + 1));
+				notes.addContent(n);
+				n.addContent(note.getText());
+				if ("source".equals(note.getAttributeValue("annotates", "target"))) {
+					sourceNotes.add(n);
+				} else {
+					targetNotes.add(n);
 				}
 			}
-			target.addContent(unit);
-
-			List<Element> sourceNotes = new ArrayList<>();
-			List<Element> targetNotes = new ArrayList<>();
-			List<Element> notesList = source.getChildren("note");
-			if (!notesList.isEmpty()) {
-				Element notes = new Element("notes");
-				unit.addContent(notes);
-				for (int i = 0; i < notesList.size(); i++) {
-					Element note = notesList.get(i);
-					Element n = new Element("note");
-					n.setAttribute("id", "n" + (i + 1));
-					notes.addContent(n);
-					n.addContent(note.getText());
-					if ("source".equals(note.getAttributeValue("annotates", "target"))) {
-						sourceNotes.add(n);
-					} else {
-						targetNotes.add(n);
-					}
-				}
+		}
+
+		Element tagAttributes = new Element("mda:metadata");
+		tagAttributes.setAttribute("id", unit.getAttributeValue("id"));
+		unit.addContent(tagAttributes);
+		Element originalData = new Element("originalData");
+		unit.addContent(originalData);
+
+		Element src = source.getChild("source");
+		harvestInline(originalData, tagAttributes, src);
+
+		Element segment = new Element("segment");
+		segment.setAttribute("id", source.getAttributeValue("id"));
+		unit.addContent(segment);
+		if (source.getAttributeValue("approved", "no").equals("yes")) {
+			segment.setAttribute("state", "final");
+		}
+		Element src2 = new Element("source");
+		if (source.getAttributeValue("xml:space", "default").equals("preserve")) {
+			src2.setAttribute("xml:space", "preserve");
+		}
+		mrkCount = 1;
+		src2.setContent(harvestContent(src, tagAttributes));
+		if (!sourceNotes.isEmpty()) {
+			for (int i = 0; i < sourceNotes.size(); i++) {
+				Element note = sourceNotes.get(i);
+				Element mrk = new Element("mrk");
+				mrk.setAttribute("id", "sn" + i);
+				mrk.setAttribute("type", "comment");
+				mrk.setAttribute("ref", "#n=" + note.getAttributeValue("id"));
+				mrk.setContent(src2.getContent());
+				List<XMLNode> content = new ArrayList<>();
+				content.add(mrk);
+				src2.setContent(content);
 			}
+		}
+		segment.addContent(src2);
 
-			Element tagAttributes = new Element("mda:metadata");
-			tagAttributes.setAttribute("id", unit.getAttributeValue("id"));
-			unit.addContent(tagAttributes);
-			Element originalData = new Element("originalData");
-			unit.addContent(originalData);
-
-			Element src = source.getChild("source");
-			harvestInline(originalData, tagAttributes, src);
-
-			Element segment = new Element("segment");
-			segment.setAttribute("id", source.getAttributeValue("id"));
-			unit.addContent(segment);
-			if (source.getAttributeValue("approved", "no").equals("yes")) {
-				segment.setAttribute("state", "final");
-			}
-			Element src2 = new Element("source");
-			if (source.getAttributeValue("xml:space", "default").equals("preserve")) {
-				src2.setAttribute("xml:space", "preserve");
-			}
-			mrkCount = 1;
-			src2.setContent(harvestContent(src, tagAttributes));
-			if (!sourceNotes.isEmpty()) {
-				for (int i = 0; i < sourceNotes.size(); i++) {
-					Element note = sourceNotes.get(i);
-					Element mrk = new Element("mrk");
-					mrk.setAttribute("id", "sn" + i);
-					mrk.setAttribute("type", "comment");
-					mrk.setAttribute("ref", "#n=" + note.getAttributeValue("id"));
-					mrk.setContent(src2.getContent());
-					List<XMLNode> content = new ArrayList<>();
-					content.add(mrk);
-					src2.setContent(content);
-				}
+		Element tgt = source.getChild("target");
+		boolean hasTarget = true;
+		if (tgt == null) {
+			tgt = new Element("target");
+			hasTarget = false;
+		}
+		harvestInline(originalData, tagAttributes, tgt);
+		Element tgt2 = new Element("target");
+		if ("preserve".equals(source.getAttributeValue("xml:space"))) {
+			tgt2.setAttribute("xml:space", "preserve");
+		}
+		mrkCount = 1;
+		tgt2.setContent(harvestContent(tgt, tagAttributes));
+		if (!targetNotes.isEmpty()) {
+			for (int i = 0; i < targetNotes.size(); i++) {
+				Element note = targetNotes.get(i);
+				Element mrk = new Element("mrk");
+				mrk.setAttribute("id", "tn" + i);
+				mrk.setAttribute("type", "comment");
+				mrk.setAttribute("ref", "#n=" + note.getAttributeValue("id"));
+				mrk.setContent(tgt2.getContent());
+				List<XMLNode> content = new ArrayList<>();
+				content.add(mrk);
+				tgt2.setContent(content);
 			}
-			segment.addContent(src2);
-
-			Element tgt = source.getChild("target");
-			boolean hasTarget = true;
-			if (tgt == null) {
-				tgt = new Element("target");
-				hasTarget = false;
-			}
-			harvestInline(originalData, tagAttributes, tgt);
-			Element tgt2 = new Element("target");
-			if ("preserve".equals(source.getAttributeValue("xml:space"))) {
-				tgt2.setAttribute("xml:space", "preserve");
-			}
-			mrkCount = 1;
-			tgt2.setContent(harvestContent(tgt, tagAttributes));
-			if (!targetNotes.isEmpty()) {
-				for (int i = 0; i < targetNotes.size(); i++) {
-					Element note = targetNotes.get(i);
-					Element mrk = new Element("mrk");
-					mrk.setAttribute("id", "tn" + i);
-					mrk.setAttribute("type", "comment");
-					mrk.setAttribute("ref", "#n=" + note.getAttributeValue("id"));
-					mrk.setContent(tgt2.getContent());
-					List<XMLNode> content = new ArrayList<>();
-					content.add(mrk);
-					tgt2.setContent(content);
-				}
+		}
+		if (!tgt2.getContent().isEmpty()) {
+			if (!"final".equals(segment.getAttributeValue("state", "initial"))) {
+				segment.setAttribute("state", "translated");
 			}
-			if (!tgt2.getContent().isEmpty()) {
-				if (!"final".equals(segment.getAttributeValue("state", "initial"))) {
-					segment.setAttribute("state", "translated");
-				}
-			} else {
-				segment.setAttribute("state", "initial");
-			}
-			if (hasTarget) {
-				segment.addContent(tgt2);
-			}
-
-			List<Element> matches = source.getChildren("alt-trans");
-			if (!matches.isEmpty()) {
-				root2.setAttribute("xmlns:mtc", "urn:oasis:names:tc:xliff:matches:2.0");
-				Element mtc = new Element("mtc:matches");
-				unit.getContent().add(0, mtc);
-				for (int i = 0; i < matches.size(); i++) {
-					Element altTrans = matches.get(i);
-					Element match = new Element("mtc:match");
-					match.setAttribute("ref", "#" + source.getAttributeValue("id"));
-					String matchQuality = altTrans.getAttributeValue("match-quality");
-					if (!matchQuality.isEmpty()) {
-						try {
-							Float quality = Float.parseFloat(matchQuality);
-							match.setAttribute("matchQuality", "" + quality);
-						} catch (NumberFormatException nf) {
-							// ignore
-						}
-					}
-					String origin = altTrans.getAttributeValue("origin");
-					if (!origin.isEmpty()) {
-						match.setAttribute("origin", origin);
+		} else {
+			segment.setAttribute("state", "initial");
+		}
+		if (hasTarget) {
+			segment.addContent(tgt2);
+		}
+
+		List<Element> matches = source.getChildren("alt-trans");
+		if (!matches.isEmpty()) {
+			Element mtc = new Element("mtc:matches");
+			unit.getContent().add(0, mtc);
+			for (int i = 0; i < matches.size(); i++) {
+				Element altTrans = matches.get(i);
+				Element match = new Element("mtc:match");
+				match.setAttribute("ref", "#" + source.getAttributeValue("id"));
+				String matchQuality = altTrans.getAttributeValue("match-quality");
+				if (!matchQuality.isEmpty()) {
+					try {
+						Float quality = Float.parseFloat(matchQuality);
+						match.setAttribute("matchQuality", "" + quality);
+					} catch (NumberFormatException nf) {
+						// ignore
 					}
-					Element tsrc = new Element("source");
-					mrkCount = 1;
-					tsrc.setContent(harvestContent(altTrans.getChild("source"), null));
-					match.addContent(tsrc);
-					Element ttgt = new Element("target");
-					mrkCount = 1;
-					ttgt.setContent(harvestContent(altTrans.getChild("target"), null));
-					match.addContent(ttgt);
-					mtc.addContent(match);
 				}
-			}
-			if (originalData.getChildren("data").isEmpty()) {
-				unit.removeChild(originalData);
-			}
-			if (tagAttributes.getChildren("mda:metaGroup").isEmpty()) {
-				unit.removeChild(tagAttributes);
+				String origin = altTrans.getAttributeValue("origin");
+				if (!origin.isEmpty()) {
+					match.setAttribute("origin", origin);
+				}
+				Element tsrc = new Element("source");
+				mrkCount = 1;
+				tsrc.setContent(harvestContent(altTrans.getChild("source"), null));
+				match.addContent(tsrc);
+				Element ttgt = new Element("target");
+				mrkCount = 1;
+				ttgt.setContent(harvestContent(altTrans.getChild("target"), null));
+				match.addContent(ttgt);
+				mtc.addContent(match);
 			}
 		}
-
-		List<Element> children = source.getChildren();
-		Iterator<Element> it = children.iterator();
-		while (it.hasNext()) {
-			recurse(it.next(), target);
+		if (originalData.getChildren("data").isEmpty()) {
+			unit.removeChild(originalData);
+		}
+		if (tagAttributes.getChildren("mda:metaGroup").isEmpty()) {
+			unit.removeChild(tagAttributes);
 		}
+		return unit;
 	}
 
 	private static void harvestInline(Element originalData, Element tagAttributes, Element tag) {
@@ -569,7 +704,7 @@ public class ToXliff2 {
 		}
 	}
 
-	private static List<XMLNode> harvestContent(Element e, Element tagAttributes) throws SAXException, IOException {
+	private List<XMLNode> harvestContent(Element e, Element tagAttributes) throws SAXException, IOException {
 		if ("sub".equals(e.getName())) {
 			throw new SAXException(Messages.getString("ToXliff2.3"));
 		}
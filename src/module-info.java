@@ -38,6 +38,7 @@ module openxliff {
 	exports com.maxprograms.xliff2;
 	exports com.maxprograms.validation;
 	exports com.maxprograms.mt;
+	exports com.maxprograms.server;
 
 	opens com.maxprograms.languages to mapdb;
 
@@ -46,6 +47,7 @@ module openxliff {
 	requires mapdb;
 	requires java.base;
 	requires java.net.http;
+	requires jdk.httpserver;
 	requires transitive json;
 	requires transitive java.xml;
 	requires transitive xmljava;
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.converters;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.xml.sax.SAXException;
+
+/**
+ * Runs CopySources and ApproveAll, which read documents with
+ * XliffUnitReader, on synthetic XLIFF 1.2 files of growing size and checks
+ * that the live heap does not grow with the document. Live heap is sampled
+ * after a full collection every 100 ms while each tool runs.
+ * <p>
+ * Pass the numbers of units as arguments to try other sizes.
+ */
+public class XliffUnitReaderTest {
+
+	private static final int[] SIZES = { 20000, 80000, 320000 };
+	private static final long MARGIN = 16 * 1024 * 1024;
+	private static final long MB = 1024 * 1024;
+
+	private static volatile boolean running;
+	private static volatile long peak;
+	private static Thread sampler;
+
+	private XliffUnitReaderTest() {
+		// do not instantiate this class
+	}
+
+	public static void main(String[] args)
+			throws IOException, SAXException, ParserConfigurationException, URISyntaxException, InterruptedException {
+		int[] sizes = SIZES;
+		if (args.length > 0) {
+			sizes = new int[args.length];
+			for (int i = 0; i < args.length; i++) {
+				sizes[i] = Integer.parseInt(args[i]);
+			}
+		}
+		String catalog = new File("catalog/catalog.xml").getAbsolutePath();
+		long first = 0;
+		long last = 0;
+		int failed = 0;
+		for (int i = 0; i < sizes.length; i++) {
+			File xliff = File.createTempFile("units", ".xlf");
+			try {
+				generate(xliff, sizes[i]);
+				long length = xliff.length();
+
+				startSampling();
+				CopySources.copySources(xliff.getAbsolutePath(), catalog);
+				long copyPeak = stopSampling();
+
+				startSampling();
+				ApproveAll.approveAll(xliff.getAbsolutePath(), catalog);
+				long approvePeak = stopSampling();
+
+				int targets = count(xliff, "<target>");
+				int approved = count(xliff, "approved=\"yes\"");
+				if (targets != sizes[i] || approved != sizes[i]) {
+					failed++;
+					System.err.println(sizes[i] + " units: " + targets + " targets, " + approved + " approved");
+				}
+				long max = Math.max(copyPeak, approvePeak);
+				if (i == 0) {
+					first = max;
+				}
+				last = max;
+				System.out.println("XliffUnitReaderTest: " + sizes[i] + " units, " + length / MB + " MB, CopySources "
+						+ copyPeak / MB + " MB, ApproveAll " + approvePeak / MB + " MB");
+			} finally {
+				Files.deleteIfExists(xliff.toPath());
+			}
+		}
+		if (last > first + MARGIN) {
+			failed++;
+			System.err.println("Live heap grew from " + first / MB + " MB to " + last / MB + " MB");
+		}
+		if (failed > 0) {
+			System.exit(1);
+		}
+	}
+
+	private static void generate(File file, int units) throws IOException {
+		try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+			writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+			writer.write("<xliff version=\"1.2\" xmlns=\"urn:oasis:names:tc:xliff:document:1.2\">\n");
+			writer.write("  <file original=\"units.txt\" source-language=\"en\" target-language=\"es\""
+					+ " datatype=\"plaintext\">\n");
+			writer.write("    <header/>\n");
+			writer.write("    <body>\n");
+			for (int i = 0; i < units; i++) {
+				writer.write("      <trans-unit id=\"" + i + "\" xml:space=\"preserve\">\n");
+				writer.write("        <source>Segment " + i + " has <g id=\"1\">some tagged text</g> and a"
+						+ " placeholder <x id=\"2\"/> to copy.</source>\n");
+				writer.write("      </trans-unit>\n");
+			}
+			writer.write("    </body>\n");
+			writer.write("  </file>\n");
+			writer.write("</xliff>\n");
+		}
+	}
+
+	private static int count(File file, String text) throws IOException {
+		int result = 0;
+		try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				int index = line.indexOf(text);
+				while (index != -1) {
+					result++;
+					index = line.indexOf(text, index + text.length());
+				}
+			}
+		}
+		return result;
+	}
+
+	private static void startSampling() {
+		System.gc();
+		peak = 0;
+		running = true;
+		sampler = new Thread(() -> {
+			MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+			while (running) {
+				System.gc();
+				peak = Math.max(peak, memory.getHeapMemoryUsage().getUsed());
+				try {
+					Thread.sleep(100);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		});
+		sampler.setDaemon(true);
+		sampler.start();
+	}
+
+	private static long stopSampling() throws InterruptedException {
+		running = false;
+		sampler.join();
+		return peak;
+	}
+}
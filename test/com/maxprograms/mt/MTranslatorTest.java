@@ -0,0 +1,299 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+
+package com.maxprograms.mt;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.maxprograms.languages.Language;
+import com.maxprograms.xml.Element;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Checks MTranslator.translate(List) against a stub HTTP translation service
+ * on the loopback address. Batched translation must add the same alt-trans
+ * elements, in the same order, as calling translate(Element) for each
+ * segment, and no engine may receive more requests at the same time than its
+ * getMaxConcurrency() allows or batches larger than its limits.
+ */
+public class MTranslatorTest {
+
+    private static final int SEGMENTS = 120;
+    private static final int DELAY = 20;
+
+    private static HttpClient client = HttpClient.newHttpClient();
+
+    private MTranslatorTest() {
+        // do not instantiate this class
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.start();
+        int failed = 0;
+        try {
+            String url = "http://127.0.0.1:" + server.getAddress().getPort();
+            List<StubEngine> engines = new ArrayList<>();
+            engines.add(new StubEngine(server, url, "batched", 10, Integer.MAX_VALUE, 3));
+            engines.add(new StubEngine(server, url, "single", 1, Integer.MAX_VALUE, 2));
+            engines.add(new StubEngine(server, url, "long", 50, 400, 1));
+
+            List<Element> expected = createSegments();
+            List<Element> actual = copy(expected);
+
+            MTranslator translator = new MTranslator();
+            for (int i = 0; i < engines.size(); i++) {
+                translator.addEngine(engines.get(i));
+            }
+            long start = System.currentTimeMillis();
+            for (int i = 0; i < expected.size(); i++) {
+                translator.translate(expected.get(i));
+            }
+            long single = System.currentTimeMillis() - start;
+            for (int i = 0; i < engines.size(); i++) {
+                engines.get(i).reset();
+            }
+            start = System.currentTimeMillis();
+            translator.translate(actual);
+            long batched = System.currentTimeMillis() - start;
+
+            for (int i = 0; i < expected.size(); i++) {
+                if (!expected.get(i).toString().equals(actual.get(i).toString())) {
+                    failed++;
+                    System.err.println("Segment " + i + ":");
+                    System.err.println("  expected: " + expected.get(i));
+                    System.err.println("  actual:   " + actual.get(i));
+                }
+            }
+            for (int i = 0; i < engines.size(); i++) {
+                StubEngine engine = engines.get(i);
+                System.out.println("MTranslatorTest: " + engine.getName() + " " + engine.requests.get()
+                        + " requests, at most " + engine.maxInFlight.get() + " at the same time, limit "
+                        + engine.getMaxConcurrency());
+                if (engine.maxInFlight.get() > engine.getMaxConcurrency()) {
+                    failed++;
+                    System.err.println(engine.getName() + ": too many requests at the same time");
+                }
+                if (engine.oversized.get() > 0) {
+                    failed++;
+                    System.err.println(engine.getName() + ": " + engine.oversized.get() + " oversized batches");
+                }
+            }
+            System.out.println("MTranslatorTest: " + SEGMENTS + " segments, one by one " + single + " ms, batched "
+                    + batched + " ms, " + failed + " differences");
+        } finally {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static List<Element> createSegments() {
+        List<Element> result = new ArrayList<>();
+        for (int i = 0; i < SEGMENTS; i++) {
+            Element unit = new Element("trans-unit");
+            unit.setAttribute("id", "" + i);
+            Element source = new Element("source");
+            if (i % 17 != 0) {
+                // every 17th segment has no text and is not sent
+                source.addContent("Segment " + i + " with ");
+                Element g = new Element("g");
+                g.setAttribute("id", "1");
+                g.setText("bold & <tagged>");
+                source.addContent(g);
+                source.addContent(" text" + ".".repeat(i % 40));
+            }
+            unit.addContent(source);
+            result.add(unit);
+        }
+        return result;
+    }
+
+    private static List<Element> copy(List<Element> list) {
+        List<Element> result = new ArrayList<>();
+        for (int i = 0; i < list.size(); i++) {
+            Element e = new Element();
+            e.clone(list.get(i));
+            result.add(e);
+        }
+        return result;
+    }
+
+    private static class StubEngine implements MTEngine {
+
+        private String name;
+        private String url;
+        private int batchSize;
+        private int batchLength;
+        private int maxConcurrency;
+        AtomicInteger requests = new AtomicInteger();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger oversized = new AtomicInteger();
+
+        StubEngine(HttpServer server, String url, String name, int batchSize, int batchLength,
+                int maxConcurrency) {
+            this.name = name;
+            this.url = url + "/" + name;
+            this.batchSize = batchSize;
+            this.batchLength = batchLength;
+            this.maxConcurrency = maxConcurrency;
+            server.createContext("/" + name, this::handle);
+        }
+
+        void reset() {
+            requests.set(0);
+            maxInFlight.set(0);
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            requests.incrementAndGet();
+            try {
+                JSONArray texts;
+                try (InputStream in = exchange.getRequestBody()) {
+                    texts = new JSONObject(new String(in.readAllBytes(), StandardCharsets.UTF_8))
+                            .getJSONArray("texts");
+                }
+                int length = 0;
+                JSONArray translations = new JSONArray();
+                for (int i = 0; i < texts.length(); i++) {
+                    String text = texts.getString(i);
+                    length += text.length();
+                    translations.put("[" + name + "] " + text.toUpperCase());
+                }
+                if (texts.length() > batchSize || (texts.length() > 1 && length > batchLength)) {
+                    oversized.incrementAndGet();
+                }
+                Thread.sleep(DELAY);
+                // the request is over for the client as soon as the response starts
+                inFlight.decrementAndGet();
+                JSONObject result = new JSONObject();
+                result.put("translations", translations);
+                byte[] bytes = result.toString().getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                inFlight.decrementAndGet();
+                exchange.sendResponseHeaders(500, -1);
+            }
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getShortName() {
+            return name;
+        }
+
+        @Override
+        public List<Language> getSourceLanguages() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public List<Language> getTargetLanguages() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public void setSourceLanguage(String lang) {
+            // the stub translates from any language
+        }
+
+        @Override
+        public String getSourceLanguage() {
+            return "en";
+        }
+
+        @Override
+        public void setTargetLanguage(String lang) {
+            // the stub translates to any language
+        }
+
+        @Override
+        public String getTargetLanguage() {
+            return "es";
+        }
+
+        @Override
+        public String translate(String source) throws IOException, InterruptedException {
+            List<String> list = new ArrayList<>();
+            list.add(source);
+            return translate(list).get(0);
+        }
+
+        @Override
+        public List<String> translate(List<String> sources) throws IOException, InterruptedException {
+            JSONObject json = new JSONObject();
+            json.put("texts", new JSONArray(sources));
+            HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json.toString())).build();
+            HttpResponse<String> response = client.send(request, BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("Status " + response.statusCode());
+            }
+            JSONArray translations = new JSONObject(response.body()).getJSONArray("translations");
+            List<String> result = new ArrayList<>();
+            for (int i = 0; i < translations.length(); i++) {
+                result.add(translations.getString(i));
+            }
+            return result;
+        }
+
+        @Override
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        @Override
+        public int getBatchLength() {
+            return batchLength;
+        }
+
+        @Override
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+    }
+}
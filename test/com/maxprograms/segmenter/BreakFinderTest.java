@@ -0,0 +1,259 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.segmenter;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.xml.sax.SAXException;
+
+import com.maxprograms.xml.Catalog;
+import com.maxprograms.xml.Document;
+import com.maxprograms.xml.Element;
+import com.maxprograms.xml.SAXBuilder;
+
+/**
+ * Compares BreakFinder with the position by position scan that Segmenter used
+ * before rules were compiled, using the rules of srx/default.srx. Texts come
+ * from the bundled TMX files and from a fixed random sample with tags,
+ * surrogate pairs and repeated tag characters, so both the incremental
+ * EndScanner and the splitText fallback are covered.
+ */
+public class BreakFinderTest {
+
+	// the rules of srx/default.srx cascade, these cover the Latin, CJK, Thai and
+	// default sets; pass other language codes as arguments to check them too
+	private static final String[] LANGUAGES = { "en", "ja", "de", "th" };
+	private static final int TAGS = 6;
+	private static final int RANDOM_TEXTS = 400;
+
+	private static Map<String, Pattern> patterns = new HashMap<>();
+
+	private static final String[] PIECES = { "Hello", "world", "Mr", "Dr", "e.g", "i.e", "etc", "No", "U.S.A", "a",
+			"Z", "3", "42", "1.5", ".", ". ", ".  ", "!", "? ", "!?", "...", ";", ":", ",", " ", "  ", "\n", "\t", "\"",
+			"'", ")", "(", "。", "！", "？", "、", "日本語", "中文", "ไทย", "😀", "𠀋" };
+
+	private BreakFinderTest() {
+		// do not instantiate this class
+	}
+
+	public static void main(String[] args)
+			throws SAXException, IOException, ParserConfigurationException, URISyntaxException {
+		Catalog catalog = new Catalog(new File("catalog/catalog.xml").getAbsolutePath());
+		List<String> texts = new ArrayList<>();
+		texts.addAll(getSegments("Languages.tmx", catalog));
+		texts.addAll(getSegments("OpenXLIFF_es.tmx", catalog));
+		Random random = new Random(20230401L);
+		for (int i = 0; i < RANDOM_TEXTS; i++) {
+			texts.add(randomText(random, false));
+			texts.add(randomText(random, true));
+		}
+		Set<String> keys = new HashSet<>();
+		for (int i = 0; i < TAGS; i++) {
+			keys.add("" + (char) ('\uE000' + i));
+		}
+		SAXBuilder builder = new SAXBuilder();
+		Element srx = builder.build("srx/default.srx").getRootElement();
+		String[] languages = args.length > 0 ? args : LANGUAGES;
+		int checked = 0;
+		int failed = 0;
+		for (int i = 0; i < languages.length; i++) {
+			List<Element> rules = getRules(srx, languages[i]);
+			CompiledRules compiled = new CompiledRules(rules);
+			Iterator<String> it = texts.iterator();
+			while (it.hasNext()) {
+				String text = it.next();
+				List<String> expected = reference(rules, keys, text);
+				List<String> actual = new BreakFinder(compiled, keys).split(text);
+				checked++;
+				if (!expected.equals(actual)) {
+					failed++;
+					System.err.println(languages[i] + ": " + escape(text));
+					System.err.println("  expected: " + escape(expected.toString()));
+					System.err.println("  actual:   " + escape(actual.toString()));
+				}
+			}
+		}
+		System.out.println("BreakFinderTest: " + checked + " texts, " + failed + " differences");
+		if (failed > 0) {
+			System.exit(1);
+		}
+	}
+
+	private static List<String> getSegments(String tmx, Catalog catalog)
+			throws SAXException, IOException, ParserConfigurationException {
+		List<String> result = new ArrayList<>();
+		SAXBuilder builder = new SAXBuilder();
+		builder.setEntityResolver(catalog);
+		Document doc = builder.build(tmx);
+		List<Element> tus = doc.getRootElement().getChild("body").getChildren("tu");
+		Iterator<Element> it = tus.iterator();
+		while (it.hasNext()) {
+			List<Element> tuvs = it.next().getChildren("tuv");
+			Iterator<Element> tt = tuvs.iterator();
+			while (tt.hasNext()) {
+				String text = tt.next().getChild("seg").getText();
+				if (!text.isEmpty()) {
+					result.add(text);
+				}
+			}
+		}
+		return result;
+	}
+
+	private static String randomText(Random random, boolean repeatTags) {
+		StringBuilder builder = new StringBuilder();
+		boolean[] used = new boolean[TAGS];
+		int count = 1 + random.nextInt(40);
+		for (int i = 0; i < count; i++) {
+			if (random.nextInt(6) == 0) {
+				int tag = random.nextInt(TAGS);
+				if (repeatTags || !used[tag]) {
+					builder.append((char) ('\uE000' + tag));
+					used[tag] = true;
+				}
+			} else {
+				builder.append(PIECES[random.nextInt(PIECES.length)]);
+			}
+		}
+		return builder.toString();
+	}
+
+	private static List<Element> getRules(Element srx, String language) {
+		boolean cascade = srx.getChild("header").getAttributeValue("cascade").equals("yes");
+		List<String> maps = new ArrayList<>();
+		List<Element> allMaps = srx.getChild("body").getChild("maprules").getChildren("languagemap");
+		Iterator<Element> it = allMaps.iterator();
+		while (it.hasNext()) {
+			Element map = it.next();
+			if (language.matches(map.getAttributeValue("languagepattern"))) {
+				maps.add(map.getAttributeValue("languagerulename"));
+				if (!cascade) {
+					break;
+				}
+			}
+		}
+		List<Element> result = new ArrayList<>();
+		List<Element> languageRules = srx.getChild("body").getChild("languagerules").getChildren("languagerule");
+		it = languageRules.iterator();
+		while (it.hasNext()) {
+			Element languagerule = it.next();
+			if (maps.contains(languagerule.getAttributeValue("languagerulename"))) {
+				result.addAll(languagerule.getChildren("rule"));
+			}
+		}
+		return result;
+	}
+
+	// previous implementation of Segmenter.segment(), kept as reference; only the
+	// compiled patterns are cached to keep the test fast
+
+	private static List<String> reference(List<Element> rules, Set<String> keys, String text) {
+		String pureText = text;
+		List<String> parts = new ArrayList<>();
+		for (int pos = 0; pos < pureText.length(); pos++) {
+			String left = hideTags(keys, pureText.substring(0, pos));
+			String right = hideTags(keys, pureText.substring(pos));
+			if (left.isEmpty()) {
+				continue;
+			}
+			for (int i = 0; i < rules.size(); i++) {
+				Element rule = rules.get(i);
+				boolean breaks = rule.getAttributeValue("break", "yes").equals("yes");
+				Element before = rule.getChild("beforebreak");
+				Element after = rule.getChild("afterbreak");
+				String beforexp = before != null ? before.getText() : "";
+				String afterxp = after != null ? after.getText() : "";
+				boolean matches;
+				if (!beforexp.isEmpty() && !afterxp.isEmpty()) {
+					matches = endsWith(left, beforexp) && startsWith(right, afterxp);
+				} else if (!beforexp.isEmpty()) {
+					matches = endsWith(left, beforexp);
+				} else {
+					matches = startsWith(right, afterxp);
+				}
+				if (matches) {
+					if (breaks) {
+						parts.add(pureText.substring(0, pos));
+						pureText = pureText.substring(pos);
+						pos = 0;
+					}
+					break;
+				}
+			}
+		}
+		parts.add(pureText);
+		return parts;
+	}
+
+	private static String hideTags(Set<String> keys, String string) {
+		String result = string;
+		Iterator<String> it = keys.iterator();
+		while (it.hasNext()) {
+			String key = it.next();
+			int index = result.indexOf(key);
+			if (index != -1) {
+				result = result.substring(0, index) + result.substring(index + 1);
+			}
+		}
+		return result;
+	}
+
+	private static boolean endsWith(String string, String exp) {
+		Pattern p = patterns.computeIfAbsent(exp, Pattern::compile);
+		String[] parts = p.split(string);
+		if (parts.length > 0) {
+			if (!string.endsWith(parts[parts.length - 1])) {
+				String ends = string
+						.substring(string.lastIndexOf(parts[parts.length - 1]) + parts[parts.length - 1].length());
+				Matcher m = p.matcher(ends);
+				return m.lookingAt();
+			}
+			Matcher m = p.matcher(parts[parts.length - 1]);
+			return m.lookingAt();
+		}
+		Matcher m = p.matcher(string);
+		return m.matches();
+	}
+
+	private static boolean startsWith(String string, String exp) {
+		Pattern p = patterns.computeIfAbsent(exp, Pattern::compile);
+		Matcher m = p.matcher(string);
+		return m.lookingAt();
+	}
+
+	private static String escape(String text) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c < ' ' || (c >= '\uE000' && c <= '\uF8FF')) {
+				builder.append(String.format("\\u%04X", (int) c));
+			} else {
+				builder.append(c);
+			}
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,229 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.stats;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.maxprograms.xml.Element;
+
+/**
+ * Compares RepetitionAnalysis.markRepeated() with the nested loops it
+ * replaced. The types assigned to every segment must be the same, since they
+ * decide the repetition columns of the .log.html report.
+ * <p>
+ * Without arguments, checks random multi-file layouts and one list of 10,000
+ * segments. Run with <code>-benchmark [size...]</code> to time both approaches
+ * on larger lists, 10,000, 100,000 and 1,000,000 segments by default; the
+ * nested loops stop after <code>-limit seconds</code> (120 by default) and
+ * report how far they got.
+ */
+public class RepetitionAnalysisTest {
+
+	private static final int LAYOUTS = 2000;
+	private static final int FILES = 10;
+	private static final String[] TYPES = { "new", "new", "new", "new", "exact", "95", "85", "ice" };
+
+	private RepetitionAnalysisTest() {
+		// do not instantiate this class
+	}
+
+	public static void main(String[] args) {
+		boolean benchmark = false;
+		long limit = 120;
+		List<Integer> sizes = new ArrayList<>();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-benchmark")) {
+				benchmark = true;
+			} else if (args[i].equals("-limit") && i + 1 < args.length) {
+				limit = Long.parseLong(args[++i]);
+			} else {
+				sizes.add(Integer.valueOf(args[i]));
+			}
+		}
+		if (sizes.isEmpty()) {
+			sizes.add(10000);
+			if (benchmark) {
+				sizes.add(100000);
+				sizes.add(1000000);
+			}
+		}
+		int failed = 0;
+		if (!benchmark) {
+			failed += checkLayouts();
+		}
+		for (int i = 0; i < sizes.size(); i++) {
+			failed += compare(sizes.get(i), limit * 1000);
+		}
+		if (failed > 0) {
+			System.exit(1);
+		}
+	}
+
+	private static int checkLayouts() {
+		Random random = new Random(20230401L);
+		int failed = 0;
+		for (int i = 0; i < LAYOUTS; i++) {
+			int files = 1 + random.nextInt(5);
+			int texts = 1 + random.nextInt(8);
+			List<List<Element>> layout = new ArrayList<>();
+			for (int f = 0; f < files; f++) {
+				List<Element> file = new ArrayList<>();
+				int count = random.nextInt(30);
+				for (int s = 0; s < count; s++) {
+					file.add(segment("Text " + random.nextInt(texts), TYPES[random.nextInt(TYPES.length)]));
+				}
+				layout.add(file);
+			}
+			List<List<Element>> expected = copy(layout);
+			reference(expected, Long.MAX_VALUE);
+			List<List<Element>> actual = copy(layout);
+			mark(actual);
+			if (!types(expected).equals(types(actual))) {
+				failed++;
+				System.err.println("Layout " + i + ": " + types(layout));
+				System.err.println("  expected: " + types(expected));
+				System.err.println("  actual:   " + types(actual));
+			}
+		}
+		System.out.println("RepetitionAnalysisTest: " + LAYOUTS + " layouts, " + failed + " differences");
+		return failed;
+	}
+
+	private static int compare(int size, long limit) {
+		List<List<Element>> layout = generate(size);
+		List<List<Element>> actual = copy(layout);
+		long start = System.nanoTime();
+		mark(actual);
+		long hashTime = (System.nanoTime() - start) / 1000000;
+
+		List<List<Element>> expected = copy(layout);
+		start = System.nanoTime();
+		int reached = reference(expected, System.currentTimeMillis() + limit);
+		long loopTime = (System.nanoTime() - start) / 1000000;
+		if (reached < size) {
+			System.out.println("RepetitionAnalysisTest: " + size + " segments, hash index " + hashTime
+					+ " ms, nested loops stopped after " + loopTime + " ms at segment " + reached);
+			return 0;
+		}
+		boolean same = types(expected).equals(types(actual));
+		System.out.println("RepetitionAnalysisTest: " + size + " segments, hash index " + hashTime
+				+ " ms, nested loops " + loopTime + " ms, " + (same ? "same" : "different") + " types");
+		return same ? 0 : 1;
+	}
+
+	private static List<List<Element>> generate(int size) {
+		// about one segment in five repeats an earlier text
+		Random random = new Random(size);
+		int texts = Math.max(1, size - size / 5);
+		List<List<Element>> layout = new ArrayList<>();
+		for (int f = 0; f < FILES; f++) {
+			List<Element> file = new ArrayList<>();
+			int count = size / FILES + (f < size % FILES ? 1 : 0);
+			for (int s = 0; s < count; s++) {
+				file.add(segment("Segment number " + random.nextInt(texts) + " of the synthetic file",
+						TYPES[random.nextInt(TYPES.length)]));
+			}
+			layout.add(file);
+		}
+		return layout;
+	}
+
+	private static Element segment(String text, String type) {
+		Element src = new Element("source");
+		src.setAttribute("words", "" + text.split(" ").length);
+		src.setAttribute("untranslatable", "0");
+		src.setAttribute("type", type);
+		src.setAttribute("approved", "no");
+		src.setAttribute("translated", "no");
+		src.setText(text);
+		return src;
+	}
+
+	private static List<List<Element>> copy(List<List<Element>> layout) {
+		List<List<Element>> result = new ArrayList<>();
+		for (int f = 0; f < layout.size(); f++) {
+			List<Element> file = new ArrayList<>();
+			List<Element> original = layout.get(f);
+			for (int s = 0; s < original.size(); s++) {
+				Element e = new Element();
+				e.clone(original.get(s));
+				file.add(e);
+			}
+			result.add(file);
+		}
+		return result;
+	}
+
+	private static List<String> types(List<List<Element>> layout) {
+		List<String> result = new ArrayList<>();
+		for (int f = 0; f < layout.size(); f++) {
+			List<Element> file = layout.get(f);
+			for (int s = 0; s < file.size(); s++) {
+				result.add(file.get(s).getAttributeValue("type"));
+			}
+			result.add("|");
+		}
+		return result;
+	}
+
+	private static void mark(List<List<Element>> layout) {
+		Map<String, Integer> firstSeen = new HashMap<>();
+		for (int i = 0; i < layout.size(); i++) {
+			RepetitionAnalysis.markRepeated(layout.get(i), i, firstSeen);
+		}
+	}
+
+	// previous implementation in RepetitionAnalysis.analyse(), kept as
+	// reference; returns the number of segments visited before the deadline
+
+	private static int reference(List<List<Element>> files, long deadline) {
+		int visited = 0;
+		for (int i = 0; i < files.size(); i++) {
+			List<Element> currFile = files.get(i);
+			for (int j = 0; j < currFile.size(); j++) {
+				if (System.currentTimeMillis() > deadline) {
+					return visited;
+				}
+				visited++;
+				Element src = currFile.get(j);
+				// check segments without matches from TM only
+				if (src.getAttributeValue("type").equals("new")) {
+					String currText = src.toString();
+					// check in current file
+					// start with next segment
+					for (int k = j + 1; k < currFile.size(); k++) {
+						Element other = currFile.get(k);
+						if (currText.equals(other.toString())) {
+							other.setAttribute("type", "rep-int");
+						}
+					}
+					// check in other files
+					// start with following one
+					for (int k = i + 1; k < files.size(); k++) {
+						List<Element> otherFile = files.get(k);
+						for (int m = 0; m < otherFile.size(); m++) {
+							Element other = otherFile.get(m);
+							if (currText.equals(other.toString())) {
+								other.setAttribute("type", "rep-ext");
+							}
+						}
+					}
+				}
+			}
+		}
+		return visited;
+	}
+}
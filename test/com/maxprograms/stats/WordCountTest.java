@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.stats;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.xml.sax.SAXException;
+
+import com.maxprograms.xml.Catalog;
+import com.maxprograms.xml.Document;
+import com.maxprograms.xml.Element;
+import com.maxprograms.xml.SAXBuilder;
+
+/**
+ * Compares RepetitionAnalysis.wordCount() and normalise() with the values
+ * stored in wordcount.golden, produced by the implementation that used
+ * StringTokenizer. Texts are the segments of Languages.tmx and
+ * OpenXLIFF_es.tmx plus a fixed random sample of words, numbers, punctuation
+ * and white space. Counts use the space-delimited rules ("en").
+ * <p>
+ * A fixed list of texts checks the Chinese, Japanese and Thai counters, and a
+ * list of language tags checks how WordCounters picks a counter: full tag,
+ * script subtag, primary language and Suppress-Script.
+ * <p>
+ * Run with <code>-generate file</code> against another build to write a new
+ * golden file.
+ */
+public class WordCountTest {
+
+	private static final String GOLDEN = "test/com/maxprograms/stats/wordcount.golden";
+	private static final int RANDOM_TEXTS = 2000;
+
+	private static final String[] PIECES = { "word", "Word", "x", "3", "42", "1,000", "3.14", "12:30", "A4", "v2",
+			"-", "--", "_", "'", "\"", "(", ")", ".", ",", ";", "!", "?", "/", "\\", "&", "%", "$", "#", "@", " ",
+			"  ", "\t", "\n", "\r\n", "\u00A0", "\u2003", "\u3000", "é", "über", "año", "x-y", "a.b.c", "e.g.",
+			"don't", "Ⅻ", "٣", "１２" };
+
+	// text, language, expected count
+	private static final String[][] CASES = {
+			{ "\uD840\uDC00", "zh", "1" },
+			{ "\uD840\uDC00\uD840\uDC01", "zh", "2" },
+			{ "我们\uD840\uDC00", "zh", "3" },
+			{ "Hello 世界", "zh", "3" },
+			{ "コーヒー", "ja", "4" },
+			{ "ラーメンを食べる", "ja", "8" },
+			{ "東京タワー", "ja-JP", "5" },
+			{ "繁體中文", "zh-Hant-TW", "4" },
+			{ "watashi wa gakusei desu", "ja-Latn", "4" },
+			{ "Tōkyō タワー", "ja-Latn", "2" },
+			{ "Tōkyō タワー", "ja", "4" },
+			{ "สวัสดีครับ", "th", "2" },
+			{ "ภาษาไทยง่ายนิดเดียว", "th", "4" },
+			{ "ภาษาไทย 2023 ok", "th-TH", "4" },
+			{ "한국어 단어 세기", "ko", "3" },
+			{ "한국어 단어 세기", "ko-KR", "3" } };
+
+	// language tag, expected counter
+	private static final Object[][] COUNTERS = { { "zh", WordCounters.CJK }, { "zh-TW", WordCounters.CJK },
+			{ "zh-Hant-TW", WordCounters.CJK }, { "und-Hant", WordCounters.CJK }, { "ja", WordCounters.CJK },
+			{ "ja-Jpan", WordCounters.CJK }, { "ja-Latn", WordCounters.SPACE_DELIMITED },
+			{ "zh-Latn", WordCounters.SPACE_DELIMITED }, { "th", WordCounters.THAI }, { "th-TH", WordCounters.THAI },
+			{ "ko", WordCounters.SPACE_DELIMITED }, { "ko-KR", WordCounters.SPACE_DELIMITED },
+			{ "sr-Cyrl", WordCounters.SPACE_DELIMITED }, { "en", WordCounters.SPACE_DELIMITED } };
+
+	private WordCountTest() {
+		// do not instantiate this class
+	}
+
+	public static void main(String[] args)
+			throws SAXException, IOException, ParserConfigurationException, URISyntaxException {
+		Catalog catalog = new Catalog(new File("catalog/catalog.xml").getAbsolutePath());
+		List<String> texts = new ArrayList<>();
+		texts.addAll(getSegments("Languages.tmx", catalog));
+		texts.addAll(getSegments("OpenXLIFF_es.tmx", catalog));
+		Random random = new Random(20230401L);
+		for (int i = 0; i < RANDOM_TEXTS; i++) {
+			texts.add(randomText(random));
+		}
+		List<String> lines = new ArrayList<>();
+		Iterator<String> it = texts.iterator();
+		while (it.hasNext()) {
+			String text = it.next();
+			lines.add(RepetitionAnalysis.wordCount(text, "en") + "\t" + crc(RepetitionAnalysis.normalise(text, true))
+					+ "\t" + crc(RepetitionAnalysis.normalise(text, false)));
+		}
+		if (args.length == 2 && "-generate".equals(args[0])) {
+			Files.write(new File(args[1]).toPath(), lines, StandardCharsets.UTF_8);
+			System.out.println("WordCountTest: " + lines.size() + " lines written");
+			return;
+		}
+		List<String> golden = Files.readAllLines(new File(GOLDEN).toPath(), StandardCharsets.UTF_8);
+		if (golden.size() != lines.size()) {
+			System.err.println("Expected " + golden.size() + " texts, found " + lines.size());
+			System.exit(1);
+		}
+		int failed = 0;
+		for (int i = 0; i < lines.size(); i++) {
+			if (!golden.get(i).equals(lines.get(i))) {
+				failed++;
+				System.err.println("Text " + i + ": [" + texts.get(i) + "]");
+				System.err.println("  expected: " + golden.get(i));
+				System.err.println("  actual:   " + lines.get(i));
+			}
+		}
+		System.out.println("WordCountTest: " + lines.size() + " texts, " + failed + " differences");
+		int cases = checkCases();
+		System.out.println("WordCountTest: " + (CASES.length + COUNTERS.length) + " language cases, " + cases
+				+ " differences");
+		if (failed + cases > 0) {
+			System.exit(1);
+		}
+	}
+
+	private static int checkCases() {
+		int failed = 0;
+		for (int i = 0; i < CASES.length; i++) {
+			int count = RepetitionAnalysis.wordCount(CASES[i][0], CASES[i][1]);
+			if (count != Integer.parseInt(CASES[i][2])) {
+				failed++;
+				System.err.println(
+						CASES[i][1] + " [" + CASES[i][0] + "]: expected " + CASES[i][2] + ", found " + count);
+			}
+		}
+		for (int i = 0; i < COUNTERS.length; i++) {
+			WordCounter counter = WordCounters.getCounter((String) COUNTERS[i][0]);
+			if (counter != COUNTERS[i][1]) {
+				failed++;
+				System.err.println(COUNTERS[i][0] + ": expected " + COUNTERS[i][1].getClass().getSimpleName()
+						+ ", found " + counter.getClass().getSimpleName());
+			}
+		}
+		return failed;
+	}
+
+	private static List<String> getSegments(String tmx, Catalog catalog)
+			throws SAXException, IOException, ParserConfigurationException {
+		List<String> result = new ArrayList<>();
+		SAXBuilder builder = new SAXBuilder();
+		builder.setEntityResolver(catalog);
+		Document doc = builder.build(tmx);
+		List<Element> tus = doc.getRootElement().getChild("body").getChildren("tu");
+		Iterator<Element> it = tus.iterator();
+		while (it.hasNext()) {
+			List<Element> tuvs = it.next().getChildren("tuv");
+			Iterator<Element> tt = tuvs.iterator();
+			while (tt.hasNext()) {
+				result.add(tt.next().getChild("seg").getText());
+			}
+		}
+		return result;
+	}
+
+	private static String randomText(Random random) {
+		StringBuilder builder = new StringBuilder();
+		int count = random.nextInt(30);
+		for (int i = 0; i < count; i++) {
+			builder.append(PIECES[random.nextInt(PIECES.length)]);
+		}
+		return builder.toString();
+	}
+
+	private static String crc(String text) {
+		CRC32 crc = new CRC32();
+		crc.update(text.getBytes(StandardCharsets.UTF_8));
+		return Long.toHexString(crc.getValue());
+	}
+}